@@ -0,0 +1,17 @@
+-- ========================================
+-- Migración: secuencias de reportes de 50 en 50
+-- ========================================
+--
+-- Las entidades Report, ReportPhoto y ReportComment reservan ids por bloques
+-- (allocationSize = 50). Las bases creadas con una versión anterior de
+-- setup.sql tienen estas secuencias con INCREMENT BY 1 y la aplicación no
+-- aprovecharía los batches JDBC. Ejecutar una vez antes de desplegar:
+--
+--   psql -d ecovive_db -f database/migrations/001_sequences_increment_50.sql
+--
+-- Es idempotente. No reutiliza ids: el siguiente bloque empieza después del
+-- último valor entregado por la secuencia.
+
+ALTER SEQUENCE reports_id_seq INCREMENT BY 50;
+ALTER SEQUENCE report_photos_id_seq INCREMENT BY 50;
+ALTER SEQUENCE report_comments_id_seq INCREMENT BY 50;
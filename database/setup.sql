@@ -73,6 +73,20 @@ CREATE TABLE IF NOT EXISTS reports (
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
 );
 
+-- Contenido de las fotos, deduplicado por SHA-256
+CREATE TABLE IF NOT EXISTS photo_blobs (
+    hash VARCHAR(64) PRIMARY KEY,
+    relative_path VARCHAR(255) NOT NULL,
+    file_size BIGINT NOT NULL,
+    content_type VARCHAR(100) NOT NULL,
+    width INTEGER,
+    height INTEGER,
+    perceptual_hash BIGINT,
+    ref_count INTEGER NOT NULL DEFAULT 0,
+    orphaned_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
 -- Tabla de fotos de reportes
 CREATE TABLE IF NOT EXISTS report_photos (
     id BIGSERIAL PRIMARY KEY,
@@ -83,6 +97,9 @@ CREATE TABLE IF NOT EXISTS report_photos (
     content_type VARCHAR(100),
     width INTEGER,
     height INTEGER,
+    content_hash VARCHAR(64) REFERENCES photo_blobs(hash),
+    thumbnail_url VARCHAR(500),
+    medium_url VARCHAR(500),
     is_primary BOOLEAN DEFAULT false,
     description TEXT,
     report_id BIGINT NOT NULL,
@@ -118,6 +135,44 @@ CREATE TABLE IF NOT EXISTS achievements (
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
 );
 
+-- Tabla de candidatos a duplicado (cola de moderación)
+CREATE TABLE IF NOT EXISTS report_duplicate_candidates (
+    id BIGSERIAL PRIMARY KEY,
+    report_id BIGINT NOT NULL,
+    original_report_id BIGINT NOT NULL,
+    reason VARCHAR(20) NOT NULL,
+    distance_meters DOUBLE PRECISION,
+    hash_distance INTEGER,
+    resolved BOOLEAN DEFAULT false,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (report_id) REFERENCES reports(id) ON DELETE CASCADE,
+    FOREIGN KEY (original_report_id) REFERENCES reports(id) ON DELETE CASCADE
+);
+
+-- Libro de puntos ecológicos (solo inserciones)
+CREATE TABLE IF NOT EXISTS points_ledger (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    points INTEGER NOT NULL,
+    reports_delta INTEGER NOT NULL DEFAULT 0,
+    reason VARCHAR(50) NOT NULL,
+    report_id BIGINT,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    -- Pendiente de aplicar a users; los reintentos fallidos se espacian con retry_at
+    pending BOOLEAN NOT NULL DEFAULT FALSE,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    retry_at TIMESTAMP,
+    failed_at TIMESTAMP,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- Las secuencias avanzan de 50 en 50 para la asignación de ids por bloques
+-- (allocationSize = 50 en las entidades), lo que permite batches JDBC reales.
+-- Las bases ya existentes se actualizan con migrations/001_sequences_increment_50.sql
+ALTER SEQUENCE reports_id_seq INCREMENT BY 50;
+ALTER SEQUENCE report_photos_id_seq INCREMENT BY 50;
+ALTER SEQUENCE report_comments_id_seq INCREMENT BY 50;
+
 -- ========================================
 -- ÍNDICES PARA OPTIMIZACIÓN
 -- ========================================
@@ -134,6 +189,11 @@ CREATE INDEX idx_reports_user_id ON reports(user_id);
 CREATE INDEX idx_reports_category ON reports(category);
 CREATE INDEX idx_reports_status ON reports(status);
 CREATE INDEX idx_reports_created_at ON reports(created_at DESC);
+-- Índices compuestos para paginación por cursor (created_at, id)
+CREATE INDEX idx_reports_created_at_id ON reports(created_at DESC, id DESC);
+CREATE INDEX idx_reports_category_created_at_id ON reports(category, created_at DESC, id DESC);
+CREATE INDEX idx_reports_user_created_at_id ON reports(user_id, created_at DESC, id DESC);
+CREATE INDEX idx_reports_status_created_at_id ON reports(status, created_at DESC, id DESC);
 CREATE INDEX idx_reports_location ON reports USING GIST(ST_Point(longitude, latitude));
 CREATE INDEX idx_reports_public ON reports(public);
 CREATE INDEX idx_reports_verified ON reports(verified);
@@ -142,12 +202,24 @@ CREATE INDEX idx_reports_priority ON reports(priority DESC);
 -- Índices para fotos
 CREATE INDEX idx_report_photos_report_id ON report_photos(report_id);
 CREATE INDEX idx_report_photos_primary ON report_photos(is_primary);
+CREATE INDEX idx_report_photos_content_hash ON report_photos(content_hash);
+
+-- Índice para el recolector de contenido huérfano
+CREATE INDEX idx_photo_blobs_orphaned ON photo_blobs(orphaned_at) WHERE ref_count <= 0;
 
 -- Índices para comentarios
 CREATE INDEX idx_report_comments_report_id ON report_comments(report_id);
 CREATE INDEX idx_report_comments_user_id ON report_comments(user_id);
 CREATE INDEX idx_report_comments_created_at ON report_comments(created_at DESC);
 
+-- Índices para candidatos a duplicado
+CREATE INDEX idx_duplicate_candidates_pending ON report_duplicate_candidates(resolved, id DESC);
+CREATE INDEX idx_duplicate_candidates_report_id ON report_duplicate_candidates(report_id);
+
+-- Índices para el libro de puntos
+CREATE INDEX idx_points_ledger_user_id ON points_ledger(user_id, id DESC);
+CREATE INDEX idx_points_ledger_pending ON points_ledger(id) WHERE pending;
+
 -- Índices para logros
 CREATE INDEX idx_achievements_user_id ON achievements(user_id);
 CREATE INDEX idx_achievements_category ON achievements(category);
@@ -175,6 +247,26 @@ CREATE TRIGGER update_reports_updated_at BEFORE UPDATE ON reports
 CREATE TRIGGER update_report_comments_updated_at BEFORE UPDATE ON report_comments
     FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
 
+-- Función para mantener las referencias a photo_blobs. Al ser un trigger de fila
+-- también cubre los borrados en cascada desde reports y users.
+CREATE OR REPLACE FUNCTION update_photo_blob_ref_count()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'INSERT' AND NEW.content_hash IS NOT NULL THEN
+        UPDATE photo_blobs SET ref_count = ref_count + 1, orphaned_at = NULL
+        WHERE hash = NEW.content_hash;
+    ELSIF TG_OP = 'DELETE' AND OLD.content_hash IS NOT NULL THEN
+        UPDATE photo_blobs SET ref_count = ref_count - 1,
+            orphaned_at = CASE WHEN ref_count <= 1 THEN CURRENT_TIMESTAMP ELSE orphaned_at END
+        WHERE hash = OLD.content_hash;
+    END IF;
+    RETURN NULL;
+END;
+$$ language 'plpgsql';
+
+CREATE TRIGGER report_photos_blob_ref_count AFTER INSERT OR DELETE ON report_photos
+    FOR EACH ROW EXECUTE FUNCTION update_photo_blob_ref_count();
+
 -- ========================================
 -- DATOS INICIALES
 -- ========================================
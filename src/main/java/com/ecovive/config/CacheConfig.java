@@ -0,0 +1,71 @@
+package com.ecovive.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Cachés con nombre sobre el {@link CaffeineCacheManager} de Spring Boot
+ *
+ * Cada caché tiene su propio TTL ({@code app.cache.*}) y tamaño máximo, y
+ * registra estadísticas para que Actuator publique aciertos, fallos y
+ * desalojos ({@code cache.gets}, {@code cache.evictions}) en Prometheus. Las
+ * escrituras las invalidan por eventos (ver
+ * {@link com.ecovive.service.CacheInvalidationListener}); el TTL acota lo que
+ * cambia sin evento, como las ventanas de tiempo de las estadísticas.
+ */
+@Configuration
+public class CacheConfig {
+
+    public static final String USER_PROFILES = "userProfiles";
+    public static final String REPORT_DETAIL = "reportDetail";
+    public static final String REPORT_PAGES = "reportPages";
+    public static final String STATS = "stats";
+
+    @Value("${app.cache.user-profile-ttl:3600}")
+    private long userProfileTtl;
+
+    @Value("${app.cache.user-profile-size:10000}")
+    private long userProfileSize;
+
+    @Value("${app.cache.report-detail-ttl:300}")
+    private long reportDetailTtl;
+
+    @Value("${app.cache.report-detail-size:10000}")
+    private long reportDetailSize;
+
+    @Value("${app.cache.reports-list-ttl:300}")
+    private long reportsListTtl;
+
+    @Value("${app.cache.reports-list-size:500}")
+    private long reportsListSize;
+
+    @Value("${app.cache.stats-ttl:1800}")
+    private long statsTtl;
+
+    @Value("${app.cache.stats-size:200}")
+    private long statsSize;
+
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> namedCachesCustomizer() {
+        return cacheManager -> {
+            cacheManager.registerCustomCache(USER_PROFILES, build(userProfileTtl, userProfileSize));
+            cacheManager.registerCustomCache(REPORT_DETAIL, build(reportDetailTtl, reportDetailSize));
+            cacheManager.registerCustomCache(REPORT_PAGES, build(reportsListTtl, reportsListSize));
+            cacheManager.registerCustomCache(STATS, build(statsTtl, statsSize));
+        };
+    }
+
+    private static com.github.benmanes.caffeine.cache.Cache<Object, Object> build(long ttlSeconds, long maximumSize) {
+        return Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+}
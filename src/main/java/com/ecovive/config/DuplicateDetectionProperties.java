@@ -0,0 +1,149 @@
+package com.ecovive.config;
+
+import com.ecovive.model.ReportCategory;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Configuración del detector de reportes duplicados
+ *
+ * Los umbrales por defecto aplican a todas las categorías salvo las que tengan
+ * una regla propia en {@code app.duplicates.categories}.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.duplicates")
+public class DuplicateDetectionProperties {
+
+    /**
+     * Qué hacer con un reporte nuevo que coincide con otro reciente
+     */
+    public enum Mode {
+        /** Solo registra el candidato para moderación */
+        FLAG,
+        /** Registra el candidato y marca el reporte como DUPLICATE */
+        AUTO_MARK
+    }
+
+    public static class Rule {
+        private double radiusMeters = 100;
+        private int windowHours = 72;
+
+        public double getRadiusMeters() {
+            return radiusMeters;
+        }
+
+        public void setRadiusMeters(double radiusMeters) {
+            this.radiusMeters = radiusMeters;
+        }
+
+        public int getWindowHours() {
+            return windowHours;
+        }
+
+        public void setWindowHours(int windowHours) {
+            this.windowHours = windowHours;
+        }
+    }
+
+    /**
+     * Comparación de fotos por hash perceptual dentro del mismo radio y ventana
+     */
+    public static class PhotoSimilarity {
+        private boolean enabled = true;
+        private int maxDistance = 8;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxDistance() {
+            return maxDistance;
+        }
+
+        public void setMaxDistance(int maxDistance) {
+            this.maxDistance = maxDistance;
+        }
+    }
+
+    private boolean enabled = true;
+
+    private Mode mode = Mode.FLAG;
+
+    private int maxCandidates = 5;
+
+    private Rule defaults = new Rule();
+
+    private Map<ReportCategory, Rule> categories = new EnumMap<>(ReportCategory.class);
+
+    private PhotoSimilarity photoSimilarity = new PhotoSimilarity();
+
+    public Rule ruleFor(ReportCategory category) {
+        return categories.getOrDefault(category, defaults);
+    }
+
+    /**
+     * Ventana más larga entre todas las reglas (define cuánto historial se carga al arrancar)
+     */
+    public int maxWindowHours() {
+        int max = defaults.getWindowHours();
+        for (Rule rule : categories.values()) {
+            max = Math.max(max, rule.getWindowHours());
+        }
+        return max;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public int getMaxCandidates() {
+        return maxCandidates;
+    }
+
+    public void setMaxCandidates(int maxCandidates) {
+        this.maxCandidates = maxCandidates;
+    }
+
+    public Rule getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Rule defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<ReportCategory, Rule> getCategories() {
+        return categories;
+    }
+
+    public void setCategories(Map<ReportCategory, Rule> categories) {
+        this.categories = categories;
+    }
+
+    public PhotoSimilarity getPhotoSimilarity() {
+        return photoSimilarity;
+    }
+
+    public void setPhotoSimilarity(PhotoSimilarity photoSimilarity) {
+        this.photoSimilarity = photoSimilarity;
+    }
+}
@@ -0,0 +1,56 @@
+package com.ecovive.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuración del almacenamiento de archivos subidos
+ *
+ * Con {@code file.storage.type: local} las fotos se guardan bajo
+ * {@code upload-dir} y se publican bajo {@code base-url}.
+ */
+@Component
+@ConfigurationProperties(prefix = "file.storage")
+public class FileStorageProperties {
+
+    public static class Local {
+        private String uploadDir = "./uploads";
+        private String baseUrl = "http://localhost:8080/api/files";
+
+        public String getUploadDir() {
+            return uploadDir;
+        }
+
+        public void setUploadDir(String uploadDir) {
+            this.uploadDir = uploadDir;
+        }
+
+        public String getBaseUrl() {
+            return baseUrl;
+        }
+
+        public void setBaseUrl(String baseUrl) {
+            this.baseUrl = baseUrl;
+        }
+    }
+
+    private String type = "local";
+
+    private Local local = new Local();
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Local getLocal() {
+        return local;
+    }
+
+    public void setLocal(Local local) {
+        this.local = local;
+    }
+}
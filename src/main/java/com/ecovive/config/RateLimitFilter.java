@@ -0,0 +1,156 @@
+package com.ecovive.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Límite de peticiones por cliente sobre {@code /api/}
+ *
+ * Implementa el token bucket como GCRA (generic cell rate algorithm): el
+ * estado de cada bucket es un único instante, el "tiempo teórico de llegada",
+ * guardado en un {@link AtomicLong} y actualizado con compare-and-set, así que
+ * no hay locks ni contención entre clientes distintos. Una petición se acepta
+ * si ese instante no supera a ahora en más de la tolerancia de ráfaga.
+ *
+ * El cliente es el usuario autenticado si lo hay o, si no, la IP remota (detrás
+ * de un proxy hace falta {@code server.forward-headers-strategy}). Los buckets
+ * que ya se llenaron de nuevo se descartan periódicamente: equivalen a uno nuevo.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String API_PREFIX = "/api/";
+
+    @Autowired
+    private RateLimitProperties properties;
+
+    /**
+     * Límite compilado: intervalo entre peticiones y tolerancia de ráfaga en nanosegundos
+     */
+    record Limit(int index, PathPattern pattern, Set<String> methods,
+                         long emissionIntervalNanos, long burstToleranceNanos) {
+
+        static Limit of(int index, PathPattern pattern, Set<String> methods, int requestsPerMinute, int burst) {
+            long interval = TimeUnit.MINUTES.toNanos(1) / Math.max(1, requestsPerMinute);
+            return new Limit(index, pattern, methods, interval, interval * (Math.max(1, burst) - 1));
+        }
+
+        boolean matches(String method, PathContainer path) {
+            return (methods.isEmpty() || methods.contains(method)) && pattern.matches(path);
+        }
+    }
+
+    private record BucketKey(int limit, String client) {
+    }
+
+    private final ConcurrentHashMap<BucketKey, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    private List<Limit> rules;
+    private Limit defaultLimit;
+
+    @PostConstruct
+    void init() {
+        PathPatternParser parser = PathPatternParser.defaultInstance;
+        rules = new ArrayList<>();
+        for (RateLimitProperties.Rule rule : properties.getRules()) {
+            Set<String> methods = rule.getMethods().stream()
+                    .map(method -> method.trim().toUpperCase(Locale.ROOT))
+                    .collect(Collectors.toUnmodifiableSet());
+            rules.add(Limit.of(rules.size(), parser.parse(rule.getPath()), methods,
+                    rule.getRequestsPerMinute(), rule.getBurstCapacity()));
+        }
+        defaultLimit = Limit.of(rules.size(), parser.parse("/**"), Set.of(),
+                properties.getRequestsPerMinute(), properties.getBurstCapacity());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || !request.getRequestURI().startsWith(API_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Limit limit = limitFor(request);
+        long waitNanos = acquire(buckets.computeIfAbsent(new BucketKey(limit.index(), clientOf(request)),
+                key -> new AtomicLong()), limit, System.nanoTime());
+        if (waitNanos > 0) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER,
+                    String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L))));
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * Intenta consumir un token
+     *
+     * @return 0 si se aceptó, o los nanosegundos que faltan para que haya uno disponible
+     */
+    static long acquire(AtomicLong bucket, Limit limit, long now) {
+        while (true) {
+            long stored = bucket.get();
+            // Un bucket nuevo (0) o inactivo equivale a estar lleno
+            long tat = stored == 0 || stored - now < 0 ? now : stored;
+            long wait = tat - now - limit.burstToleranceNanos();
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(stored, tat + limit.emissionIntervalNanos())) {
+                return 0;
+            }
+        }
+    }
+
+    private Limit limitFor(HttpServletRequest request) {
+        if (rules.isEmpty()) {
+            return defaultLimit;
+        }
+        PathContainer path = PathContainer.parsePath(request.getRequestURI());
+        String method = request.getMethod();
+        for (Limit rule : rules) {
+            if (rule.matches(method, path)) {
+                return rule;
+            }
+        }
+        return defaultLimit;
+    }
+
+    private static String clientOf(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        return principal != null ? "user:" + principal.getName() : request.getRemoteAddr();
+    }
+
+    /**
+     * Descarta los buckets que volvieron a estar llenos
+     */
+    @Scheduled(fixedDelayString = "${app.rate-limit.eviction-interval-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.get() - now < 0);
+    }
+}
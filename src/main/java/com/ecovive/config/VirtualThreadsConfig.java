@@ -0,0 +1,57 @@
+package com.ecovive.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Modo de ejecución con hilos virtuales ({@code spring.threads.virtual.enabled: true})
+ *
+ * Spring Boot ya ejecuta en hilos virtuales las peticiones de Tomcat, las
+ * tareas {@code @Async} y las {@code @Scheduled} cuando la propiedad está
+ * activa y la JVM es Java 21 o superior. Aquí solo se protege el acceso a la
+ * base de datos: el DataSource se envuelve en un {@link ConnectionPermitDataSource}
+ * con tantos permisos como conexiones tiene el pool de Hikari.
+ *
+ * En Java 17 el modo no tiene efecto: Boot sigue usando hilos de plataforma, el
+ * DataSource no se envuelve (el pool de Hikari ya limita esos hilos) y solo se
+ * registra una advertencia al arrancar.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadsConfig.class);
+
+    VirtualThreadsConfig() {
+        if (!JavaVersion.getJavaVersion().isEqualOrNewerThan(JavaVersion.TWENTY_ONE)) {
+            log.warn("spring.threads.virtual.enabled requiere Java 21; se siguen usando hilos de plataforma");
+        }
+    }
+
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public static BeanPostProcessor connectionPermitPostProcessor(
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int maxConnections,
+            @Value("${spring.datasource.hikari.connection-timeout:30000}") long timeoutMs) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConnectionPermitDataSource)) {
+                    log.info("Conexiones de '{}' limitadas a {} permisos", beanName, maxConnections);
+                    return new ConnectionPermitDataSource(dataSource, maxConnections, timeoutMs);
+                }
+                return bean;
+            }
+        };
+    }
+}
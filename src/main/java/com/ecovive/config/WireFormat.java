@@ -0,0 +1,45 @@
+package com.ecovive.config;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.List;
+
+/**
+ * Negociación del formato de respuesta para clientes móviles
+ *
+ * JSON sigue siendo el formato por defecto. Un cliente que pone
+ * {@code application/cbor} como tipo preferido en {@code Accept} recibe CBOR
+ * (las respuestas individuales las convierte el conversor CBOR de Spring y los
+ * listados usan además la representación columnar compacta).
+ */
+public final class WireFormat {
+
+    private WireFormat() {}
+
+    /**
+     * Si el tipo concreto preferido del encabezado Accept es CBOR
+     */
+    public static boolean prefersCbor(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return false;
+        }
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+        MimeTypeUtils.sortBySpecificity(mediaTypes);
+        for (MediaType mediaType : mediaTypes) {
+            if (mediaType.getQualityValue() == 0.0) {
+                continue;
+            }
+            if (!mediaType.isWildcardType() && !mediaType.isWildcardSubtype()) {
+                return MediaType.APPLICATION_CBOR.isCompatibleWith(mediaType);
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,207 @@
+package com.ecovive.controller;
+
+import com.ecovive.service.PhotoStorageService;
+import com.ecovive.service.PhotoUploadService;
+import com.ecovive.util.ImageHeaders;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+
+/**
+ * Descarga de archivos del almacenamiento local (fotos y sus variantes)
+ *
+ * El cuerpo nunca pasa por el heap: si el conector de Tomcat admite sendfile,
+ * se le entrega la ruta y el rango y él envía el archivo con
+ * {@code FileChannel.transferTo}; si no (por ejemplo con TLS), se copia con
+ * {@code transferTo} directamente sobre el stream de salida.
+ *
+ * Soporta un único rango por petición ({@code Range}/{@code If-Range}) y
+ * validación con ETag fuerte calculado a partir del contenido.
+ *
+ * Solo se publican los contenidos de {@code blobs/} y sus variantes; el resto
+ * del almacenamiento (subidas en curso de {@code .incoming}, temporales
+ * {@code .part} de las variantes) responde 404.
+ */
+@RestController
+@RequestMapping("/api/files")
+@CrossOrigin(origins = "*")
+public class FileController {
+
+    // Atributos de petición con los que Tomcat activa sendfile
+    private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    // El contenido direccionado por hash y sus variantes no cambian nunca
+    private static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    @Autowired
+    private PhotoStorageService storageService;
+
+    @GetMapping("/**")
+    public void getFile(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        // El mapping deja la ruta completa; lo que cubre el ** es la ruta dentro del almacenamiento
+        String relativePath = PATH_MATCHER.extractPathWithinPattern(
+                (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE),
+                (String) request.getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE));
+        if (!isPublished(relativePath)) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        Path path;
+        BasicFileAttributes attributes;
+        try {
+            path = storageService.resolve(relativePath);
+            if (!path.startsWith(storageService.resolve(PhotoStorageService.BLOB_DIRECTORY))) {
+                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IllegalArgumentException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        } catch (NoSuchFileException e) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        if (!attributes.isRegularFile()) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        long length = attributes.size();
+        String etag = "\"" + storageService.contentTag(path, attributes) + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE_CACHE_CONTROL);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        response.setContentType(contentType(relativePath));
+        response.setHeader("X-Content-Type-Options", "nosniff");
+
+        long start = 0;
+        long end = length - 1;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (rangeHeader != null && (ifRange == null || ifRange.equals(etag))) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+            } catch (IllegalArgumentException e) {
+                ranges = List.of();
+            }
+            // Con varios rangos se responde el archivo completo, como permite RFC 9110
+            if (ranges.size() == 1) {
+                try {
+                    start = ranges.get(0).getRangeStart(length);
+                    end = ranges.get(0).getRangeEnd(length);
+                } catch (IllegalArgumentException e) {
+                    start = length;
+                }
+                // HttpRange no rechaza un inicio que cae después del final del archivo
+                if (start >= length || start > end) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod()) || count <= 0) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))) {
+            request.setAttribute(SENDFILE_FILENAME_ATTR, path.toString());
+            request.setAttribute(SENDFILE_START_ATTR, start);
+            // Tomcat espera el fin exclusivo
+            request.setAttribute(SENDFILE_END_ATTR, end + 1);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    // Un original <hash>.<ext> de blobs/ o una de sus variantes
+    private static boolean isPublished(String relativePath) {
+        if (relativePath == null || !relativePath.startsWith(PhotoStorageService.BLOB_DIRECTORY + "/")) {
+            return false;
+        }
+        String filename = relativePath.substring(relativePath.lastIndexOf('/') + 1);
+        String hash;
+        if (filename.endsWith(PhotoUploadService.THUMBNAIL_SUFFIX)) {
+            hash = filename.substring(0, filename.length() - PhotoUploadService.THUMBNAIL_SUFFIX.length());
+        } else if (filename.endsWith(PhotoUploadService.MEDIUM_SUFFIX)) {
+            hash = filename.substring(0, filename.length() - PhotoUploadService.MEDIUM_SUFFIX.length());
+        } else {
+            int dot = filename.lastIndexOf('.');
+            if (dot < 0 || ImageHeaders.Format.fromExtension(filename.substring(dot + 1)) == null) {
+                return false;
+            }
+            hash = filename.substring(0, dot);
+        }
+        return PhotoStorageService.isContentHash(hash);
+    }
+
+    private static String contentType(String relativePath) {
+        int dot = relativePath.lastIndexOf('.');
+        ImageHeaders.Format format = dot >= 0 ? ImageHeaders.Format.fromExtension(relativePath.substring(dot + 1)) : null;
+        return format != null ? format.getContentType() : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
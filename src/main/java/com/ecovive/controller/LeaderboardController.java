@@ -0,0 +1,86 @@
+package com.ecovive.controller;
+
+import com.ecovive.dto.LeaderboardEntry;
+import com.ecovive.service.LeaderboardService;
+import com.ecovive.service.LeaderboardService.Metric;
+import com.ecovive.service.LeaderboardService.Scope;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controlador REST de rankings
+ *
+ * El segmento se elige con {@code location} o {@code level}; sin ninguno se usa
+ * el ranking global.
+ */
+@RestController
+@RequestMapping("/api/v1/leaderboard")
+@CrossOrigin(origins = "*")
+public class LeaderboardController {
+
+    private static final int MAX_LIMIT = 100;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @GetMapping
+    public ResponseEntity<List<LeaderboardEntry>> getTop(@RequestParam(defaultValue = "points") String metric,
+                                                         @RequestParam(required = false) String location,
+                                                         @RequestParam(required = false) String level,
+                                                         @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(leaderboardService.top(parseMetric(metric), parseScope(location, level),
+                    Math.max(1, Math.min(limit, MAX_LIMIT))));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/users/{userId}")
+    public ResponseEntity<LeaderboardEntry> getRank(@PathVariable Long userId,
+                                                    @RequestParam(defaultValue = "points") String metric,
+                                                    @RequestParam(required = false) String location,
+                                                    @RequestParam(required = false) String level) {
+        try {
+            return leaderboardService.rankOf(userId, parseMetric(metric), parseScope(location, level))
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/users/{userId}/around")
+    public ResponseEntity<List<LeaderboardEntry>> getAround(@PathVariable Long userId,
+                                                            @RequestParam(defaultValue = "points") String metric,
+                                                            @RequestParam(required = false) String location,
+                                                            @RequestParam(required = false) String level,
+                                                            @RequestParam(defaultValue = "5") int radius) {
+        try {
+            return ResponseEntity.ok(leaderboardService.around(userId, parseMetric(metric),
+                    parseScope(location, level), Math.max(0, Math.min(radius, MAX_LIMIT / 2))));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    private Metric parseMetric(String metric) {
+        return Metric.valueOf(metric.toUpperCase());
+    }
+
+    private Scope parseScope(String location, String level) {
+        if (location != null && level != null) {
+            throw new IllegalArgumentException("Usa location o level, no ambos");
+        }
+        if (location != null) {
+            return Scope.location(location);
+        }
+        if (level != null) {
+            return Scope.level(level);
+        }
+        return Scope.GLOBAL;
+    }
+}
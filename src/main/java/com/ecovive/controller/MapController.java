@@ -0,0 +1,31 @@
+package com.ecovive.controller;
+
+import com.ecovive.dto.MapTile;
+import com.ecovive.service.ReportTileService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controlador REST del mapa de reportes
+ */
+@RestController
+@RequestMapping("/api/v1/map")
+@CrossOrigin(origins = "*")
+public class MapController {
+
+    @Autowired
+    private ReportTileService tileService;
+
+    /**
+     * Marcadores agrupados de un tile z/x/y (esquema XYZ de Web Mercator)
+     */
+    @GetMapping("/tiles/{z}/{x}/{y}")
+    public ResponseEntity<MapTile> getTile(@PathVariable int z, @PathVariable int x, @PathVariable int y) {
+        try {
+            return ResponseEntity.ok(tileService.getTile(z, x, y));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
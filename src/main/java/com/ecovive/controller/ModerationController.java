@@ -0,0 +1,44 @@
+package com.ecovive.controller;
+
+import com.ecovive.dto.DuplicateCandidateView;
+import com.ecovive.model.DuplicateCandidate;
+import com.ecovive.repository.DuplicateCandidateRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controlador REST para la cola de moderación
+ */
+@RestController
+@RequestMapping("/api/v1/moderation")
+@CrossOrigin(origins = "*")
+public class ModerationController {
+
+    @Autowired
+    private DuplicateCandidateRepository duplicateCandidateRepository;
+
+    @GetMapping("/duplicates")
+    public ResponseEntity<List<DuplicateCandidateView>> getPendingDuplicates(
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(defaultValue = "50") int size) {
+        PageRequest window = PageRequest.of(0, Math.max(1, Math.min(size, 200)));
+        List<DuplicateCandidate> candidates = beforeId == null
+                ? duplicateCandidateRepository.findPending(window)
+                : duplicateCandidateRepository.findPendingBefore(beforeId, window);
+        return ResponseEntity.ok(candidates.stream().map(DuplicateCandidateView::of).toList());
+    }
+
+    @PostMapping("/duplicates/{id}/resolve")
+    public ResponseEntity<DuplicateCandidateView> resolveDuplicate(@PathVariable Long id) {
+        return duplicateCandidateRepository.findById(id)
+                .map(candidate -> {
+                    candidate.setResolved(true);
+                    return ResponseEntity.ok(DuplicateCandidateView.of(duplicateCandidateRepository.save(candidate)));
+                })
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,383 @@
+package com.ecovive.controller;
+
+import com.ecovive.config.WireFormat;
+import com.ecovive.dto.AttachPhotoRequest;
+import com.ecovive.dto.BulkIngestResult;
+import com.ecovive.dto.CompactReportPage;
+import com.ecovive.dto.CursorPage;
+import com.ecovive.dto.NearbyReport;
+import com.ecovive.dto.PhotoView;
+import com.ecovive.dto.ReportRequest;
+import com.ecovive.dto.ReportSearchHit;
+import com.ecovive.dto.ReportSummary;
+import com.ecovive.dto.ReportView;
+import com.ecovive.dto.SearchResultPage;
+import com.ecovive.model.ReportCategory;
+import com.ecovive.model.ReportStatus;
+import com.ecovive.service.PhotoUploadService;
+import com.ecovive.service.ReportCollectionVersions;
+import com.ecovive.service.ReportBulkIngestionService;
+import com.ecovive.service.ReportExportService;
+import com.ecovive.service.ReportQueryService;
+import com.ecovive.service.ReportQuotaTracker;
+import com.ecovive.service.ReportSearchIndex;
+import com.ecovive.service.ReportService;
+import com.ecovive.service.ReportSpatialIndex;
+import com.ecovive.service.ReportStreamBroadcaster;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Controlador REST de reportes ambientales
+ */
+@RestController
+@RequestMapping("/api/v1")
+@CrossOrigin(origins = "*")
+public class ReportController {
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ReportSpatialIndex spatialIndex;
+
+    @Autowired
+    private ReportSearchIndex searchIndex;
+
+    @Autowired
+    private ReportBulkIngestionService bulkIngestionService;
+
+    @Autowired
+    private ReportExportService exportService;
+
+    @Autowired
+    private ReportQueryService queryService;
+
+    @Autowired
+    private PhotoUploadService photoUploadService;
+
+    @Autowired
+    private ReportQuotaTracker quotaTracker;
+
+    @Autowired
+    private ReportStreamBroadcaster streamBroadcaster;
+
+    @Autowired
+    private ReportCollectionVersions collectionVersions;
+
+    /**
+     * Crea un reporte; las cabeceras X-Quota-* informan la cuota diaria del usuario
+     */
+    @PostMapping("/reports")
+    public ResponseEntity<ReportSummary> createReport(@Valid @RequestBody ReportRequest request) {
+        try {
+            ReportSummary created = ReportSummary.of(reportService.createReport(request));
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .headers(quotaHeaders(quotaTracker.status(request.getUserId())))
+                    .body(created);
+        } catch (ReportQuotaTracker.QuotaExceededException e) {
+            HttpHeaders headers = quotaHeaders(e.getQuota());
+            headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(e.getQuota().resetSeconds()));
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).headers(headers).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    private static HttpHeaders quotaHeaders(ReportQuotaTracker.Quota quota) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Quota-Limit", String.valueOf(quota.limit()));
+        headers.set("X-Quota-Remaining", String.valueOf(quota.remaining()));
+        headers.set("X-Quota-Reset", String.valueOf(quota.resetSeconds()));
+        return headers;
+    }
+
+    /**
+     * Ingesta masiva: recibe un array JSON de reportes y devuelve los errores por fila
+     */
+    @PostMapping(value = "/reports/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkIngestResult> bulkCreateReports(InputStream body) {
+        try {
+            return ResponseEntity.ok(bulkIngestionService.ingest(body));
+        } catch (IllegalArgumentException | IOException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Exportación completa en streaming (NDJSON o CSV), ordenada por id ascendente.
+     * Para reanudar una exportación cortada se repite la petición con {@code after}
+     * igual al id de la última fila recibida.
+     */
+    @GetMapping("/reports/export")
+    public ResponseEntity<StreamingResponseBody> exportReports(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Double minLat,
+            @RequestParam(required = false) Double minLon,
+            @RequestParam(required = false) Double maxLat,
+            @RequestParam(required = false) Double maxLon,
+            @RequestParam(required = false) Long after) {
+        try {
+            ReportExportService.Format exportFormat = ReportExportService.Format.valueOf(format.toUpperCase());
+            ReportExportService.ExportFilter filter = new ReportExportService.ExportFilter(from, to,
+                    category != null ? ReportCategory.valueOf(category.toUpperCase()) : null,
+                    status != null ? ReportStatus.valueOf(status.toUpperCase()) : null,
+                    minLat, minLon, maxLat, maxLon, after);
+            StreamingResponseBody body = out -> exportService.export(filter, exportFormat, out);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(exportFormat.getContentType() + ";charset=UTF-8"))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"reports." +
+                            exportFormat.name().toLowerCase() + "\"")
+                    .body(body);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Listado de reportes públicos; {@code include=photos,comments} añade los hijos.
+     * Con {@code Accept: application/cbor} responde la página columnar compacta.
+     * Si el {@code If-None-Match} coincide con la versión de la colección responde
+     * 304 sin consultar la base de datos.
+     */
+    @GetMapping("/reports")
+    public ResponseEntity<?> getReports(@RequestParam(required = false) String category,
+                                        @RequestParam(required = false) String status,
+                                        @RequestParam(required = false) String cursor,
+                                        @RequestParam(required = false) Integer size,
+                                        @RequestParam(required = false) String include,
+                                        @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                        String ifNoneMatch) {
+        try {
+            ReportCategory reportCategory = category != null ? ReportCategory.valueOf(category.toUpperCase()) : null;
+            ReportStatus reportStatus = status != null ? ReportStatus.valueOf(status.toUpperCase()) : null;
+            Set<ReportQueryService.Include> includes = ReportQueryService.Include.parse(include);
+            boolean cbor = WireFormat.prefersCbor(accept);
+            // La versión se lee antes de consultar: una escritura concurrente deja el ETag ya viejo
+            ReportCollectionVersions.Stamp stamp = reportCategory != null
+                    ? collectionVersions.category(reportCategory) : collectionVersions.all();
+            String etag = stamp.etag(cbor ? "cbor" : "json");
+            // La misma URL responde CBOR o JSON: las cachés deben distinguir por Accept
+            if (isNotModified(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .varyBy(HttpHeaders.ACCEPT)
+                        .eTag(etag)
+                        .cacheControl(CacheControl.noCache())
+                        .build();
+            }
+            CursorPage<ReportView> page = queryService.getReports(reportCategory, reportStatus, cursor, size, includes);
+            if (cbor) {
+                // Los hijos (fotos, comentarios) solo viajan en el formato JSON completo
+                return ResponseEntity.ok()
+                        .varyBy(HttpHeaders.ACCEPT)
+                        .eTag(etag)
+                        .cacheControl(CacheControl.noCache())
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .body(CompactReportPage.of(page));
+            }
+            return ResponseEntity.ok()
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .body(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Stream SSE de reportes creados y cambios de estado, filtrable por categorías
+     * ({@code category=TRASH,WATER}) y caja; con {@code Last-Event-ID} reanuda desde el historial
+     */
+    @GetMapping(value = "/reports/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamReports(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Double minLat,
+            @RequestParam(required = false) Double minLon,
+            @RequestParam(required = false) Double maxLat,
+            @RequestParam(required = false) Double maxLon,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        try {
+            EnumSet<ReportCategory> categories = null;
+            if (category != null && !category.isBlank()) {
+                categories = EnumSet.noneOf(ReportCategory.class);
+                for (String name : category.split(",")) {
+                    categories.add(ReportCategory.valueOf(name.trim().toUpperCase()));
+                }
+            }
+            ReportStreamBroadcaster.Filter filter = new ReportStreamBroadcaster.Filter(
+                    categories, minLat, minLon, maxLat, maxLon);
+            Long resumeFrom = lastEventId != null && !lastEventId.isBlank() ? Long.valueOf(lastEventId.trim()) : null;
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CACHE_CONTROL, "no-store")
+                    .header("X-Accel-Buffering", "no")
+                    .body(streamBroadcaster.subscribe(filter, resumeFrom));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/reports/{id}")
+    public ResponseEntity<ReportView> getReportById(@PathVariable Long id,
+                                                    @RequestParam(required = false) String include) {
+        try {
+            return queryService.getReport(id, ReportQueryService.Include.parse(include))
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Sube fotos a un reporte (campo multipart {@code files}); las miniaturas
+     * aparecen en las vistas cuando termina su generación en segundo plano
+     */
+    @PostMapping(value = "/reports/{id}/photos", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<List<PhotoView>> uploadPhotos(@PathVariable Long id,
+                                                        @RequestParam("files") List<MultipartFile> files) {
+        try {
+            return photoUploadService.upload(id, files)
+                    .map(views -> ResponseEntity.status(HttpStatus.CREATED).body(views))
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IOException e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Agrega una foto cuyo contenido ya existe en el servidor, sin volver a subirlo.
+     * Responde 404 si el reporte o el contenido no existen; en el segundo caso el
+     * cliente debe subir el archivo.
+     */
+    @PostMapping("/reports/{id}/photos/by-hash")
+    public ResponseEntity<PhotoView> attachPhoto(@PathVariable Long id,
+                                                 @Valid @RequestBody AttachPhotoRequest request) {
+        try {
+            return photoUploadService.attach(id, request.sha256(), request.originalFilename())
+                    .map(view -> ResponseEntity.status(HttpStatus.CREATED).body(view))
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PutMapping("/reports/{id}")
+    public ResponseEntity<ReportSummary> updateReport(@PathVariable Long id,
+                                                      @Valid @RequestBody ReportRequest request) {
+        return reportService.updateReport(id, request)
+                .map(report -> ResponseEntity.ok(ReportSummary.of(report)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PatchMapping("/reports/{id}/status")
+    public ResponseEntity<ReportSummary> updateStatus(@PathVariable Long id, @RequestParam String status) {
+        try {
+            ReportStatus newStatus = ReportStatus.valueOf(status.toUpperCase());
+            return reportService.updateStatus(id, newStatus)
+                    .map(report -> ResponseEntity.ok(ReportSummary.of(report)))
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @DeleteMapping("/reports/{id}")
+    public ResponseEntity<Void> deleteReport(@PathVariable Long id) {
+        if (!reportService.deleteReport(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/reports/near")
+    public ResponseEntity<List<NearbyReport>> getReportsNear(@RequestParam double latitude,
+                                                             @RequestParam double longitude,
+                                                             @RequestParam(defaultValue = "1000") double radius,
+                                                             @RequestParam(defaultValue = "100") int limit) {
+        try {
+            List<NearbyReport> reports = reportService.findReportsNearLocation(latitude, longitude, radius,
+                    Math.max(1, Math.min(limit, 500)));
+            return ResponseEntity.ok(reports);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/reports/search")
+    public ResponseEntity<SearchResultPage<ReportSearchHit>> searchReports(@RequestParam String q,
+                                                                           @RequestParam(defaultValue = "0") int page,
+                                                                           @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(reportService.searchReports(q, page, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/admin/search-index/rebuild")
+    public ResponseEntity<Void> rebuildSearchIndex() {
+        searchIndex.rebuild();
+        return ResponseEntity.accepted().build();
+    }
+
+    @GetMapping("/admin/geo-index/consistency")
+    public ResponseEntity<ReportSpatialIndex.ConsistencyReport> checkGeoIndex() {
+        return ResponseEntity.ok(spatialIndex.checkConsistency());
+    }
+
+    @PostMapping("/admin/geo-index/rebuild")
+    public ResponseEntity<Void> rebuildGeoIndex() {
+        spatialIndex.rebuild();
+        return ResponseEntity.accepted().build();
+    }
+
+    // Comparación débil, como corresponde a If-None-Match
+    private static boolean isNotModified(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaque = etag.substring(2);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,81 @@
+package com.ecovive.controller;
+
+import com.ecovive.dto.Hotspot;
+import com.ecovive.dto.TimeSeries;
+import com.ecovive.service.ReportHotspotTracker;
+import com.ecovive.service.ReportRollupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Controlador REST de estadísticas para los paneles de control
+ */
+@RestController
+@RequestMapping("/api/v1")
+@CrossOrigin(origins = "*")
+public class StatsController {
+
+    private static final int MAX_HOTSPOTS = 50;
+
+    @Autowired
+    private ReportRollupService rollupService;
+
+    @Autowired
+    private ReportHotspotTracker hotspotTracker;
+
+    /**
+     * Serie temporal de reportes servida desde los rollups en memoria
+     */
+    @GetMapping("/stats/timeseries")
+    public ResponseEntity<TimeSeries> getTimeSeries(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "day") String granularity) {
+        try {
+            ReportRollupService.Granularity step = ReportRollupService.Granularity.valueOf(granularity.toUpperCase());
+            return ResponseEntity.ok(rollupService.series(from, to, step));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Zonas con más reportes en las últimas 24 h, 7 días o 30 días
+     */
+    @GetMapping("/stats/hotspots")
+    public ResponseEntity<List<Hotspot>> getHotspots(@RequestParam(defaultValue = "7d") String window,
+                                                     @RequestParam(defaultValue = "10") int limit) {
+        try {
+            if (limit < 1 || limit > MAX_HOTSPOTS) {
+                return ResponseEntity.badRequest().build();
+            }
+            return ResponseEntity.ok(hotspotTracker.top(ReportHotspotTracker.Window.fromLabel(window), limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Compara el top aproximado con una pasada exacta sobre la base de datos
+     *
+     * Recorre 30 días de reportes, por eso es una operación de administración.
+     */
+    @GetMapping("/admin/stats/hotspots/consistency")
+    public ResponseEntity<ReportHotspotTracker.ConsistencyReport> checkHotspots(
+            @RequestParam(defaultValue = "7d") String window,
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            if (limit < 1 || limit > MAX_HOTSPOTS) {
+                return ResponseEntity.badRequest().build();
+            }
+            return ResponseEntity.ok(hotspotTracker.checkConsistency(ReportHotspotTracker.Window.fromLabel(window), limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.ecovive.controller;
+
+import com.ecovive.dto.SearchResultPage;
+import com.ecovive.dto.UserProfile;
+import com.ecovive.dto.UserSearchHit;
+import com.ecovive.service.UserProfileService;
+import com.ecovive.service.UserSearchIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controlador REST de usuarios
+ *
+ * La búsqueda recorre nombres y correos de todos los usuarios, por eso vive
+ * bajo /admin junto a las demás operaciones de administración.
+ */
+@RestController
+@RequestMapping("/api/v1")
+@CrossOrigin(origins = "*")
+public class UserController {
+
+    @Autowired
+    private UserSearchIndex userSearchIndex;
+
+    @Autowired
+    private UserProfileService userProfileService;
+
+    @GetMapping("/admin/users/search")
+    public ResponseEntity<SearchResultPage<UserSearchHit>> searchUsers(@RequestParam String q,
+                                                                       @RequestParam(defaultValue = "0") int page,
+                                                                       @RequestParam(defaultValue = "10") int size) {
+        try {
+            return ResponseEntity.ok(userSearchIndex.search(q, page, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/users/{id}")
+    public ResponseEntity<UserProfile> getProfile(@PathVariable Long id) {
+        return userProfileService.getProfile(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
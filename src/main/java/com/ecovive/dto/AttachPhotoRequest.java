@@ -0,0 +1,10 @@
+package com.ecovive.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+/**
+ * Petición para agregar a un reporte una foto ya almacenada, por el SHA-256 de su contenido
+ */
+public record AttachPhotoRequest(@NotBlank String sha256,
+                                 String originalFilename) {
+}
@@ -0,0 +1,14 @@
+package com.ecovive.dto;
+
+import java.util.List;
+
+/**
+ * Resultado de una ingesta masiva con los errores por fila
+ *
+ * Las filas se numeran desde 0 según su posición en el array recibido.
+ */
+public record BulkIngestResult(int received, int created, List<RowError> errors, boolean truncated) {
+
+    public record RowError(int index, String field, String message) {
+    }
+}
@@ -0,0 +1,161 @@
+package com.ecovive.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fila de la ingesta masiva: un reporte con sus fotos y comentarios
+ */
+public class BulkReportRow extends ReportRequest {
+
+    @Valid
+    @Size(max = 10)
+    private List<Photo> photos = new ArrayList<>();
+
+    @Valid
+    @Size(max = 50)
+    private List<Comment> comments = new ArrayList<>();
+
+    /**
+     * Foto ya subida al almacenamiento; solo se registran sus metadatos
+     */
+    public static class Photo {
+
+        @NotBlank
+        @Size(max = 255)
+        private String filename;
+
+        @NotBlank
+        @Size(max = 255)
+        private String originalFilename;
+
+        @NotBlank
+        @Size(max = 500)
+        private String fileUrl;
+
+        private Long fileSize;
+
+        @Size(max = 100)
+        private String contentType;
+
+        private Boolean isPrimary;
+
+        private String description;
+
+        public String getFilename() {
+            return filename;
+        }
+
+        public void setFilename(String filename) {
+            this.filename = filename;
+        }
+
+        public String getOriginalFilename() {
+            return originalFilename;
+        }
+
+        public void setOriginalFilename(String originalFilename) {
+            this.originalFilename = originalFilename;
+        }
+
+        public String getFileUrl() {
+            return fileUrl;
+        }
+
+        public void setFileUrl(String fileUrl) {
+            this.fileUrl = fileUrl;
+        }
+
+        public Long getFileSize() {
+            return fileSize;
+        }
+
+        public void setFileSize(Long fileSize) {
+            this.fileSize = fileSize;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public void setContentType(String contentType) {
+            this.contentType = contentType;
+        }
+
+        public Boolean getIsPrimary() {
+            return isPrimary;
+        }
+
+        public void setIsPrimary(Boolean isPrimary) {
+            this.isPrimary = isPrimary;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public void setDescription(String description) {
+            this.description = description;
+        }
+    }
+
+    /**
+     * Comentario registrado durante la campaña de campo
+     */
+    public static class Comment {
+
+        @NotBlank
+        @Size(min = 1, max = 500)
+        private String content;
+
+        @NotNull
+        private Long userId;
+
+        private Boolean isPublic;
+
+        public String getContent() {
+            return content;
+        }
+
+        public void setContent(String content) {
+            this.content = content;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public void setUserId(Long userId) {
+            this.userId = userId;
+        }
+
+        public Boolean getIsPublic() {
+            return isPublic;
+        }
+
+        public void setIsPublic(Boolean isPublic) {
+            this.isPublic = isPublic;
+        }
+    }
+
+    public List<Photo> getPhotos() {
+        return photos;
+    }
+
+    public void setPhotos(List<Photo> photos) {
+        this.photos = photos != null ? photos : new ArrayList<>();
+    }
+
+    public List<Comment> getComments() {
+        return comments;
+    }
+
+    public void setComments(List<Comment> comments) {
+        this.comments = comments != null ? comments : new ArrayList<>();
+    }
+}
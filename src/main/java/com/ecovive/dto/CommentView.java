@@ -0,0 +1,15 @@
+package com.ecovive.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Comentario público de un reporte tal como se devuelve en las vistas de lectura
+ */
+public record CommentView(Long id,
+                          Long reportId,
+                          String content,
+                          Long userId,
+                          String userName,
+                          Boolean isAdminComment,
+                          LocalDateTime createdAt) {
+}
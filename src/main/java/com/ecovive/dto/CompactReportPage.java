@@ -0,0 +1,102 @@
+package com.ecovive.dto;
+
+import com.ecovive.model.ReportCategory;
+import com.ecovive.model.ReportStatus;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Página de reportes en formato columnar compacto para clientes móviles (CBOR)
+ *
+ * Cada campo es una columna con un valor por reporte, en el mismo orden:
+ * <ul>
+ *   <li>Categoría y estado son índices en {@code categories} y {@code statuses}.</li>
+ *   <li>{@code ids}, {@code createdAt} (segundos epoch UTC) y las coordenadas
+ *       (microgrados) van codificados en delta: el primer valor es absoluto y
+ *       cada uno de los siguientes es la diferencia con el anterior.</li>
+ *   <li>{@code userIds} usa 0 para reportes anónimos.</li>
+ * </ul>
+ */
+public record CompactReportPage(int count,
+                                String nextCursor,
+                                boolean hasMore,
+                                List<String> categories,
+                                List<String> statuses,
+                                long[] ids,
+                                int[] category,
+                                int[] status,
+                                long[] createdAt,
+                                int[] latitudeE6,
+                                int[] longitudeE6,
+                                String[] title,
+                                String[] address,
+                                int[] ecoPoints,
+                                int[] priority,
+                                long[] userIds,
+                                String[] userName) {
+
+    private static final List<String> CATEGORY_DICTIONARY =
+            Arrays.stream(ReportCategory.values()).map(Enum::name).toList();
+    private static final List<String> STATUS_DICTIONARY =
+            Arrays.stream(ReportStatus.values()).map(Enum::name).toList();
+
+    public static CompactReportPage of(CursorPage<ReportView> page) {
+        List<ReportView> items = page.items();
+        int n = items.size();
+        long[] ids = new long[n];
+        int[] category = new int[n];
+        int[] status = new int[n];
+        long[] createdAt = new long[n];
+        int[] latitude = new int[n];
+        int[] longitude = new int[n];
+        String[] title = new String[n];
+        String[] address = new String[n];
+        int[] ecoPoints = new int[n];
+        int[] priority = new int[n];
+        long[] userIds = new long[n];
+        String[] userName = new String[n];
+
+        long previousId = 0;
+        long previousSeconds = 0;
+        int previousLatitude = 0;
+        int previousLongitude = 0;
+        for (int i = 0; i < n; i++) {
+            ReportView view = items.get(i);
+            long seconds = epochSeconds(view.createdAt());
+            int lat = micro(view.latitude());
+            int lon = micro(view.longitude());
+
+            ids[i] = view.id() - previousId;
+            createdAt[i] = seconds - previousSeconds;
+            latitude[i] = lat - previousLatitude;
+            longitude[i] = lon - previousLongitude;
+            previousId = view.id();
+            previousSeconds = seconds;
+            previousLatitude = lat;
+            previousLongitude = lon;
+
+            category[i] = view.category() != null ? view.category().ordinal() : -1;
+            status[i] = view.status() != null ? view.status().ordinal() : -1;
+            title[i] = view.title();
+            address[i] = view.address();
+            ecoPoints[i] = view.ecoPoints() != null ? view.ecoPoints() : 0;
+            priority[i] = view.priority() != null ? view.priority() : 0;
+            userIds[i] = view.userId() != null ? view.userId() : 0;
+            userName[i] = view.userName();
+        }
+        return new CompactReportPage(n, page.nextCursor(), page.hasMore(), CATEGORY_DICTIONARY, STATUS_DICTIONARY,
+                ids, category, status, createdAt, latitude, longitude, title, address, ecoPoints, priority,
+                userIds, userName);
+    }
+
+    private static long epochSeconds(LocalDateTime value) {
+        return value != null ? value.toEpochSecond(ZoneOffset.UTC) : 0;
+    }
+
+    private static int micro(Double degrees) {
+        return degrees != null ? (int) Math.round(degrees * 1_000_000) : 0;
+    }
+}
@@ -0,0 +1,13 @@
+package com.ecovive.dto;
+
+import java.util.List;
+
+/**
+ * Página de resultados con token de continuación para paginación por cursor
+ */
+public record CursorPage<T>(List<T> items, String nextCursor, boolean hasMore) {
+
+    public static <T> CursorPage<T> of(List<T> items, String nextCursor) {
+        return new CursorPage<>(items, nextCursor, nextCursor != null);
+    }
+}
@@ -0,0 +1,28 @@
+package com.ecovive.dto;
+
+import com.ecovive.model.DuplicateCandidate;
+
+import java.time.LocalDateTime;
+
+/**
+ * Candidato a duplicado tal como se muestra en la cola de moderación
+ */
+public record DuplicateCandidateView(Long id,
+                                     Long reportId,
+                                     Long originalReportId,
+                                     DuplicateCandidate.Reason reason,
+                                     Double distanceMeters,
+                                     Integer hashDistance,
+                                     LocalDateTime createdAt) {
+
+    public static DuplicateCandidateView of(DuplicateCandidate candidate) {
+        return new DuplicateCandidateView(
+                candidate.getId(),
+                candidate.getReportId(),
+                candidate.getOriginalReportId(),
+                candidate.getReason(),
+                candidate.getDistanceMeters(),
+                candidate.getHashDistance(),
+                candidate.getCreatedAt());
+    }
+}
@@ -0,0 +1,15 @@
+package com.ecovive.dto;
+
+/**
+ * Zona con más reportes en una ventana de tiempo
+ *
+ * Las coordenadas son el centro de la celda de la grilla; {@code count} es una
+ * cota superior y {@code count - maxError} una cota inferior del número real.
+ */
+public record Hotspot(int rank,
+                      double latitude,
+                      double longitude,
+                      String address,
+                      long count,
+                      long maxError) {
+}
@@ -0,0 +1,12 @@
+package com.ecovive.dto;
+
+/**
+ * Posición de un usuario en un ranking (la posición empieza en 1)
+ */
+public record LeaderboardEntry(int rank,
+                               Long userId,
+                               String name,
+                               String location,
+                               String level,
+                               long score) {
+}
@@ -0,0 +1,9 @@
+package com.ecovive.dto;
+
+import java.util.List;
+
+/**
+ * Tile z/x/y del mapa con los marcadores ya agrupados
+ */
+public record MapTile(int z, int x, int y, int total, List<TileMarker> markers) {
+}
@@ -0,0 +1,15 @@
+package com.ecovive.dto;
+
+import com.ecovive.model.ReportCategory;
+import com.ecovive.model.ReportStatus;
+
+/**
+ * Resultado de una búsqueda por radio servida desde el índice espacial
+ */
+public record NearbyReport(Long id,
+                           ReportCategory category,
+                           ReportStatus status,
+                           double latitude,
+                           double longitude,
+                           double distanceMeters) {
+}
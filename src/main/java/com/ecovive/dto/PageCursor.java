@@ -0,0 +1,45 @@
+package com.ecovive.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+
+/**
+ * Posición opaca dentro de un listado ordenado por (created_at DESC, id DESC)
+ *
+ * El cliente solo ve el token codificado; el formato interno puede cambiar.
+ * Lo comparten los listados de EcoVive y de Recicla Contigo.
+ */
+public record PageCursor(LocalDateTime createdAt, Long id) {
+
+    private static final String VERSION = "v1";
+
+    public String encode() {
+        // Postgres guarda microsegundos: se trunca para que la comparación sea exacta
+        long micros = ChronoUnit.MICROS.between(LocalDateTime.of(1970, 1, 1, 0, 0),
+                createdAt.truncatedTo(ChronoUnit.MICROS));
+        String raw = VERSION + ":" + micros + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException si el token no es un cursor válido
+     */
+    public static PageCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            if (parts.length != 3 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+            long micros = Long.parseLong(parts[1]);
+            LocalDateTime createdAt = LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                    (int) Math.floorMod(micros, 1_000_000L) * 1000, ZoneOffset.UTC);
+            return new PageCursor(createdAt, Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido", e);
+        }
+    }
+}
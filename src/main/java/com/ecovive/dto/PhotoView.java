@@ -0,0 +1,15 @@
+package com.ecovive.dto;
+
+/**
+ * Foto de un reporte tal como se devuelve en las vistas de lectura
+ */
+public record PhotoView(Long id,
+                        Long reportId,
+                        String fileUrl,
+                        String thumbnailUrl,
+                        String mediumUrl,
+                        Integer width,
+                        Integer height,
+                        Boolean isPrimary,
+                        String description) {
+}
@@ -0,0 +1,28 @@
+package com.ecovive.dto;
+
+import com.ecovive.model.ReportCategory;
+import com.ecovive.model.ReportStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Fila de la exportación de reportes para socios municipales
+ *
+ * Se construye directamente desde la consulta (constructor expression), sin
+ * pasar por entidades gestionadas, para que la exportación no acumule estado.
+ */
+public record ReportExportRow(Long id, ReportCategory category, ReportStatus status,
+                              Double latitude, Double longitude, String address,
+                              Integer priority, Boolean verified,
+                              LocalDateTime createdAt, LocalDateTime updatedAt, LocalDateTime resolvedAt) {
+
+    public static final String[] CSV_HEADER = {
+            "id", "category", "status", "latitude", "longitude", "address",
+            "priority", "verified", "created_at", "updated_at", "resolved_at"
+    };
+
+    public Object[] csvValues() {
+        return new Object[]{id, category, status, latitude, longitude, address,
+                priority, verified, createdAt, updatedAt, resolvedAt};
+    }
+}
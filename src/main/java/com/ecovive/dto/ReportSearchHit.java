@@ -0,0 +1,17 @@
+package com.ecovive.dto;
+
+import com.ecovive.model.ReportCategory;
+import com.ecovive.model.ReportStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Resultado del buscador de reportes con su puntaje de relevancia
+ */
+public record ReportSearchHit(Long id,
+                              String title,
+                              ReportCategory category,
+                              ReportStatus status,
+                              LocalDateTime createdAt,
+                              double score) {
+}
@@ -0,0 +1,42 @@
+package com.ecovive.dto;
+
+import com.ecovive.event.ReportSnapshot;
+import com.ecovive.model.ReportCategory;
+import com.ecovive.model.ReportStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+
+/**
+ * Datos de un evento del stream de reportes (creación o cambio de estado)
+ *
+ * No incluye al autor: el snapshot no distingue los reportes anónimos.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ReportStreamEvent(Long id,
+                                ReportCategory category,
+                                ReportStatus status,
+                                ReportStatus previousStatus,
+                                String title,
+                                Double latitude,
+                                Double longitude,
+                                String address,
+                                Integer ecoPoints,
+                                LocalDateTime createdAt,
+                                LocalDateTime updatedAt) {
+
+    public static ReportStreamEvent of(ReportSnapshot previous, ReportSnapshot current) {
+        return new ReportStreamEvent(
+                current.id(),
+                current.category(),
+                current.status(),
+                previous != null ? previous.status() : null,
+                current.title(),
+                current.latitude(),
+                current.longitude(),
+                current.address(),
+                current.ecoPoints(),
+                current.createdAt(),
+                current.updatedAt());
+    }
+}
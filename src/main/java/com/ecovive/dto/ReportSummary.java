@@ -0,0 +1,43 @@
+package com.ecovive.dto;
+
+import com.ecovive.model.Report;
+import com.ecovive.model.ReportCategory;
+import com.ecovive.model.ReportStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Vista resumida de un reporte para respuestas de la API
+ *
+ * Evita serializar la entidad JPA y sus asociaciones lazy.
+ */
+public record ReportSummary(Long id,
+                            ReportCategory category,
+                            ReportStatus status,
+                            String title,
+                            Double latitude,
+                            Double longitude,
+                            String address,
+                            Integer ecoPoints,
+                            Integer priority,
+                            Long userId,
+                            LocalDateTime createdAt,
+                            LocalDateTime updatedAt) {
+
+    public static ReportSummary of(Report report) {
+        Long userId = report.getUser() != null ? report.getUser().getId() : null;
+        return new ReportSummary(
+                report.getId(),
+                report.getCategory(),
+                report.getStatus(),
+                report.getTitle(),
+                report.getLatitude(),
+                report.getLongitude(),
+                report.getAddress(),
+                report.getEcoPoints(),
+                report.getPriority(),
+                Boolean.TRUE.equals(report.getAnonymous()) ? null : userId,
+                report.getCreatedAt(),
+                report.getUpdatedAt());
+    }
+}
@@ -0,0 +1,54 @@
+package com.ecovive.dto;
+
+import com.ecovive.model.ReportCategory;
+import com.ecovive.model.ReportStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Modelo de lectura de un reporte para listados y detalle
+ *
+ * Se construye directamente desde la consulta (constructor expression) con el
+ * autor ya unido, sin cargar la entidad ni sus asociaciones lazy. Las fotos y
+ * comentarios solo se rellenan cuando el cliente los pide; si no, se omiten.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ReportView(Long id,
+                         ReportCategory category,
+                         ReportStatus status,
+                         String title,
+                         String description,
+                         Double latitude,
+                         Double longitude,
+                         String address,
+                         Integer ecoPoints,
+                         Integer priority,
+                         Boolean verified,
+                         Long userId,
+                         String userName,
+                         LocalDateTime createdAt,
+                         LocalDateTime updatedAt,
+                         LocalDateTime resolvedAt,
+                         List<PhotoView> photos,
+                         List<CommentView> comments) {
+
+    /**
+     * Constructor usado por las consultas JPQL; oculta el autor de los reportes anónimos
+     */
+    public ReportView(Long id, ReportCategory category, ReportStatus status, String title, String description,
+                      Double latitude, Double longitude, String address, Integer ecoPoints, Integer priority,
+                      Boolean verified, Boolean anonymous, Long userId, String userName,
+                      LocalDateTime createdAt, LocalDateTime updatedAt, LocalDateTime resolvedAt) {
+        this(id, category, status, title, description, latitude, longitude, address, ecoPoints, priority,
+                verified, Boolean.TRUE.equals(anonymous) ? null : userId,
+                Boolean.TRUE.equals(anonymous) ? null : userName,
+                createdAt, updatedAt, resolvedAt, null, null);
+    }
+
+    public ReportView withChildren(List<PhotoView> photos, List<CommentView> comments) {
+        return new ReportView(id, category, status, title, description, latitude, longitude, address, ecoPoints,
+                priority, verified, userId, userName, createdAt, updatedAt, resolvedAt, photos, comments);
+    }
+}
@@ -0,0 +1,9 @@
+package com.ecovive.dto;
+
+import java.util.List;
+
+/**
+ * Página de resultados de búsqueda con el total de coincidencias
+ */
+public record SearchResultPage<T>(List<T> items, long totalMatches, int page, int size) {
+}
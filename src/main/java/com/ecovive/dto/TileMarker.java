@@ -0,0 +1,19 @@
+package com.ecovive.dto;
+
+import com.ecovive.model.ReportCategory;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Map;
+
+/**
+ * Marcador de un tile: un grupo de reportes en su centroide, o un reporte suelto
+ *
+ * {@code reportId} solo se incluye cuando el grupo tiene un único reporte.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TileMarker(double latitude,
+                         double longitude,
+                         int count,
+                         Map<ReportCategory, Integer> byCategory,
+                         Long reportId) {
+}
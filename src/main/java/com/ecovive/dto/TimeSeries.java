@@ -0,0 +1,14 @@
+package com.ecovive.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Serie temporal de reportes entre dos fechas (ambas incluidas)
+ */
+public record TimeSeries(String granularity,
+                         LocalDate from,
+                         LocalDate to,
+                         List<TimeSeriesPoint> points,
+                         TimeSeriesPoint total) {
+}
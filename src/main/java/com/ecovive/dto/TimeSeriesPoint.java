@@ -0,0 +1,21 @@
+package com.ecovive.dto;
+
+import com.ecovive.model.ReportCategory;
+import com.ecovive.model.ReportStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Conteo de reportes de un intervalo de la serie temporal
+ *
+ * El desglose por distrito solo se incluye en el total del rango.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TimeSeriesPoint(LocalDateTime start,
+                              long total,
+                              Map<ReportCategory, Long> byCategory,
+                              Map<ReportStatus, Long> byStatus,
+                              Map<String, Long> byDistrict) {
+}
@@ -0,0 +1,30 @@
+package com.ecovive.dto;
+
+import com.ecovive.model.User;
+
+/**
+ * Perfil público de un usuario (sin correo, teléfono ni datos de cuenta)
+ */
+public record UserProfile(Long id,
+                          String name,
+                          String location,
+                          String level,
+                          Integer ecoPoints,
+                          Integer reportsCount,
+                          String joinedDate,
+                          String profileImageUrl,
+                          String bio) {
+
+    public static UserProfile of(User user) {
+        return new UserProfile(
+                user.getId(),
+                user.getName(),
+                user.getLocation(),
+                user.getLevel(),
+                user.getEcoPoints(),
+                user.getReportsCount(),
+                user.getJoinedDate(),
+                user.getProfileImageUrl(),
+                user.getBio());
+    }
+}
@@ -0,0 +1,13 @@
+package com.ecovive.dto;
+
+/**
+ * Resultado del buscador de usuarios con su similitud respecto a la consulta
+ *
+ * No incluye el correo: se busca por él, pero no se devuelve.
+ */
+public record UserSearchHit(Long id,
+                            String name,
+                            String location,
+                            String level,
+                            double score) {
+}
@@ -0,0 +1,38 @@
+package com.ecovive.event;
+
+/**
+ * Evento publicado por el servicio de reportes en cada escritura
+ *
+ * Los índices en memoria lo consumen después del commit para mantenerse
+ * sincronizados de forma incremental. En una creación {@code previous} es nulo
+ * y en una eliminación lo es {@code current}.
+ */
+public record ReportChangedEvent(Type type, ReportSnapshot previous, ReportSnapshot current) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        STATUS_CHANGED,
+        DELETED
+    }
+
+    public Long reportId() {
+        return current != null ? current.id() : previous.id();
+    }
+
+    public static ReportChangedEvent created(ReportSnapshot current) {
+        return new ReportChangedEvent(Type.CREATED, null, current);
+    }
+
+    public static ReportChangedEvent updated(ReportSnapshot previous, ReportSnapshot current) {
+        return new ReportChangedEvent(Type.UPDATED, previous, current);
+    }
+
+    public static ReportChangedEvent statusChanged(ReportSnapshot previous, ReportSnapshot current) {
+        return new ReportChangedEvent(Type.STATUS_CHANGED, previous, current);
+    }
+
+    public static ReportChangedEvent deleted(ReportSnapshot previous) {
+        return new ReportChangedEvent(Type.DELETED, previous, null);
+    }
+}
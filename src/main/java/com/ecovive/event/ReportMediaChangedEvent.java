@@ -0,0 +1,8 @@
+package com.ecovive.event;
+
+/**
+ * Evento publicado cuando cambian las fotos de un reporte (subida o variantes
+ * derivadas listas), que no pasan por {@link ReportChangedEvent}
+ */
+public record ReportMediaChangedEvent(Long reportId) {
+}
@@ -0,0 +1,46 @@
+package com.ecovive.event;
+
+import com.ecovive.model.Report;
+import com.ecovive.model.ReportCategory;
+import com.ecovive.model.ReportStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Copia inmutable de los campos de un reporte que interesan a los índices en memoria
+ *
+ * Se toma dentro de la transacción para que los listeners no dependan de
+ * entidades administradas ni de asociaciones lazy.
+ */
+public record ReportSnapshot(Long id,
+                             ReportCategory category,
+                             ReportStatus status,
+                             String title,
+                             String description,
+                             Double latitude,
+                             Double longitude,
+                             String address,
+                             boolean isPublic,
+                             Integer ecoPoints,
+                             Long userId,
+                             LocalDateTime createdAt,
+                             LocalDateTime updatedAt) {
+
+    public static ReportSnapshot of(Report report) {
+        Long userId = report.getUser() != null ? report.getUser().getId() : null;
+        return new ReportSnapshot(
+                report.getId(),
+                report.getCategory(),
+                report.getStatus(),
+                report.getTitle(),
+                report.getDescription(),
+                report.getLatitude(),
+                report.getLongitude(),
+                report.getAddress(),
+                !Boolean.FALSE.equals(report.getIsPublic()),
+                report.getEcoPoints(),
+                userId,
+                report.getCreatedAt(),
+                report.getUpdatedAt());
+    }
+}
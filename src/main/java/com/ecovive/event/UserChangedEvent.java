@@ -0,0 +1,13 @@
+package com.ecovive.event;
+
+/**
+ * Evento publicado cada vez que se inserta, actualiza o elimina un usuario
+ *
+ * {@code current} es nulo cuando el usuario fue eliminado.
+ */
+public record UserChangedEvent(Long userId, UserSnapshot current) {
+
+    public boolean isDeleted() {
+        return current == null;
+    }
+}
@@ -0,0 +1,33 @@
+package com.ecovive.event;
+
+import com.ecovive.model.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Listener JPA que publica un {@link UserChangedEvent} en cada escritura de usuarios
+ *
+ * Se engancha a la entidad para cubrir cualquier ruta de escritura (por ejemplo
+ * {@link User#setName(String)} seguido de un save) sin depender de un servicio.
+ */
+@Component
+public class UserEntityListener {
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(User user) {
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId(), UserSnapshot.of(user)));
+    }
+
+    @PostRemove
+    public void onRemoved(User user) {
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId(), null));
+    }
+}
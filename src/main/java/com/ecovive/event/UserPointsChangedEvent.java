@@ -0,0 +1,10 @@
+package com.ecovive.event;
+
+import java.util.List;
+
+/**
+ * Evento publicado tras volcar el libro de puntos, cuyos UPDATE directos no
+ * pasan por {@link UserEntityListener}
+ */
+public record UserPointsChangedEvent(List<Long> userIds) {
+}
@@ -0,0 +1,28 @@
+package com.ecovive.event;
+
+import com.ecovive.model.User;
+
+/**
+ * Copia inmutable de los campos de un usuario que interesan a los índices en memoria
+ */
+public record UserSnapshot(Long id,
+                           String name,
+                           String email,
+                           String location,
+                           String level,
+                           int ecoPoints,
+                           int reportsCount,
+                           boolean active) {
+
+    public static UserSnapshot of(User user) {
+        return new UserSnapshot(
+                user.getId(),
+                user.getName(),
+                user.getEmail(),
+                user.getLocation(),
+                user.getLevel(),
+                user.getEcoPoints() != null ? user.getEcoPoints() : 0,
+                user.getReportsCount() != null ? user.getReportsCount() : 0,
+                !Boolean.FALSE.equals(user.getIsActive()));
+    }
+}
@@ -0,0 +1,143 @@
+package com.ecovive.model;
+
+import jakarta.persistence.*;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad DuplicateCandidate para la cola de moderación de duplicados
+ *
+ * Relaciona un reporte nuevo con un reporte existente que probablemente describe
+ * el mismo problema, junto con el motivo de la coincidencia.
+ */
+@Entity
+@Table(name = "report_duplicate_candidates")
+@EntityListeners(AuditingEntityListener.class)
+public class DuplicateCandidate {
+
+    /**
+     * Motivo por el que se detectó la coincidencia
+     */
+    public enum Reason {
+        PROXIMITY,
+        PHOTO_SIMILARITY
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "report_id", nullable = false)
+    private Long reportId;
+
+    @Column(name = "original_report_id", nullable = false)
+    private Long originalReportId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "reason", nullable = false)
+    private Reason reason;
+
+    @Column(name = "distance_meters")
+    private Double distanceMeters;
+
+    // Distancia de Hamming entre los hashes perceptuales (solo PHOTO_SIMILARITY)
+    @Column(name = "hash_distance")
+    private Integer hashDistance;
+
+    @Column(name = "resolved")
+    private Boolean resolved = false;
+
+    @CreatedDate
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    // Constructores
+    public DuplicateCandidate() {}
+
+    public DuplicateCandidate(Long reportId, Long originalReportId, Reason reason, Double distanceMeters) {
+        this.reportId = reportId;
+        this.originalReportId = originalReportId;
+        this.reason = reason;
+        this.distanceMeters = distanceMeters;
+    }
+
+    // Getters y Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getReportId() {
+        return reportId;
+    }
+
+    public void setReportId(Long reportId) {
+        this.reportId = reportId;
+    }
+
+    public Long getOriginalReportId() {
+        return originalReportId;
+    }
+
+    public void setOriginalReportId(Long originalReportId) {
+        this.originalReportId = originalReportId;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    public void setReason(Reason reason) {
+        this.reason = reason;
+    }
+
+    public Double getDistanceMeters() {
+        return distanceMeters;
+    }
+
+    public void setDistanceMeters(Double distanceMeters) {
+        this.distanceMeters = distanceMeters;
+    }
+
+    public Integer getHashDistance() {
+        return hashDistance;
+    }
+
+    public void setHashDistance(Integer hashDistance) {
+        this.hashDistance = hashDistance;
+    }
+
+    public Boolean getResolved() {
+        return resolved;
+    }
+
+    public void setResolved(Boolean resolved) {
+        this.resolved = resolved;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "DuplicateCandidate{" +
+                "id=" + id +
+                ", reportId=" + reportId +
+                ", originalReportId=" + originalReportId +
+                ", reason=" + reason +
+                ", distanceMeters=" + distanceMeters +
+                ", hashDistance=" + hashDistance +
+                ", resolved=" + resolved +
+                '}';
+    }
+}
@@ -0,0 +1,94 @@
+package com.ecovive.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad PhotoBlob para el contenido de las fotos
+ *
+ * Cada archivo se guarda una sola vez, identificado por el SHA-256 de su
+ * contenido, y las filas de report_photos lo referencian por ese hash.
+ * ref_count lo mantiene un trigger sobre report_photos; cuando llega a cero
+ * se anota orphaned_at y el recolector borra el archivo pasado un margen.
+ */
+@Entity
+@Table(name = "photo_blobs")
+public class PhotoBlob {
+
+    @Id
+    @Column(name = "hash", length = 64)
+    private String hash;
+
+    @Column(name = "relative_path", nullable = false, updatable = false)
+    private String relativePath;
+
+    @Column(name = "file_size", nullable = false, updatable = false)
+    private Long fileSize;
+
+    @Column(name = "content_type", nullable = false, updatable = false)
+    private String contentType;
+
+    @Column(name = "width", updatable = false)
+    private Integer width;
+
+    @Column(name = "height", updatable = false)
+    private Integer height;
+
+    // dHash de 64 bits; se calcula junto con las variantes derivadas
+    @Column(name = "perceptual_hash")
+    private Long perceptualHash;
+
+    @Column(name = "ref_count", nullable = false)
+    private Integer refCount = 0;
+
+    @Column(name = "orphaned_at")
+    private LocalDateTime orphanedAt;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // Constructores
+    public PhotoBlob() {}
+
+    // Getters
+    public String getHash() {
+        return hash;
+    }
+
+    public String getRelativePath() {
+        return relativePath;
+    }
+
+    public Long getFileSize() {
+        return fileSize;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public Integer getWidth() {
+        return width;
+    }
+
+    public Integer getHeight() {
+        return height;
+    }
+
+    public Long getPerceptualHash() {
+        return perceptualHash;
+    }
+
+    public Integer getRefCount() {
+        return refCount;
+    }
+
+    public LocalDateTime getOrphanedAt() {
+        return orphanedAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,115 @@
+package com.ecovive.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad PointsLedgerEntry para el libro de puntos ecológicos
+ *
+ * Registro inmutable de cada acreditación de puntos a un usuario. Los totales de
+ * la tabla users se derivan de este libro mediante incrementos atómicos: una fila
+ * nace pendiente en la transacción del reporte y se marca aplicada al volcarla.
+ * Las que fallan repetidamente quedan apartadas con {@code failed_at}.
+ */
+@Entity
+@Table(name = "points_ledger")
+public class PointsLedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false, updatable = false)
+    private Long userId;
+
+    @Column(name = "points", nullable = false, updatable = false)
+    private Integer points;
+
+    @Column(name = "reports_delta", nullable = false, updatable = false)
+    private Integer reportsDelta;
+
+    @Column(name = "reason", nullable = false, updatable = false)
+    private String reason;
+
+    @Column(name = "report_id", updatable = false)
+    private Long reportId;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "pending", nullable = false, columnDefinition = "BOOLEAN NOT NULL DEFAULT FALSE")
+    private Boolean pending;
+
+    @Column(name = "attempts", nullable = false, columnDefinition = "INTEGER NOT NULL DEFAULT 0")
+    private Integer attempts;
+
+    @Column(name = "retry_at")
+    private LocalDateTime retryAt;
+
+    @Column(name = "failed_at")
+    private LocalDateTime failedAt;
+
+    // Constructores
+    public PointsLedgerEntry() {}
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Integer getPoints() {
+        return points;
+    }
+
+    public Integer getReportsDelta() {
+        return reportsDelta;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public Long getReportId() {
+        return reportId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public Boolean getPending() {
+        return pending;
+    }
+
+    public Integer getAttempts() {
+        return attempts;
+    }
+
+    public LocalDateTime getRetryAt() {
+        return retryAt;
+    }
+
+    public LocalDateTime getFailedAt() {
+        return failedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "PointsLedgerEntry{" +
+                "id=" + id +
+                ", userId=" + userId +
+                ", points=" + points +
+                ", reportsDelta=" + reportsDelta +
+                ", reason='" + reason + '\'' +
+                ", reportId=" + reportId +
+                ", createdAt=" + createdAt +
+                ", pending=" + pending +
+                ", attempts=" + attempts +
+                '}';
+    }
+}
@@ -24,7 +24,8 @@ import java.util.List;
 public class Report {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reports_seq")
+    @SequenceGenerator(name = "reports_seq", sequenceName = "reports_id_seq", allocationSize = 50)
     private Long id;
 
     @NotNull
@@ -20,7 +20,8 @@ import java.time.LocalDateTime;
 public class ReportComment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "report_comments_seq")
+    @SequenceGenerator(name = "report_comments_seq", sequenceName = "report_comments_id_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
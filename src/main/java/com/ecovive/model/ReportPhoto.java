@@ -18,7 +18,8 @@ import java.time.LocalDateTime;
 public class ReportPhoto {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "report_photos_seq")
+    @SequenceGenerator(name = "report_photos_seq", sequenceName = "report_photos_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "filename", nullable = false)
@@ -42,6 +43,17 @@ public class ReportPhoto {
     @Column(name = "height")
     private Integer height;
 
+    // SHA-256 del contenido en photo_blobs; null en fotos con URL externa
+    @Column(name = "content_hash", length = 64, updatable = false)
+    private String contentHash;
+
+    // Variantes derivadas; se rellenan cuando termina su generación asíncrona
+    @Column(name = "thumbnail_url")
+    private String thumbnailUrl;
+
+    @Column(name = "medium_url")
+    private String mediumUrl;
+
     @Column(name = "is_primary")
     private Boolean isPrimary = false;
 
@@ -132,6 +144,30 @@ public class ReportPhoto {
         this.height = height;
     }
 
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public String getThumbnailUrl() {
+        return thumbnailUrl;
+    }
+
+    public void setThumbnailUrl(String thumbnailUrl) {
+        this.thumbnailUrl = thumbnailUrl;
+    }
+
+    public String getMediumUrl() {
+        return mediumUrl;
+    }
+
+    public void setMediumUrl(String mediumUrl) {
+        this.mediumUrl = mediumUrl;
+    }
+
     public Boolean getIsPrimary() {
         return isPrimary;
     }
@@ -1,5 +1,6 @@
 package com.ecovive.model;
 
+import com.ecovive.event.UserEntityListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -20,9 +21,13 @@ import java.util.List;
  */
 @Entity
 @Table(name = "users")
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({AuditingEntityListener.class, UserEntityListener.class})
 public class User {
 
+    // Niveles de mayor a menor con el mínimo de puntos requerido
+    public static final int[] LEVEL_MIN_POINTS = {1000, 500, 100, 0};
+    public static final String[] LEVEL_NAMES = {"Guardián 🌎", "Protector 🌿", "Defensor 🍃", "Explorador 🌱"};
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -45,13 +50,15 @@ public class User {
     @Column(name = "location")
     private String location = "Ventanilla, Callao";
 
-    @Column(name = "eco_points")
+    // Los totales solo los cambia PointsLedgerService con UPDATE atómicos; un save de
+    // la entidad no debe pisarlos con los valores que leyó
+    @Column(name = "eco_points", updatable = false)
     private Integer ecoPoints = 0;
 
-    @Column(name = "level")
+    @Column(name = "level", updatable = false)
     private String level = "Explorador 🌱";
 
-    @Column(name = "reports_count")
+    @Column(name = "reports_count", updatable = false)
     private Integer reportsCount = 0;
 
     @Column(name = "joined_date")
@@ -276,25 +283,40 @@ public class User {
     }
 
     // Métodos de utilidad
+
+    /**
+     * @deprecated los puntos se acreditan con {@link com.ecovive.service.PointsLedgerService#accrue};
+     * la columna no se actualiza al guardar la entidad
+     */
+    @Deprecated
     public void addEcoPoints(Integer points) {
         this.ecoPoints += points;
         updateLevel();
     }
 
+    /**
+     * @deprecated el contador lo mantiene {@link com.ecovive.service.PointsLedgerService};
+     * la columna no se actualiza al guardar la entidad
+     */
+    @Deprecated
     public void incrementReportsCount() {
         this.reportsCount++;
     }
 
     private void updateLevel() {
-        if (this.ecoPoints >= 1000) {
-            this.level = "Guardián 🌎";
-        } else if (this.ecoPoints >= 500) {
-            this.level = "Protector 🌿";
-        } else if (this.ecoPoints >= 100) {
-            this.level = "Defensor 🍃";
-        } else {
-            this.level = "Explorador 🌱";
+        this.level = levelFor(this.ecoPoints);
+    }
+
+    /**
+     * Nivel que corresponde a una cantidad de puntos ecológicos
+     */
+    public static String levelFor(int ecoPoints) {
+        for (int i = 0; i < LEVEL_MIN_POINTS.length; i++) {
+            if (ecoPoints >= LEVEL_MIN_POINTS[i]) {
+                return LEVEL_NAMES[i];
+            }
         }
+        return LEVEL_NAMES[LEVEL_NAMES.length - 1];
     }
 
     @Override
@@ -0,0 +1,37 @@
+package com.ecovive.repository;
+
+import com.ecovive.model.DuplicateCandidate;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repositorio para la cola de moderación de reportes duplicados
+ */
+@Repository
+public interface DuplicateCandidateRepository extends JpaRepository<DuplicateCandidate, Long> {
+
+    /**
+     * Candidatos pendientes de revisión, del más reciente al más antiguo
+     */
+    @Query("SELECT d FROM DuplicateCandidate d WHERE d.resolved = false ORDER BY d.id DESC")
+    List<DuplicateCandidate> findPending(Pageable pageable);
+
+    /**
+     * Candidatos pendientes anteriores a un id (paginación por cursor)
+     */
+    @Query("SELECT d FROM DuplicateCandidate d WHERE d.resolved = false AND d.id < :beforeId ORDER BY d.id DESC")
+    List<DuplicateCandidate> findPendingBefore(@Param("beforeId") Long beforeId, Pageable pageable);
+
+    /**
+     * Candidatos registrados para un reporte
+     */
+    List<DuplicateCandidate> findByReportId(Long reportId);
+
+    boolean existsByReportIdAndOriginalReportIdAndReason(Long reportId, Long originalReportId,
+                                                         DuplicateCandidate.Reason reason);
+}
@@ -0,0 +1,26 @@
+package com.ecovive.repository;
+
+import com.ecovive.model.PhotoBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * Repositorio para el contenido deduplicado de las fotos
+ */
+@Repository
+public interface PhotoBlobRepository extends JpaRepository<PhotoBlob, String> {
+
+    @Query("SELECT b.perceptualHash FROM PhotoBlob b WHERE b.hash = :hash")
+    Optional<Long> findPerceptualHash(@Param("hash") String hash);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE PhotoBlob b SET b.perceptualHash = :perceptualHash WHERE b.hash = :hash")
+    int updatePerceptualHash(@Param("hash") String hash, @Param("perceptualHash") Long perceptualHash);
+}
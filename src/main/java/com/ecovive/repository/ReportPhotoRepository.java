@@ -0,0 +1,66 @@
+package com.ecovive.repository;
+
+import com.ecovive.model.ReportPhoto;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repositorio para las fotos de reportes
+ */
+@Repository
+public interface ReportPhotoRepository extends JpaRepository<ReportPhoto, Long> {
+
+    long countByReportId(Long reportId);
+
+    /**
+     * Registra las variantes derivadas de una foto sin cargar la entidad
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ReportPhoto p SET p.thumbnailUrl = :thumbnailUrl, p.mediumUrl = :mediumUrl WHERE p.id = :id")
+    int updateDerivatives(@Param("id") Long id,
+                          @Param("thumbnailUrl") String thumbnailUrl,
+                          @Param("mediumUrl") String mediumUrl);
+
+    /**
+     * Fotos con hash perceptual de reportes creados desde una fecha, por lotes
+     * ordenados por id (índice de similitud): id, reportId, categoría, latitud,
+     * longitud, fecha de creación y estado del reporte, y hash
+     */
+    @Query("SELECT p.id, r.id, r.category, r.latitude, r.longitude, r.createdAt, r.status, b.perceptualHash " +
+           "FROM ReportPhoto p JOIN p.report r JOIN PhotoBlob b ON b.hash = p.contentHash " +
+           "WHERE b.perceptualHash IS NOT NULL AND r.createdAt >= :since AND p.id > :afterId ORDER BY p.id")
+    List<Object[]> findHashedPhotosSince(@Param("since") LocalDateTime since,
+                                         @Param("afterId") Long afterId,
+                                         Pageable pageable);
+
+    /**
+     * Una foto con hash perceptual, con las mismas columnas que {@link #findHashedPhotosSince}
+     */
+    @Query("SELECT p.id, r.id, r.category, r.latitude, r.longitude, r.createdAt, r.status, b.perceptualHash " +
+           "FROM ReportPhoto p JOIN p.report r JOIN PhotoBlob b ON b.hash = p.contentHash " +
+           "WHERE b.perceptualHash IS NOT NULL AND p.id = :id")
+    List<Object[]> findHashedPhoto(@Param("id") Long id);
+
+    /**
+     * Fotos con hash perceptual de un reporte, con las mismas columnas que {@link #findHashedPhotosSince}
+     */
+    @Query("SELECT p.id, r.id, r.category, r.latitude, r.longitude, r.createdAt, r.status, b.perceptualHash " +
+           "FROM ReportPhoto p JOIN p.report r JOIN PhotoBlob b ON b.hash = p.contentHash " +
+           "WHERE b.perceptualHash IS NOT NULL AND r.id = :reportId")
+    List<Object[]> findHashedPhotosByReportId(@Param("reportId") Long reportId);
+
+    /**
+     * Fotos subidas antes de una fecha que aún no tienen variantes derivadas
+     */
+    @Query("SELECT p FROM ReportPhoto p WHERE p.thumbnailUrl IS NULL AND p.createdAt < :before ORDER BY p.id")
+    List<ReportPhoto> findMissingDerivatives(@Param("before") LocalDateTime before, Pageable pageable);
+}
@@ -1,5 +1,8 @@
 package com.ecovive.repository;
 
+import com.ecovive.dto.CommentView;
+import com.ecovive.dto.PhotoView;
+import com.ecovive.dto.ReportView;
 import com.ecovive.model.Report;
 import com.ecovive.model.ReportCategory;
 import com.ecovive.model.ReportStatus;
@@ -12,7 +15,9 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repositorio para la entidad Report
@@ -44,15 +49,53 @@ public interface ReportRepository extends JpaRepository<Report, Long> {
     List<Report> findByIsPublicTrueOrderByCreatedAtDesc();
 
     /**
-     * Busca reportes por ubicación (radio)
+     * Coordenadas de reportes públicos por lotes ordenados por id (para índices en memoria)
      */
-    @Query("SELECT r FROM Report r WHERE " +
-           "ST_Distance_Sphere(ST_Point(r.longitude, r.latitude), ST_Point(:longitude, :latitude)) <= :radiusInMeters " +
-           "AND r.isPublic = true " +
-           "ORDER BY r.createdAt DESC")
-    List<Report> findReportsNearLocation(@Param("latitude") Double latitude, 
-                                       @Param("longitude") Double longitude, 
-                                       @Param("radiusInMeters") Double radiusInMeters);
+    @Query("SELECT r.id, r.latitude, r.longitude, r.category, r.status FROM Report r " +
+           "WHERE r.isPublic = true AND r.id > :afterId ORDER BY r.id")
+    List<Object[]> findPublicLocationsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Conteo y suma de ids de reportes públicos (verificación de índices en memoria)
+     *
+     * Solo cuenta coordenadas válidas, las mismas que admite GeoUtils.isValidCoordinate
+     * al indexar: una fila antigua fuera de rango no debe dar el índice por desincronizado.
+     */
+    @Query("SELECT COUNT(r), COALESCE(SUM(r.id), 0) FROM Report r WHERE r.isPublic = true " +
+           "AND r.latitude BETWEEN -90 AND 90 AND r.longitude BETWEEN -180 AND 180")
+    List<Object[]> getPublicReportChecksum();
+
+    /**
+     * Reportes creados desde una fecha, por lotes ordenados por id (detector de duplicados)
+     */
+    @Query("SELECT r.id, r.category, r.latitude, r.longitude, r.createdAt, r.status FROM Report r " +
+           "WHERE r.createdAt >= :since AND r.id > :afterId ORDER BY r.id")
+    List<Object[]> findDuplicateCandidatesSince(@Param("since") LocalDateTime since,
+                                               @Param("afterId") Long afterId,
+                                               Pageable pageable);
+
+    /**
+     * Campos de texto de reportes públicos por lotes ordenados por id (índice de búsqueda)
+     */
+    @Query("SELECT r.id, r.title, r.description, r.address, r.category, r.status, r.createdAt FROM Report r " +
+           "WHERE r.isPublic = true AND r.id > :afterId ORDER BY r.id")
+    List<Object[]> findSearchDocumentsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Dimensiones de todos los reportes por lotes ordenados por id (rollups de estadísticas)
+     */
+    @Query("SELECT r.id, r.createdAt, r.category, r.status, r.address FROM Report r " +
+           "WHERE r.id > :afterId ORDER BY r.id")
+    List<Object[]> findRollupDocumentsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Ubicaciones de reportes creados desde una fecha, por lotes ordenados por id (puntos críticos)
+     */
+    @Query("SELECT r.id, r.createdAt, r.latitude, r.longitude, r.address FROM Report r " +
+           "WHERE r.createdAt >= :since AND r.id > :afterId ORDER BY r.id")
+    List<Object[]> findHotspotDocumentsSince(@Param("since") LocalDateTime since,
+                                             @Param("afterId") Long afterId,
+                                             Pageable pageable);
 
     /**
      * Busca reportes recientes
@@ -103,6 +146,12 @@ public interface ReportRepository extends JpaRepository<Report, Long> {
     @Query("SELECT COUNT(r) FROM Report r WHERE r.user = :user AND r.createdAt >= :since")
     long countReportsByUserSince(@Param("user") User user, @Param("since") LocalDateTime since);
 
+    /**
+     * Fechas de creación de los reportes de un usuario en un período (cuota diaria)
+     */
+    @Query("SELECT r.createdAt FROM Report r WHERE r.user.id = :userId AND r.createdAt >= :since")
+    List<LocalDateTime> findCreatedAtByUserSince(@Param("userId") Long userId, @Param("since") LocalDateTime since);
+
     /**
      * Busca reportes por prioridad
      */
@@ -126,17 +175,6 @@ public interface ReportRepository extends JpaRepository<Report, Long> {
     @Query("SELECT r.address, COUNT(r) FROM Report r WHERE r.address IS NOT NULL GROUP BY r.address ORDER BY COUNT(r) DESC")
     List<Object[]> getReportStatsByLocation();
 
-    /**
-     * Busca reportes duplicados (misma ubicación y categoría)
-     */
-    @Query("SELECT r FROM Report r WHERE r.category = :category AND " +
-           "ST_Distance_Sphere(ST_Point(r.longitude, r.latitude), ST_Point(:longitude, :latitude)) <= 100 " +
-           "AND r.createdAt >= :since")
-    List<Report> findDuplicateReports(@Param("category") ReportCategory category,
-                                    @Param("latitude") Double latitude,
-                                    @Param("longitude") Double longitude,
-                                    @Param("since") LocalDateTime since);
-
     /**
      * Busca reportes con búsqueda de texto
      */
@@ -159,4 +197,34 @@ public interface ReportRepository extends JpaRepository<Report, Long> {
      */
     @Query("SELECT r FROM Report r WHERE r.status = 'RESOLVED' AND r.resolvedAt >= :since ORDER BY r.resolvedAt DESC")
     List<Report> findRecentlyResolvedReports(@Param("since") LocalDateTime since);
+
+    // ========================================
+    // Modelos de lectura: hijos de una página de reportes en una sola consulta
+    // ========================================
+
+    /**
+     * Vista de un reporte con su autor, sin cargar la entidad
+     */
+    @Query("SELECT new com.ecovive.dto.ReportView(r.id, r.category, r.status, r.title, r.description, " +
+           "r.latitude, r.longitude, r.address, r.ecoPoints, r.priority, r.verified, r.anonymous, " +
+           "u.id, u.name, r.createdAt, r.updatedAt, r.resolvedAt) " +
+           "FROM Report r JOIN r.user u WHERE r.id = :id")
+    Optional<ReportView> findViewById(@Param("id") Long id);
+
+    /**
+     * Fotos de varios reportes, agrupables por reportId
+     */
+    @Query("SELECT new com.ecovive.dto.PhotoView(p.id, p.report.id, p.fileUrl, p.thumbnailUrl, p.mediumUrl, p.width, p.height, " +
+           "p.isPrimary, p.description) " +
+           "FROM ReportPhoto p WHERE p.report.id IN :reportIds ORDER BY p.report.id, p.isPrimary DESC, p.id")
+    List<PhotoView> findPhotoViewsByReportIds(@Param("reportIds") Collection<Long> reportIds);
+
+    /**
+     * Comentarios públicos de varios reportes con su autor, agrupables por reportId
+     */
+    @Query("SELECT new com.ecovive.dto.CommentView(c.id, c.report.id, c.content, u.id, u.name, " +
+           "c.isAdminComment, c.createdAt) " +
+           "FROM ReportComment c JOIN c.user u " +
+           "WHERE c.report.id IN :reportIds AND c.isPublic = true ORDER BY c.report.id, c.createdAt, c.id")
+    List<CommentView> findCommentViewsByReportIds(@Param("reportIds") Collection<Long> reportIds);
 }
@@ -1,6 +1,7 @@
 package com.ecovive.repository;
 
 import com.ecovive.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -105,4 +106,18 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     @Query("SELECT u FROM User u WHERE (LOWER(u.name) LIKE LOWER(CONCAT('%', :search, '%')) OR LOWER(u.email) LIKE LOWER(CONCAT('%', :search, '%'))) AND u.isActive = true")
     List<User> searchUsers(@Param("search") String search);
+
+    /**
+     * Nombre y email de usuarios activos por lotes ordenados por id (índice de búsqueda)
+     */
+    @Query("SELECT u.id, u.name, u.email, u.location, u.level FROM User u " +
+           "WHERE u.isActive = true AND u.id > :afterId ORDER BY u.id")
+    List<Object[]> findSearchDocumentsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Puntajes de usuarios activos por lotes ordenados por id (rankings en memoria)
+     */
+    @Query("SELECT u.id, u.name, u.location, u.level, u.ecoPoints, u.reportsCount FROM User u " +
+           "WHERE u.isActive = true AND u.id > :afterId ORDER BY u.id")
+    List<Object[]> findLeaderboardMembersAfter(@Param("afterId") Long afterId, Pageable pageable);
 }
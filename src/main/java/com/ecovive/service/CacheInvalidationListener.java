@@ -0,0 +1,93 @@
+package com.ecovive.service;
+
+import com.ecovive.config.CacheConfig;
+import com.ecovive.event.ReportChangedEvent;
+import com.ecovive.event.ReportMediaChangedEvent;
+import com.ecovive.event.ReportSnapshot;
+import com.ecovive.event.UserChangedEvent;
+import com.ecovive.event.UserPointsChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Invalida las cachés de {@link CacheConfig} a partir de los eventos de escritura
+ *
+ * Un cambio en un reporte (creación, edición, estado, borrado o fotos) elimina
+ * su detalle en todas las combinaciones de includes y vacía las primeras
+ * páginas y las estadísticas, porque cualquier escritura puede cambiar su
+ * contenido. Las estadísticas se vacían después de que las series y los focos
+ * en memoria aplicaron el cambio (sus listeners van primero). Los cambios
+ * de usuario, incluidos los puntos volcados por el libro, eliminan su perfil.
+ * El nombre del autor dentro de las vistas de reportes puede tardar hasta el
+ * TTL de esas cachés en reflejar un cambio de nombre.
+ */
+@Component
+public class CacheInvalidationListener {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReportChanged(ReportChangedEvent event) {
+        ReportSnapshot snapshot = event.current() != null ? event.current() : event.previous();
+        if (snapshot != null) {
+            evictReport(snapshot.id());
+        }
+        clear(CacheConfig.STATS);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReportMediaChanged(ReportMediaChangedEvent event) {
+        evictReport(event.reportId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        evict(CacheConfig.USER_PROFILES, event.userId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserPointsChanged(UserPointsChangedEvent event) {
+        for (Long userId : event.userIds()) {
+            evict(CacheConfig.USER_PROFILES, userId);
+        }
+    }
+
+    private void evictReport(Long reportId) {
+        Cache detail = cacheManager.getCache(CacheConfig.REPORT_DETAIL);
+        if (detail != null) {
+            // Todas las combinaciones de includes (2^n claves)
+            ReportQueryService.Include[] values = ReportQueryService.Include.values();
+            for (int mask = 0; mask < (1 << values.length); mask++) {
+                Set<ReportQueryService.Include> includes = EnumSet.noneOf(ReportQueryService.Include.class);
+                for (int i = 0; i < values.length; i++) {
+                    if ((mask & (1 << i)) != 0) {
+                        includes.add(values[i]);
+                    }
+                }
+                detail.evict(ReportQueryService.detailKey(reportId, includes));
+            }
+        }
+        clear(CacheConfig.REPORT_PAGES);
+    }
+
+    private void clear(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+}
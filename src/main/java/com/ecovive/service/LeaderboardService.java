@@ -0,0 +1,245 @@
+package com.ecovive.service;
+
+import com.ecovive.dto.LeaderboardEntry;
+import com.ecovive.event.UserChangedEvent;
+import com.ecovive.event.UserSnapshot;
+import com.ecovive.repository.UserRepository;
+import com.ecovive.util.RankedScoreTree;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Motor de rankings en memoria por puntos ecológicos y cantidad de reportes
+ *
+ * Mantiene un ranking global y rankings segmentados por ubicación y por nivel
+ * para cada métrica. Cada ranking es un {@link RankedScoreTree}, así que
+ * actualizar un puntaje, pedir el top N, la posición de un usuario o la ventana
+ * de usuarios a su alrededor cuesta O(log n) en lugar de ordenar la tabla.
+ */
+@Service
+public class LeaderboardService {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaderboardService.class);
+
+    private static final int REBUILD_BATCH_SIZE = 5000;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    /**
+     * Métrica por la que se ordena un ranking
+     */
+    public enum Metric {
+        POINTS,
+        REPORTS
+    }
+
+    /**
+     * Segmento de un ranking: global, por ubicación o por nivel
+     */
+    public record Scope(String type, String value) {
+        public static final Scope GLOBAL = new Scope("global", "");
+
+        public static Scope location(String location) {
+            return new Scope("location", location);
+        }
+
+        public static Scope level(String level) {
+            return new Scope("level", level);
+        }
+    }
+
+    private record BoardKey(Metric metric, Scope scope) {
+    }
+
+    private record Member(long id, String name, String location, String level, long points, long reports) {
+        long score(Metric metric) {
+            return metric == Metric.POINTS ? points : reports;
+        }
+
+        List<Scope> scopes() {
+            List<Scope> scopes = new ArrayList<>(3);
+            scopes.add(Scope.GLOBAL);
+            if (location != null) {
+                scopes.add(Scope.location(location));
+            }
+            if (level != null) {
+                scopes.add(Scope.level(level));
+            }
+            return scopes;
+        }
+    }
+
+    private final Map<BoardKey, RankedScoreTree> boards = new ConcurrentHashMap<>();
+    private final Map<Long, Member> members = new ConcurrentHashMap<>();
+
+    /**
+     * Los N primeros de un ranking
+     */
+    public List<LeaderboardEntry> top(Metric metric, Scope scope, int limit) {
+        return window(metric, scope, 0, limit);
+    }
+
+    /**
+     * Posición de un usuario en un ranking
+     */
+    public Optional<LeaderboardEntry> rankOf(long userId, Metric metric, Scope scope) {
+        Member member = members.get(userId);
+        RankedScoreTree board = boards.get(new BoardKey(metric, scope));
+        if (member == null || board == null) {
+            return Optional.empty();
+        }
+        int rank;
+        synchronized (board) {
+            rank = board.rank(member.score(metric), userId);
+        }
+        if (rank < 0) {
+            return Optional.empty();
+        }
+        return Optional.of(toEntry(rank, member, metric));
+    }
+
+    /**
+     * Usuarios alrededor de un usuario: {@code radius} por encima y por debajo
+     */
+    public List<LeaderboardEntry> around(long userId, Metric metric, Scope scope, int radius) {
+        Optional<LeaderboardEntry> self = rankOf(userId, metric, scope);
+        if (self.isEmpty()) {
+            return List.of();
+        }
+        int from = Math.max(0, self.get().rank() - 1 - radius);
+        return window(metric, scope, from, 2 * radius + 1);
+    }
+
+    /**
+     * Cantidad de usuarios en un ranking
+     */
+    public int size(Metric metric, Scope scope) {
+        RankedScoreTree board = boards.get(new BoardKey(metric, scope));
+        if (board == null) {
+            return 0;
+        }
+        synchronized (board) {
+            return board.size();
+        }
+    }
+
+    private List<LeaderboardEntry> window(Metric metric, Scope scope, int from, int count) {
+        RankedScoreTree board = boards.get(new BoardKey(metric, scope));
+        if (board == null) {
+            return List.of();
+        }
+        List<RankedScoreTree.Item> items;
+        synchronized (board) {
+            items = board.range(from, count);
+        }
+        List<LeaderboardEntry> entries = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            Member member = members.get(items.get(i).id());
+            if (member != null) {
+                entries.add(toEntry(from + i, member, metric));
+            }
+        }
+        return entries;
+    }
+
+    private LeaderboardEntry toEntry(int zeroBasedRank, Member member, Metric metric) {
+        return new LeaderboardEntry(zeroBasedRank + 1, member.id(), member.name(), member.location(),
+                member.level(), member.score(metric));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        UserSnapshot current = event.current();
+        if (current == null || !current.active()) {
+            remove(event.userId());
+        } else {
+            update(new Member(current.id(), current.name(), current.location(), current.level(),
+                    current.ecoPoints(), current.reportsCount()));
+        }
+    }
+
+    /**
+     * Actualiza los puntajes de un usuario con los totales vigentes
+     */
+    public void updateScores(long userId, long ecoPoints, long reportsCount, String level) {
+        Member previous = members.get(userId);
+        if (previous != null) {
+            update(new Member(userId, previous.name(), previous.location(), level, ecoPoints, reportsCount));
+        }
+    }
+
+    private void update(Member fresh) {
+        // Las actualizaciones de un mismo usuario se serializan a través del mapa
+        members.compute(fresh.id(), (id, old) -> {
+            if (old != null) {
+                for (Metric metric : Metric.values()) {
+                    for (Scope scope : old.scopes()) {
+                        RankedScoreTree board = boards.get(new BoardKey(metric, scope));
+                        if (board != null) {
+                            synchronized (board) {
+                                board.remove(old.score(metric), id);
+                            }
+                        }
+                    }
+                }
+            }
+            for (Metric metric : Metric.values()) {
+                for (Scope scope : fresh.scopes()) {
+                    RankedScoreTree board = boards.computeIfAbsent(new BoardKey(metric, scope), k -> new RankedScoreTree());
+                    synchronized (board) {
+                        board.insert(fresh.score(metric), id);
+                    }
+                }
+            }
+            return fresh;
+        });
+    }
+
+    private void remove(long userId) {
+        members.computeIfPresent(userId, (id, old) -> {
+            for (Metric metric : Metric.values()) {
+                for (Scope scope : old.scopes()) {
+                    RankedScoreTree board = boards.get(new BoardKey(metric, scope));
+                    if (board != null) {
+                        synchronized (board) {
+                            board.remove(old.score(metric), id);
+                        }
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        long afterId = 0L;
+        while (true) {
+            List<Object[]> rows = userRepository.findLeaderboardMembersAfter(afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+            for (Object[] row : rows) {
+                update(new Member((Long) row[0], (String) row[1], (String) row[2], (String) row[3],
+                        row[4] != null ? ((Number) row[4]).longValue() : 0,
+                        row[5] != null ? ((Number) row[5]).longValue() : 0));
+            }
+            if (rows.size() < REBUILD_BATCH_SIZE) {
+                break;
+            }
+            afterId = (Long) rows.get(rows.size() - 1)[0];
+        }
+        log.info("Rankings reconstruidos: {} usuarios en {} ms", members.size(), System.currentTimeMillis() - start);
+    }
+}
@@ -0,0 +1,91 @@
+package com.ecovive.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Recolector del contenido de fotos que ya no tiene referencias
+ *
+ * Cada candidato se bloquea con {@code FOR UPDATE SKIP LOCKED} y su archivo se
+ * borra antes de confirmar el borrado de la fila: una subida concurrente del
+ * mismo contenido espera ese bloqueo y, al continuar, ya no encuentra el
+ * archivo, así que lo vuelve a colocar. Además de ref_count se comprueba que no
+ * exista ninguna fila en report_photos, por si la base no tiene el trigger.
+ */
+@Component
+public class PhotoBlobCollector {
+
+    private static final Logger log = LoggerFactory.getLogger(PhotoBlobCollector.class);
+
+    private static final String SELECT_ORPHANS_SQL =
+            "SELECT b.hash, b.relative_path FROM photo_blobs b " +
+            "WHERE b.ref_count <= 0 AND b.orphaned_at < ? " +
+            "AND NOT EXISTS (SELECT 1 FROM report_photos p WHERE p.content_hash = b.hash) " +
+            "ORDER BY b.orphaned_at LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private record Orphan(String hash, String relativePath) {
+    }
+
+    private record Batch(int found, int collected) {
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PhotoStorageService storageService;
+
+    @Value("${app.upload.blobs.grace-minutes:60}")
+    private long graceMinutes;
+
+    @Value("${app.upload.blobs.gc-batch-size:500}")
+    private int batchSize;
+
+    @Scheduled(cron = "${app.upload.blobs.gc-cron:0 45 3 * * *}")
+    public void collect() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusMinutes(graceMinutes));
+        int total = 0;
+        Batch batch;
+        do {
+            batch = transactionTemplate.execute(status -> collectBatch(cutoff));
+            total += batch.collected();
+            // Si hubo fallos, los mismos candidatos volverían a salir en el siguiente lote
+        } while (batch.found() == batchSize && batch.collected() == batch.found());
+        if (total > 0) {
+            log.info("Contenido de fotos sin referencias eliminado: {} archivos", total);
+        }
+    }
+
+    private Batch collectBatch(Timestamp cutoff) {
+        List<Orphan> orphans = jdbcTemplate.query(SELECT_ORPHANS_SQL,
+                (rs, rowNum) -> new Orphan(rs.getString("hash"), rs.getString("relative_path")),
+                cutoff, batchSize);
+        int collected = 0;
+        for (Orphan orphan : orphans) {
+            try {
+                storageService.deleteBlob(orphan.relativePath());
+            } catch (IOException | IllegalArgumentException e) {
+                // La fila se conserva para reintentar en la próxima ejecución
+                log.warn("No se pudo borrar el contenido {}", orphan.relativePath(), e);
+                continue;
+            }
+            jdbcTemplate.update("DELETE FROM photo_blobs WHERE hash = ?", orphan.hash());
+            collected++;
+        }
+        return new Batch(orphans.size(), collected);
+    }
+}
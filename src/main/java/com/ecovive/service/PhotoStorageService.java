@@ -0,0 +1,297 @@
+package com.ecovive.service;
+
+import com.ecovive.config.FileStorageProperties;
+import com.ecovive.util.ImageHeaders;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Almacenamiento local de fotos, direccionado por contenido
+ *
+ * Los archivos se copian del stream de subida al disco con canales NIO en
+ * bloques, sin cargar el archivo completo en el heap, y el SHA-256 se calcula
+ * sobre esos mismos bytes mientras se copian. Una parte multipart ya está en un
+ * temporal del contenedor: se lee una vez para el hash y se mueve en lugar de
+ * copiarse. El contenido se guarda una sola
+ * vez bajo {@code blobs/ab/cd/<hash>.<ext>}: si ya existía, el temporal se
+ * descarta y la nueva foto referencia el mismo archivo.
+ *
+ * La fila de photo_blobs se registra (o se marca como recién usada) antes de
+ * colocar el archivo, de modo que el recolector de {@link PhotoBlobCollector}
+ * nunca borra un contenido que una subida en curso está por referenciar.
+ */
+@Service
+public class PhotoStorageService {
+
+    private static final long TRANSFER_CHUNK = 1024 * 1024;
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+    private static final int CONTENT_TAG_CACHE_SIZE = 10_000;
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-f]{64}");
+
+    public static final String BLOB_DIRECTORY = "blobs";
+    private static final String INCOMING_DIRECTORY = ".incoming";
+
+    @Autowired
+    private FileStorageProperties properties;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Path root;
+
+    private record CachedTag(long size, long modified, String tag) {
+    }
+
+    // Hash de contenido por archivo; se invalida si cambian tamaño o fecha de modificación
+    private final Map<Path, CachedTag> contentTags = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Path, CachedTag> eldest) {
+            return size() > CONTENT_TAG_CACHE_SIZE;
+        }
+    };
+
+    /**
+     * Foto guardada: hash y ruta del contenido, URL pública, tamaño, cabecera y
+     * si el contenido ya existía
+     */
+    public record StoredPhoto(String hash, String relativePath, String url, long size,
+                              ImageHeaders.Info info, boolean deduplicated) {
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        root = Path.of(properties.getLocal().getUploadDir()).toAbsolutePath().normalize();
+        Files.createDirectories(root.resolve(INCOMING_DIRECTORY));
+    }
+
+    public static boolean isContentHash(String value) {
+        return value != null && SHA256_HEX.matcher(value).matches();
+    }
+
+    /**
+     * Copia una imagen al almacenamiento y devuelve su descripción
+     *
+     * @throws IllegalArgumentException si supera {@code maxBytes} o no es una imagen
+     *         de alguno de los formatos permitidos
+     */
+    public StoredPhoto store(InputStream content, long maxBytes, Set<ImageHeaders.Format> allowedFormats)
+            throws IOException {
+        MessageDigest digest = sha256();
+        Path temp = Files.createTempFile(root.resolve(INCOMING_DIRECTORY), "upload-", ".part");
+        try {
+            long size;
+            ImageHeaders.Info info;
+            try (ReadableByteChannel source = Channels.newChannel(new DigestInputStream(content, digest));
+                 FileChannel target = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.READ)) {
+                size = 0;
+                while (true) {
+                    long transferred = target.transferFrom(source, size, TRANSFER_CHUNK);
+                    if (transferred <= 0) {
+                        break;
+                    }
+                    size += transferred;
+                    if (size > maxBytes) {
+                        throw new IllegalArgumentException("El archivo supera el tamaño máximo permitido");
+                    }
+                }
+                info = ImageHeaders.read(target);
+            }
+            return place(temp, size, info, HexFormat.of().formatHex(digest.digest()), allowedFormats);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Guarda una imagen subida como multipart sin volver a escribir sus bytes
+     *
+     * Con {@code file-size-threshold: 0} la parte ya está en disco: se lee una vez
+     * para el hash y luego el contenedor la mueve a {@code .incoming} (un renombrado
+     * si ambos directorios están en el mismo sistema de archivos).
+     *
+     * @throws IllegalArgumentException si supera {@code maxBytes} o no es una imagen
+     *         de alguno de los formatos permitidos
+     */
+    public StoredPhoto store(MultipartFile file, long maxBytes, Set<ImageHeaders.Format> allowedFormats)
+            throws IOException {
+        if (file.getSize() > maxBytes) {
+            throw new IllegalArgumentException("El archivo supera el tamaño máximo permitido");
+        }
+        MessageDigest digest = sha256();
+        try (InputStream content = new DigestInputStream(file.getInputStream(), digest)) {
+            byte[] buffer = new byte[HASH_BUFFER_SIZE];
+            while (content.read(buffer) >= 0) {
+                // Solo se recorre para el hash
+            }
+        }
+        Path temp = Files.createTempFile(root.resolve(INCOMING_DIRECTORY), "upload-", ".part");
+        try {
+            file.transferTo(temp.toFile());
+            long size;
+            ImageHeaders.Info info;
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.READ)) {
+                size = channel.size();
+                info = ImageHeaders.read(channel);
+            }
+            return place(temp, size, info, HexFormat.of().formatHex(digest.digest()), allowedFormats);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Registra el contenido y mueve el temporal a su ruta definitiva si aún no existía
+    private StoredPhoto place(Path temp, long size, ImageHeaders.Info info, String hash,
+                              Set<ImageHeaders.Format> allowedFormats) throws IOException {
+        if (!allowedFormats.contains(info.format())) {
+            throw new IllegalArgumentException("Formato de imagen no permitido: " + info.format());
+        }
+        String relativePath = blobPath(hash, info.format().getExtension());
+        register(hash, relativePath, size, info);
+
+        Path blob = resolve(relativePath);
+        boolean deduplicated = Files.exists(blob);
+        if (!deduplicated) {
+            Files.createDirectories(blob.getParent());
+            Files.move(temp, blob, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return new StoredPhoto(hash, relativePath, urlFor(relativePath), size, info, deduplicated);
+    }
+
+    /**
+     * Marca como recién usado un contenido existente, para poder referenciarlo
+     * sin volver a subirlo
+     *
+     * @return false si el contenido no está registrado
+     */
+    public boolean reserve(String hash) {
+        return jdbcTemplate.update(
+                "UPDATE photo_blobs SET orphaned_at = CASE WHEN ref_count <= 0 THEN ? ELSE orphaned_at END " +
+                "WHERE hash = ?", Timestamp.valueOf(LocalDateTime.now()), hash) > 0;
+    }
+
+    // Un contenido sin referencias queda con orphaned_at reciente, fuera del alcance del recolector
+    private void register(String hash, String relativePath, long size, ImageHeaders.Info info) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update(
+                "INSERT INTO photo_blobs (hash, relative_path, file_size, content_type, width, height, " +
+                "ref_count, orphaned_at, created_at) VALUES (?, ?, ?, ?, ?, ?, 0, ?, ?) " +
+                "ON CONFLICT (hash) DO UPDATE SET orphaned_at = CASE WHEN photo_blobs.ref_count <= 0 " +
+                "THEN EXCLUDED.orphaned_at ELSE photo_blobs.orphaned_at END",
+                hash, relativePath, size, info.format().getContentType(), info.width(), info.height(), now, now);
+    }
+
+    private static String blobPath(String hash, String extension) {
+        return BLOB_DIRECTORY + "/" + hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash + "." + extension;
+    }
+
+    /**
+     * Ruta absoluta de un archivo dentro del almacenamiento
+     *
+     * @throws IllegalArgumentException si la ruta sale de la raíz
+     */
+    public Path resolve(String relativePath) {
+        Path path = root.resolve(relativePath).normalize();
+        if (!path.startsWith(root)) {
+            throw new IllegalArgumentException("Ruta fuera del almacenamiento: " + relativePath);
+        }
+        return path;
+    }
+
+    public String urlFor(String relativePath) {
+        return properties.getLocal().getBaseUrl() + "/" + relativePath;
+    }
+
+    /**
+     * Ruta relativa de una URL pública, o null si la URL no es de este almacenamiento
+     */
+    public String relativePathOf(String url) {
+        String prefix = properties.getLocal().getBaseUrl() + "/";
+        return url != null && url.startsWith(prefix) ? url.substring(prefix.length()) : null;
+    }
+
+    /**
+     * Borra un contenido y sus variantes derivadas
+     */
+    void deleteBlob(String relativePath) throws IOException {
+        Path blob = resolve(relativePath);
+        String filename = blob.getFileName().toString();
+        int dot = filename.lastIndexOf('.');
+        String base = dot >= 0 ? filename.substring(0, dot) : filename;
+        Files.deleteIfExists(blob.resolveSibling(base + PhotoUploadService.THUMBNAIL_SUFFIX));
+        Files.deleteIfExists(blob.resolveSibling(base + PhotoUploadService.MEDIUM_SUFFIX));
+        Files.deleteIfExists(blob);
+    }
+
+    /**
+     * Hash SHA-256 (hex) del contenido de un archivo, usado como ETag fuerte
+     *
+     * Se calcula una vez por versión del archivo; las peticiones siguientes solo
+     * leen sus atributos.
+     */
+    public String contentTag(Path path, BasicFileAttributes attributes) throws IOException {
+        // Los originales se llaman como su hash
+        String filename = path.getFileName().toString();
+        int dot = filename.lastIndexOf('.');
+        if (dot > 0 && isContentHash(filename.substring(0, dot))) {
+            return filename.substring(0, dot);
+        }
+        long modified = attributes.lastModifiedTime().toMillis();
+        synchronized (contentTags) {
+            CachedTag cached = contentTags.get(path);
+            if (cached != null && cached.size() == attributes.size() && cached.modified() == modified) {
+                return cached.tag();
+            }
+        }
+        String tag = sha256(path);
+        synchronized (contentTags) {
+            contentTags.put(path, new CachedTag(attributes.size(), modified, tag));
+        }
+        return tag;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String sha256(Path path) throws IOException {
+        MessageDigest digest = sha256();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(HASH_BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
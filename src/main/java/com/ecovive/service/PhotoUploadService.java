@@ -0,0 +1,436 @@
+package com.ecovive.service;
+
+import com.ecovive.dto.PhotoView;
+import com.ecovive.event.ReportMediaChangedEvent;
+import com.ecovive.model.PhotoBlob;
+import com.ecovive.model.Report;
+import com.ecovive.model.ReportPhoto;
+import com.ecovive.repository.PhotoBlobRepository;
+import com.ecovive.repository.ReportPhotoRepository;
+import com.ecovive.repository.ReportRepository;
+import com.ecovive.util.ImageHeaders;
+import com.ecovive.util.PerceptualHash;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Subida de fotos de reportes
+ *
+ * La petición solo copia cada archivo al almacenamiento (en streaming, ver
+ * {@link PhotoStorageService}), lee sus dimensiones de la cabecera y guarda la
+ * fila. La miniatura y la versión mediana se generan después en un pool de
+ * hilos acotado; si la cola está llena la tarea se descarta y el barrido
+ * periódico la retoma, de modo que la carga de trabajo de imágenes nunca crece
+ * sin límite ni bloquea la respuesta. En la misma tarea se calcula el hash
+ * perceptual del contenido, que alimenta {@link ReportPhotoSimilarityIndex}.
+ */
+@Service
+public class PhotoUploadService {
+
+    private static final Logger log = LoggerFactory.getLogger(PhotoUploadService.class);
+
+    // Sufijos de las variantes derivadas junto al archivo original
+    public static final String THUMBNAIL_SUFFIX = "_thumb.jpg";
+    public static final String MEDIUM_SUFFIX = "_medium.jpg";
+
+    private static final int SWEEP_BATCH_SIZE = 100;
+    private static final float DERIVATIVE_QUALITY = 0.85f;
+
+    @Autowired
+    private PhotoStorageService storageService;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Autowired
+    private ReportPhotoRepository reportPhotoRepository;
+
+    @Autowired
+    private PhotoBlobRepository photoBlobRepository;
+
+    @Autowired
+    private ReportPhotoSimilarityIndex similarityIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.upload.max-file-size:10485760}")
+    private long maxFileSize;
+
+    @Value("${app.upload.allowed-extensions:jpg,jpeg,png,gif,webp}")
+    private String allowedExtensions;
+
+    @Value("${app.upload.max-files-per-request:5}")
+    private int maxFilesPerRequest;
+
+    @Value("${app.user.max-photos-per-report:10}")
+    private int maxPhotosPerReport;
+
+    @Value("${app.upload.derivatives.threads:2}")
+    private int derivativeThreads;
+
+    @Value("${app.upload.derivatives.queue-capacity:50}")
+    private int derivativeQueueCapacity;
+
+    @Value("${app.upload.derivatives.thumbnail-size:200}")
+    private int thumbnailSize;
+
+    @Value("${app.upload.derivatives.medium-size:800}")
+    private int mediumSize;
+
+    @Value("${app.upload.derivatives.sweep-delay-minutes:2}")
+    private long sweepDelayMinutes;
+
+    private Set<String> allowed;
+    private Set<ImageHeaders.Format> allowedFormats;
+
+    // Pool propio (no un bean Executor) para no reemplazar el ejecutor por defecto de Spring
+    private ThreadPoolTaskExecutor executor;
+
+    // Fotos con una tarea en cola o en curso, para que el barrido no las repita
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void init() {
+        allowed = Set.copyOf(Arrays.stream(allowedExtensions.split(","))
+                .map(extension -> extension.trim().toLowerCase(Locale.ROOT))
+                .toList());
+        allowedFormats = EnumSet.noneOf(ImageHeaders.Format.class);
+        for (String extension : allowed) {
+            ImageHeaders.Format format = ImageHeaders.Format.fromExtension(extension);
+            if (format != null) {
+                allowedFormats.add(format);
+            }
+        }
+
+        executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("photo-derivatives-");
+        executor.setCorePoolSize(derivativeThreads);
+        executor.setMaxPoolSize(derivativeThreads);
+        executor.setQueueCapacity(derivativeQueueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Guarda las fotos de un reporte
+     *
+     * @return vistas de las fotos creadas, o vacío si el reporte no existe
+     * @throws IllegalArgumentException si algún archivo no es válido; los
+     *         archivos anteriores de la misma petición quedan guardados
+     */
+    public Optional<List<PhotoView>> upload(Long reportId, List<MultipartFile> files) throws IOException {
+        if (files == null || files.isEmpty()) {
+            throw new IllegalArgumentException("Debe enviar al menos un archivo");
+        }
+        if (files.size() > maxFilesPerRequest) {
+            throw new IllegalArgumentException("Máximo " + maxFilesPerRequest + " archivos por petición");
+        }
+        Optional<Long> existing = existingPhotos(reportId, files.size());
+        if (existing.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Report report = reportRepository.getReferenceById(reportId);
+        List<PhotoView> views = new ArrayList<>(files.size());
+        for (MultipartFile file : files) {
+            ReportPhoto photo = store(report, file, existing.get() == 0 && views.isEmpty());
+            views.add(toView(reportId, photo));
+        }
+        eventPublisher.publishEvent(new ReportMediaChangedEvent(reportId));
+        return Optional.of(views);
+    }
+
+    /**
+     * Agrega a un reporte una foto cuyo contenido ya está en el almacenamiento,
+     * identificada por su SHA-256, sin volver a subir el archivo
+     *
+     * @return vista de la foto creada, o vacío si el reporte no existe
+     * @throws NoSuchElementException si no hay contenido con ese hash
+     */
+    public Optional<PhotoView> attach(Long reportId, String hash, String originalFilename) {
+        if (!PhotoStorageService.isContentHash(hash)) {
+            throw new IllegalArgumentException("Hash SHA-256 inválido");
+        }
+        Optional<Long> existing = existingPhotos(reportId, 1);
+        if (existing.isEmpty()) {
+            return Optional.empty();
+        }
+        if (!storageService.reserve(hash)) {
+            throw new NoSuchElementException("Contenido no encontrado: " + hash);
+        }
+        PhotoBlob blob = photoBlobRepository.findById(hash)
+                .orElseThrow(() -> new NoSuchElementException("Contenido no encontrado: " + hash));
+
+        String relativePath = blob.getRelativePath();
+        ReportPhoto photo = new ReportPhoto(filenameOf(relativePath),
+                originalFilename != null ? originalFilename : filenameOf(relativePath),
+                storageService.urlFor(relativePath), reportRepository.getReferenceById(reportId));
+        photo.setContentHash(hash);
+        photo.setFileSize(blob.getFileSize());
+        photo.setContentType(blob.getContentType());
+        photo.setWidth(blob.getWidth());
+        photo.setHeight(blob.getHeight());
+        photo.setIsPrimary(existing.get() == 0);
+        PhotoView view = toView(reportId, save(photo, relativePath));
+        eventPublisher.publishEvent(new ReportMediaChangedEvent(reportId));
+        return Optional.of(view);
+    }
+
+    // Fotos actuales del reporte, o vacío si no existe; valida el máximo por reporte
+    private Optional<Long> existingPhotos(Long reportId, int adding) {
+        if (!reportRepository.existsById(reportId)) {
+            return Optional.empty();
+        }
+        long existing = reportPhotoRepository.countByReportId(reportId);
+        if (existing + adding > maxPhotosPerReport) {
+            throw new IllegalArgumentException("El reporte admite como máximo " + maxPhotosPerReport + " fotos");
+        }
+        return Optional.of(existing);
+    }
+
+    private ReportPhoto store(Report report, MultipartFile file, boolean primary) throws IOException {
+        if (file.isEmpty()) {
+            throw new IllegalArgumentException("El archivo está vacío");
+        }
+        if (file.getSize() > maxFileSize) {
+            throw new IllegalArgumentException("El archivo supera el tamaño máximo permitido");
+        }
+        String originalFilename = file.getOriginalFilename() != null ? file.getOriginalFilename() : "foto";
+        int dot = originalFilename.lastIndexOf('.');
+        String extension = dot >= 0 ? originalFilename.substring(dot + 1).toLowerCase(Locale.ROOT) : "";
+        if (!allowed.contains(extension)) {
+            throw new IllegalArgumentException("Extensión no permitida: " + originalFilename);
+        }
+
+        PhotoStorageService.StoredPhoto stored = storageService.store(file, maxFileSize, allowedFormats);
+        ImageHeaders.Info info = stored.info();
+
+        ReportPhoto photo = new ReportPhoto(filenameOf(stored.relativePath()), originalFilename, stored.url(), report);
+        photo.setContentHash(stored.hash());
+        photo.setFileSize(stored.size());
+        photo.setContentType(info.format().getContentType());
+        photo.setWidth(info.width());
+        photo.setHeight(info.height());
+        photo.setIsPrimary(primary);
+        return save(photo, stored.relativePath());
+    }
+
+    // Si el contenido ya tenía variantes y hash perceptual se reutilizan; si no, se encargan al pool
+    private ReportPhoto save(ReportPhoto photo, String relativePath) {
+        String base = basePathOf(relativePath);
+        if (hasDerivatives(base) && photoBlobRepository.findPerceptualHash(photo.getContentHash()).isPresent()) {
+            photo.setThumbnailUrl(storageService.urlFor(base + THUMBNAIL_SUFFIX));
+            photo.setMediumUrl(storageService.urlFor(base + MEDIUM_SUFFIX));
+            ReportPhoto saved = reportPhotoRepository.save(photo);
+            similarityIndex.onPhotoHashed(saved.getId());
+            return saved;
+        }
+        ReportPhoto saved = reportPhotoRepository.save(photo);
+        submitDerivatives(saved.getId(), photo.getReport().getId(), saved.getFileUrl(), saved.getContentHash());
+        return saved;
+    }
+
+    private boolean hasDerivatives(String base) {
+        return Files.exists(storageService.resolve(base + THUMBNAIL_SUFFIX))
+                && Files.exists(storageService.resolve(base + MEDIUM_SUFFIX));
+    }
+
+    private static String filenameOf(String relativePath) {
+        return relativePath.substring(relativePath.lastIndexOf('/') + 1);
+    }
+
+    private static String basePathOf(String relativePath) {
+        int dot = relativePath.lastIndexOf('.');
+        return dot > relativePath.lastIndexOf('/') ? relativePath.substring(0, dot) : relativePath;
+    }
+
+    private PhotoView toView(Long reportId, ReportPhoto photo) {
+        return new PhotoView(photo.getId(), reportId, photo.getFileUrl(), photo.getThumbnailUrl(),
+                photo.getMediumUrl(), photo.getWidth(), photo.getHeight(), photo.getIsPrimary(),
+                photo.getDescription());
+    }
+
+    private void submitDerivatives(Long photoId, Long reportId, String fileUrl, String contentHash) {
+        if (!inFlight.add(photoId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generateDerivatives(photoId, fileUrl, contentHash);
+                    eventPublisher.publishEvent(new ReportMediaChangedEvent(reportId));
+                } catch (Exception e) {
+                    log.warn("No se pudieron generar las variantes de la foto {}", photoId, e);
+                } finally {
+                    inFlight.remove(photoId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(photoId);
+            log.debug("Cola de variantes llena, la foto {} queda para el barrido", photoId);
+        }
+    }
+
+    /**
+     * Retoma las fotos sin variantes: tareas descartadas por cola llena,
+     * fallidas o interrumpidas por un reinicio
+     */
+    @Scheduled(fixedDelayString = "${app.upload.derivatives.sweep-interval-ms:300000}")
+    public void sweepMissingDerivatives() {
+        LocalDateTime before = LocalDateTime.now().minusMinutes(sweepDelayMinutes);
+        List<ReportPhoto> pending = reportPhotoRepository.findMissingDerivatives(before,
+                PageRequest.of(0, SWEEP_BATCH_SIZE));
+        for (ReportPhoto photo : pending) {
+            if (executor.getThreadPoolExecutor().getQueue().remainingCapacity() == 0) {
+                break;
+            }
+            submitDerivatives(photo.getId(), photo.getReport().getId(), photo.getFileUrl(), photo.getContentHash());
+        }
+    }
+
+    private void generateDerivatives(Long photoId, String fileUrl, String contentHash) throws IOException {
+        String relativePath = storageService.relativePathOf(fileUrl);
+        if (relativePath == null) {
+            // Foto fuera del almacenamiento local: se sirve el original
+            reportPhotoRepository.updateDerivatives(photoId, fileUrl, fileUrl);
+            return;
+        }
+        String base = basePathOf(relativePath);
+        String mediumPath = base + MEDIUM_SUFFIX;
+        String thumbnailPath = base + THUMBNAIL_SUFFIX;
+        // Las variantes y el hash perceptual pueden venir de otra foto con el mismo contenido
+        boolean derivatives = hasDerivatives(base);
+        Long perceptualHash = contentHash != null
+                ? photoBlobRepository.findPerceptualHash(contentHash).orElse(null) : null;
+
+        if (!derivatives || (contentHash != null && perceptualHash == null)) {
+            BufferedImage image = decode(storageService.resolve(relativePath), mediumSize);
+            if (image == null) {
+                // Formato sin decodificador en ImageIO (p. ej. WebP)
+                reportPhotoRepository.updateDerivatives(photoId, fileUrl, fileUrl);
+                return;
+            }
+            if (!derivatives) {
+                BufferedImage medium = scale(image, mediumSize);
+                writeJpeg(medium, storageService.resolve(mediumPath));
+                writeJpeg(scale(medium, thumbnailSize), storageService.resolve(thumbnailPath));
+            }
+            if (contentHash != null && perceptualHash == null) {
+                perceptualHash = PerceptualHash.dHash(image);
+                photoBlobRepository.updatePerceptualHash(contentHash, perceptualHash);
+            }
+        }
+
+        reportPhotoRepository.updateDerivatives(photoId,
+                storageService.urlFor(thumbnailPath), storageService.urlFor(mediumPath));
+        if (perceptualHash != null) {
+            similarityIndex.onPhotoHashed(photoId);
+        }
+    }
+
+    /**
+     * Decodifica la imagen con submuestreo, de forma que el lado mayor quede
+     * entre una y dos veces {@code targetSize}; así nunca se reserva el mapa de
+     * bits completo de una foto de cámara
+     */
+    private BufferedImage decode(Path source, int targetSize) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int longest = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int subsampling = Math.max(1, longest / targetSize);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage scale(BufferedImage image, int maxSize) {
+        double ratio = Math.min(1.0, (double) maxSize / Math.max(image.getWidth(), image.getHeight()));
+        int width = Math.max(1, (int) Math.round(image.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * ratio));
+        // JPEG no admite transparencia: siempre se dibuja sobre RGB
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(image, 0, 0, width, height, Color.WHITE, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    private static void writeJpeg(BufferedImage image, Path target) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), "derivative-", ".part");
+        try {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            try (ImageOutputStream output = ImageIO.createImageOutputStream(temp.toFile())) {
+                writer.setOutput(output);
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(DERIVATIVE_QUALITY);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
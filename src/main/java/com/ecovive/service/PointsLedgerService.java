@@ -0,0 +1,304 @@
+package com.ecovive.service;
+
+import com.ecovive.event.ReportChangedEvent;
+import com.ecovive.event.ReportSnapshot;
+import com.ecovive.event.UserPointsChangedEvent;
+import com.ecovive.model.User;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Libro de puntos ecológicos con aplicación diferida
+ *
+ * Cada acreditación se inserta en {@code points_ledger} como fila pendiente dentro
+ * de la transacción del reporte, así que no se pierde aunque el proceso caiga.
+ * El vuelco periódico toma las filas pendientes, aplica un único UPDATE atómico
+ * por usuario ({@code eco_points = eco_points + ?}, con el nivel recalculado en
+ * la misma sentencia) y las marca aplicadas en esa transacción. Si un usuario
+ * falla, los demás se aplican igual; sus filas se reintentan con espera creciente
+ * y tras {@code app.points.max-attempts} fallos quedan apartadas con
+ * {@code failed_at} para revisión manual.
+ */
+@Service
+public class PointsLedgerService {
+
+    private static final Logger log = LoggerFactory.getLogger(PointsLedgerService.class);
+
+    public static final String REASON_REPORT_CREATED = "REPORT_CREATED";
+
+    private static final String INSERT_LEDGER_SQL =
+            "INSERT INTO points_ledger (user_id, points, reports_delta, reason, report_id, created_at, pending) " +
+            "VALUES (?, ?, ?, ?, ?, ?, TRUE)";
+
+    private static final String SELECT_PENDING_SQL =
+            "SELECT id, user_id FROM points_ledger " +
+            "WHERE pending AND (retry_at IS NULL OR retry_at <= CURRENT_TIMESTAMP) ORDER BY id LIMIT ?";
+
+    // Bloquea las filas del usuario para que dos nodos no apliquen el mismo movimiento
+    private static final String CLAIM_SQL =
+            "SELECT id, points, reports_delta FROM points_ledger " +
+            "WHERE id = ANY(?) AND pending FOR UPDATE SKIP LOCKED";
+
+    private static final String MARK_APPLIED_SQL =
+            "UPDATE points_ledger SET pending = FALSE, retry_at = NULL WHERE id = ANY(?)";
+
+    private static final String RECORD_FAILURE_SQL =
+            "UPDATE points_ledger SET attempts = attempts + 1, " +
+            "pending = attempts + 1 < ?, " +
+            "failed_at = CASE WHEN attempts + 1 >= ? THEN CURRENT_TIMESTAMP END, " +
+            "retry_at = CURRENT_TIMESTAMP + (attempts + 1) * (attempts + 1) * INTERVAL '1 second' " +
+            "WHERE id = ANY(?) AND pending";
+
+    private static final String UPDATE_USER_SQL = buildUpdateUserSql();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.points.flush-batch-size:5000}")
+    private int flushBatchSize;
+
+    @Value("${app.points.max-attempts:5}")
+    private int maxAttempts;
+
+    /**
+     * Movimiento a registrar en el libro
+     */
+    public record Accrual(long userId, int points, int reportsDelta, String reason, Long reportId,
+                          LocalDateTime createdAt) {
+    }
+
+    /**
+     * Totales de un usuario tras aplicar un vuelco
+     */
+    public record UserTotals(long userId, int ecoPoints, int reportsCount, String level) {
+    }
+
+    /**
+     * Resultado de un vuelco
+     */
+    public record FlushResult(int applied, int failed) {
+    }
+
+    /**
+     * Registra una acreditación de puntos (y opcionalmente de reportes) para un usuario
+     *
+     * Dentro de una transacción se inserta junto con las demás justo antes del
+     * commit, de modo que el movimiento existe si y solo si la escritura que lo
+     * originó se confirmó. Fuera de una transacción se inserta de inmediato.
+     */
+    public void accrue(long userId, int points, int reportsDelta, String reason, Long reportId) {
+        Accrual accrual = new Accrual(userId, points, reportsDelta, reason, reportId, LocalDateTime.now());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            insert(List.of(accrual));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<Accrual> buffer = (List<Accrual>) TransactionSynchronizationManager.getResource(this);
+        if (buffer == null) {
+            List<Accrual> fresh = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, fresh);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    insert(fresh);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(PointsLedgerService.this);
+                }
+            });
+            buffer = fresh;
+        }
+        buffer.add(accrual);
+    }
+
+    @EventListener
+    public void onReportChanged(ReportChangedEvent event) {
+        ReportSnapshot current = event.current();
+        if (event.type() == ReportChangedEvent.Type.CREATED && current.userId() != null) {
+            int points = current.ecoPoints() != null ? current.ecoPoints() : 0;
+            accrue(current.userId(), points, 1, REASON_REPORT_CREATED, current.id());
+        }
+    }
+
+    /**
+     * Aplica los movimientos pendientes a los totales de los usuarios
+     *
+     * Primero intenta todo el lote en una transacción; si falla, repite usuario
+     * por usuario para aislar al que provoca el error.
+     */
+    @Scheduled(fixedDelayString = "${app.points.flush-interval-ms:500}")
+    public FlushResult flush() {
+        Map<Long, List<Long>> idsByUser = new LinkedHashMap<>();
+        jdbcTemplate.query(SELECT_PENDING_SQL, rs -> {
+            idsByUser.computeIfAbsent(rs.getLong(2), id -> new ArrayList<>()).add(rs.getLong(1));
+        }, flushBatchSize);
+        if (idsByUser.isEmpty()) {
+            return new FlushResult(0, 0);
+        }
+
+        List<UserTotals> totals = new ArrayList<>(idsByUser.size());
+        int applied = 0;
+        int failed = 0;
+        try {
+            applied = transactionTemplate.execute(status -> {
+                int count = 0;
+                for (Map.Entry<Long, List<Long>> entry : idsByUser.entrySet()) {
+                    count += applyUser(entry.getKey(), entry.getValue(), totals);
+                }
+                return count;
+            });
+        } catch (RuntimeException batchFailure) {
+            totals.clear();
+            for (Map.Entry<Long, List<Long>> entry : idsByUser.entrySet()) {
+                List<UserTotals> userTotals = new ArrayList<>(1);
+                try {
+                    applied += transactionTemplate.execute(
+                            status -> applyUser(entry.getKey(), entry.getValue(), userTotals));
+                    totals.addAll(userTotals);
+                } catch (RuntimeException e) {
+                    failed += entry.getValue().size();
+                    recordFailure(entry.getKey(), entry.getValue(), e);
+                }
+            }
+        }
+
+        for (UserTotals user : totals) {
+            leaderboardService.updateScores(user.userId(), user.ecoPoints(), user.reportsCount(), user.level());
+        }
+        if (!totals.isEmpty()) {
+            eventPublisher.publishEvent(new UserPointsChangedEvent(totals.stream().map(UserTotals::userId).toList()));
+        }
+        log.debug("Libro de puntos volcado: {} movimientos aplicados, {} fallidos, {} usuarios",
+                applied, failed, idsByUser.size());
+        return new FlushResult(applied, failed);
+    }
+
+    /**
+     * Movimientos aún no aplicados (sin contar los apartados)
+     */
+    public long pendingCount() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM points_ledger WHERE pending", Long.class);
+        return count != null ? count : 0;
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void insert(List<Accrual> accruals) {
+        if (accruals.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_LEDGER_SQL, accruals, accruals.size(), (ps, accrual) -> {
+            ps.setLong(1, accrual.userId());
+            ps.setInt(2, accrual.points());
+            ps.setInt(3, accrual.reportsDelta());
+            ps.setString(4, accrual.reason());
+            if (accrual.reportId() != null) {
+                ps.setLong(5, accrual.reportId());
+            } else {
+                ps.setNull(5, Types.BIGINT);
+            }
+            ps.setTimestamp(6, Timestamp.valueOf(accrual.createdAt()));
+        });
+    }
+
+    private int applyUser(long userId, List<Long> ids, List<UserTotals> totals) {
+        List<Long> claimed = new ArrayList<>(ids.size());
+        int[] delta = new int[2];
+        jdbcTemplate.query(CLAIM_SQL, rs -> {
+            claimed.add(rs.getLong(1));
+            delta[0] += rs.getInt(2);
+            delta[1] += rs.getInt(3);
+        }, (Object) idArray(ids));
+        if (claimed.isEmpty()) {
+            // Ya las aplicó otro nodo
+            return 0;
+        }
+        List<UserTotals> updated = jdbcTemplate.query(UPDATE_USER_SQL,
+                (rs, rowNum) -> new UserTotals(rs.getLong(1), rs.getInt(2), rs.getInt(3), rs.getString(4)),
+                updateArgs(userId, delta[0], delta[1]));
+        if (updated.isEmpty()) {
+            throw new IllegalStateException("El usuario " + userId + " no existe");
+        }
+        jdbcTemplate.update(MARK_APPLIED_SQL, (Object) idArray(claimed));
+        totals.addAll(updated);
+        return claimed.size();
+    }
+
+    private void recordFailure(long userId, List<Long> ids, RuntimeException cause) {
+        try {
+            jdbcTemplate.update(RECORD_FAILURE_SQL, maxAttempts, maxAttempts, idArray(ids));
+        } catch (RuntimeException e) {
+            log.error("No se pudo registrar el fallo del libro de puntos del usuario {}", userId, e);
+            return;
+        }
+        log.error("No se pudieron aplicar {} movimientos del usuario {}; se reintentará con espera " +
+                "(máximo {} intentos)", ids.size(), userId, maxAttempts, cause);
+    }
+
+    private static Long[] idArray(List<Long> ids) {
+        return ids.toArray(new Long[0]);
+    }
+
+    private static Object[] updateArgs(long userId, int points, int reports) {
+        // eco_points y reports_count, un delta de puntos por cada umbral del CASE y el id
+        int thresholds = User.LEVEL_MIN_POINTS.length - 1;
+        Object[] args = new Object[thresholds + 3];
+        args[0] = points;
+        args[1] = reports;
+        for (int i = 0; i < thresholds; i++) {
+            args[2 + i] = points;
+        }
+        args[args.length - 1] = userId;
+        return args;
+    }
+
+    /**
+     * UPDATE atómico con el nivel calculado sobre el nuevo total, con los mismos
+     * umbrales que {@link User#levelFor(int)}
+     */
+    private static String buildUpdateUserSql() {
+        StringBuilder level = new StringBuilder("CASE");
+        for (int i = 0; i < User.LEVEL_MIN_POINTS.length - 1; i++) {
+            level.append(" WHEN COALESCE(eco_points, 0) + ? >= ").append(User.LEVEL_MIN_POINTS[i])
+                 .append(" THEN '").append(User.LEVEL_NAMES[i]).append("'");
+        }
+        level.append(" ELSE '").append(User.LEVEL_NAMES[User.LEVEL_NAMES.length - 1]).append("' END");
+        return "UPDATE users SET eco_points = COALESCE(eco_points, 0) + ?, " +
+               "reports_count = COALESCE(reports_count, 0) + ?, " +
+               "level = " + level + " " +
+               "WHERE id = ? RETURNING id, eco_points, reports_count, level";
+    }
+}
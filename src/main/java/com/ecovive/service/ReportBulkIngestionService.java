@@ -0,0 +1,283 @@
+package com.ecovive.service;
+
+import com.ecovive.config.DuplicateDetectionProperties;
+import com.ecovive.dto.BulkIngestResult;
+import com.ecovive.dto.BulkReportRow;
+import com.ecovive.event.ReportChangedEvent;
+import com.ecovive.event.ReportSnapshot;
+import com.ecovive.model.DuplicateCandidate;
+import com.ecovive.model.Report;
+import com.ecovive.model.ReportComment;
+import com.ecovive.model.ReportPhoto;
+import com.ecovive.model.ReportStatus;
+import com.ecovive.model.User;
+import com.ecovive.repository.DuplicateCandidateRepository;
+import com.ecovive.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Ingesta masiva de reportes recogidos en campañas de campo sin conexión
+ *
+ * El cuerpo se lee como un array JSON en streaming, fila a fila, sin cargarlo
+ * entero en memoria. Cada fila se valida por separado y las válidas se guardan
+ * en bloques de {@code app.bulk.chunk-size}, cada uno en su propia transacción.
+ * Los ids de reportes, fotos y comentarios salen de secuencias con asignación
+ * por bloques, así Hibernate agrupa los INSERT en batches JDBC reales.
+ */
+@Service
+public class ReportBulkIngestionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportBulkIngestionService.class);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReportDuplicateDetector duplicateDetector;
+
+    @Autowired
+    private DuplicateDetectionProperties duplicateProperties;
+
+    @Autowired
+    private DuplicateCandidateRepository duplicateCandidateRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.bulk.max-rows:5000}")
+    private int maxRows;
+
+    @Value("${app.bulk.chunk-size:500}")
+    private int chunkSize;
+
+    private record IndexedRow(int index, BulkReportRow row) {
+    }
+
+    /**
+     * Lee el array de filas y guarda las válidas
+     *
+     * @throws IllegalArgumentException si el cuerpo no es un array JSON
+     */
+    public BulkIngestResult ingest(InputStream body) throws IOException {
+        List<BulkIngestResult.RowError> errors = new ArrayList<>();
+        List<IndexedRow> chunk = new ArrayList<>(chunkSize);
+        int received = 0;
+        int created = 0;
+        boolean truncated = false;
+
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Se esperaba un array JSON de reportes");
+            }
+            while (true) {
+                JsonToken token;
+                JsonNode node;
+                try {
+                    token = parser.nextToken();
+                    if (token == JsonToken.END_ARRAY || token == null) {
+                        break;
+                    }
+                    if (received >= maxRows) {
+                        truncated = true;
+                        break;
+                    }
+                    node = objectMapper.readTree(parser);
+                } catch (JsonParseException e) {
+                    // Un error de sintaxis deja el parser en un estado irrecuperable
+                    errors.add(new BulkIngestResult.RowError(received, null,
+                            "JSON mal formado: " + e.getOriginalMessage()));
+                    truncated = true;
+                    break;
+                }
+
+                int index = received++;
+                BulkReportRow row = toRow(index, node, errors);
+                if (row != null) {
+                    chunk.add(new IndexedRow(index, row));
+                }
+                if (chunk.size() >= chunkSize) {
+                    created += persistChunk(chunk, errors);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            created += persistChunk(chunk, errors);
+        }
+
+        errors.sort((a, b) -> Integer.compare(a.index(), b.index()));
+        return new BulkIngestResult(received, created, errors, truncated);
+    }
+
+    private BulkReportRow toRow(int index, JsonNode node, List<BulkIngestResult.RowError> errors) {
+        BulkReportRow row;
+        try {
+            row = objectMapper.treeToValue(node, BulkReportRow.class);
+        } catch (JsonProcessingException e) {
+            errors.add(new BulkIngestResult.RowError(index, null, "Fila inválida: " + e.getOriginalMessage()));
+            return null;
+        }
+        if (row == null) {
+            errors.add(new BulkIngestResult.RowError(index, null, "Fila vacía"));
+            return null;
+        }
+        Set<ConstraintViolation<BulkReportRow>> violations = validator.validate(row);
+        if (!violations.isEmpty()) {
+            for (ConstraintViolation<BulkReportRow> violation : violations) {
+                errors.add(new BulkIngestResult.RowError(index, violation.getPropertyPath().toString(),
+                        violation.getMessage()));
+            }
+            return null;
+        }
+        return row;
+    }
+
+    /**
+     * Guarda un bloque de filas válidas en una transacción y devuelve cuántas se crearon
+     */
+    private int persistChunk(List<IndexedRow> chunk, List<BulkIngestResult.RowError> errors) {
+        List<BulkIngestResult.RowError> chunkErrors = new ArrayList<>();
+        try {
+            Integer created = transactionTemplate.execute(status -> persistRows(chunk, chunkErrors));
+            errors.addAll(chunkErrors);
+            return created != null ? created : 0;
+        } catch (RuntimeException e) {
+            log.error("Falló el guardado de un bloque de {} reportes", chunk.size(), e);
+            for (IndexedRow indexed : chunk) {
+                errors.add(new BulkIngestResult.RowError(indexed.index(), null,
+                        "No se pudo guardar el bloque: " + e.getMessage()));
+            }
+            return 0;
+        }
+    }
+
+    private int persistRows(List<IndexedRow> chunk, List<BulkIngestResult.RowError> errors) {
+        Set<Long> userIds = new HashSet<>();
+        for (IndexedRow indexed : chunk) {
+            userIds.add(indexed.row().getUserId());
+            for (BulkReportRow.Comment comment : indexed.row().getComments()) {
+                userIds.add(comment.getUserId());
+            }
+        }
+        Map<Long, User> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Report> reports = new ArrayList<>(chunk.size());
+        List<DuplicateCandidate> candidates = new ArrayList<>();
+        for (IndexedRow indexed : chunk) {
+            BulkReportRow row = indexed.row();
+            String missingUser = findMissingUser(row, users);
+            if (missingUser != null) {
+                errors.add(new BulkIngestResult.RowError(indexed.index(), missingUser,
+                        "Usuario no encontrado"));
+                continue;
+            }
+
+            Report report = new Report(row.getCategory(), row.getTitle(), row.getDescription(),
+                    row.getLatitude(), row.getLongitude(), users.get(row.getUserId()));
+            ReportService.applyOptionalFields(report, row);
+
+            // Registrado en el detector al persistir: las filas siguientes del bloque ya lo ven
+            List<ReportDuplicateDetector.Match> duplicates = new ArrayList<>();
+            duplicateDetector.findAndRegister(report.getCategory(), report.getLatitude(), report.getLongitude(),
+                    now, matches -> {
+                        duplicates.addAll(matches);
+                        if (!matches.isEmpty()
+                                && duplicateProperties.getMode() == DuplicateDetectionProperties.Mode.AUTO_MARK) {
+                            report.setStatus(ReportStatus.DUPLICATE);
+                        }
+                        // Con ids de secuencia el persist no dispara un INSERT inmediato
+                        entityManager.persist(report);
+                        return report;
+                    });
+            for (BulkReportRow.Photo photo : row.getPhotos()) {
+                entityManager.persist(toPhoto(photo, report));
+            }
+            for (BulkReportRow.Comment comment : row.getComments()) {
+                ReportComment entity = new ReportComment(comment.getContent(), users.get(comment.getUserId()), report);
+                if (comment.getIsPublic() != null) {
+                    entity.setIsPublic(comment.getIsPublic());
+                }
+                entityManager.persist(entity);
+            }
+            for (ReportDuplicateDetector.Match match : duplicates) {
+                candidates.add(new DuplicateCandidate(report.getId(), match.reportId(),
+                        DuplicateCandidate.Reason.PROXIMITY, match.distanceMeters()));
+            }
+            reports.add(report);
+        }
+
+        entityManager.flush();
+        // Los candidatos usan IDENTITY: se insertan cuando los reportes ya existen
+        duplicateCandidateRepository.saveAll(candidates);
+        for (Report report : reports) {
+            eventPublisher.publishEvent(ReportChangedEvent.created(ReportSnapshot.of(report)));
+        }
+        entityManager.clear();
+        return reports.size();
+    }
+
+    private static String findMissingUser(BulkReportRow row, Map<Long, User> users) {
+        if (!users.containsKey(row.getUserId())) {
+            return "userId";
+        }
+        List<BulkReportRow.Comment> comments = row.getComments();
+        for (int i = 0; i < comments.size(); i++) {
+            if (!users.containsKey(comments.get(i).getUserId())) {
+                return "comments[" + i + "].userId";
+            }
+        }
+        return null;
+    }
+
+    private static ReportPhoto toPhoto(BulkReportRow.Photo photo, Report report) {
+        ReportPhoto entity = new ReportPhoto(photo.getFilename(), photo.getOriginalFilename(), photo.getFileUrl(), report);
+        entity.setFileSize(photo.getFileSize());
+        entity.setContentType(photo.getContentType());
+        entity.setDescription(photo.getDescription());
+        if (photo.getIsPrimary() != null) {
+            entity.setIsPrimary(photo.getIsPrimary());
+        }
+        return entity;
+    }
+}
@@ -0,0 +1,97 @@
+package com.ecovive.service;
+
+import com.ecovive.event.ReportChangedEvent;
+import com.ecovive.event.ReportMediaChangedEvent;
+import com.ecovive.event.UserChangedEvent;
+import com.ecovive.model.ReportCategory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sellos de versión en memoria del listado de reportes: completo y por categoría
+ *
+ * Cada escritura confirmada avanza la versión de las colecciones afectadas, de
+ * modo que un GET condicional se resuelve con un 304 sin consultar la base de
+ * datos. Los cambios que no se pueden ubicar en una categoría (fotos de un
+ * reporte, nombre del autor) avanzan todas. Como los índices en memoria, las
+ * versiones solo ven las escrituras de esta instancia; el prefijo de arranque
+ * invalida los ETag emitidos antes de un reinicio.
+ */
+@Component
+public class ReportCollectionVersions {
+
+    private static final String ALL = "all";
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<String, Long> versions = new ConcurrentHashMap<>();
+
+    /**
+     * Versión de una colección
+     */
+    public record Stamp(String epoch, long version) {
+
+        /**
+         * ETag débil de una representación concreta ({@code json}, {@code cbor}) de la colección
+         */
+        public String etag(String representation) {
+            return "W/\"" + epoch + "-" + version + "-" + representation + "\"";
+        }
+    }
+
+    public Stamp all() {
+        return stamp(ALL);
+    }
+
+    public Stamp category(ReportCategory category) {
+        return stamp(categoryKey(category));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReportChanged(ReportChangedEvent event) {
+        advance(ALL,
+                event.previous() != null ? categoryKey(event.previous().category()) : null,
+                event.current() != null ? categoryKey(event.current().category()) : null);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReportMediaChanged(ReportMediaChangedEvent event) {
+        advanceEverything();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        advanceEverything();
+    }
+
+    private Stamp stamp(String key) {
+        return new Stamp(epoch, versions.getOrDefault(key, 0L));
+    }
+
+    private void advanceEverything() {
+        String[] keys = new String[ReportCategory.values().length + 1];
+        keys[0] = ALL;
+        for (ReportCategory category : ReportCategory.values()) {
+            keys[category.ordinal() + 1] = categoryKey(category);
+        }
+        advance(keys);
+    }
+
+    private void advance(String... keys) {
+        long version = sequence.incrementAndGet();
+        for (String key : keys) {
+            if (key != null) {
+                // Dos escrituras concurrentes pueden llegar en desorden: se conserva siempre el máximo
+                versions.merge(key, version, Math::max);
+            }
+        }
+    }
+
+    private static String categoryKey(ReportCategory category) {
+        return category != null ? "category:" + category.name() : null;
+    }
+}
@@ -0,0 +1,320 @@
+package com.ecovive.service;
+
+import com.ecovive.config.DuplicateDetectionProperties;
+import com.ecovive.event.ReportChangedEvent;
+import com.ecovive.event.ReportSnapshot;
+import com.ecovive.model.Report;
+import com.ecovive.model.ReportCategory;
+import com.ecovive.model.ReportStatus;
+import com.ecovive.repository.ReportRepository;
+import com.ecovive.util.GeoUtils;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+
+/**
+ * Detector de reportes duplicados en la ruta de creación
+ *
+ * Mantiene en memoria los reportes recientes particionados por categoría. Cada
+ * partición es una grilla cuyo tamaño de celda coincide con el radio configurado
+ * para la categoría, de modo que una consulta revisa como mucho 3x3 celdas. Los
+ * reportes que salen de la ventana temporal se purgan en orden de llegada.
+ *
+ * La ruta de creación usa {@link #findAndRegister}: la búsqueda y el alta del
+ * reporte nuevo ocurren bajo el lock de la partición, así que dos reportes del
+ * mismo sitio creados a la vez (o en el mismo bloque de una ingesta masiva) se
+ * ven entre sí sin esperar al commit.
+ */
+@Component
+public class ReportDuplicateDetector {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportDuplicateDetector.class);
+
+    private static final int WARMUP_BATCH_SIZE = 5000;
+
+    @Autowired
+    private DuplicateDetectionProperties properties;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    private final Map<ReportCategory, Partition> partitions = new EnumMap<>(ReportCategory.class);
+
+    /**
+     * Coincidencia con un reporte existente
+     */
+    public record Match(long reportId, double distanceMeters) {
+    }
+
+    private record Entry(long id, double latitude, double longitude, long createdAtEpochSecond) {
+    }
+
+    /**
+     * Reportes recientes de una categoría
+     */
+    private static final class Partition {
+        final double cellSizeDegrees;
+        final Map<Long, Map<Long, Entry>> cells = new ConcurrentHashMap<>();
+        final Map<Long, Entry> byId = new ConcurrentHashMap<>();
+        // Orden de llegada para purgar por antigüedad sin recorrer la grilla
+        final ConcurrentLinkedQueue<Entry> arrivals = new ConcurrentLinkedQueue<>();
+
+        Partition(double radiusMeters) {
+            this.cellSizeDegrees = Math.max(GeoUtils.latitudeDelta(radiusMeters), 1e-5);
+        }
+
+        long cellIndex(double degrees) {
+            return (long) Math.floor(degrees / cellSizeDegrees);
+        }
+
+        long cellKey(double latitude, double longitude) {
+            return (cellIndex(latitude) << 32) ^ (cellIndex(longitude) & 0xFFFFFFFFL);
+        }
+
+        void add(Entry entry) {
+            byId.compute(entry.id(), (id, old) -> {
+                if (old != null) {
+                    removeFromCell(old);
+                }
+                cells.computeIfAbsent(cellKey(entry.latitude(), entry.longitude()),
+                        k -> new ConcurrentHashMap<>()).put(entry.id(), entry);
+                return entry;
+            });
+            arrivals.add(entry);
+        }
+
+        void remove(long id) {
+            byId.computeIfPresent(id, (key, old) -> {
+                removeFromCell(old);
+                return null;
+            });
+        }
+
+        /**
+         * Elimina la entrada solo si sigue siendo la vigente (no fue reemplazada por una actualización)
+         */
+        void removeIfSame(Entry entry) {
+            byId.computeIfPresent(entry.id(), (id, current) -> {
+                if (current != entry) {
+                    return current;
+                }
+                removeFromCell(current);
+                return null;
+            });
+        }
+
+        void removeFromCell(Entry entry) {
+            cells.computeIfPresent(cellKey(entry.latitude(), entry.longitude()), (k, cell) -> {
+                cell.remove(entry.id());
+                return cell.isEmpty() ? null : cell;
+            });
+        }
+    }
+
+    @PostConstruct
+    void initPartitions() {
+        for (ReportCategory category : ReportCategory.values()) {
+            partitions.put(category, new Partition(properties.ruleFor(category).getRadiusMeters()));
+        }
+    }
+
+    /**
+     * Busca reportes recientes de la misma categoría dentro del radio configurado
+     */
+    public List<Match> findDuplicates(ReportCategory category, double latitude, double longitude, LocalDateTime at) {
+        if (!properties.isEnabled() || !GeoUtils.isValidCoordinate(latitude, longitude)) {
+            return List.of();
+        }
+        DuplicateDetectionProperties.Rule rule = properties.ruleFor(category);
+        Partition partition = partitions.get(category);
+        long oldest = at.toEpochSecond(ZoneOffset.UTC) - rule.getWindowHours() * 3600L;
+
+        double dLat = GeoUtils.latitudeDelta(rule.getRadiusMeters());
+        long firstRow = partition.cellIndex(Math.max(-90.0, latitude - dLat));
+        long lastRow = partition.cellIndex(Math.min(90.0, latitude + dLat));
+        double[][] lonRanges = GeoUtils.longitudeRanges(longitude,
+                GeoUtils.longitudeDelta(rule.getRadiusMeters(), latitude));
+        long cellCount = 0;
+        for (double[] range : lonRanges) {
+            cellCount += (lastRow - firstRow + 1) * (partition.cellIndex(range[1]) - partition.cellIndex(range[0]) + 1);
+        }
+
+        List<Match> matches = new ArrayList<>();
+        if (cellCount > partition.cells.size()) {
+            // Cerca de los polos el anillo de celdas es enorme: se revisan las entradas directamente
+            for (Entry entry : partition.byId.values()) {
+                collect(entry, latitude, longitude, oldest, rule.getRadiusMeters(), matches);
+            }
+        } else {
+            for (double[] range : lonRanges) {
+                for (long row = firstRow; row <= lastRow; row++) {
+                    for (long col = partition.cellIndex(range[0]); col <= partition.cellIndex(range[1]); col++) {
+                        Map<Long, Entry> cell = partition.cells.get((row << 32) ^ (col & 0xFFFFFFFFL));
+                        if (cell == null) {
+                            continue;
+                        }
+                        for (Entry entry : cell.values()) {
+                            collect(entry, latitude, longitude, oldest, rule.getRadiusMeters(), matches);
+                        }
+                    }
+                }
+            }
+        }
+        matches.sort(Comparator.comparingDouble(Match::distanceMeters));
+        return matches.size() > properties.getMaxCandidates()
+                ? new ArrayList<>(matches.subList(0, properties.getMaxCandidates()))
+                : matches;
+    }
+
+    /**
+     * Busca duplicados y registra el reporte nuevo en la misma sección crítica
+     *
+     * {@code persist} recibe las coincidencias, ajusta el estado del reporte y lo
+     * guarda (el id debe quedar asignado). Si el reporte puede ser original de
+     * otros, entra al detector de inmediato; si la transacción en curso no
+     * confirma, se retira en {@code afterCompletion}.
+     */
+    public Report findAndRegister(ReportCategory category, double latitude, double longitude, LocalDateTime at,
+                                  Function<List<Match>, Report> persist) {
+        if (!properties.isEnabled() || !GeoUtils.isValidCoordinate(latitude, longitude)) {
+            return persist.apply(List.of());
+        }
+        Partition partition = partitions.get(category);
+        Report saved;
+        Entry entry;
+        synchronized (partition) {
+            saved = persist.apply(findDuplicates(category, latitude, longitude, at));
+            if (saved.getId() == null || !isOriginalCandidate(saved.getStatus())) {
+                return saved;
+            }
+            entry = new Entry(saved.getId(), latitude, longitude, at.toEpochSecond(ZoneOffset.UTC));
+            partition.add(entry);
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        partition.removeIfSame(entry);
+                    }
+                }
+            });
+        }
+        return saved;
+    }
+
+    private static void collect(Entry entry, double latitude, double longitude, long oldest, double radiusMeters,
+                                List<Match> matches) {
+        if (entry.createdAtEpochSecond() < oldest) {
+            return;
+        }
+        double distance = GeoUtils.haversineMeters(latitude, longitude, entry.latitude(), entry.longitude());
+        if (distance <= radiusMeters) {
+            matches.add(new Match(entry.id(), distance));
+        }
+    }
+
+    /**
+     * Cantidad de reportes recientes en memoria
+     */
+    public int size() {
+        int total = 0;
+        for (Partition partition : partitions.values()) {
+            total += partition.byId.size();
+        }
+        return total;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReportChanged(ReportChangedEvent event) {
+        ReportSnapshot previous = event.previous();
+        ReportSnapshot current = event.current();
+        if (previous != null && (current == null || previous.category() != current.category())) {
+            partitions.get(previous.category()).remove(previous.id());
+        }
+        if (current == null) {
+            return;
+        }
+        if (!isOriginalCandidate(current.status())
+                || !GeoUtils.isValidCoordinate(current.latitude(), current.longitude())) {
+            partitions.get(current.category()).remove(current.id());
+            return;
+        }
+        LocalDateTime createdAt = current.createdAt() != null ? current.createdAt() : LocalDateTime.now();
+        partitions.get(current.category()).add(new Entry(current.id(), current.latitude(), current.longitude(),
+                createdAt.toEpochSecond(ZoneOffset.UTC)));
+    }
+
+    /**
+     * Carga los reportes dentro de la ventana más larga configurada
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        LocalDateTime since = LocalDateTime.now().minusHours(properties.maxWindowHours());
+        long afterId = 0L;
+        int loaded = 0;
+        while (true) {
+            List<Object[]> rows = reportRepository.findDuplicateCandidatesSince(since, afterId,
+                    PageRequest.of(0, WARMUP_BATCH_SIZE));
+            for (Object[] row : rows) {
+                ReportCategory category = (ReportCategory) row[1];
+                Double lat = (Double) row[2];
+                Double lon = (Double) row[3];
+                if (isOriginalCandidate((ReportStatus) row[5]) && GeoUtils.isValidCoordinate(lat, lon)) {
+                    partitions.get(category).add(new Entry((Long) row[0], lat, lon,
+                            ((LocalDateTime) row[4]).toEpochSecond(ZoneOffset.UTC)));
+                    loaded++;
+                }
+            }
+            if (rows.size() < WARMUP_BATCH_SIZE) {
+                break;
+            }
+            afterId = (Long) rows.get(rows.size() - 1)[0];
+        }
+        log.info("Detector de duplicados inicializado con {} reportes recientes", loaded);
+    }
+
+    /**
+     * Descarta los reportes que ya salieron de la ventana de su categoría
+     */
+    @Scheduled(fixedDelayString = "${app.duplicates.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = LocalDateTime.now().toEpochSecond(ZoneOffset.UTC);
+        for (Map.Entry<ReportCategory, Partition> item : partitions.entrySet()) {
+            long oldest = now - properties.ruleFor(item.getKey()).getWindowHours() * 3600L;
+            Partition partition = item.getValue();
+            Entry head;
+            while ((head = partition.arrivals.peek()) != null && head.createdAtEpochSecond() < oldest) {
+                partition.arrivals.poll();
+                partition.removeIfSame(head);
+            }
+        }
+    }
+
+    private boolean isOriginalCandidate(ReportStatus status) {
+        return status != ReportStatus.DUPLICATE && status != ReportStatus.REJECTED;
+    }
+}
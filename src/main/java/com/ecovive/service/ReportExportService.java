@@ -0,0 +1,218 @@
+package com.ecovive.service;
+
+import com.ecovive.dto.ReportExportRow;
+import com.ecovive.model.ReportCategory;
+import com.ecovive.model.ReportStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Exportación de reportes en streaming (NDJSON y CSV)
+ *
+ * Las filas se leen con un cursor del servidor ({@code fetch size}) y se escriben
+ * en la respuesta a medida que llegan, de modo que la memoria usada no depende del
+ * tamaño de la exportación. El orden es por id ascendente: el id de la última fila
+ * recibida es la posición desde la que se reanuda una exportación cortada.
+ * Como el resto de los listados abiertos, solo incluye reportes públicos.
+ */
+@Service
+public class ReportExportService {
+
+    public enum Format {
+        NDJSON("application/x-ndjson"),
+        CSV("text/csv");
+
+        private final String contentType;
+
+        Format(String contentType) {
+            this.contentType = contentType;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+    }
+
+    /**
+     * Filtros de la exportación; todos opcionales salvo que la caja se da completa
+     */
+    public record ExportFilter(LocalDateTime from, LocalDateTime to,
+                               ReportCategory category, ReportStatus status,
+                               Double minLatitude, Double minLongitude,
+                               Double maxLatitude, Double maxLongitude,
+                               Long after) {
+
+        public ExportFilter {
+            int bboxParams = (int) Stream.of(minLatitude, minLongitude, maxLatitude, maxLongitude)
+                    .filter(Objects::nonNull).count();
+            if (bboxParams != 0 && bboxParams != 4) {
+                throw new IllegalArgumentException("La caja de coordenadas requiere minLat, minLon, maxLat y maxLon");
+            }
+            if (bboxParams == 4 && (minLatitude > maxLatitude || minLongitude > maxLongitude)) {
+                throw new IllegalArgumentException("Caja de coordenadas inválida");
+            }
+            if (from != null && to != null && from.isAfter(to)) {
+                throw new IllegalArgumentException("Rango de fechas inválido");
+            }
+        }
+
+        boolean hasBoundingBox() {
+            return minLatitude != null;
+        }
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.export.fetch-size:1000}")
+    private int fetchSize;
+
+    @Value("${app.export.flush-every:500}")
+    private int flushEvery;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ReportExportService(PlatformTransactionManager transactionManager) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        // PostgreSQL solo usa cursores con la conexión fuera de autocommit
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Escribe todas las filas que cumplen el filtro en el formato pedido
+     */
+    public void export(ExportFilter filter, Format format, OutputStream out) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<ReportExportRow> rows = buildQuery(filter).getResultStream()) {
+                if (format == Format.CSV) {
+                    writeCsv(rows.iterator(), out);
+                } else {
+                    writeNdjson(rows.iterator(), out);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private TypedQuery<ReportExportRow> buildQuery(ExportFilter filter) {
+        StringBuilder jpql = new StringBuilder("SELECT new com.ecovive.dto.ReportExportRow(" +
+                "r.id, r.category, r.status, r.latitude, r.longitude, r.address, " +
+                "r.priority, r.verified, r.createdAt, r.updatedAt, r.resolvedAt) FROM Report r WHERE r.isPublic = true");
+        Map<String, Object> params = new LinkedHashMap<>();
+        if (filter.after() != null) {
+            jpql.append(" AND r.id > :after");
+            params.put("after", filter.after());
+        }
+        if (filter.from() != null) {
+            jpql.append(" AND r.createdAt >= :from");
+            params.put("from", filter.from());
+        }
+        if (filter.to() != null) {
+            jpql.append(" AND r.createdAt < :to");
+            params.put("to", filter.to());
+        }
+        if (filter.category() != null) {
+            jpql.append(" AND r.category = :category");
+            params.put("category", filter.category());
+        }
+        if (filter.status() != null) {
+            jpql.append(" AND r.status = :status");
+            params.put("status", filter.status());
+        }
+        if (filter.hasBoundingBox()) {
+            jpql.append(" AND r.latitude BETWEEN :minLat AND :maxLat AND r.longitude BETWEEN :minLon AND :maxLon");
+            params.put("minLat", filter.minLatitude());
+            params.put("maxLat", filter.maxLatitude());
+            params.put("minLon", filter.minLongitude());
+            params.put("maxLon", filter.maxLongitude());
+        }
+        jpql.append(" ORDER BY r.id ASC");
+
+        TypedQuery<ReportExportRow> query = entityManager.createQuery(jpql.toString(), ReportExportRow.class);
+        params.forEach(query::setParameter);
+        query.setHint("org.hibernate.fetchSize", fetchSize);
+        query.setHint("org.hibernate.readOnly", true);
+        return query;
+    }
+
+    private void writeNdjson(Iterator<ReportExportRow> rows, OutputStream out) throws IOException {
+        SequenceWriter writer = objectMapper.writerFor(ReportExportRow.class)
+                .withRootValueSeparator("\n")
+                .writeValues(out);
+        int written = 0;
+        while (rows.hasNext()) {
+            writer.write(rows.next());
+            if (++written % flushEvery == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+        if (written > 0) {
+            out.write('\n');
+        }
+        out.flush();
+    }
+
+    private void writeCsv(Iterator<ReportExportRow> rows, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writeCsvLine(writer, ReportExportRow.CSV_HEADER);
+        int written = 0;
+        while (rows.hasNext()) {
+            writeCsvLine(writer, rows.next().csvValues());
+            if (++written % flushEvery == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+    }
+
+    private static void writeCsvLine(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] != null) {
+                writer.write(escapeCsv(values[i].toString()));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private static String escapeCsv(String value) {
+        boolean quote = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                quote = true;
+                break;
+            }
+        }
+        return quote ? '"' + value.replace("\"", "\"\"") + '"' : value;
+    }
+}
@@ -0,0 +1,354 @@
+package com.ecovive.service;
+
+import com.ecovive.config.CacheConfig;
+import com.ecovive.dto.Hotspot;
+import com.ecovive.event.ReportChangedEvent;
+import com.ecovive.event.ReportSnapshot;
+import com.ecovive.repository.ReportRepository;
+import com.ecovive.util.AddressNormalizer;
+import com.ecovive.util.GeoUtils;
+import com.ecovive.util.SpaceSavingSketch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Seguimiento de las zonas con más reportes (puntos críticos)
+ *
+ * Las ubicaciones se agrupan en celdas de una grilla, así variantes de escritura
+ * de la misma dirección cuentan juntas. Cada hora y cada día tienen su propio
+ * sketch Space-Saving de capacidad fija en un anillo (24 horas y 30 días), y
+ * una ventana se responde combinando los sketches que abarca: la memoria no
+ * depende de cuántas direcciones distintas lleguen. Una pasada exacta sobre la
+ * base de datos reconstruye los anillos y permite medir el error.
+ */
+@Component
+public class ReportHotspotTracker {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportHotspotTracker.class);
+
+    private static final int REBUILD_BATCH_SIZE = 5000;
+    private static final int HOURS = 24;
+    private static final int DAYS = 30;
+
+    public enum Window {
+        LAST_24H("24h"),
+        LAST_7D("7d"),
+        LAST_30D("30d");
+
+        private final String label;
+
+        Window(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        /**
+         * @throws IllegalArgumentException si no es 24h, 7d ni 30d
+         */
+        public static Window fromLabel(String label) {
+            for (Window window : values()) {
+                if (window.label.equalsIgnoreCase(label)) {
+                    return window;
+                }
+            }
+            throw new IllegalArgumentException("Ventana no soportada: " + label);
+        }
+    }
+
+    /**
+     * Resultado de contrastar el sketch con una pasada exacta sobre la base de datos
+     */
+    public record ConsistencyReport(String window, List<Hotspot> approximate, List<Hotspot> exact,
+                                    int overlap, long maxCountDifference) {
+    }
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Value("${app.hotspots.capacity:200}")
+    private int capacity;
+
+    @Value("${app.hotspots.cell-meters:200}")
+    private double cellMeters;
+
+    private static final class Slice {
+        final long period;
+        final SpaceSavingSketch sketch;
+
+        Slice(long period, int capacity) {
+            this.period = period;
+            this.sketch = new SpaceSavingSketch(capacity);
+        }
+    }
+
+    private static final class Rings {
+        final Slice[] hours = new Slice[HOURS];
+        final Slice[] days = new Slice[DAYS];
+    }
+
+    private volatile Rings rings = new Rings();
+    private final Object lock = new Object();
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+
+    // Altas recibidas durante una reconstrucción, se reaplican sobre los anillos nuevos
+    private final ConcurrentLinkedQueue<ReportSnapshot> pendingDuringRebuild = new ConcurrentLinkedQueue<>();
+
+    // Antes de que CacheInvalidationListener vacíe la caché de estadísticas
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReportChanged(ReportChangedEvent event) {
+        if (event.type() != ReportChangedEvent.Type.CREATED) {
+            return;
+        }
+        ReportSnapshot current = event.current();
+        // Encolar y contar bajo el mismo lock que el reemplazo: o el alta llega antes y
+        // se reaplica sobre los anillos nuevos, o llega después y ya cuenta en ellos
+        synchronized (lock) {
+            if (rebuilding.get()) {
+                pendingDuringRebuild.add(current);
+            }
+            offer(rings, current.createdAt(), current.latitude(), current.longitude(), current.address(),
+                    LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Zonas con más reportes en la ventana, de mayor a menor
+     */
+    @Cacheable(cacheNames = CacheConfig.STATS, key = "'hotspots:' + #window + ':' + #limit")
+    public List<Hotspot> top(Window window, int limit) {
+        List<SpaceSavingSketch> sketches = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (lock) {
+            Rings current = rings;
+            if (window == Window.LAST_24H) {
+                long nowHour = epochHour(now);
+                for (Slice slice : current.hours) {
+                    if (slice != null && slice.period > nowHour - HOURS) {
+                        sketches.add(slice.sketch);
+                    }
+                }
+            } else {
+                int days = window == Window.LAST_7D ? 7 : DAYS;
+                long today = epochDay(now);
+                for (Slice slice : current.days) {
+                    if (slice != null && slice.period > today - days) {
+                        sketches.add(slice.sketch);
+                    }
+                }
+            }
+            return toHotspots(SpaceSavingSketch.mergeTop(sketches, limit));
+        }
+    }
+
+    /**
+     * Calcula el top exacto de la ventana en la base de datos y lo compara con el sketch
+     */
+    public ConsistencyReport checkConsistency(Window window, int limit) {
+        List<Hotspot> approximate = top(window, limit);
+        LocalDateTime since = windowStart(window, LocalDateTime.now());
+
+        Map<Long, long[]> counts = new HashMap<>();
+        Map<Long, String> labels = new HashMap<>();
+        long afterId = 0L;
+        while (true) {
+            List<Object[]> rows = reportRepository.findHotspotDocumentsSince(since, afterId,
+                    PageRequest.of(0, REBUILD_BATCH_SIZE));
+            for (Object[] row : rows) {
+                Double lat = (Double) row[2];
+                Double lon = (Double) row[3];
+                if (GeoUtils.isValidCoordinate(lat, lon)) {
+                    long key = cellKey(lat, lon);
+                    counts.computeIfAbsent(key, k -> new long[1])[0]++;
+                    String label = AddressNormalizer.normalize((String) row[4]);
+                    if (label != null) {
+                        labels.put(key, label);
+                    }
+                }
+            }
+            if (rows.size() < REBUILD_BATCH_SIZE) {
+                break;
+            }
+            afterId = (Long) rows.get(rows.size() - 1)[0];
+        }
+
+        List<SpaceSavingSketch.Item> exactItems = new ArrayList<>(counts.size());
+        counts.forEach((key, count) -> exactItems.add(new SpaceSavingSketch.Item(key, count[0], 0, labels.get(key))));
+        exactItems.sort(Comparator.comparingLong(SpaceSavingSketch.Item::count).reversed()
+                .thenComparingLong(SpaceSavingSketch.Item::key));
+        List<Hotspot> exact = toHotspots(exactItems.size() > limit ? exactItems.subList(0, limit) : exactItems);
+
+        Set<Long> exactKeys = new HashSet<>();
+        for (Hotspot hotspot : exact) {
+            exactKeys.add(cellKey(hotspot.latitude(), hotspot.longitude()));
+        }
+        int overlap = 0;
+        long maxDifference = 0;
+        for (Hotspot hotspot : approximate) {
+            long key = cellKey(hotspot.latitude(), hotspot.longitude());
+            if (exactKeys.contains(key)) {
+                overlap++;
+            }
+            long[] real = counts.get(key);
+            maxDifference = Math.max(maxDifference, Math.abs(hotspot.count() - (real != null ? real[0] : 0)));
+        }
+        return new ConsistencyReport(window.getLabel(), approximate, exact, overlap, maxDifference);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuild();
+    }
+
+    /**
+     * Reconstruye los anillos con los reportes de los últimos 30 días
+     */
+    @Scheduled(cron = "${app.hotspots.rebuild-cron:0 30 3 * * *}")
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            log.info("Reconstrucción de puntos críticos ya en curso");
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            LocalDateTime now = LocalDateTime.now();
+            Rings fresh = new Rings();
+            // Los ids se asignan por bloques y se confirman en cualquier orden: un alta con
+            // id menor al último leído pudo no estar visible todavía
+            Set<Long> seen = new HashSet<>();
+            long afterId = 0L;
+            long counted = 0;
+            while (true) {
+                List<Object[]> rows = reportRepository.findHotspotDocumentsSince(windowStart(Window.LAST_30D, now),
+                        afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                for (Object[] row : rows) {
+                    seen.add((Long) row[0]);
+                    if (offer(fresh, (LocalDateTime) row[1], (Double) row[2], (Double) row[3], (String) row[4], now)) {
+                        counted++;
+                    }
+                }
+                if (rows.size() < REBUILD_BATCH_SIZE) {
+                    break;
+                }
+                afterId = (Long) rows.get(rows.size() - 1)[0];
+            }
+            synchronized (lock) {
+                rings = fresh;
+                // Solo las altas que la lectura no alcanzó a ver
+                ReportSnapshot pending;
+                while ((pending = pendingDuringRebuild.poll()) != null) {
+                    if (seen.add(pending.id())) {
+                        offer(fresh, pending.createdAt(), pending.latitude(), pending.longitude(),
+                                pending.address(), LocalDateTime.now());
+                    }
+                }
+            }
+            log.info("Puntos críticos reconstruidos: {} reportes en {} ms", counted, System.currentTimeMillis() - start);
+        } finally {
+            // Lo encolado tras el vaciado ya se contó en los anillos nuevos
+            synchronized (lock) {
+                pendingDuringRebuild.clear();
+                rebuilding.set(false);
+            }
+        }
+    }
+
+    private boolean offer(Rings target, LocalDateTime createdAt, Double latitude, Double longitude,
+                          String address, LocalDateTime now) {
+        if (!GeoUtils.isValidCoordinate(latitude, longitude)) {
+            return false;
+        }
+        LocalDateTime at = createdAt != null ? createdAt : now;
+        long hour = epochHour(at);
+        long day = epochDay(at);
+        long key = cellKey(latitude, longitude);
+        String label = AddressNormalizer.normalize(address);
+        synchronized (lock) {
+            if (hour > epochHour(now) - HOURS) {
+                slice(target.hours, hour).sketch.offer(key, label);
+            }
+            if (day > epochDay(now) - DAYS) {
+                slice(target.days, day).sketch.offer(key, label);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private Slice slice(Slice[] ring, long period) {
+        int slot = (int) Math.floorMod(period, (long) ring.length);
+        Slice slice = ring[slot];
+        if (slice == null || slice.period < period) {
+            // El periodo anterior de este hueco ya salió de la ventana
+            slice = new Slice(period, capacity);
+            ring[slot] = slice;
+        }
+        return slice;
+    }
+
+    private List<Hotspot> toHotspots(List<SpaceSavingSketch.Item> items) {
+        double cellDegrees = cellDegrees();
+        List<Hotspot> hotspots = new ArrayList<>(items.size());
+        int rank = 1;
+        for (SpaceSavingSketch.Item item : items) {
+            long row = item.key() >> 32;
+            long col = (int) item.key();
+            hotspots.add(new Hotspot(rank++, (row + 0.5) * cellDegrees, (col + 0.5) * cellDegrees,
+                    item.label(), item.count(), item.error()));
+        }
+        return hotspots;
+    }
+
+    private long cellKey(double latitude, double longitude) {
+        double cellDegrees = cellDegrees();
+        long row = (long) Math.floor(latitude / cellDegrees);
+        long col = (long) Math.floor(longitude / cellDegrees);
+        return (row << 32) ^ (col & 0xFFFFFFFFL);
+    }
+
+    private double cellDegrees() {
+        return cellMeters / GeoUtils.METERS_PER_DEGREE;
+    }
+
+    private static LocalDateTime windowStart(Window window, LocalDateTime now) {
+        return switch (window) {
+            case LAST_24H -> now.minusHours(HOURS);
+            case LAST_7D -> now.toLocalDate().minusDays(6).atStartOfDay();
+            case LAST_30D -> now.toLocalDate().minusDays(DAYS - 1).atStartOfDay();
+        };
+    }
+
+    private static long epochHour(LocalDateTime at) {
+        return at.toEpochSecond(ZoneOffset.UTC) / 3600;
+    }
+
+    private static long epochDay(LocalDateTime at) {
+        return at.toLocalDate().toEpochDay();
+    }
+}
@@ -0,0 +1,460 @@
+package com.ecovive.service;
+
+import com.ecovive.config.DuplicateDetectionProperties;
+import com.ecovive.event.ReportChangedEvent;
+import com.ecovive.event.ReportSnapshot;
+import com.ecovive.model.DuplicateCandidate;
+import com.ecovive.model.ReportCategory;
+import com.ecovive.model.ReportStatus;
+import com.ecovive.repository.DuplicateCandidateRepository;
+import com.ecovive.repository.ReportPhotoRepository;
+import com.ecovive.util.GeoUtils;
+import com.ecovive.util.PerceptualHash;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Índice de fotos parecidas para detectar reportes duplicados
+ *
+ * Cada foto con hash perceptual (dHash de 64 bits) se ubica en la misma grilla
+ * por categoría que usa {@link ReportDuplicateDetector}, así que una consulta
+ * solo revisa las fotos de 3x3 celdas cercanas. Las celdas pequeñas se recorren
+ * comparando con XOR + bitCount; cuando una celda crece (un basural muy
+ * fotografiado) se le agregan tablas de multi-index hashing: el hash se parte
+ * en 4 fragmentos de 16 bits y, como una distancia de Hamming d obliga a que
+ * algún fragmento difiera en a lo sumo d/4 bits, basta con sondear los vecinos
+ * de cada fragmento dentro de ese radio.
+ *
+ * Las coincidencias se registran como candidatos PHOTO_SIMILARITY para la cola
+ * de moderación, con el reporte más nuevo como posible duplicado.
+ */
+@Component
+public class ReportPhotoSimilarityIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportPhotoSimilarityIndex.class);
+
+    private static final int WARMUP_BATCH_SIZE = 5000;
+    private static final int CHUNKS = 4;
+    private static final int CHUNK_BITS = 16;
+    private static final int CHUNK_MASK = (1 << CHUNK_BITS) - 1;
+
+    @Autowired
+    private DuplicateDetectionProperties properties;
+
+    @Autowired
+    private ReportPhotoRepository reportPhotoRepository;
+
+    @Autowired
+    private DuplicateCandidateRepository duplicateCandidateRepository;
+
+    private record Entry(long photoId, long reportId, long hash, double latitude, double longitude,
+                         long createdAtEpochSecond) {
+    }
+
+    private record Match(Entry entry, int hashDistance, double distanceMeters) {
+    }
+
+    /**
+     * Fotos de una celda de la grilla
+     */
+    private final class Cell {
+        final List<Entry> entries = new ArrayList<>();
+        // Por fragmento: valor de 16 bits -> fotos; null mientras la celda es pequeña
+        List<Map<Integer, List<Entry>>> tables;
+
+        void add(Entry entry) {
+            entries.add(entry);
+            if (tables != null) {
+                index(entry);
+            } else if (entries.size() > mihThreshold) {
+                tables = new ArrayList<>(CHUNKS);
+                for (int i = 0; i < CHUNKS; i++) {
+                    tables.add(new HashMap<>());
+                }
+                entries.forEach(this::index);
+            }
+        }
+
+        void index(Entry entry) {
+            for (int i = 0; i < CHUNKS; i++) {
+                tables.get(i).computeIfAbsent(chunk(entry.hash(), i), k -> new ArrayList<>(2)).add(entry);
+            }
+        }
+
+        void remove(Entry entry) {
+            entries.remove(entry);
+            if (tables != null) {
+                for (int i = 0; i < CHUNKS; i++) {
+                    int key = chunk(entry.hash(), i);
+                    List<Entry> bucket = tables.get(i).get(key);
+                    if (bucket != null) {
+                        bucket.remove(entry);
+                        if (bucket.isEmpty()) {
+                            tables.get(i).remove(key);
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Fotos que pueden estar a distancia de Hamming menor o igual a la máxima
+         */
+        Collection<Entry> candidates(long hash) {
+            if (tables == null) {
+                return entries;
+            }
+            Set<Entry> found = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (int i = 0; i < CHUNKS; i++) {
+                int value = chunk(hash, i);
+                Map<Integer, List<Entry>> table = tables.get(i);
+                for (int mask : chunkMasks) {
+                    List<Entry> bucket = table.get(value ^ mask);
+                    if (bucket != null) {
+                        found.addAll(bucket);
+                    }
+                }
+            }
+            return found;
+        }
+    }
+
+    /**
+     * Fotos de una categoría
+     */
+    private final class Partition {
+        final double cellSizeDegrees;
+        final Map<Long, Cell> cells = new HashMap<>();
+
+        Partition(double radiusMeters) {
+            this.cellSizeDegrees = Math.max(GeoUtils.latitudeDelta(radiusMeters), 1e-5);
+        }
+
+        long cellIndex(double degrees) {
+            return (long) Math.floor(degrees / cellSizeDegrees);
+        }
+
+        long cellKey(double latitude, double longitude) {
+            return (cellIndex(latitude) << 32) ^ (cellIndex(longitude) & 0xFFFFFFFFL);
+        }
+    }
+
+    private final Map<ReportCategory, Partition> partitions = new EnumMap<>(ReportCategory.class);
+    private final Map<Long, List<Entry>> byReport = new HashMap<>();
+    private final Map<Long, ReportCategory> reportCategories = new HashMap<>();
+    // Orden de llegada para purgar por antigüedad sin recorrer la grilla
+    private final ArrayDeque<Entry> arrivals = new ArrayDeque<>();
+
+    // Máscaras de 16 bits con a lo sumo maxDistance / 4 bits en uno
+    private int[] chunkMasks;
+    private int mihThreshold;
+
+    @PostConstruct
+    void init() {
+        for (ReportCategory category : ReportCategory.values()) {
+            partitions.put(category, new Partition(properties.ruleFor(category).getRadiusMeters()));
+        }
+        int chunkRadius = properties.getPhotoSimilarity().getMaxDistance() / CHUNKS;
+        List<Integer> masks = new ArrayList<>();
+        for (int mask = 0; mask <= CHUNK_MASK; mask++) {
+            if (Integer.bitCount(mask) <= chunkRadius) {
+                masks.add(mask);
+            }
+        }
+        chunkMasks = masks.stream().mapToInt(Integer::intValue).toArray();
+        // Las tablas solo convienen cuando la celda tiene más fotos que sondeos
+        mihThreshold = CHUNKS * chunkMasks.length;
+    }
+
+    /**
+     * Registra una foto recién procesada y anota los reportes con fotos parecidas
+     */
+    public void onPhotoHashed(Long photoId) {
+        if (!properties.isEnabled() || !properties.getPhotoSimilarity().isEnabled()) {
+            return;
+        }
+        List<Object[]> rows = reportPhotoRepository.findHashedPhoto(photoId);
+        if (rows.isEmpty()) {
+            return;
+        }
+        Object[] row = rows.get(0);
+        ReportCategory category = (ReportCategory) row[2];
+        Entry entry = toEntry(row);
+        if (entry == null) {
+            return;
+        }
+
+        List<Match> matches;
+        synchronized (this) {
+            matches = findMatches(category, entry);
+            if (isOriginalCandidate((ReportStatus) row[6])) {
+                add(category, entry);
+            }
+        }
+        for (Match match : matches) {
+            recordCandidate(entry, match);
+        }
+    }
+
+    /**
+     * Cantidad de fotos en el índice
+     */
+    public synchronized int size() {
+        int total = 0;
+        for (List<Entry> entries : byReport.values()) {
+            total += entries.size();
+        }
+        return total;
+    }
+
+    private List<Match> findMatches(ReportCategory category, Entry probe) {
+        DuplicateDetectionProperties.Rule rule = properties.ruleFor(category);
+        int maxDistance = properties.getPhotoSimilarity().getMaxDistance();
+        Partition partition = partitions.get(category);
+        long oldest = probe.createdAtEpochSecond() - rule.getWindowHours() * 3600L;
+        long newest = probe.createdAtEpochSecond() + rule.getWindowHours() * 3600L;
+
+        double dLat = GeoUtils.latitudeDelta(rule.getRadiusMeters());
+        long firstRow = partition.cellIndex(Math.max(-90.0, probe.latitude() - dLat));
+        long lastRow = partition.cellIndex(Math.min(90.0, probe.latitude() + dLat));
+        double[][] lonRanges = GeoUtils.longitudeRanges(probe.longitude(),
+                GeoUtils.longitudeDelta(rule.getRadiusMeters(), probe.latitude()));
+        long cellCount = 0;
+        for (double[] range : lonRanges) {
+            cellCount += (lastRow - firstRow + 1) * (partition.cellIndex(range[1]) - partition.cellIndex(range[0]) + 1);
+        }
+
+        // Mejor coincidencia por reporte
+        Map<Long, Match> best = new HashMap<>();
+        if (cellCount > partition.cells.size()) {
+            // Cerca de los polos el anillo de celdas es enorme: se revisan las celdas ocupadas
+            for (Cell cell : partition.cells.values()) {
+                collect(cell, probe, oldest, newest, maxDistance, rule.getRadiusMeters(), best);
+            }
+        } else {
+            for (double[] range : lonRanges) {
+                for (long row = firstRow; row <= lastRow; row++) {
+                    for (long col = partition.cellIndex(range[0]); col <= partition.cellIndex(range[1]); col++) {
+                        Cell cell = partition.cells.get((row << 32) ^ (col & 0xFFFFFFFFL));
+                        if (cell != null) {
+                            collect(cell, probe, oldest, newest, maxDistance, rule.getRadiusMeters(), best);
+                        }
+                    }
+                }
+            }
+        }
+        List<Match> matches = new ArrayList<>(best.values());
+        matches.sort(Comparator.comparingInt(Match::hashDistance).thenComparingDouble(Match::distanceMeters));
+        return matches.size() > properties.getMaxCandidates()
+                ? new ArrayList<>(matches.subList(0, properties.getMaxCandidates()))
+                : matches;
+    }
+
+    private static void collect(Cell cell, Entry probe, long oldest, long newest, int maxDistance,
+                                double radiusMeters, Map<Long, Match> best) {
+        for (Entry entry : cell.candidates(probe.hash())) {
+            if (entry.reportId() == probe.reportId()
+                    || entry.createdAtEpochSecond() < oldest || entry.createdAtEpochSecond() > newest) {
+                continue;
+            }
+            int hashDistance = PerceptualHash.distance(probe.hash(), entry.hash());
+            if (hashDistance > maxDistance) {
+                continue;
+            }
+            double distance = GeoUtils.haversineMeters(probe.latitude(), probe.longitude(),
+                    entry.latitude(), entry.longitude());
+            if (distance > radiusMeters) {
+                continue;
+            }
+            best.merge(entry.reportId(), new Match(entry, hashDistance, distance),
+                    (a, b) -> a.hashDistance() <= b.hashDistance() ? a : b);
+        }
+    }
+
+    // El reporte más nuevo es el posible duplicado del más antiguo
+    private void recordCandidate(Entry probe, Match match) {
+        Entry other = match.entry();
+        boolean probeIsNewer = probe.createdAtEpochSecond() != other.createdAtEpochSecond()
+                ? probe.createdAtEpochSecond() > other.createdAtEpochSecond()
+                : probe.reportId() > other.reportId();
+        long reportId = probeIsNewer ? probe.reportId() : other.reportId();
+        long originalReportId = probeIsNewer ? other.reportId() : probe.reportId();
+        if (duplicateCandidateRepository.existsByReportIdAndOriginalReportIdAndReason(reportId, originalReportId,
+                DuplicateCandidate.Reason.PHOTO_SIMILARITY)) {
+            return;
+        }
+        DuplicateCandidate candidate = new DuplicateCandidate(reportId, originalReportId,
+                DuplicateCandidate.Reason.PHOTO_SIMILARITY, match.distanceMeters());
+        candidate.setHashDistance(match.hashDistance());
+        duplicateCandidateRepository.save(candidate);
+    }
+
+    private void add(ReportCategory category, Entry entry) {
+        Partition partition = partitions.get(category);
+        partition.cells.computeIfAbsent(partition.cellKey(entry.latitude(), entry.longitude()), k -> new Cell())
+                .add(entry);
+        byReport.computeIfAbsent(entry.reportId(), k -> new ArrayList<>(2)).add(entry);
+        reportCategories.put(entry.reportId(), category);
+        arrivals.add(entry);
+    }
+
+    private void remove(ReportCategory category, Entry entry) {
+        Partition partition = partitions.get(category);
+        long key = partition.cellKey(entry.latitude(), entry.longitude());
+        Cell cell = partition.cells.get(key);
+        if (cell != null) {
+            cell.remove(entry);
+            if (cell.entries.isEmpty()) {
+                partition.cells.remove(key);
+            }
+        }
+    }
+
+    private void removeReport(long reportId) {
+        List<Entry> entries = byReport.remove(reportId);
+        ReportCategory category = reportCategories.remove(reportId);
+        if (entries != null && category != null) {
+            entries.forEach(entry -> remove(category, entry));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReportChanged(ReportChangedEvent event) {
+        ReportSnapshot previous = event.previous();
+        ReportSnapshot current = event.current();
+        if (current == null) {
+            if (previous != null) {
+                synchronized (this) {
+                    removeReport(previous.id());
+                }
+            }
+            return;
+        }
+        boolean eligible = isOriginalCandidate(current.status())
+                && GeoUtils.isValidCoordinate(current.latitude(), current.longitude());
+        if (!eligible) {
+            synchronized (this) {
+                removeReport(current.id());
+            }
+            return;
+        }
+        // Un reporte nuevo todavía no tiene fotos procesadas
+        if (previous == null || (isOriginalCandidate(previous.status())
+                && previous.category() == current.category()
+                && Objects.equals(previous.latitude(), current.latitude())
+                && Objects.equals(previous.longitude(), current.longitude()))) {
+            return;
+        }
+        List<Object[]> rows = reportPhotoRepository.findHashedPhotosByReportId(current.id());
+        synchronized (this) {
+            removeReport(current.id());
+            for (Object[] row : rows) {
+                Entry entry = toEntry(row);
+                if (entry != null) {
+                    add((ReportCategory) row[2], entry);
+                }
+            }
+        }
+    }
+
+    /**
+     * Carga las fotos de los reportes dentro de la ventana más larga configurada
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!properties.isEnabled() || !properties.getPhotoSimilarity().isEnabled()) {
+            return;
+        }
+        LocalDateTime since = LocalDateTime.now().minusHours(properties.maxWindowHours());
+        long afterId = 0L;
+        int loaded = 0;
+        while (true) {
+            List<Object[]> rows = reportPhotoRepository.findHashedPhotosSince(since, afterId,
+                    PageRequest.of(0, WARMUP_BATCH_SIZE));
+            synchronized (this) {
+                for (Object[] row : rows) {
+                    Entry entry = toEntry(row);
+                    if (entry != null && isOriginalCandidate((ReportStatus) row[6])) {
+                        add((ReportCategory) row[2], entry);
+                        loaded++;
+                    }
+                }
+            }
+            if (rows.size() < WARMUP_BATCH_SIZE) {
+                break;
+            }
+            afterId = (Long) rows.get(rows.size() - 1)[0];
+        }
+        log.info("Índice de fotos parecidas inicializado con {} fotos", loaded);
+    }
+
+    /**
+     * Descarta las fotos de reportes que ya salieron de la ventana de su categoría
+     */
+    @Scheduled(fixedDelayString = "${app.duplicates.purge-interval-ms:60000}")
+    public synchronized void purgeExpired() {
+        long now = LocalDateTime.now().toEpochSecond(ZoneOffset.UTC);
+        Entry head;
+        while ((head = arrivals.peek()) != null) {
+            ReportCategory category = reportCategories.get(head.reportId());
+            List<Entry> entries = byReport.get(head.reportId());
+            if (category == null || entries == null || !entries.contains(head)) {
+                // Ya se quitó al borrar o mover su reporte
+                arrivals.poll();
+                continue;
+            }
+            if (head.createdAtEpochSecond() >= now - properties.ruleFor(category).getWindowHours() * 3600L) {
+                break;
+            }
+            arrivals.poll();
+            remove(category, head);
+            entries.remove(head);
+            if (entries.isEmpty()) {
+                byReport.remove(head.reportId());
+                reportCategories.remove(head.reportId());
+            }
+        }
+    }
+
+    private static Entry toEntry(Object[] row) {
+        Double latitude = (Double) row[3];
+        Double longitude = (Double) row[4];
+        if (!GeoUtils.isValidCoordinate(latitude, longitude)) {
+            return null;
+        }
+        LocalDateTime createdAt = row[5] != null ? (LocalDateTime) row[5] : LocalDateTime.now();
+        return new Entry((Long) row[0], (Long) row[1], (Long) row[7], latitude, longitude,
+                createdAt.toEpochSecond(ZoneOffset.UTC));
+    }
+
+    private static int chunk(long hash, int index) {
+        return (int) (hash >>> (index * CHUNK_BITS)) & CHUNK_MASK;
+    }
+
+    private boolean isOriginalCandidate(ReportStatus status) {
+        return status != ReportStatus.DUPLICATE && status != ReportStatus.REJECTED;
+    }
+}
@@ -0,0 +1,180 @@
+package com.ecovive.service;
+
+import com.ecovive.config.CacheConfig;
+import com.ecovive.dto.CommentView;
+import com.ecovive.dto.CursorPage;
+import com.ecovive.dto.PageCursor;
+import com.ecovive.dto.PhotoView;
+import com.ecovive.dto.ReportView;
+import com.ecovive.model.ReportCategory;
+import com.ecovive.model.ReportStatus;
+import com.ecovive.repository.ReportRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Consultas de lectura de reportes basadas en modelos de lectura
+ *
+ * Un listado ejecuta siempre el mismo número de sentencias: una para la página
+ * (con el autor unido) y, si se piden, una para las fotos y otra para los
+ * comentarios de todos los reportes de la página.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ReportQueryService {
+
+    /**
+     * Hijos que el cliente puede pedir junto a cada reporte
+     */
+    public enum Include {
+        PHOTOS,
+        COMMENTS;
+
+        /**
+         * Interpreta una lista separada por comas, p. ej. {@code photos,comments}
+         *
+         * @throws IllegalArgumentException si algún valor no es válido
+         */
+        public static Set<Include> parse(String value) {
+            Set<Include> includes = EnumSet.noneOf(Include.class);
+            if (value == null || value.isBlank()) {
+                return includes;
+            }
+            for (String part : value.split(",")) {
+                if (!part.isBlank()) {
+                    includes.add(Include.valueOf(part.trim().toUpperCase()));
+                }
+            }
+            return includes;
+        }
+    }
+
+    private static final String VIEW_SELECT = "SELECT new com.ecovive.dto.ReportView(r.id, r.category, r.status, " +
+            "r.title, r.description, r.latitude, r.longitude, r.address, r.ecoPoints, r.priority, r.verified, " +
+            "r.anonymous, u.id, u.name, r.createdAt, r.updatedAt, r.resolvedAt) FROM Report r JOIN r.user u " +
+            "WHERE r.isPublic = true";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Value("${app.pagination.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${app.pagination.max-size:100}")
+    private int maxPageSize;
+
+    @Cacheable(cacheNames = CacheConfig.REPORT_DETAIL, key = "T(com.ecovive.service.ReportQueryService).detailKey(#id, #includes)",
+               unless = "#result == null")
+    public Optional<ReportView> getReport(Long id, Set<Include> includes) {
+        return reportRepository.findViewById(id)
+                .map(view -> attachChildren(List.of(view), includes).get(0));
+    }
+
+    /**
+     * Página de reportes públicos, con filtros opcionales de categoría y estado.
+     * Solo se cachea la primera página (sin cursor).
+     */
+    @Cacheable(cacheNames = CacheConfig.REPORT_PAGES, condition = "#cursor == null",
+               key = "#category + ':' + #status + ':' + #size + ':' + #includes")
+    public CursorPage<ReportView> getReports(ReportCategory category, ReportStatus status,
+                                             String cursor, Integer size, Set<Include> includes) {
+        int limit = resolvePageSize(size);
+        PageCursor after = cursor != null ? PageCursor.decode(cursor) : null;
+
+        StringBuilder jpql = new StringBuilder(VIEW_SELECT);
+        Map<String, Object> params = new LinkedHashMap<>();
+        if (category != null) {
+            jpql.append(" AND r.category = :category");
+            params.put("category", category);
+        }
+        if (status != null) {
+            jpql.append(" AND r.status = :status");
+            params.put("status", status);
+        }
+        if (after != null) {
+            jpql.append(" AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id))");
+            params.put("createdAt", after.createdAt());
+            params.put("id", after.id());
+        }
+        jpql.append(" ORDER BY r.createdAt DESC, r.id DESC");
+
+        TypedQuery<ReportView> query = entityManager.createQuery(jpql.toString(), ReportView.class);
+        params.forEach(query::setParameter);
+        // Se pide una fila extra para saber si hay página siguiente
+        List<ReportView> rows = query.setMaxResults(limit + 1).getResultList();
+
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            ReportView last = rows.get(limit - 1);
+            nextCursor = new PageCursor(last.createdAt(), last.id()).encode();
+        }
+        return CursorPage.of(attachChildren(rows, includes), nextCursor);
+    }
+
+    /**
+     * Clave de la caché de detalle; {@link CacheInvalidationListener} la recalcula
+     * para cada combinación de includes al invalidar un reporte
+     */
+    public static String detailKey(Long id, Set<Include> includes) {
+        StringBuilder key = new StringBuilder().append(id);
+        for (Include include : Include.values()) {
+            if (includes.contains(include)) {
+                key.append(':').append(include.name());
+            }
+        }
+        return key.toString();
+    }
+
+    private List<ReportView> attachChildren(List<ReportView> views, Set<Include> includes) {
+        if (views.isEmpty() || includes.isEmpty()) {
+            return views;
+        }
+        List<Long> ids = views.stream().map(ReportView::id).toList();
+        Map<Long, List<PhotoView>> photos = includes.contains(Include.PHOTOS)
+                ? reportRepository.findPhotoViewsByReportIds(ids).stream()
+                        .collect(Collectors.groupingBy(PhotoView::reportId))
+                : null;
+        Map<Long, List<CommentView>> comments = includes.contains(Include.COMMENTS)
+                ? reportRepository.findCommentViewsByReportIds(ids).stream()
+                        .collect(Collectors.groupingBy(CommentView::reportId))
+                : null;
+
+        List<ReportView> result = new ArrayList<>(views.size());
+        for (ReportView view : views) {
+            result.add(view.withChildren(
+                    photos != null ? photos.getOrDefault(view.id(), Collections.emptyList()) : null,
+                    comments != null ? comments.getOrDefault(view.id(), Collections.emptyList()) : null));
+        }
+        return result;
+    }
+
+    private int resolvePageSize(Integer size) {
+        if (size == null) {
+            return defaultPageSize;
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("El tamaño de página debe ser mayor que cero");
+        }
+        return Math.min(size, maxPageSize);
+    }
+}
@@ -0,0 +1,228 @@
+package com.ecovive.service;
+
+import com.ecovive.repository.ReportRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cuota diaria de reportes por usuario ({@code app.user.max-reports-per-day})
+ *
+ * Cada usuario activo tiene una ventana deslizante de 24 horas dividida en
+ * buckets fijos (30 minutos por defecto), así que la memoria por usuario es
+ * constante y la cuenta no requiere un COUNT en cada creación. La ventana se
+ * siembra desde la base de datos la primera vez que el usuario crea un reporte
+ * después del arranque y se descarta cuando queda vacía. La precisión es de un
+ * bucket: un reporte deja de contar entre 24 horas y 24 horas más un bucket
+ * después de creado.
+ *
+ * El estado es local a cada instancia de la aplicación.
+ */
+@Component
+public class ReportQuotaTracker {
+
+    private static final long WINDOW_MILLIS = TimeUnit.HOURS.toMillis(24);
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Value("${app.user.max-reports-per-day:50}")
+    private int maxReportsPerDay;
+
+    @Value("${app.user.quota-bucket-minutes:30}")
+    private int bucketMinutes;
+
+    private long bucketMillis;
+    private int bucketCount;
+
+    private final ConcurrentHashMap<Long, Window> windows = new ConcurrentHashMap<>();
+
+    /**
+     * Estado de la cuota de un usuario: límite, reportes restantes y segundos
+     * hasta que se libere el próximo cupo (0 si no hay ninguno ocupado)
+     */
+    public record Quota(boolean allowed, int limit, int remaining, long resetSeconds) {
+    }
+
+    /**
+     * El usuario agotó su cuota diaria
+     */
+    public static class QuotaExceededException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final Quota quota;
+
+        public QuotaExceededException(Quota quota) {
+            super("Cuota diaria de reportes agotada");
+            this.quota = quota;
+        }
+
+        public Quota getQuota() {
+            return quota;
+        }
+    }
+
+    /**
+     * Conteos de la ventana de un usuario; el bucket absoluto b ocupa la posición b % bucketCount
+     *
+     * {@code evicted} se marca con el lock de la ventana al sacarla del mapa: quien
+     * la obtuvo antes debe volver a buscar la del usuario en lugar de contar en ella.
+     */
+    private final class Window {
+        final int[] counts = new int[bucketCount];
+        long newestBucket;
+        int total;
+        boolean evicted;
+
+        Window(long bucket) {
+            this.newestBucket = bucket;
+        }
+
+        void advance(long bucket) {
+            if (bucket <= newestBucket) {
+                return;
+            }
+            long steps = Math.min(bucket - newestBucket, bucketCount);
+            for (long b = bucket - steps + 1; b <= bucket; b++) {
+                int slot = (int) Math.floorMod(b, (long) bucketCount);
+                total -= counts[slot];
+                counts[slot] = 0;
+            }
+            newestBucket = bucket;
+        }
+
+        void add(long bucket) {
+            counts[(int) Math.floorMod(bucket, (long) bucketCount)]++;
+            total++;
+        }
+
+        Quota quota(boolean allowed, long nowMillis) {
+            long resetSeconds = 0;
+            for (long b = newestBucket - bucketCount + 1; b <= newestBucket; b++) {
+                if (counts[(int) Math.floorMod(b, (long) bucketCount)] > 0) {
+                    long expiresAt = (b + bucketCount) * bucketMillis;
+                    resetSeconds = Math.max(1, TimeUnit.MILLISECONDS.toSeconds(expiresAt - nowMillis + 999));
+                    break;
+                }
+            }
+            return new Quota(allowed, maxReportsPerDay, Math.max(0, maxReportsPerDay - total), resetSeconds);
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        bucketMillis = TimeUnit.MINUTES.toMillis(Math.max(1, bucketMinutes));
+        bucketCount = (int) Math.max(1, WINDOW_MILLIS / bucketMillis);
+    }
+
+    /**
+     * Reserva un cupo para un reporte nuevo
+     *
+     * @throws QuotaExceededException si el usuario ya alcanzó el límite
+     */
+    public Quota acquire(Long userId) {
+        while (true) {
+            long now = System.currentTimeMillis();
+            Window window = windowFor(userId, now);
+            synchronized (window) {
+                if (window.evicted) {
+                    continue;
+                }
+                window.advance(now / bucketMillis);
+                if (window.total >= maxReportsPerDay) {
+                    throw new QuotaExceededException(window.quota(false, now));
+                }
+                window.add(now / bucketMillis);
+                return window.quota(true, now);
+            }
+        }
+    }
+
+    /**
+     * Estado actual de la cuota de un usuario, sin reservar cupo
+     */
+    public Quota status(Long userId) {
+        while (true) {
+            long now = System.currentTimeMillis();
+            Window window = windowFor(userId, now);
+            synchronized (window) {
+                if (window.evicted) {
+                    continue;
+                }
+                window.advance(now / bucketMillis);
+                return window.quota(window.total < maxReportsPerDay, now);
+            }
+        }
+    }
+
+    /**
+     * Devuelve el cupo reservado por una creación que no llegó a confirmarse
+     */
+    public void release(Long userId) {
+        Window window = windows.get(userId);
+        if (window == null) {
+            return;
+        }
+        synchronized (window) {
+            // Una ventana descartada estaba vacía: ya no queda nada que devolver
+            if (window.evicted) {
+                return;
+            }
+            for (long b = window.newestBucket; b > window.newestBucket - bucketCount; b--) {
+                int slot = (int) Math.floorMod(b, (long) bucketCount);
+                if (window.counts[slot] > 0) {
+                    window.counts[slot]--;
+                    window.total--;
+                    return;
+                }
+            }
+        }
+    }
+
+    private Window windowFor(Long userId, long now) {
+        Window window = windows.get(userId);
+        if (window != null) {
+            return window;
+        }
+        // Siembra fuera del mapa para no bloquearlo durante la consulta
+        long newest = now / bucketMillis;
+        Window seeded = new Window(newest);
+        LocalDateTime since = LocalDateTime.now().minusHours(24);
+        List<LocalDateTime> createdAt = reportRepository.findCreatedAtByUserSince(userId, since);
+        for (LocalDateTime at : createdAt) {
+            long bucket = at.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() / bucketMillis;
+            if (bucket > newest - bucketCount && bucket <= newest) {
+                seeded.add(bucket);
+            }
+        }
+        Window existing = windows.putIfAbsent(userId, seeded);
+        return existing != null ? existing : seeded;
+    }
+
+    /**
+     * Descarta las ventanas que quedaron vacías
+     *
+     * La ventana se marca como descartada con su lock tomado, así que una reserva
+     * concurrente o bien ocurrió antes (y la ventana ya no está vacía) o bien ve la
+     * marca y vuelve a sembrar una ventana nueva.
+     */
+    @Scheduled(fixedDelayString = "${app.user.quota-eviction-interval-ms:600000}")
+    public void evictIdle() {
+        long bucket = System.currentTimeMillis() / bucketMillis;
+        windows.values().removeIf(window -> {
+            synchronized (window) {
+                window.advance(bucket);
+                window.evicted = window.total == 0;
+                return window.evicted;
+            }
+        });
+    }
+}
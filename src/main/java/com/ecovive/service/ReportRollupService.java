@@ -0,0 +1,365 @@
+package com.ecovive.service;
+
+import com.ecovive.config.CacheConfig;
+import com.ecovive.dto.TimeSeries;
+import com.ecovive.dto.TimeSeriesPoint;
+import com.ecovive.event.ReportChangedEvent;
+import com.ecovive.event.ReportSnapshot;
+import com.ecovive.model.ReportCategory;
+import com.ecovive.model.ReportStatus;
+import com.ecovive.repository.ReportRepository;
+import com.ecovive.util.AddressNormalizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Rollups en memoria de reportes por día y por hora
+ *
+ * Cada bucket guarda el total y los desgloses por categoría, estado y distrito
+ * de los reportes creados en ese intervalo (el estado es el actual de cada
+ * reporte). Las escrituras ajustan los buckets en cuanto se confirman; una
+ * compactación programada descarta los buckets horarios antiguos y reconcilia
+ * todo con la base de datos. Un rango de fechas se responde sumando buckets,
+ * sin consultar la tabla de reportes.
+ *
+ * La reconciliación arma los buckets aparte y los reemplaza de una vez. Los
+ * eventos recibidos mientras lee se reaplican sobre el resultado: como la lectura
+ * pudo ver cada reporte antes o después del cambio, se descuenta lo que aportó la
+ * fila leída y se suma el estado del evento.
+ */
+@Component
+public class ReportRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportRollupService.class);
+
+    private static final ReportCategory[] CATEGORIES = ReportCategory.values();
+    private static final ReportStatus[] STATUSES = ReportStatus.values();
+
+    private static final int REBUILD_BATCH_SIZE = 5000;
+
+    public enum Granularity {
+        HOUR, DAY, MONTH
+    }
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Value("${app.rollups.hourly-retention-days:14}")
+    private int hourlyRetentionDays;
+
+    @Value("${app.rollups.max-points:2000}")
+    private int maxPoints;
+
+    private static final class Bucket {
+        final AtomicLong total = new AtomicLong();
+        final AtomicLongArray byCategory = new AtomicLongArray(CATEGORIES.length);
+        final AtomicLongArray byStatus = new AtomicLongArray(STATUSES.length);
+        final Map<String, Long> byDistrict = new ConcurrentHashMap<>();
+
+        void add(ReportCategory category, ReportStatus status, String district, long delta) {
+            total.addAndGet(delta);
+            if (category != null) {
+                byCategory.addAndGet(category.ordinal(), delta);
+            }
+            if (status != null) {
+                byStatus.addAndGet(status.ordinal(), delta);
+            }
+            byDistrict.merge(district, delta, (a, b) -> a + b == 0 ? null : a + b);
+        }
+    }
+
+    /**
+     * Buckets a los que aporta un reporte
+     */
+    private record BucketKey(LocalDateTime createdAt, ReportCategory category, ReportStatus status,
+                             String district) {
+
+        static BucketKey of(ReportSnapshot snapshot) {
+            LocalDateTime createdAt = snapshot.createdAt() != null ? snapshot.createdAt() : LocalDateTime.now();
+            return new BucketKey(createdAt, snapshot.category(), snapshot.status(),
+                    AddressNormalizer.district(snapshot.address()));
+        }
+    }
+
+    private static final class Rollups {
+        final Map<LocalDate, Bucket> days = new ConcurrentHashMap<>();
+        final Map<LocalDateTime, Bucket> hours = new ConcurrentHashMap<>();
+
+        void add(BucketKey key, long delta, LocalDateTime hourlyCutoff) {
+            days.computeIfAbsent(key.createdAt().toLocalDate(), d -> new Bucket())
+                    .add(key.category(), key.status(), key.district(), delta);
+            LocalDateTime hour = key.createdAt().truncatedTo(ChronoUnit.HOURS);
+            if (!hour.isBefore(hourlyCutoff)) {
+                hours.computeIfAbsent(hour, h -> new Bucket()).add(key.category(), key.status(), key.district(), delta);
+            }
+        }
+    }
+
+    /**
+     * Suma mutable de varios buckets
+     */
+    private static final class Totals {
+        long total;
+        final long[] byCategory = new long[CATEGORIES.length];
+        final long[] byStatus = new long[STATUSES.length];
+        final Map<String, Long> byDistrict = new HashMap<>();
+
+        void add(Bucket bucket, boolean districts) {
+            total += bucket.total.get();
+            for (int i = 0; i < byCategory.length; i++) {
+                byCategory[i] += bucket.byCategory.get(i);
+            }
+            for (int i = 0; i < byStatus.length; i++) {
+                byStatus[i] += bucket.byStatus.get(i);
+            }
+            if (districts) {
+                bucket.byDistrict.forEach((district, count) -> byDistrict.merge(district, count, Long::sum));
+            }
+        }
+
+        TimeSeriesPoint toPoint(LocalDateTime start, boolean districts) {
+            Map<ReportCategory, Long> categories = new EnumMap<>(ReportCategory.class);
+            for (ReportCategory category : CATEGORIES) {
+                categories.put(category, byCategory[category.ordinal()]);
+            }
+            Map<ReportStatus, Long> statuses = new EnumMap<>(ReportStatus.class);
+            for (ReportStatus status : STATUSES) {
+                statuses.put(status, byStatus[status.ordinal()]);
+            }
+            return new TimeSeriesPoint(start, total, categories, statuses, districts ? byDistrict : null);
+        }
+    }
+
+    private volatile Rollups rollups = new Rollups();
+
+    // Las escrituras comparten el lock de lectura; solo el reemplazo de la reconciliación es exclusivo
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+
+    // Escrituras recibidas durante una reconciliación, se reaplican sobre los buckets nuevos
+    private final ConcurrentLinkedQueue<ReportChangedEvent> pendingDuringRebuild = new ConcurrentLinkedQueue<>();
+
+    // Antes de que CacheInvalidationListener vacíe la caché de estadísticas
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReportChanged(ReportChangedEvent event) {
+        ReportSnapshot previous = event.previous();
+        ReportSnapshot current = event.current();
+        if (previous != null && current != null && sameBucketKey(previous, current)) {
+            return;
+        }
+        swapLock.readLock().lock();
+        try {
+            if (rebuilding.get()) {
+                pendingDuringRebuild.add(event);
+            }
+            LocalDateTime cutoff = hourlyCutoff();
+            if (previous != null) {
+                rollups.add(BucketKey.of(previous), -1, cutoff);
+            }
+            if (current != null) {
+                rollups.add(BucketKey.of(current), 1, cutoff);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Serie temporal entre dos fechas, ambas incluidas
+     *
+     * @throws IllegalArgumentException si el rango es inválido, demasiado largo para
+     *                                  la granularidad o, por horas, anterior a la retención
+     */
+    @Cacheable(cacheNames = CacheConfig.STATS, key = "'timeseries:' + #from + ':' + #to + ':' + #granularity")
+    public TimeSeries series(LocalDate from, LocalDate to, Granularity granularity) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Rango de fechas inválido");
+        }
+        Rollups snapshot = rollups;
+        Totals rangeTotals = new Totals();
+        List<TimeSeriesPoint> points = new ArrayList<>();
+
+        switch (granularity) {
+            case HOUR -> {
+                LocalDateTime start = from.atStartOfDay();
+                LocalDateTime end = to.plusDays(1).atStartOfDay();
+                if (start.isBefore(hourlyCutoff())) {
+                    throw new IllegalArgumentException("La serie por horas solo cubre los últimos "
+                            + hourlyRetentionDays + " días");
+                }
+                checkPoints(ChronoUnit.HOURS.between(start, end));
+                for (LocalDateTime hour = start; hour.isBefore(end); hour = hour.plusHours(1)) {
+                    Totals point = new Totals();
+                    Bucket bucket = snapshot.hours.get(hour);
+                    if (bucket != null) {
+                        point.add(bucket, false);
+                        rangeTotals.add(bucket, true);
+                    }
+                    points.add(point.toPoint(hour, false));
+                }
+            }
+            case DAY -> {
+                checkPoints(ChronoUnit.DAYS.between(from, to) + 1);
+                for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+                    Totals point = new Totals();
+                    addDay(snapshot, day, point, rangeTotals);
+                    points.add(point.toPoint(day.atStartOfDay(), false));
+                }
+            }
+            case MONTH -> {
+                checkPoints(ChronoUnit.MONTHS.between(from.withDayOfMonth(1), to.withDayOfMonth(1)) + 1);
+                LocalDate day = from;
+                while (!day.isAfter(to)) {
+                    LocalDate monthStart = day.withDayOfMonth(1);
+                    Totals point = new Totals();
+                    for (; !day.isAfter(to) && day.getMonth() == monthStart.getMonth(); day = day.plusDays(1)) {
+                        addDay(snapshot, day, point, rangeTotals);
+                    }
+                    points.add(point.toPoint(monthStart.atStartOfDay(), false));
+                }
+            }
+        }
+        return new TimeSeries(granularity.name(), from, to, points, rangeTotals.toPoint(from.atStartOfDay(), true));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuild();
+    }
+
+    /**
+     * Descarta los buckets horarios fuera de la retención y reconcilia con la base de datos
+     */
+    @Scheduled(cron = "${app.rollups.compaction-cron:0 15 3 * * *}")
+    public void compact() {
+        LocalDateTime cutoff = hourlyCutoff();
+        int before = rollups.hours.size();
+        rollups.hours.keySet().removeIf(hour -> hour.isBefore(cutoff));
+        log.debug("Rollups compactados: {} buckets horarios descartados", before - rollups.hours.size());
+        rebuild();
+    }
+
+    /**
+     * Recalcula todos los buckets desde la base de datos y los reemplaza
+     */
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            log.info("Reconstrucción de rollups ya en curso");
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            LocalDateTime cutoff = hourlyCutoff();
+            Rollups fresh = new Rollups();
+            // Lo que aportó cada fila leída, para poder descontarlo al reaplicar un evento
+            Map<Long, BucketKey> read = new HashMap<>();
+            long afterId = 0L;
+            while (true) {
+                List<Object[]> rows = reportRepository.findRollupDocumentsAfter(afterId,
+                        PageRequest.of(0, REBUILD_BATCH_SIZE));
+                for (Object[] row : rows) {
+                    LocalDateTime createdAt = (LocalDateTime) row[1];
+                    if (createdAt != null) {
+                        BucketKey key = new BucketKey(createdAt, (ReportCategory) row[2], (ReportStatus) row[3],
+                                AddressNormalizer.district((String) row[4]));
+                        fresh.add(key, 1, cutoff);
+                        read.put((Long) row[0], key);
+                    }
+                }
+                if (rows.size() < REBUILD_BATCH_SIZE) {
+                    break;
+                }
+                afterId = (Long) rows.get(rows.size() - 1)[0];
+            }
+
+            swapLock.writeLock().lock();
+            try {
+                ReportChangedEvent pending;
+                while ((pending = pendingDuringRebuild.poll()) != null) {
+                    replay(fresh, read, pending, cutoff);
+                }
+                rollups = fresh;
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+            log.info("Rollups reconstruidos: {} reportes en {} días en {} ms",
+                    read.size(), fresh.days.size(), System.currentTimeMillis() - start);
+        } finally {
+            // Lo encolado tras el vaciado ya se aplicó sobre los buckets nuevos
+            swapLock.writeLock().lock();
+            try {
+                pendingDuringRebuild.clear();
+                rebuilding.set(false);
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+        }
+    }
+
+    private static void replay(Rollups fresh, Map<Long, BucketKey> read, ReportChangedEvent event,
+                               LocalDateTime cutoff) {
+        BucketKey seen = read.remove(event.reportId());
+        if (seen != null) {
+            fresh.add(seen, -1, cutoff);
+        }
+        if (event.current() != null) {
+            BucketKey key = BucketKey.of(event.current());
+            fresh.add(key, 1, cutoff);
+            read.put(event.reportId(), key);
+        }
+    }
+
+    private static boolean sameBucketKey(ReportSnapshot a, ReportSnapshot b) {
+        return a.category() == b.category()
+                && a.status() == b.status()
+                && Objects.equals(a.createdAt(), b.createdAt())
+                && Objects.equals(AddressNormalizer.district(a.address()), AddressNormalizer.district(b.address()));
+    }
+
+    private static void addDay(Rollups snapshot, LocalDate day, Totals point, Totals rangeTotals) {
+        Bucket bucket = snapshot.days.get(day);
+        if (bucket != null) {
+            point.add(bucket, false);
+            rangeTotals.add(bucket, true);
+        }
+    }
+
+    private void checkPoints(long count) {
+        if (count > maxPoints) {
+            throw new IllegalArgumentException("El rango pide " + count + " puntos; el máximo es " + maxPoints);
+        }
+    }
+
+    private LocalDateTime hourlyCutoff() {
+        return LocalDate.now().minusDays(hourlyRetentionDays).atStartOfDay();
+    }
+}
@@ -0,0 +1,402 @@
+package com.ecovive.service;
+
+import com.ecovive.dto.ReportSearchHit;
+import com.ecovive.dto.SearchResultPage;
+import com.ecovive.event.ReportChangedEvent;
+import com.ecovive.event.ReportSnapshot;
+import com.ecovive.model.ReportCategory;
+import com.ecovive.model.ReportStatus;
+import com.ecovive.repository.ReportRepository;
+import com.ecovive.util.SpanishTextAnalyzer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Índice invertido en memoria para la búsqueda de texto en reportes públicos
+ *
+ * Indexa título, descripción y dirección con el {@link SpanishTextAnalyzer}.
+ * Soporta términos sueltos, frases entre comillas y prefijos terminados en "*";
+ * todas las cláusulas deben coincidir y los resultados se ordenan por BM25
+ * (el título pesa más que la dirección y ésta más que la descripción).
+ *
+ * Las escrituras se serializan con un lock; las búsquedas leen estructuras
+ * concurrentes sin bloquear. La reconstrucción arma un índice nuevo aparte y lo
+ * reemplaza de una vez, reaplicando los cambios que llegaron mientras tanto.
+ */
+@Component
+public class ReportSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportSearchIndex.class);
+
+    private static final int REBUILD_BATCH_SIZE = 2000;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final int MAX_RESULT_WINDOW = 1000;
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int ADDRESS_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    // Separa campos en la secuencia de términos para que una frase no cruce de un campo a otro
+    private static final int FIELD_GAP = -1;
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    private volatile Index index = new Index();
+    private final Object writeLock = new Object();
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+
+    // Escrituras recibidas durante una reconstrucción, se reaplican sobre el índice nuevo
+    private final ConcurrentLinkedQueue<ReportChangedEvent> pendingDuringRebuild = new ConcurrentLinkedQueue<>();
+
+    private static final class Term {
+        final int id;
+        // docId -> frecuencia ponderada por campo
+        final Map<Long, Integer> postings = new ConcurrentHashMap<>();
+
+        Term(int id) {
+            this.id = id;
+        }
+    }
+
+    private record Document(long id, String title, ReportCategory category, ReportStatus status,
+                            LocalDateTime createdAt, int[] sequence, Set<String> terms, int length) {
+    }
+
+    private record Clause(List<Term> alternatives, int[] phrase) {
+        boolean isPhrase() {
+            return phrase != null;
+        }
+    }
+
+    /**
+     * Vocabulario y documentos; lo modifica un solo escritor a la vez
+     */
+    private static final class Index {
+        final ConcurrentSkipListMap<String, Term> dictionary = new ConcurrentSkipListMap<>();
+        final Map<Long, Document> documents = new ConcurrentHashMap<>();
+        final AtomicLong totalLength = new AtomicLong();
+        int nextTermId = 0;
+
+        void put(long id, String title, String description, String address,
+                 ReportCategory category, ReportStatus status, LocalDateTime createdAt) {
+            remove(id);
+
+            Map<String, Integer> frequencies = new HashMap<>();
+            List<Integer> sequence = new ArrayList<>();
+            int length = 0;
+            length += addField(title, TITLE_WEIGHT, frequencies, sequence);
+            sequence.add(FIELD_GAP);
+            length += addField(address, ADDRESS_WEIGHT, frequencies, sequence);
+            sequence.add(FIELD_GAP);
+            length += addField(description, DESCRIPTION_WEIGHT, frequencies, sequence);
+
+            Document doc = new Document(id, title, category, status, createdAt,
+                    sequence.stream().mapToInt(Integer::intValue).toArray(),
+                    Set.copyOf(frequencies.keySet()), length);
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                dictionary.get(entry.getKey()).postings.put(id, entry.getValue());
+            }
+            documents.put(id, doc);
+            totalLength.addAndGet(length);
+        }
+
+        void remove(long id) {
+            Document old = documents.remove(id);
+            if (old == null) {
+                return;
+            }
+            totalLength.addAndGet(-old.length());
+            for (String value : old.terms()) {
+                Term term = dictionary.get(value);
+                if (term != null) {
+                    term.postings.remove(id);
+                    if (term.postings.isEmpty()) {
+                        dictionary.remove(value);
+                    }
+                }
+            }
+        }
+
+        private int addField(String text, int weight, Map<String, Integer> frequencies, List<Integer> sequence) {
+            List<String> terms = SpanishTextAnalyzer.analyze(text);
+            for (String value : terms) {
+                Term term = dictionary.computeIfAbsent(value, v -> new Term(nextTermId++));
+                frequencies.merge(value, weight, Integer::sum);
+                sequence.add(term.id);
+            }
+            return terms.size() * weight;
+        }
+    }
+
+    /**
+     * Busca reportes públicos y devuelve la página pedida ordenada por relevancia
+     */
+    public SearchResultPage<ReportSearchHit> search(String query, int page, int size) {
+        if (page < 0 || size < 1 || (long) (page + 1) * size > MAX_RESULT_WINDOW) {
+            throw new IllegalArgumentException("Paginación fuera de rango (máximo " + MAX_RESULT_WINDOW + " resultados)");
+        }
+        Index current = index;
+        List<Clause> clauses = parse(current, query);
+        if (clauses.isEmpty()) {
+            return new SearchResultPage<>(List.of(), 0, page, size);
+        }
+        for (Clause clause : clauses) {
+            if (clause.alternatives().isEmpty()) {
+                return new SearchResultPage<>(List.of(), 0, page, size);
+            }
+        }
+
+        // Se recorren los candidatos de la cláusula más selectiva
+        Clause driver = clauses.stream()
+                .min(Comparator.comparingInt(c -> c.alternatives().stream().mapToInt(t -> t.postings.size()).sum()))
+                .orElseThrow();
+        Set<Long> candidates = new HashSet<>();
+        for (Term term : driver.alternatives()) {
+            candidates.addAll(term.postings.keySet());
+        }
+
+        int docCount = Math.max(1, current.documents.size());
+        double avgLength = Math.max(1.0, (double) current.totalLength.get() / docCount);
+        int window = (page + 1) * size;
+        PriorityQueue<ReportSearchHit> top = new PriorityQueue<>(Comparator.comparingDouble(ReportSearchHit::score)
+                .thenComparing(ReportSearchHit::id, Comparator.reverseOrder()));
+        long matches = 0;
+
+        for (Long docId : candidates) {
+            Document doc = current.documents.get(docId);
+            if (doc == null) {
+                continue;
+            }
+            double score = 0;
+            boolean matched = true;
+            for (Clause clause : clauses) {
+                double clauseScore = scoreClause(clause, doc, docCount, avgLength);
+                if (clauseScore <= 0) {
+                    matched = false;
+                    break;
+                }
+                score += clauseScore;
+            }
+            if (!matched) {
+                continue;
+            }
+            matches++;
+            top.add(new ReportSearchHit(doc.id(), doc.title(), doc.category(), doc.status(), doc.createdAt(), score));
+            if (top.size() > window) {
+                top.poll();
+            }
+        }
+
+        List<ReportSearchHit> ranked = new ArrayList<>(top);
+        ranked.sort(Comparator.comparingDouble(ReportSearchHit::score).reversed()
+                .thenComparing(ReportSearchHit::id, Comparator.reverseOrder()));
+        int from = Math.min(page * size, ranked.size());
+        return new SearchResultPage<>(new ArrayList<>(ranked.subList(from, ranked.size())), matches, page, size);
+    }
+
+    public int size() {
+        return index.documents.size();
+    }
+
+    private double scoreClause(Clause clause, Document doc, int docCount, double avgLength) {
+        if (clause.isPhrase() && !containsPhrase(doc.sequence(), clause.phrase())) {
+            return 0;
+        }
+        double score = 0;
+        for (Term term : clause.alternatives()) {
+            Integer tf = term.postings.get(doc.id());
+            if (tf == null) {
+                if (clause.isPhrase()) {
+                    return 0;
+                }
+                continue;
+            }
+            int df = term.postings.size();
+            double idf = Math.log(1 + (docCount - df + 0.5) / (df + 0.5));
+            score += idf * (tf * (K1 + 1)) / (tf + K1 * (1 - B + B * doc.length() / avgLength));
+        }
+        return score;
+    }
+
+    private static boolean containsPhrase(int[] sequence, int[] phrase) {
+        outer:
+        for (int i = 0; i + phrase.length <= sequence.length; i++) {
+            for (int j = 0; j < phrase.length; j++) {
+                if (sequence[i + j] != phrase[j]) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Convierte la consulta en cláusulas: "frase exacta", prefijo* o término
+     */
+    private List<Clause> parse(Index current, String query) {
+        List<Clause> clauses = new ArrayList<>();
+        if (query == null) {
+            return clauses;
+        }
+        String[] parts = query.split("\"", -1);
+        for (int i = 0; i < parts.length; i++) {
+            boolean quoted = i % 2 == 1 && i < parts.length - 1;
+            if (quoted) {
+                List<String> terms = SpanishTextAnalyzer.analyze(parts[i]);
+                if (terms.isEmpty()) {
+                    continue;
+                }
+                List<Term> resolved = new ArrayList<>();
+                int[] phrase = new int[terms.size()];
+                for (int j = 0; j < terms.size(); j++) {
+                    Term term = current.dictionary.get(terms.get(j));
+                    if (term == null) {
+                        resolved.clear();
+                        break;
+                    }
+                    resolved.add(term);
+                    phrase[j] = term.id;
+                }
+                clauses.add(new Clause(resolved, resolved.isEmpty() ? null : phrase));
+                continue;
+            }
+            for (String raw : parts[i].trim().split("\\s+")) {
+                if (raw.isEmpty()) {
+                    continue;
+                }
+                if (raw.endsWith("*") && raw.length() > 1) {
+                    clauses.add(new Clause(expandPrefix(current, raw.substring(0, raw.length() - 1)), null));
+                    continue;
+                }
+                for (String token : SpanishTextAnalyzer.tokenize(raw)) {
+                    if (SpanishTextAnalyzer.isStopword(token)) {
+                        continue;
+                    }
+                    Term term = current.dictionary.get(SpanishTextAnalyzer.stem(token));
+                    clauses.add(new Clause(term == null ? List.of() : List.of(term), null));
+                }
+            }
+        }
+        return clauses;
+    }
+
+    private List<Term> expandPrefix(Index current, String rawPrefix) {
+        List<String> tokens = SpanishTextAnalyzer.tokenize(rawPrefix);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        String prefix = tokens.get(tokens.size() - 1);
+        // El vocabulario está en raíces: se prueba tanto el prefijo literal como su raíz
+        Map<Integer, Term> expansions = new HashMap<>();
+        Set<String> candidates = new LinkedHashSet<>(List.of(prefix, SpanishTextAnalyzer.stem(prefix)));
+        for (String candidate : candidates) {
+            ConcurrentNavigableMap<String, Term> range = current.dictionary.subMap(candidate, true, candidate + Character.MAX_VALUE, false);
+            for (Term term : range.values()) {
+                expansions.putIfAbsent(term.id, term);
+                if (expansions.size() >= MAX_PREFIX_EXPANSIONS) {
+                    return new ArrayList<>(expansions.values());
+                }
+            }
+        }
+        return new ArrayList<>(expansions.values());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReportChanged(ReportChangedEvent event) {
+        // Encolar y aplicar bajo el mismo lock que el reemplazo del índice: o el evento
+        // llega antes y se reaplica sobre el nuevo, o llega después y ya lo ve
+        synchronized (writeLock) {
+            if (rebuilding.get()) {
+                pendingDuringRebuild.add(event);
+            }
+            apply(index, event);
+        }
+    }
+
+    private static void apply(Index target, ReportChangedEvent event) {
+        ReportSnapshot current = event.current();
+        if (current == null || !current.isPublic()) {
+            target.remove(event.reportId());
+        } else {
+            target.put(current.id(), current.title(), current.description(), current.address(),
+                    current.category(), current.status(), current.createdAt());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuild();
+    }
+
+    /**
+     * Reindexa todos los reportes públicos desde la base de datos
+     *
+     * Los lotes se leen en un índice nuevo que solo ve este hilo; los reportes que
+     * ya no existen o dejaron de ser públicos quedan fuera simplemente por no leerse.
+     */
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            log.info("Reconstrucción del índice de búsqueda ya en curso");
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            Index fresh = new Index();
+            long afterId = 0L;
+            while (true) {
+                List<Object[]> rows = reportRepository.findSearchDocumentsAfter(afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                for (Object[] row : rows) {
+                    fresh.put((Long) row[0], (String) row[1], (String) row[2], (String) row[3],
+                            (ReportCategory) row[4], (ReportStatus) row[5], (LocalDateTime) row[6]);
+                }
+                if (rows.size() < REBUILD_BATCH_SIZE) {
+                    break;
+                }
+                afterId = (Long) rows.get(rows.size() - 1)[0];
+            }
+            synchronized (writeLock) {
+                // Lo recibido durante la lectura es al menos tan reciente como lo leído
+                ReportChangedEvent pending;
+                while ((pending = pendingDuringRebuild.poll()) != null) {
+                    apply(fresh, pending);
+                }
+                index = fresh;
+            }
+            log.info("Índice de búsqueda reconstruido: {} reportes, {} términos en {} ms",
+                    fresh.documents.size(), fresh.dictionary.size(), System.currentTimeMillis() - start);
+        } finally {
+            synchronized (writeLock) {
+                pendingDuringRebuild.clear();
+                rebuilding.set(false);
+            }
+        }
+    }
+}
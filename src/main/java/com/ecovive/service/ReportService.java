@@ -0,0 +1,193 @@
+package com.ecovive.service;
+
+import com.ecovive.config.DuplicateDetectionProperties;
+import com.ecovive.dto.NearbyReport;
+import com.ecovive.dto.ReportRequest;
+import com.ecovive.dto.ReportSearchHit;
+import com.ecovive.dto.SearchResultPage;
+import com.ecovive.event.ReportChangedEvent;
+import com.ecovive.event.ReportSnapshot;
+import com.ecovive.model.DuplicateCandidate;
+import com.ecovive.model.Report;
+import com.ecovive.model.ReportStatus;
+import com.ecovive.model.User;
+import com.ecovive.repository.DuplicateCandidateRepository;
+import com.ecovive.repository.ReportRepository;
+import com.ecovive.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Servicio de reportes ambientales
+ *
+ * Es el único punto de escritura de reportes: cada creación, actualización,
+ * cambio de estado o eliminación publica un {@link ReportChangedEvent} que los
+ * índices en memoria aplican después del commit.
+ */
+@Service
+public class ReportService {
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReportSpatialIndex spatialIndex;
+
+    @Autowired
+    private ReportSearchIndex searchIndex;
+
+    @Autowired
+    private ReportDuplicateDetector duplicateDetector;
+
+    @Autowired
+    private DuplicateDetectionProperties duplicateProperties;
+
+    @Autowired
+    private DuplicateCandidateRepository duplicateCandidateRepository;
+
+    @Autowired
+    private ReportQuotaTracker quotaTracker;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public Report createReport(ReportRequest request) {
+        User user = userRepository.findById(request.getUserId())
+                .orElseThrow(() -> new IllegalArgumentException("Usuario no encontrado: " + request.getUserId()));
+
+        // La cuota se reserva antes del insert y se devuelve si la transacción no confirma
+        quotaTracker.acquire(user.getId());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    quotaTracker.release(user.getId());
+                }
+            }
+        });
+
+        Report report = new Report(request.getCategory(), request.getTitle(), request.getDescription(),
+                request.getLatitude(), request.getLongitude(), user);
+        applyOptionalFields(report, request);
+
+        // Detección de duplicados en memoria; el reporte queda registrado en el detector al guardarse
+        List<ReportDuplicateDetector.Match> duplicates = new ArrayList<>();
+        Report saved = duplicateDetector.findAndRegister(report.getCategory(), report.getLatitude(),
+                report.getLongitude(), LocalDateTime.now(), matches -> {
+                    duplicates.addAll(matches);
+                    if (!matches.isEmpty()
+                            && duplicateProperties.getMode() == DuplicateDetectionProperties.Mode.AUTO_MARK) {
+                        report.setStatus(ReportStatus.DUPLICATE);
+                    }
+                    return reportRepository.save(report);
+                });
+        for (ReportDuplicateDetector.Match match : duplicates) {
+            duplicateCandidateRepository.save(new DuplicateCandidate(saved.getId(), match.reportId(),
+                    DuplicateCandidate.Reason.PROXIMITY, match.distanceMeters()));
+        }
+        eventPublisher.publishEvent(ReportChangedEvent.created(ReportSnapshot.of(saved)));
+        return saved;
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<Report> getReportById(Long id) {
+        return reportRepository.findById(id);
+    }
+
+    @Transactional
+    public Optional<Report> updateReport(Long id, ReportRequest request) {
+        return reportRepository.findById(id).map(report -> {
+            ReportSnapshot previous = ReportSnapshot.of(report);
+            report.setCategory(request.getCategory());
+            report.setTitle(request.getTitle());
+            report.setDescription(request.getDescription());
+            report.setLatitude(request.getLatitude());
+            report.setLongitude(request.getLongitude());
+            applyOptionalFields(report, request);
+
+            Report saved = reportRepository.saveAndFlush(report);
+            eventPublisher.publishEvent(ReportChangedEvent.updated(previous, ReportSnapshot.of(saved)));
+            return saved;
+        });
+    }
+
+    /**
+     * Cambia el estado de un reporte respetando las transiciones permitidas
+     */
+    @Transactional
+    public Optional<Report> updateStatus(Long id, ReportStatus newStatus) {
+        return reportRepository.findById(id).map(report -> {
+            if (!report.getStatus().canTransitionTo(newStatus)) {
+                throw new IllegalStateException("Transición no permitida: " + report.getStatus() + " -> " + newStatus);
+            }
+            ReportSnapshot previous = ReportSnapshot.of(report);
+            if (newStatus == ReportStatus.RESOLVED) {
+                report.markAsResolved();
+            } else {
+                report.setStatus(newStatus);
+                if (newStatus == ReportStatus.VERIFIED) {
+                    report.setVerifiedAt(LocalDateTime.now());
+                }
+            }
+
+            Report saved = reportRepository.saveAndFlush(report);
+            eventPublisher.publishEvent(ReportChangedEvent.statusChanged(previous, ReportSnapshot.of(saved)));
+            return saved;
+        });
+    }
+
+    @Transactional
+    public boolean deleteReport(Long id) {
+        Optional<Report> report = reportRepository.findById(id);
+        if (report.isEmpty()) {
+            return false;
+        }
+        ReportSnapshot previous = ReportSnapshot.of(report.get());
+        reportRepository.delete(report.get());
+        eventPublisher.publishEvent(ReportChangedEvent.deleted(previous));
+        return true;
+    }
+
+    /**
+     * Reportes públicos cercanos servidos desde el índice espacial en memoria
+     */
+    public List<NearbyReport> findReportsNearLocation(double latitude, double longitude,
+                                                     double radiusInMeters, int limit) {
+        return spatialIndex.findWithinRadius(latitude, longitude, radiusInMeters, limit);
+    }
+
+    /**
+     * Búsqueda de texto sobre reportes públicos servida desde el índice invertido
+     */
+    public SearchResultPage<ReportSearchHit> searchReports(String query, int page, int size) {
+        return searchIndex.search(query, page, size);
+    }
+
+    static void applyOptionalFields(Report report, ReportRequest request) {
+        if (request.getAddress() != null) {
+            report.setAddress(request.getAddress());
+        }
+        if (request.getPriority() != null) {
+            report.setPriority(request.getPriority());
+        }
+        if (request.getIsPublic() != null) {
+            report.setIsPublic(request.getIsPublic());
+        }
+        if (request.getAnonymous() != null) {
+            report.setAnonymous(request.getAnonymous());
+        }
+    }
+}
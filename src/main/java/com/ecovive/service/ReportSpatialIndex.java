@@ -0,0 +1,300 @@
+package com.ecovive.service;
+
+import com.ecovive.dto.NearbyReport;
+import com.ecovive.event.ReportChangedEvent;
+import com.ecovive.event.ReportSnapshot;
+import com.ecovive.model.ReportCategory;
+import com.ecovive.model.ReportStatus;
+import com.ecovive.repository.ReportRepository;
+import com.ecovive.util.GeoUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Índice espacial en memoria de los reportes públicos
+ *
+ * Divide el mapa en una grilla de celdas de tamaño fijo (en grados). Una búsqueda
+ * por radio recorre solo las celdas que tocan el rectángulo envolvente del círculo
+ * y confirma cada candidato con la distancia de haversine exacta, sin consultar
+ * la base de datos.
+ *
+ * Se reconstruye al arrancar la aplicación, se actualiza con cada
+ * {@link ReportChangedEvent} y se contrasta periódicamente con la base de datos.
+ */
+@Component
+public class ReportSpatialIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportSpatialIndex.class);
+
+    private static final int REBUILD_BATCH_SIZE = 5000;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Value("${app.geo.cell-size-degrees:0.01}")
+    private double cellSizeDegrees;
+
+    @Value("${app.geo.max-radius-meters:50000}")
+    private double maxRadiusMeters;
+
+    private volatile Grid grid = new Grid();
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+
+    // Ordena las escrituras frente al cambio de grilla: ninguna queda en la cola tras el reemplazo
+    private final Object swapLock = new Object();
+
+    // Escrituras recibidas durante una reconstrucción, se reaplican sobre la grilla nueva
+    private final ConcurrentLinkedQueue<ReportChangedEvent> pendingDuringRebuild = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Entrada compacta del índice
+     */
+    public record Entry(long id, double latitude, double longitude, ReportCategory category, ReportStatus status) {
+    }
+
+    /**
+     * Resultado de contrastar el índice con la base de datos
+     */
+    public record ConsistencyReport(long indexedCount, long databaseCount,
+                                    long indexedIdChecksum, long databaseIdChecksum) {
+        public boolean consistent() {
+            return indexedCount == databaseCount && indexedIdChecksum == databaseIdChecksum;
+        }
+    }
+
+    private final class Grid {
+        final Map<Long, Map<Long, Entry>> cells = new ConcurrentHashMap<>();
+        final Map<Long, Entry> byId = new ConcurrentHashMap<>();
+        final AtomicLong idChecksum = new AtomicLong();
+
+        void upsert(Entry entry) {
+            byId.compute(entry.id(), (id, old) -> {
+                if (old != null) {
+                    removeFromCell(old);
+                    idChecksum.addAndGet(-old.id());
+                }
+                cells.computeIfAbsent(cellKey(entry.latitude(), entry.longitude()),
+                        k -> new ConcurrentHashMap<>()).put(entry.id(), entry);
+                idChecksum.addAndGet(entry.id());
+                return entry;
+            });
+        }
+
+        void remove(long id) {
+            byId.computeIfPresent(id, (key, old) -> {
+                removeFromCell(old);
+                idChecksum.addAndGet(-old.id());
+                return null;
+            });
+        }
+
+        private void removeFromCell(Entry entry) {
+            long key = cellKey(entry.latitude(), entry.longitude());
+            cells.computeIfPresent(key, (k, cell) -> {
+                cell.remove(entry.id());
+                return cell.isEmpty() ? null : cell;
+            });
+        }
+    }
+
+    /**
+     * Busca reportes públicos dentro de un radio, ordenados por distancia
+     */
+    public List<NearbyReport> findWithinRadius(double latitude, double longitude, double radiusMeters, int limit) {
+        if (!GeoUtils.isValidCoordinate(latitude, longitude)) {
+            throw new IllegalArgumentException("Coordenadas inválidas");
+        }
+        if (radiusMeters <= 0 || radiusMeters > maxRadiusMeters) {
+            throw new IllegalArgumentException("El radio debe estar entre 0 y " + (long) maxRadiusMeters + " metros");
+        }
+
+        Grid current = grid;
+        double dLat = GeoUtils.latitudeDelta(radiusMeters);
+        double minLat = Math.max(-90.0, latitude - dLat);
+        double maxLat = Math.min(90.0, latitude + dLat);
+        double[][] lonRanges = GeoUtils.longitudeRanges(longitude,
+                GeoUtils.longitudeDelta(radiusMeters, latitude));
+
+        // Cerca de los polos el rectángulo abarca millones de celdas vacías: si hay más
+        // celdas por recorrer que celdas ocupadas, se recorren directamente las entradas
+        long rows = cellIndex(maxLat) - cellIndex(minLat) + 1;
+        long cellCount = 0;
+        for (double[] range : lonRanges) {
+            cellCount += rows * (cellIndex(range[1]) - cellIndex(range[0]) + 1);
+        }
+
+        List<NearbyReport> hits = new ArrayList<>();
+        if (cellCount > current.cells.size()) {
+            for (Entry entry : current.byId.values()) {
+                collect(entry, latitude, longitude, radiusMeters, minLat, maxLat, lonRanges, hits);
+            }
+        } else {
+            for (double[] range : lonRanges) {
+                for (long row = cellIndex(minLat); row <= cellIndex(maxLat); row++) {
+                    for (long col = cellIndex(range[0]); col <= cellIndex(range[1]); col++) {
+                        Map<Long, Entry> cell = current.cells.get(pack(row, col));
+                        if (cell == null) {
+                            continue;
+                        }
+                        for (Entry entry : cell.values()) {
+                            collect(entry, latitude, longitude, radiusMeters, minLat, maxLat, lonRanges, hits);
+                        }
+                    }
+                }
+            }
+        }
+        hits.sort(Comparator.comparingDouble(NearbyReport::distanceMeters));
+        return hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits;
+    }
+
+    private static void collect(Entry entry, double latitude, double longitude, double radiusMeters,
+                                double minLat, double maxLat, double[][] lonRanges, List<NearbyReport> hits) {
+        // Prefiltro por rectángulo antes del cálculo trigonométrico
+        if (entry.latitude() < minLat || entry.latitude() > maxLat || !withinRanges(entry.longitude(), lonRanges)) {
+            return;
+        }
+        double distance = GeoUtils.haversineMeters(latitude, longitude, entry.latitude(), entry.longitude());
+        if (distance <= radiusMeters) {
+            hits.add(new NearbyReport(entry.id(), entry.category(), entry.status(),
+                    entry.latitude(), entry.longitude(), distance));
+        }
+    }
+
+    private static boolean withinRanges(double longitude, double[][] ranges) {
+        for (double[] range : ranges) {
+            if (longitude >= range[0] && longitude <= range[1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Cantidad de reportes indexados
+     */
+    public int size() {
+        return grid.byId.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReportChanged(ReportChangedEvent event) {
+        synchronized (swapLock) {
+            if (rebuilding.get()) {
+                pendingDuringRebuild.add(event);
+            }
+            apply(grid, event);
+        }
+    }
+
+    private void apply(Grid target, ReportChangedEvent event) {
+        ReportSnapshot current = event.current();
+        if (current == null || !current.isPublic()
+                || !GeoUtils.isValidCoordinate(current.latitude(), current.longitude())) {
+            target.remove(event.reportId());
+        } else {
+            target.upsert(new Entry(current.id(), current.latitude(), current.longitude(),
+                    current.category(), current.status()));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuild();
+    }
+
+    /**
+     * Reconstruye el índice completo leyendo la base de datos por lotes ordenados por id
+     */
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            log.info("Reconstrucción del índice espacial ya en curso");
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            Grid fresh = new Grid();
+            long afterId = 0L;
+            while (true) {
+                List<Object[]> rows = reportRepository.findPublicLocationsAfter(afterId,
+                        PageRequest.of(0, REBUILD_BATCH_SIZE));
+                for (Object[] row : rows) {
+                    Double lat = (Double) row[1];
+                    Double lon = (Double) row[2];
+                    if (GeoUtils.isValidCoordinate(lat, lon)) {
+                        fresh.upsert(new Entry((Long) row[0], lat, lon, (ReportCategory) row[3], (ReportStatus) row[4]));
+                    }
+                }
+                if (rows.size() < REBUILD_BATCH_SIZE) {
+                    break;
+                }
+                afterId = (Long) rows.get(rows.size() - 1)[0];
+            }
+            synchronized (swapLock) {
+                grid = fresh;
+                ReportChangedEvent pending;
+                while ((pending = pendingDuringRebuild.poll()) != null) {
+                    apply(fresh, pending);
+                }
+            }
+            log.info("Índice espacial reconstruido: {} reportes en {} ms",
+                    fresh.byId.size(), System.currentTimeMillis() - start);
+        } finally {
+            // Si la reconstrucción falló, lo encolado ya se aplicó a la grilla vigente
+            synchronized (swapLock) {
+                pendingDuringRebuild.clear();
+                rebuilding.set(false);
+            }
+        }
+    }
+
+    /**
+     * Compara el índice con la base de datos (conteo y suma de ids)
+     */
+    public ConsistencyReport checkConsistency() {
+        Object[] totals = reportRepository.getPublicReportChecksum().get(0);
+        Grid current = grid;
+        return new ConsistencyReport(current.byId.size(), ((Number) totals[0]).longValue(),
+                current.idChecksum.get(), ((Number) totals[1]).longValue());
+    }
+
+    @Scheduled(fixedDelayString = "${app.geo.consistency-check-ms:3600000}",
+               initialDelayString = "${app.geo.consistency-check-ms:3600000}")
+    public void verifyConsistency() {
+        ConsistencyReport report = checkConsistency();
+        if (!report.consistent()) {
+            log.warn("Índice espacial desincronizado ({} en memoria, {} en base de datos), reconstruyendo",
+                    report.indexedCount(), report.databaseCount());
+            rebuild();
+        }
+    }
+
+    private long cellKey(double latitude, double longitude) {
+        return pack(cellIndex(latitude), cellIndex(longitude));
+    }
+
+    private long cellIndex(double degrees) {
+        return (long) Math.floor(degrees / cellSizeDegrees);
+    }
+
+    private static long pack(long row, long col) {
+        return (row << 32) ^ (col & 0xFFFFFFFFL);
+    }
+}
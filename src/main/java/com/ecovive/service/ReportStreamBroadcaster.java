@@ -0,0 +1,482 @@
+package com.ecovive.service;
+
+import com.ecovive.dto.ReportStreamEvent;
+import com.ecovive.event.ReportChangedEvent;
+import com.ecovive.event.ReportSnapshot;
+import com.ecovive.model.ReportCategory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Difusión por Server-Sent Events de las creaciones y cambios de estado de reportes
+ *
+ * Cada evento se serializa una sola vez y se encola en los suscriptores cuyo
+ * filtro (categorías y bounding box) coincide, sin E/S en el hilo que publica.
+ * Cada suscriptor tiene un buffer acotado que se vacía en un pool propio; si un
+ * cliente lento lo llena se descarta lo más antiguo o se le desconecta, según
+ * {@code app.stream.overflow-policy}. Los últimos eventos quedan en un
+ * historial para reanudar con {@code Last-Event-ID}. Un suscriptor inactivo
+ * solo ocupa su emitter y su filtro: el buffer se crea al encolar y se libera
+ * al vaciarse.
+ *
+ * Un {@code send()} a un socket que no acepta datos bloquea su hilo hasta el
+ * timeout de escritura del conector y no se puede interrumpir. Un vigilante
+ * desconecta al suscriptor cuya escritura supera {@code app.stream.write-timeout-ms}
+ * y, mientras ese hilo siga bloqueado, agrega uno al pool para que el resto de
+ * los suscriptores no espere detrás de él.
+ */
+@Service
+public class ReportStreamBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportStreamBroadcaster.class);
+
+    // Tope de hilos de reemplazo para escrituras bloqueadas; más allá se espera al timeout del conector
+    private static final int MAX_REPLACEMENT_SENDERS = 64;
+
+    public enum OverflowPolicy {
+        DROP_OLDEST,
+        DISCONNECT
+    }
+
+    /**
+     * Filtro de un suscriptor; {@code categories} nulo acepta todas y la caja es opcional
+     */
+    public record Filter(Set<ReportCategory> categories, Double minLat, Double minLon, Double maxLat, Double maxLon) {
+
+        public Filter {
+            boolean anyBound = minLat != null || minLon != null || maxLat != null || maxLon != null;
+            boolean allBounds = minLat != null && minLon != null && maxLat != null && maxLon != null;
+            if (anyBound && !allBounds) {
+                throw new IllegalArgumentException("La caja necesita minLat, minLon, maxLat y maxLon");
+            }
+            if (allBounds && (minLat > maxLat || minLon > maxLon)) {
+                throw new IllegalArgumentException("Caja inválida");
+            }
+        }
+
+        boolean matches(ReportSnapshot report) {
+            if (categories != null && !categories.contains(report.category())) {
+                return false;
+            }
+            if (minLat == null) {
+                return true;
+            }
+            return report.latitude() != null && report.longitude() != null
+                    && report.latitude() >= minLat && report.latitude() <= maxLat
+                    && report.longitude() >= minLon && report.longitude() <= maxLon;
+        }
+    }
+
+    @Value("${app.stream.buffer-size:32}")
+    private int bufferSize;
+
+    @Value("${app.stream.overflow-policy:drop-oldest}")
+    private String overflowPolicy;
+
+    @Value("${app.stream.history-size:1000}")
+    private int historySize;
+
+    @Value("${app.stream.max-subscribers:20000}")
+    private int maxSubscribers;
+
+    @Value("${app.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${app.stream.retry-ms:5000}")
+    private long retryMs;
+
+    @Value("${app.stream.sender-threads:4}")
+    private int senderThreads;
+
+    @Value("${app.stream.write-timeout-ms:10000}")
+    private long writeTimeoutMs;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private OverflowPolicy policy;
+
+    // Pool propio: un send() a un cliente lento bloquea el hilo hasta que el socket acepta los datos
+    private TaskExecutor executor;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    // Los ids parten del reloj para que sigan creciendo tras un reinicio
+    private final AtomicLong sequence = new AtomicLong(System.currentTimeMillis());
+
+    // Historial circular para Last-Event-ID; su lock también ordena la difusión
+    private Message[] history;
+    private int historyStart;
+    private int historyCount;
+
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong stalled = new AtomicLong();
+
+    // Escrituras marcadas como bloqueadas que aún no regresaron; cada una suma un hilo al pool
+    private final Object sendersLock = new Object();
+    private int blockedSenders;
+
+    // report es el snapshot que se filtra al reanudar; nulo en los mensajes de control
+    private record Message(long id, String name, String data, ReportSnapshot report) {
+    }
+
+    private static final Message HEARTBEAT = new Message(0, null, null, null);
+
+    @PostConstruct
+    void init() {
+        policy = OverflowPolicy.valueOf(overflowPolicy.trim().replace('-', '_').toUpperCase());
+        history = new Message[historySize];
+        if (virtualThreads && JavaVersion.getJavaVersion().isEqualOrNewerThan(JavaVersion.TWENTY_ONE)) {
+            SimpleAsyncTaskExecutor virtual = new SimpleAsyncTaskExecutor("report-stream-");
+            virtual.setVirtualThreads(true);
+            executor = virtual;
+        } else {
+            ThreadPoolTaskExecutor pool = new ThreadPoolTaskExecutor();
+            pool.setThreadNamePrefix("report-stream-");
+            pool.setCorePoolSize(senderThreads);
+            pool.setMaxPoolSize(senderThreads);
+            // Cola sin límite: cada suscriptor tiene como mucho una tarea pendiente
+            pool.initialize();
+            executor = pool;
+        }
+        Gauge.builder("reports.stream.subscribers", subscribers, Set::size).register(meterRegistry);
+        FunctionCounter.builder("reports.stream.dropped", dropped, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("reports.stream.stalled", stalled, AtomicLong::get).register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        if (executor instanceof ThreadPoolTaskExecutor pool) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Registra un suscriptor y le reenvía los eventos del historial posteriores a {@code lastEventId}
+     *
+     * @throws IllegalStateException si se alcanzó el máximo de suscriptores
+     */
+    public SseEmitter subscribe(Filter filter, Long lastEventId) {
+        return subscribe(filter, lastEventId, new SseEmitter(timeoutMs));
+    }
+
+    SseEmitter subscribe(Filter filter, Long lastEventId, SseEmitter emitter) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new IllegalStateException("Máximo de suscriptores alcanzado");
+        }
+        Subscriber subscriber = new Subscriber(emitter, filter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+
+        synchronized (this) {
+            subscriber.offer(new Message(0, "ready", null, null));
+            if (lastEventId != null) {
+                replay(subscriber, lastEventId);
+            }
+            subscribers.add(subscriber);
+        }
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReportChanged(ReportChangedEvent event) {
+        ReportSnapshot current = event.current();
+        if (current == null || !current.isPublic()) {
+            return;
+        }
+        String name = switch (event.type()) {
+            case CREATED -> "report-created";
+            case STATUS_CHANGED -> "report-status-changed";
+            default -> null;
+        };
+        if (name == null) {
+            return;
+        }
+        String data;
+        try {
+            data = objectMapper.writeValueAsString(ReportStreamEvent.of(event.previous(), current));
+        } catch (JsonProcessingException e) {
+            log.warn("No se pudo serializar el evento del reporte {}: {}", current.id(), e.getMessage());
+            return;
+        }
+        synchronized (this) {
+            Message message = new Message(sequence.incrementAndGet(), name, data, current);
+            remember(message);
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.filter.matches(current)) {
+                    subscriber.offer(message);
+                }
+            }
+        }
+    }
+
+    /**
+     * Comentario periódico para que proxies y balanceadores no cierren las conexiones inactivas
+     */
+    @Scheduled(fixedDelayString = "${app.stream.heartbeat-interval-ms:15000}",
+               initialDelayString = "${app.stream.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeat();
+        }
+    }
+
+    /**
+     * Desconecta a los suscriptores cuya escritura en curso superó el timeout
+     */
+    @Scheduled(fixedDelayString = "${app.stream.stall-check-interval-ms:1000}")
+    public void disconnectStalled() {
+        long now = System.nanoTime();
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(writeTimeoutMs);
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.markStalled(now, timeoutNanos)) {
+                stalled.incrementAndGet();
+                log.info("Suscriptor del stream desconectado: una escritura lleva más de {} ms", writeTimeoutMs);
+                resizeSenders(1);
+            }
+        }
+    }
+
+    /**
+     * Ajusta el pool de plataforma al número de escrituras bloqueadas; con hilos virtuales no hace falta
+     */
+    private void resizeSenders(int delta) {
+        if (!(executor instanceof ThreadPoolTaskExecutor pool)) {
+            return;
+        }
+        synchronized (sendersLock) {
+            blockedSenders += delta;
+            int size = senderThreads + Math.min(blockedSenders, MAX_REPLACEMENT_SENDERS);
+            // El máximo nunca puede quedar por debajo del núcleo
+            if (size > pool.getCorePoolSize()) {
+                pool.setMaxPoolSize(size);
+                pool.setCorePoolSize(size);
+            } else {
+                pool.setCorePoolSize(size);
+                pool.setMaxPoolSize(size);
+            }
+        }
+    }
+
+    private void replay(Subscriber subscriber, long lastEventId) {
+        if (historyCount == 0) {
+            return;
+        }
+        List<Message> missed = new ArrayList<>();
+        for (int i = 0; i < historyCount; i++) {
+            Message message = history[(historyStart + i) % history.length];
+            if (message.id() > lastEventId && subscriber.filter.matches(message.report())) {
+                missed.add(message);
+            }
+        }
+        // Si faltan eventos que ya salieron del historial, o no caben en el buffer,
+        // el cliente debe recargar el listado en lugar de reanudar
+        if (lastEventId < history[historyStart].id() - 1 || missed.size() >= bufferSize) {
+            subscriber.offer(new Message(0, "reset", null, null));
+            return;
+        }
+        missed.forEach(subscriber::offer);
+    }
+
+    private void remember(Message message) {
+        if (history.length == 0) {
+            return;
+        }
+        int slot = (historyStart + historyCount) % history.length;
+        if (historyCount == history.length) {
+            historyStart = (historyStart + 1) % history.length;
+        } else {
+            historyCount++;
+        }
+        history[slot] = message;
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Filter filter;
+
+        // Protegidos por el monitor del suscriptor
+        private ArrayDeque<Message> queue;
+        private boolean draining;
+        private boolean closed;
+        // El drenaje en curso debe completar el emitter al terminar: send() tiene su lock
+        private boolean completeAfterDrain;
+        private boolean stalled;
+
+        // Inicio de la escritura en curso, 0 si no hay ninguna
+        private volatile long sendStartedNanos;
+
+        private Subscriber(SseEmitter emitter, Filter filter) {
+            this.emitter = emitter;
+            this.filter = filter;
+        }
+
+        void offer(Message message) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (queue == null) {
+                    queue = new ArrayDeque<>(Math.min(bufferSize, 8));
+                }
+                if (queue.size() >= bufferSize) {
+                    dropped.incrementAndGet();
+                    if (policy == OverflowPolicy.DISCONNECT) {
+                        closed = true;
+                        queue = null;
+                        subscribers.remove(this);
+                        if (draining) {
+                            completeAfterDrain = true;
+                        } else {
+                            executor.execute(emitter::complete);
+                        }
+                        return;
+                    }
+                    queue.pollFirst();
+                }
+                queue.addLast(message);
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+            executor.execute(this::drain);
+        }
+
+        void heartbeat() {
+            synchronized (this) {
+                // Un cliente con eventos pendientes ya recibe tráfico
+                if (closed || draining) {
+                    return;
+                }
+            }
+            offer(HEARTBEAT);
+        }
+
+        /**
+         * Marca al suscriptor como bloqueado si su escritura en curso superó el timeout
+         *
+         * @return true si se acaba de marcar; el hilo que escribe completará el emitter al regresar
+         */
+        boolean markStalled(long now, long timeoutNanos) {
+            long started = sendStartedNanos;
+            if (started == 0 || now - started < timeoutNanos) {
+                return false;
+            }
+            synchronized (this) {
+                if (stalled || closed) {
+                    return false;
+                }
+                stalled = true;
+                closed = true;
+                completeAfterDrain = true;
+                queue = null;
+            }
+            subscribers.remove(this);
+            return true;
+        }
+
+        void close() {
+            synchronized (this) {
+                closed = true;
+                queue = null;
+            }
+            subscribers.remove(this);
+        }
+
+        private void drain() {
+            while (true) {
+                Message message;
+                boolean complete;
+                synchronized (this) {
+                    message = queue != null ? queue.pollFirst() : null;
+                    complete = message == null && completeAfterDrain;
+                    if (message == null) {
+                        // Sin pendientes se libera el buffer; un suscriptor inactivo no lo retiene
+                        queue = null;
+                        draining = false;
+                    }
+                }
+                if (message == null) {
+                    if (complete) {
+                        emitter.complete();
+                    }
+                    return;
+                }
+                sendStartedNanos = System.nanoTime();
+                try {
+                    emitter.send(toEvent(message));
+                } catch (IOException | IllegalStateException e) {
+                    close();
+                    return;
+                } finally {
+                    sendStartedNanos = 0;
+                    releaseIfStalled();
+                }
+            }
+        }
+
+        /**
+         * Devuelve el hilo de reemplazo cuando regresa una escritura marcada como bloqueada
+         */
+        private void releaseIfStalled() {
+            synchronized (this) {
+                if (!stalled) {
+                    return;
+                }
+                stalled = false;
+            }
+            resizeSenders(-1);
+        }
+
+        private SseEmitter.SseEventBuilder toEvent(Message message) {
+            if (message == HEARTBEAT) {
+                return SseEmitter.event().comment("heartbeat");
+            }
+            SseEmitter.SseEventBuilder event = SseEmitter.event().name(message.name());
+            if (message.id() > 0) {
+                event.id(Long.toString(message.id()));
+            } else {
+                event.reconnectTime(retryMs);
+            }
+            return event.data(message.data() != null ? message.data() : "{}");
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package com.ecovive.service;
+
+import com.ecovive.dto.MapTile;
+import com.ecovive.dto.TileMarker;
+import com.ecovive.event.ReportChangedEvent;
+import com.ecovive.event.ReportSnapshot;
+import com.ecovive.model.ReportCategory;
+import com.ecovive.repository.ReportRepository;
+import com.ecovive.util.GeoUtils;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Tiles del mapa con marcadores agrupados en el servidor
+ *
+ * Mantiene un índice jerárquico sobre la proyección Web Mercator: en cada nivel L
+ * el mundo se divide en 2^L x 2^L celdas y cada celda acumula el número de
+ * reportes públicos, la suma de sus coordenadas proyectadas (para el centroide)
+ * y el conteo por categoría. Un tile z/x/y se arma leyendo las celdas del nivel
+ * z + {@code cluster-bits}, es decir, una cuadrícula fija de celdas por tile.
+ *
+ * Los tiles generados se guardan en una caché LRU; cada escritura invalida
+ * únicamente el tile que contiene el reporte en cada nivel de zoom. Por encima
+ * de {@code max-zoom} una celda abarca varios tiles, así que esos tiles no se
+ * cachean: se arman con unas pocas celdas en cada petición.
+ */
+@Component
+public class ReportTileService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportTileService.class);
+
+    private static final int REBUILD_BATCH_SIZE = 5000;
+    private static final ReportCategory[] CATEGORIES = ReportCategory.values();
+
+    // Límite de latitud de Web Mercator
+    private static final double MAX_MERCATOR_LATITUDE = 85.05112878;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Value("${app.tiles.max-zoom:17}")
+    private int maxZoom;
+
+    @Value("${app.tiles.cluster-bits:3}")
+    private int clusterBits;
+
+    @Value("${app.tiles.cache-size:5000}")
+    private int cacheSize;
+
+    private record Entry(long id, double x, double y, ReportCategory category) {
+    }
+
+    private record TileKey(int z, int x, int y) {
+    }
+
+    private static final class Cell {
+        int count;
+        double sumX;
+        double sumY;
+        // Con un solo reporte en la celda, el XOR de ids es su id
+        long idXor;
+        final int[] byCategory = new int[CATEGORIES.length];
+
+        void add(Entry entry, int sign) {
+            count += sign;
+            sumX += sign * entry.x();
+            sumY += sign * entry.y();
+            idXor ^= entry.id();
+            byCategory[entry.category().ordinal()] += sign;
+        }
+    }
+
+    private final class Index {
+        final Map<Long, Entry> byId = new HashMap<>();
+        final List<Map<Long, Cell>> levels = new ArrayList<>();
+
+        Index() {
+            for (int level = 0; level <= maxLevel(); level++) {
+                levels.add(new HashMap<>());
+            }
+        }
+
+        void upsert(Entry entry) {
+            Entry old = byId.put(entry.id(), entry);
+            if (old != null) {
+                update(old, -1);
+            }
+            update(entry, 1);
+        }
+
+        Entry remove(long id) {
+            Entry old = byId.remove(id);
+            if (old != null) {
+                update(old, -1);
+            }
+            return old;
+        }
+
+        private void update(Entry entry, int sign) {
+            for (int level = 0; level <= maxLevel(); level++) {
+                long key = pack(cellIndex(entry.x(), level), cellIndex(entry.y(), level));
+                Map<Long, Cell> cells = levels.get(level);
+                Cell cell = cells.computeIfAbsent(key, k -> new Cell());
+                cell.add(entry, sign);
+                if (cell.count == 0) {
+                    cells.remove(key);
+                }
+            }
+        }
+    }
+
+    private volatile Index index;
+    private Map<TileKey, MapTile> cache;
+
+    // El índice se modifica con el lock de escritura; los tiles se arman con el de lectura
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+
+    // Escrituras recibidas durante una reconstrucción, se reaplican sobre el índice nuevo
+    private final ConcurrentLinkedQueue<ReportChangedEvent> pendingDuringRebuild = new ConcurrentLinkedQueue<>();
+
+    @PostConstruct
+    void init() {
+        index = new Index();
+        cache = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<TileKey, MapTile> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Tile z/x/y con los marcadores agrupados
+     *
+     * @throws IllegalArgumentException si las coordenadas del tile no existen
+     */
+    public MapTile getTile(int z, int x, int y) {
+        if (z < 0 || z > 22 || x < 0 || y < 0 || x >= (1 << z) || y >= (1 << z)) {
+            throw new IllegalArgumentException("Tile inválido: " + z + "/" + x + "/" + y);
+        }
+        if (z > maxZoom) {
+            // Las celdas son más grandes que el tile y un cambio afecta a varios: no se cachean
+            lock.readLock().lock();
+            try {
+                return buildTile(index, z, x, y);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        TileKey key = new TileKey(z, x, y);
+        synchronized (cache) {
+            MapTile cached = cache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        MapTile tile;
+        lock.readLock().lock();
+        try {
+            tile = buildTile(index, z, x, y);
+            // Se guarda con el lock tomado para que una escritura no invalide antes de tiempo
+            synchronized (cache) {
+                cache.put(key, tile);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return tile;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReportChanged(ReportChangedEvent event) {
+        // Encolar y aplicar bajo el mismo lock que el reemplazo del índice: o el evento
+        // llega antes y se reaplica sobre el nuevo, o llega después y ya lo ve
+        lock.writeLock().lock();
+        try {
+            if (rebuilding.get()) {
+                pendingDuringRebuild.add(event);
+            }
+            apply(index, event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void apply(Index target, ReportChangedEvent event) {
+        Entry removed = target.remove(event.reportId());
+        if (removed != null) {
+            invalidate(removed);
+        }
+        ReportSnapshot current = event.current();
+        Entry entry = current != null && current.isPublic()
+                ? toEntry(current.id(), current.latitude(), current.longitude(), current.category())
+                : null;
+        if (entry != null) {
+            target.upsert(entry);
+            invalidate(entry);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuild();
+    }
+
+    /**
+     * Reconstruye el índice de tiles leyendo los reportes públicos por lotes
+     */
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            log.info("Reconstrucción de tiles ya en curso");
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            Index fresh = new Index();
+            long afterId = 0L;
+            while (true) {
+                List<Object[]> rows = reportRepository.findPublicLocationsAfter(afterId,
+                        PageRequest.of(0, REBUILD_BATCH_SIZE));
+                for (Object[] row : rows) {
+                    Entry entry = toEntry((Long) row[0], (Double) row[1], (Double) row[2], (ReportCategory) row[3]);
+                    if (entry != null) {
+                        fresh.upsert(entry);
+                    }
+                }
+                if (rows.size() < REBUILD_BATCH_SIZE) {
+                    break;
+                }
+                afterId = (Long) rows.get(rows.size() - 1)[0];
+            }
+            lock.writeLock().lock();
+            try {
+                index = fresh;
+                ReportChangedEvent pending;
+                while ((pending = pendingDuringRebuild.poll()) != null) {
+                    apply(fresh, pending);
+                }
+                synchronized (cache) {
+                    cache.clear();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Índice de tiles reconstruido: {} reportes en {} ms",
+                    fresh.byId.size(), System.currentTimeMillis() - start);
+        } finally {
+            // Lo encolado tras el vaciado ya se aplicó sobre el índice nuevo
+            lock.writeLock().lock();
+            try {
+                pendingDuringRebuild.clear();
+                rebuilding.set(false);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private MapTile buildTile(Index source, int z, int x, int y) {
+        // Por encima del nivel máximo se leen celdas más grandes que la cuadrícula del tile
+        int shift = Math.max(0, z + clusterBits - maxLevel());
+        int level = z + clusterBits - shift;
+        long fromX = ((long) x << clusterBits) >> shift;
+        long toX = (((long) (x + 1) << clusterBits) - 1) >> shift;
+        long fromY = ((long) y << clusterBits) >> shift;
+        long toY = (((long) (y + 1) << clusterBits) - 1) >> shift;
+        double tileSize = 1.0 / (1L << z);
+        double minX = x * tileSize;
+        double minY = y * tileSize;
+
+        Map<Long, Cell> cells = source.levels.get(level);
+        List<TileMarker> markers = new ArrayList<>();
+        int total = 0;
+        for (long cx = fromX; cx <= toX; cx++) {
+            for (long cy = fromY; cy <= toY; cy++) {
+                Cell cell = cells.get(pack(cx, cy));
+                if (cell == null) {
+                    continue;
+                }
+                double centerX = cell.sumX / cell.count;
+                double centerY = cell.sumY / cell.count;
+                // Una celda más grande que el tile solo se dibuja en el tile de su centroide
+                if (shift > 0 && (centerX < minX || centerX >= minX + tileSize
+                        || centerY < minY || centerY >= minY + tileSize)) {
+                    continue;
+                }
+                Map<ReportCategory, Integer> byCategory = new EnumMap<>(ReportCategory.class);
+                for (ReportCategory category : CATEGORIES) {
+                    if (cell.byCategory[category.ordinal()] > 0) {
+                        byCategory.put(category, cell.byCategory[category.ordinal()]);
+                    }
+                }
+                markers.add(new TileMarker(latitude(centerY), longitude(centerX), cell.count, byCategory,
+                        cell.count == 1 ? cell.idXor : null));
+                total += cell.count;
+            }
+        }
+        return new MapTile(z, x, y, total, markers);
+    }
+
+    /**
+     * Quita de la caché el tile que contiene el reporte en cada zoom cacheado
+     */
+    private void invalidate(Entry entry) {
+        synchronized (cache) {
+            for (int z = 0; z <= maxZoom; z++) {
+                cache.remove(new TileKey(z, (int) cellIndex(entry.x(), z), (int) cellIndex(entry.y(), z)));
+            }
+        }
+    }
+
+    private Entry toEntry(Long id, Double latitude, Double longitude, ReportCategory category) {
+        if (id == null || category == null || !GeoUtils.isValidCoordinate(latitude, longitude)
+                || Math.abs(latitude) > MAX_MERCATOR_LATITUDE) {
+            return null;
+        }
+        double x = (longitude + 180.0) / 360.0;
+        double sin = Math.sin(Math.toRadians(latitude));
+        double y = 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+        return new Entry(id, Math.min(x, Math.nextDown(1.0)), Math.min(y, Math.nextDown(1.0)), category);
+    }
+
+    private static double longitude(double x) {
+        return x * 360.0 - 180.0;
+    }
+
+    private static double latitude(double y) {
+        double n = Math.PI - 2 * Math.PI * y;
+        return Math.toDegrees(Math.atan(Math.sinh(n)));
+    }
+
+    private int maxLevel() {
+        return maxZoom + clusterBits;
+    }
+
+    private static long cellIndex(double normalized, int level) {
+        return (long) Math.floor(normalized * (1L << level));
+    }
+
+    private static long pack(long row, long col) {
+        return (row << 32) ^ (col & 0xFFFFFFFFL);
+    }
+}
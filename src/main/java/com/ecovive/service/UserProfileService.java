@@ -0,0 +1,32 @@
+package com.ecovive.service;
+
+import com.ecovive.config.CacheConfig;
+import com.ecovive.dto.UserProfile;
+import com.ecovive.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * Lectura de perfiles públicos de usuario, cacheados por id
+ */
+@Service
+public class UserProfileService {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    /**
+     * Perfil de un usuario activo
+     */
+    @Cacheable(cacheNames = CacheConfig.USER_PROFILES, key = "#id", unless = "#result == null")
+    @Transactional(readOnly = true)
+    public Optional<UserProfile> getProfile(Long id) {
+        return userRepository.findById(id)
+                .filter(user -> !Boolean.FALSE.equals(user.getIsActive()))
+                .map(UserProfile::of);
+    }
+}
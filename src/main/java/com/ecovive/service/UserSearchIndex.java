@@ -0,0 +1,188 @@
+package com.ecovive.service;
+
+import com.ecovive.dto.SearchResultPage;
+import com.ecovive.dto.UserSearchHit;
+import com.ecovive.event.UserChangedEvent;
+import com.ecovive.event.UserSnapshot;
+import com.ecovive.repository.UserRepository;
+import com.ecovive.util.SpanishTextAnalyzer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice de trigramas en memoria para el autocompletado de usuarios activos
+ *
+ * Cada usuario se descompone en trigramas de su nombre y su email (sin tildes,
+ * en minúsculas y con relleno al inicio de palabra, como pg_trgm). La similitud
+ * es la fracción de trigramas de la consulta presentes en el usuario, de modo
+ * que un prefijo o un error de tipeo siguen encontrando al usuario correcto.
+ */
+@Component
+public class UserSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(UserSearchIndex.class);
+
+    private static final int REBUILD_BATCH_SIZE = 5000;
+    private static final int MAX_RESULT_WINDOW = 200;
+    private static final double MIN_SIMILARITY = 0.3;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+    private final Map<Long, Entry> users = new ConcurrentHashMap<>();
+
+    private record Entry(long id, String name, String location, String level, Set<String> trigrams) {
+    }
+
+    /**
+     * Busca usuarios activos por nombre o email tolerando errores de tipeo
+     */
+    public SearchResultPage<UserSearchHit> search(String query, int page, int size) {
+        if (page < 0 || size < 1 || (page + 1) * size > MAX_RESULT_WINDOW) {
+            throw new IllegalArgumentException("Paginación fuera de rango (máximo " + MAX_RESULT_WINDOW + " resultados)");
+        }
+        Set<String> queryTrigrams = trigrams(query);
+        if (queryTrigrams.isEmpty()) {
+            return new SearchResultPage<>(List.of(), 0, page, size);
+        }
+
+        Map<Long, Integer> shared = new HashMap<>();
+        for (String trigram : queryTrigrams) {
+            Set<Long> ids = postings.get(trigram);
+            if (ids != null) {
+                for (Long id : ids) {
+                    shared.merge(id, 1, Integer::sum);
+                }
+            }
+        }
+
+        int minShared = (int) Math.ceil(queryTrigrams.size() * MIN_SIMILARITY);
+        int window = (page + 1) * size;
+        PriorityQueue<UserSearchHit> top = new PriorityQueue<>(Comparator.comparingDouble(UserSearchHit::score)
+                .thenComparing(UserSearchHit::id, Comparator.reverseOrder()));
+        long matches = 0;
+        for (Map.Entry<Long, Integer> candidate : shared.entrySet()) {
+            if (candidate.getValue() < minShared) {
+                continue;
+            }
+            Entry user = users.get(candidate.getKey());
+            if (user == null) {
+                continue;
+            }
+            int common = candidate.getValue();
+            // Cobertura de la consulta y, como desempate, similitud de Jaccard
+            double coverage = (double) common / queryTrigrams.size();
+            double jaccard = (double) common / (queryTrigrams.size() + user.trigrams().size() - common);
+            double score = coverage + 0.1 * jaccard;
+            matches++;
+            top.add(new UserSearchHit(user.id(), user.name(), user.location(), user.level(), score));
+            if (top.size() > window) {
+                top.poll();
+            }
+        }
+
+        List<UserSearchHit> ranked = new ArrayList<>(top);
+        ranked.sort(Comparator.comparingDouble(UserSearchHit::score).reversed()
+                .thenComparing(UserSearchHit::id, Comparator.reverseOrder()));
+        int from = Math.min(page * size, ranked.size());
+        return new SearchResultPage<>(new ArrayList<>(ranked.subList(from, ranked.size())), matches, page, size);
+    }
+
+    public int size() {
+        return users.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        UserSnapshot current = event.current();
+        if (current == null || !current.active()) {
+            remove(event.userId());
+        } else {
+            index(current.id(), current.name(), current.email(), current.location(), current.level());
+        }
+    }
+
+    public synchronized void index(long id, String name, String email, String location, String level) {
+        Set<String> fresh = new HashSet<>(trigrams(name));
+        fresh.addAll(trigrams(email));
+        Entry old = users.put(id, new Entry(id, name, location, level, fresh));
+        if (old != null) {
+            for (String trigram : old.trigrams()) {
+                if (!fresh.contains(trigram)) {
+                    removePosting(trigram, id);
+                }
+            }
+        }
+        for (String trigram : fresh) {
+            postings.computeIfAbsent(trigram, t -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    public synchronized void remove(long id) {
+        Entry old = users.remove(id);
+        if (old != null) {
+            for (String trigram : old.trigrams()) {
+                removePosting(trigram, id);
+            }
+        }
+    }
+
+    private void removePosting(String trigram, long id) {
+        postings.computeIfPresent(trigram, (t, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    /**
+     * Trigramas de cada palabra con dos espacios de relleno al inicio y uno al final
+     */
+    static Set<String> trigrams(String text) {
+        Set<String> result = new HashSet<>();
+        if (text == null) {
+            return result;
+        }
+        for (String word : SpanishTextAnalyzer.tokenize(text)) {
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                result.add(padded.substring(i, i + 3));
+            }
+        }
+        return result;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        long afterId = 0L;
+        while (true) {
+            List<Object[]> rows = userRepository.findSearchDocumentsAfter(afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+            for (Object[] row : rows) {
+                index((Long) row[0], (String) row[1], (String) row[2], (String) row[3], (String) row[4]);
+            }
+            if (rows.size() < REBUILD_BATCH_SIZE) {
+                break;
+            }
+            afterId = (Long) rows.get(rows.size() - 1)[0];
+        }
+        log.info("Índice de usuarios reconstruido: {} usuarios, {} trigramas en {} ms",
+                users.size(), postings.size(), System.currentTimeMillis() - start);
+    }
+}
@@ -0,0 +1,121 @@
+package com.ecovive.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Normalización de direcciones peruanas escritas a mano
+ *
+ * Pliega mayúsculas y tildes, expande abreviaturas comunes (Av., Jr., Psje.,
+ * AA.HH., ...) y separa los segmentos por comas, de modo que variantes de la
+ * misma dirección produzcan la misma clave. También extrae el distrito,
+ * que por convención es el último segmento antes de la provincia o región.
+ */
+public final class AddressNormalizer {
+
+    public static final String UNKNOWN_DISTRICT = "desconocido";
+
+    private static final Map<String, String> ABBREVIATIONS = Map.ofEntries(
+            Map.entry("av", "avenida"),
+            Map.entry("avda", "avenida"),
+            Map.entry("jr", "jiron"),
+            Map.entry("jiron", "jiron"),
+            Map.entry("ca", "calle"),
+            Map.entry("cl", "calle"),
+            Map.entry("psje", "pasaje"),
+            Map.entry("pje", "pasaje"),
+            Map.entry("prol", "prolongacion"),
+            Map.entry("mz", "manzana"),
+            Map.entry("mzna", "manzana"),
+            Map.entry("lt", "lote"),
+            Map.entry("urb", "urbanizacion"),
+            Map.entry("aahh", "asentamiento humano"),
+            Map.entry("ahh", "asentamiento humano"),
+            Map.entry("sta", "santa"),
+            Map.entry("sto", "santo"),
+            Map.entry("smp", "san martin de porres"),
+            Map.entry("sjl", "san juan de lurigancho"),
+            Map.entry("sjm", "san juan de miraflores"),
+            Map.entry("ves", "villa el salvador"),
+            Map.entry("vmt", "villa maria del triunfo"));
+
+    // Segmentos finales que indican región o país, no distrito
+    private static final Set<String> REGIONS = Set.of(
+            "peru", "lima", "callao", "lima metropolitana", "provincia de lima",
+            "provincia constitucional del callao", "region callao", "region lima", "departamento de lima");
+
+    private AddressNormalizer() {}
+
+    /**
+     * Dirección plegada y con abreviaturas expandidas; null si no hay texto útil
+     */
+    public static String normalize(String address) {
+        List<String> segments = segments(address);
+        return segments.isEmpty() ? null : String.join(", ", segments);
+    }
+
+    /**
+     * Distrito de la dirección en forma normalizada, o {@link #UNKNOWN_DISTRICT}
+     */
+    public static String district(String address) {
+        List<String> segments = segments(address);
+        int end = segments.size();
+        // Quita país y códigos postales del final
+        while (end > 0 && (segments.get(end - 1).equals("peru") || isPostalCode(segments.get(end - 1)))) {
+            end--;
+        }
+        if (end < 2) {
+            // Un único segmento es la calle; sin más datos no hay distrito
+            return UNKNOWN_DISTRICT;
+        }
+        String last = segments.get(end - 1);
+        if (REGIONS.contains(last) && end > 2) {
+            // "..., Ventanilla, Callao": el distrito es el anterior a la región
+            return segments.get(end - 2);
+        }
+        // "..., Callao" sin más segmentos: Callao también es distrito
+        return last;
+    }
+
+    private static List<String> segments(String address) {
+        List<String> segments = new ArrayList<>();
+        if (address == null || address.isBlank()) {
+            return segments;
+        }
+        for (String raw : SpanishTextAnalyzer.fold(address).split("[,;]")) {
+            String segment = normalizeSegment(raw);
+            if (!segment.isEmpty()) {
+                segments.add(segment);
+            }
+        }
+        return segments;
+    }
+
+    private static String normalizeSegment(String raw) {
+        // "AA.HH." y "AA HH" se unen en "aahh" antes de expandir
+        String cleaned = raw.replaceAll("\\baa\\W{0,2}hh\\b", "aahh")
+                .replaceAll("[^a-z0-9 ]", " ")
+                .trim()
+                .replaceAll("\\s+", " ");
+        if (cleaned.isEmpty()) {
+            return cleaned;
+        }
+        StringBuilder out = new StringBuilder(cleaned.length() + 16);
+        for (String word : cleaned.split(" ")) {
+            if (out.length() > 0) {
+                out.append(' ');
+            }
+            out.append(ABBREVIATIONS.getOrDefault(word, word));
+        }
+        return out.toString();
+    }
+
+    private static boolean isPostalCode(String segment) {
+        String compact = segment.replace(" ", "");
+        String digits = compact.startsWith("lima") ? compact.substring(4)
+                : compact.startsWith("callao") ? compact.substring(6) : compact;
+        return !digits.isEmpty() && digits.length() <= 5 && digits.chars().allMatch(Character::isDigit);
+    }
+}
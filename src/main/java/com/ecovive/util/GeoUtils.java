@@ -0,0 +1,78 @@
+package com.ecovive.util;
+
+/**
+ * Utilidades geográficas para cálculos de distancia sobre la esfera terrestre
+ *
+ * Todas las distancias se expresan en metros y las coordenadas en grados decimales.
+ */
+public final class GeoUtils {
+
+    public static final double EARTH_RADIUS_METERS = 6_371_008.8;
+
+    /** Metros por grado de latitud (aproximación esférica) */
+    public static final double METERS_PER_DEGREE = Math.PI * EARTH_RADIUS_METERS / 180.0;
+
+    private GeoUtils() {}
+
+    /**
+     * Distancia de gran círculo entre dos puntos (fórmula de haversine)
+     */
+    public static double haversineMeters(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    /**
+     * Grados de latitud que abarca una distancia en metros
+     */
+    public static double latitudeDelta(double meters) {
+        return meters / METERS_PER_DEGREE;
+    }
+
+    /**
+     * Semiancho en grados de longitud del rectángulo que envuelve un círculo de
+     * {@code meters} de radio centrado en {@code latitude}
+     *
+     * Nunca supera 180°: si el círculo alcanza un polo cubre todas las longitudes.
+     */
+    public static double longitudeDelta(double meters, double latitude) {
+        double angular = meters / EARTH_RADIUS_METERS;
+        if (Math.abs(latitude) + Math.toDegrees(angular) >= 90.0) {
+            return 180.0;
+        }
+        double ratio = Math.sin(angular) / Math.cos(Math.toRadians(latitude));
+        return ratio >= 1.0 ? 180.0 : Math.min(180.0, Math.toDegrees(Math.asin(ratio)));
+    }
+
+    /**
+     * Intervalos de longitud {@code [desde, hasta]} dentro de [-180, 180] que cubre
+     * {@code longitude ± delta}; son dos cuando el intervalo cruza el antimeridiano
+     */
+    public static double[][] longitudeRanges(double longitude, double delta) {
+        if (delta >= 180.0) {
+            return new double[][]{{-180.0, 180.0}};
+        }
+        double min = longitude - delta;
+        double max = longitude + delta;
+        if (min < -180.0) {
+            return new double[][]{{min + 360.0, 180.0}, {-180.0, max}};
+        }
+        if (max > 180.0) {
+            return new double[][]{{min, 180.0}, {-180.0, max - 360.0}};
+        }
+        return new double[][]{{min, max}};
+    }
+
+    /**
+     * Verifica que las coordenadas estén dentro de los rangos válidos
+     */
+    public static boolean isValidCoordinate(Double latitude, Double longitude) {
+        return latitude != null && longitude != null
+                && latitude >= -90 && latitude <= 90
+                && longitude >= -180 && longitude <= 180;
+    }
+}
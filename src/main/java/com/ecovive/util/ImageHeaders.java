@@ -0,0 +1,146 @@
+package com.ecovive.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Lectura de formato y dimensiones a partir de la cabecera de una imagen
+ *
+ * Solo lee los pocos bytes necesarios (en JPEG, salta segmento por segmento
+ * hasta el marcador SOF) y nunca decodifica los píxeles, así que el costo no
+ * depende del tamaño de la imagen. El formato se deduce de los bytes, no de la
+ * extensión ni del Content-Type que envía el cliente.
+ */
+public final class ImageHeaders {
+
+    public enum Format {
+        JPEG("image/jpeg", "jpg"),
+        PNG("image/png", "png"),
+        GIF("image/gif", "gif"),
+        WEBP("image/webp", "webp");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        /**
+         * Formato correspondiente a una extensión de archivo, o null si no es una imagen soportada
+         */
+        public static Format fromExtension(String extension) {
+            if ("jpeg".equalsIgnoreCase(extension)) {
+                return JPEG;
+            }
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(extension)) {
+                    return format;
+                }
+            }
+            return null;
+        }
+    }
+
+    public record Info(Format format, int width, int height) {
+    }
+
+    private static final int MAX_JPEG_SEGMENTS = 256;
+
+    private ImageHeaders() {}
+
+    /**
+     * @throws IllegalArgumentException si el contenido no es una imagen soportada
+     */
+    public static Info read(FileChannel channel) throws IOException {
+        ByteBuffer head = readAt(channel, 0, 32);
+        if (head.remaining() >= 3 && (head.get(0) & 0xFF) == 0xFF && (head.get(1) & 0xFF) == 0xD8) {
+            return readJpeg(channel);
+        }
+        if (head.remaining() >= 24 && head.getInt(0) == 0x89504E47 && head.getInt(12) == 0x49484452) {
+            // Firma PNG seguida del chunk IHDR
+            return new Info(Format.PNG, head.getInt(16), head.getInt(20));
+        }
+        if (head.remaining() >= 10 && head.get(0) == 'G' && head.get(1) == 'I' && head.get(2) == 'F') {
+            head.order(ByteOrder.LITTLE_ENDIAN);
+            return new Info(Format.GIF, head.getShort(6) & 0xFFFF, head.getShort(8) & 0xFFFF);
+        }
+        if (head.remaining() >= 30 && head.getInt(0) == 0x52494646 && head.getInt(8) == 0x57454250) {
+            return readWebp(head);
+        }
+        throw new IllegalArgumentException("Formato de imagen no soportado");
+    }
+
+    private static Info readJpeg(FileChannel channel) throws IOException {
+        long position = 2;
+        for (int i = 0; i < MAX_JPEG_SEGMENTS; i++) {
+            ByteBuffer marker = readAt(channel, position, 4);
+            if (marker.remaining() < 4 || (marker.get(0) & 0xFF) != 0xFF) {
+                break;
+            }
+            int type = marker.get(1) & 0xFF;
+            if (type == 0xFF) {
+                // Relleno entre segmentos
+                position++;
+                continue;
+            }
+            int length = marker.getShort(2) & 0xFFFF;
+            boolean startOfFrame = type >= 0xC0 && type <= 0xCF && type != 0xC4 && type != 0xC8 && type != 0xCC;
+            if (startOfFrame) {
+                ByteBuffer frame = readAt(channel, position + 4, 5);
+                if (frame.remaining() < 5) {
+                    break;
+                }
+                return new Info(Format.JPEG, frame.getShort(3) & 0xFFFF, frame.getShort(1) & 0xFFFF);
+            }
+            if (length < 2) {
+                break;
+            }
+            position += 2 + length;
+        }
+        throw new IllegalArgumentException("JPEG sin cabecera de dimensiones");
+    }
+
+    private static Info readWebp(ByteBuffer head) {
+        int chunk = head.getInt(12);
+        head.order(ByteOrder.LITTLE_ENDIAN);
+        switch (chunk) {
+            case 0x56503820 -> { // "VP8 " con pérdida
+                return new Info(Format.WEBP, head.getShort(26) & 0x3FFF, head.getShort(28) & 0x3FFF);
+            }
+            case 0x5650384C -> { // "VP8L" sin pérdida
+                int bits = head.getInt(21);
+                return new Info(Format.WEBP, (bits & 0x3FFF) + 1, ((bits >> 14) & 0x3FFF) + 1);
+            }
+            case 0x56503858 -> { // "VP8X" extendido
+                int width = (head.get(24) & 0xFF) | (head.get(25) & 0xFF) << 8 | (head.get(26) & 0xFF) << 16;
+                int height = (head.get(27) & 0xFF) | (head.get(28) & 0xFF) << 8 | (head.get(29) & 0xFF) << 16;
+                return new Info(Format.WEBP, width + 1, height + 1);
+            }
+            default -> throw new IllegalArgumentException("WebP con cabecera desconocida");
+        }
+    }
+
+    private static ByteBuffer readAt(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                break;
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+}
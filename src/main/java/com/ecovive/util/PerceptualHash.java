@@ -0,0 +1,64 @@
+package com.ecovive.util;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Hash perceptual de diferencias (dHash) de 64 bits
+ *
+ * La imagen se reduce a 9x8 en escala de grises y cada bit indica si un píxel
+ * es más claro que su vecino de la derecha. Fotos del mismo lugar con distinto
+ * encuadre, compresión o tamaño quedan a pocos bits de distancia.
+ */
+public final class PerceptualHash {
+
+    private static final int WIDTH = 9;
+    private static final int HEIGHT = 8;
+    private static final int SAMPLES_PER_CELL = 32;
+
+    private PerceptualHash() {}
+
+    public static long dHash(BufferedImage image) {
+        double[] luminance = downscale(image);
+        long hash = 0L;
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH - 1; x++) {
+                hash <<= 1;
+                if (luminance[y * WIDTH + x] > luminance[y * WIDTH + x + 1]) {
+                    hash |= 1L;
+                }
+            }
+        }
+        return hash;
+    }
+
+    // Luminancia promedio de cada bloque (filtro de caja), con hasta 32x32 muestras por bloque
+    private static double[] downscale(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int stepX = Math.max(1, width / (WIDTH * SAMPLES_PER_CELL));
+        int stepY = Math.max(1, height / (HEIGHT * SAMPLES_PER_CELL));
+        double[] sums = new double[WIDTH * HEIGHT];
+        int[] counts = new int[WIDTH * HEIGHT];
+        for (int y = 0; y < height; y += stepY) {
+            int row = y * HEIGHT / height;
+            for (int x = 0; x < width; x += stepX) {
+                int rgb = image.getRGB(x, y);
+                double value = 0.299 * ((rgb >> 16) & 0xFF) + 0.587 * ((rgb >> 8) & 0xFF) + 0.114 * (rgb & 0xFF);
+                int cell = row * WIDTH + x * WIDTH / width;
+                sums[cell] += value;
+                counts[cell]++;
+            }
+        }
+        for (int i = 0; i < sums.length; i++) {
+            sums[i] = counts[i] > 0 ? sums[i] / counts[i] : 0;
+        }
+        return sums;
+    }
+
+    /**
+     * Distancia de Hamming entre dos hashes
+     */
+    public static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+}
@@ -0,0 +1,177 @@
+package com.ecovive.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Árbol de estadísticas de orden (treap) para rankings
+ *
+ * Ordena pares (puntaje, id) de mayor a menor puntaje y, a igual puntaje, por id
+ * ascendente. Cada nodo guarda el tamaño de su subárbol, así que insertar,
+ * eliminar, obtener la posición de un elemento y acceder a la k-ésima posición
+ * cuestan O(log n). No es thread-safe: quien lo use debe sincronizar.
+ */
+public class RankedScoreTree {
+
+    /**
+     * Elemento del ranking
+     */
+    public record Item(long score, long id) {
+    }
+
+    private static final class Node {
+        final long score;
+        final long id;
+        final int priority;
+        Node left;
+        Node right;
+        int size = 1;
+
+        Node(long score, long id) {
+            this.score = score;
+            this.id = id;
+            this.priority = ThreadLocalRandom.current().nextInt();
+        }
+    }
+
+    private Node root;
+
+    public int size() {
+        return size(root);
+    }
+
+    public void insert(long score, long id) {
+        root = insert(root, new Node(score, id));
+    }
+
+    public boolean remove(long score, long id) {
+        int before = size();
+        root = remove(root, score, id);
+        return size() < before;
+    }
+
+    /**
+     * Posición (base 0) del elemento, o -1 si no existe
+     */
+    public int rank(long score, long id) {
+        int rank = 0;
+        Node node = root;
+        while (node != null) {
+            int cmp = compare(score, id, node.score, node.id);
+            if (cmp == 0) {
+                return rank + size(node.left);
+            }
+            if (cmp < 0) {
+                node = node.left;
+            } else {
+                rank += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Elementos desde la posición {@code from} (base 0), como mucho {@code count}
+     */
+    public List<Item> range(int from, int count) {
+        List<Item> items = new ArrayList<>(Math.max(0, Math.min(count, size() - from)));
+        collect(root, Math.max(0, from), count, 0, items);
+        return items;
+    }
+
+    private void collect(Node node, int from, int count, int offset, List<Item> out) {
+        if (node == null || out.size() >= count) {
+            return;
+        }
+        int nodeRank = offset + size(node.left);
+        if (from < nodeRank) {
+            collect(node.left, from, count, offset, out);
+        }
+        if (out.size() < count && nodeRank >= from) {
+            out.add(new Item(node.score, node.id));
+        }
+        if (out.size() < count) {
+            collect(node.right, from, count, nodeRank + 1, out);
+        }
+    }
+
+    private static int compare(long scoreA, long idA, long scoreB, long idB) {
+        if (scoreA != scoreB) {
+            return scoreA > scoreB ? -1 : 1;
+        }
+        return Long.compare(idA, idB);
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static Node update(Node node) {
+        node.size = 1 + size(node.left) + size(node.right);
+        return node;
+    }
+
+    private Node insert(Node node, Node fresh) {
+        if (node == null) {
+            return fresh;
+        }
+        if (compare(fresh.score, fresh.id, node.score, node.id) < 0) {
+            node.left = insert(node.left, fresh);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, fresh);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        return update(node);
+    }
+
+    private Node remove(Node node, long score, long id) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(score, id, node.score, node.id);
+        if (cmp < 0) {
+            node.left = remove(node.left, score, id);
+        } else if (cmp > 0) {
+            node.right = remove(node.right, score, id);
+        } else {
+            return merge(node.left, node.right);
+        }
+        return update(node);
+    }
+
+    private Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            return update(left);
+        }
+        right.left = merge(left, right.left);
+        return update(right);
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = update(node);
+        return update(pivot);
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = update(node);
+        return update(pivot);
+    }
+}
@@ -0,0 +1,145 @@
+package com.ecovive.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Sketch Space-Saving para elementos más frecuentes (heavy hitters)
+ *
+ * Mantiene como máximo {@code capacity} contadores. Cuando llega una clave nueva
+ * con el sketch lleno, reemplaza al contador mínimo y hereda su cuenta como error.
+ * Cada cuenta es una cota superior de la frecuencia real y {@code count - error}
+ * una cota inferior; cualquier clave con frecuencia mayor que n / capacity está
+ * garantizada en el sketch. No es thread-safe: quien lo use debe sincronizar.
+ */
+public class SpaceSavingSketch {
+
+    /**
+     * Clave con su cuenta estimada, el sobreconteo máximo y una etiqueta descriptiva
+     */
+    public record Item(long key, long count, long error, String label) {
+    }
+
+    private static final class Counter {
+        final long key;
+        final long seq;
+        long count;
+        long error;
+        String label;
+
+        Counter(long key, long seq, long count, long error, String label) {
+            this.key = key;
+            this.seq = seq;
+            this.count = count;
+            this.error = error;
+            this.label = label;
+        }
+    }
+
+    private static final Comparator<Counter> BY_COUNT = Comparator
+            .<Counter>comparingLong(c -> c.count)
+            .thenComparingLong(c -> c.seq);
+
+    private final int capacity;
+    private final Map<Long, Counter> counters = new HashMap<>();
+    private final TreeSet<Counter> ordered = new TreeSet<>(BY_COUNT);
+    private long seq = 0;
+    private long total = 0;
+
+    public SpaceSavingSketch(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("La capacidad debe ser mayor que cero");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Cuenta una ocurrencia de la clave; la etiqueta no nula reemplaza a la anterior
+     */
+    public void offer(long key, String label) {
+        total++;
+        Counter counter = counters.get(key);
+        if (counter != null) {
+            ordered.remove(counter);
+            counter.count++;
+            if (label != null) {
+                counter.label = label;
+            }
+            ordered.add(counter);
+            return;
+        }
+        if (counters.size() < capacity) {
+            counter = new Counter(key, seq++, 1, 0, label);
+        } else {
+            Counter min = ordered.pollFirst();
+            counters.remove(min.key);
+            counter = new Counter(key, seq++, min.count + 1, min.count, label);
+        }
+        counters.put(key, counter);
+        ordered.add(counter);
+    }
+
+    /**
+     * Ocurrencias contadas desde la creación del sketch
+     */
+    public long total() {
+        return total;
+    }
+
+    /**
+     * Cota superior de la frecuencia de cualquier clave que no esté en el sketch
+     */
+    public long minCount() {
+        return counters.size() < capacity || ordered.isEmpty() ? 0 : ordered.first().count;
+    }
+
+    public List<Item> items() {
+        List<Item> items = new ArrayList<>(counters.size());
+        for (Counter counter : ordered.descendingSet()) {
+            items.add(new Item(counter.key, counter.count, counter.error, counter.label));
+        }
+        return items;
+    }
+
+    /**
+     * Combina los elementos de varios sketches y devuelve los {@code limit} más frecuentes
+     *
+     * Una clave ausente de un sketch lleno pudo haber sido desalojada, así que a su
+     * cuenta y a su error se suma el mínimo de ese sketch: las cuentas siguen siendo
+     * cotas superiores.
+     */
+    public static List<Item> mergeTop(List<SpaceSavingSketch> sketches, int limit) {
+        Map<Long, long[]> merged = new HashMap<>();
+        Map<Long, String> labels = new HashMap<>();
+        long minSum = 0;
+        for (SpaceSavingSketch sketch : sketches) {
+            minSum += sketch.minCount();
+        }
+        for (SpaceSavingSketch sketch : sketches) {
+            for (Counter counter : sketch.counters.values()) {
+                long[] acc = merged.computeIfAbsent(counter.key, k -> new long[3]);
+                acc[0] += counter.count;
+                acc[1] += counter.error;
+                // Suma de mínimos de los sketches donde la clave sí aparece
+                acc[2] += sketch.minCount();
+                if (counter.label != null) {
+                    labels.put(counter.key, counter.label);
+                }
+            }
+        }
+        List<Item> items = new ArrayList<>(merged.size());
+        for (Map.Entry<Long, long[]> entry : merged.entrySet()) {
+            long[] acc = entry.getValue();
+            long missing = minSum - acc[2];
+            items.add(new Item(entry.getKey(), acc[0] + missing, acc[1] + missing, labels.get(entry.getKey())));
+        }
+        items.sort(Comparator.comparingLong(Item::count).reversed()
+                .thenComparing(Comparator.comparingLong(Item::error))
+                .thenComparingLong(Item::key));
+        return items.size() > limit ? new ArrayList<>(items.subList(0, limit)) : items;
+    }
+}
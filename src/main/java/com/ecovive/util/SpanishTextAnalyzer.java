@@ -0,0 +1,114 @@
+package com.ecovive.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Analizador de texto en español para el buscador de reportes
+ *
+ * Pasa el texto a minúsculas, elimina tildes y diéresis ("contaminación" y
+ * "contaminacion" producen el mismo término), descarta palabras vacías y aplica
+ * un stemming ligero por sufijos inspirado en el algoritmo Snowball para español.
+ */
+public final class SpanishTextAnalyzer {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private static final int MIN_STEM_LENGTH = 3;
+
+    private static final Set<String> STOPWORDS = Set.of(
+            "a", "al", "algo", "ante", "con", "contra", "de", "del", "desde", "donde", "e", "el", "ella",
+            "ellos", "en", "entre", "es", "esa", "ese", "eso", "esta", "este", "esto", "fue", "ha", "hay",
+            "la", "las", "le", "les", "lo", "los", "mas", "me", "mi", "muy", "no", "nos", "o", "para",
+            "pero", "por", "que", "se", "ser", "si", "sin", "sobre", "su", "sus", "tambien", "te", "un",
+            "una", "uno", "unos", "unas", "y", "ya");
+
+    // Ordenados de mayor a menor longitud para quitar siempre el sufijo más largo
+    private static final String[] SUFFIXES = {
+            "amientos", "imientos", "aciones", "uciones", "amiento", "imiento", "idades", "adoras",
+            "adores", "ancias", "encias", "mente", "acion", "ucion", "adora", "ador", "ancia", "encia",
+            "idad", "ables", "ibles", "istas", "antes", "ieron", "iendo", "able", "ante", "ible", "ista", "osos", "osas",
+            "ivos", "ivas", "adas", "ados", "idas", "idos", "aron", "aban", "ando", "oso", "osa", "ivo",
+            "iva", "ada", "ado", "ida", "ido", "ces", "es", "ar", "er", "ir", "s"
+    };
+
+    private SpanishTextAnalyzer() {}
+
+    /**
+     * Minúsculas sin tildes ni diéresis
+     */
+    public static String fold(String text) {
+        String decomposed = Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("");
+    }
+
+    /**
+     * Divide el texto plegado en palabras (letras y dígitos)
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        String folded = fold(text);
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean wordChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Términos indexables: tokens sin palabras vacías y reducidos a su raíz
+     */
+    public static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        for (String token : tokenize(text)) {
+            if (!STOPWORDS.contains(token)) {
+                terms.add(stem(token));
+            }
+        }
+        return terms;
+    }
+
+    public static boolean isStopword(String token) {
+        return STOPWORDS.contains(token);
+    }
+
+    /**
+     * Stemming ligero: quita el sufijo más largo conocido y la vocal final
+     */
+    public static String stem(String token) {
+        if (token.length() <= MIN_STEM_LENGTH || !Character.isLetter(token.charAt(0))) {
+            return token;
+        }
+        String stem = token;
+        for (String suffix : SUFFIXES) {
+            // "luces" -> "luz": el sufijo "ces" deja una "z" que cuenta para la longitud mínima
+            boolean plural = suffix.equals("ces");
+            int remaining = stem.length() - suffix.length() + (plural ? 1 : 0);
+            if (stem.endsWith(suffix) && remaining >= MIN_STEM_LENGTH) {
+                stem = stem.substring(0, stem.length() - suffix.length());
+                if (plural) {
+                    stem = stem + "z";
+                }
+                break;
+            }
+        }
+        char last = stem.charAt(stem.length() - 1);
+        if ((last == 'a' || last == 'e' || last == 'o') && stem.length() > MIN_STEM_LENGTH) {
+            stem = stem.substring(0, stem.length() - 1);
+        }
+        return stem;
+    }
+}
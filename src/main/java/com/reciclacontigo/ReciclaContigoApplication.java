@@ -2,8 +2,12 @@ package com.reciclacontigo;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableJpaAuditing
+@EnableScheduling
 public class ReciclaContigoApplication {
     public static void main(String[] args) {
         SpringApplication.run(ReciclaContigoApplication.class, args);
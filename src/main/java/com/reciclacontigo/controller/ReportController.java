@@ -1,14 +1,20 @@
 package com.reciclacontigo.controller;
 
+import com.reciclacontigo.dto.CursorPage;
+import com.reciclacontigo.dto.ReportStats;
 import com.reciclacontigo.model.Report;
 import com.reciclacontigo.model.ReportCategory;
+import com.reciclacontigo.service.ReportCollectionVersions;
 import com.reciclacontigo.service.ReportService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/v1")
@@ -18,27 +24,46 @@ public class ReportController {
     @Autowired
     private ReportService reportService;
 
+    @Autowired
+    private ReportCollectionVersions collectionVersions;
+
     @GetMapping("/reports")
-    public ResponseEntity<List<Report>> getAllReports() {
-        List<Report> reports = reportService.getAllReports();
-        return ResponseEntity.ok(reports);
+    public ResponseEntity<CursorPage<Report>> getAllReports(@RequestParam(required = false) String cursor,
+                                                            @RequestParam(required = false) Integer size,
+                                                            @RequestHeader HttpHeaders headers) {
+        try {
+            return conditionalGet(headers, collectionVersions.all(),
+                    () -> reportService.getAllReports(cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/reports/category/{category}")
-    public ResponseEntity<List<Report>> getReportsByCategory(@PathVariable String category) {
+    public ResponseEntity<CursorPage<Report>> getReportsByCategory(@PathVariable String category,
+                                                                   @RequestParam(required = false) String cursor,
+                                                                   @RequestParam(required = false) Integer size,
+                                                                   @RequestHeader HttpHeaders headers) {
         try {
             ReportCategory reportCategory = ReportCategory.valueOf(category.toUpperCase());
-            List<Report> reports = reportService.getReportsByCategory(reportCategory);
-            return ResponseEntity.ok(reports);
+            return conditionalGet(headers, collectionVersions.category(reportCategory),
+                    () -> reportService.getReportsByCategory(reportCategory, cursor, size));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
     @GetMapping("/reports/user/{userId}")
-    public ResponseEntity<List<Report>> getReportsByUser(@PathVariable String userId) {
-        List<Report> reports = reportService.getReportsByUser(userId);
-        return ResponseEntity.ok(reports);
+    public ResponseEntity<CursorPage<Report>> getReportsByUser(@PathVariable String userId,
+                                                               @RequestParam(required = false) String cursor,
+                                                               @RequestParam(required = false) Integer size,
+                                                               @RequestHeader HttpHeaders headers) {
+        try {
+            return conditionalGet(headers, collectionVersions.user(userId),
+                    () -> reportService.getReportsByUser(userId, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @PostMapping("/reports")
@@ -74,13 +99,8 @@ public class ReportController {
     }
 
     @GetMapping("/stats")
-    public ResponseEntity<Object> getStats() {
-        return ResponseEntity.ok(new Object() {
-            public final Long totalReports = reportService.getReportCount();
-            public final Long trashReports = reportService.getReportCountByCategory(ReportCategory.TRASH);
-            public final Long pollutionReports = reportService.getReportCountByCategory(ReportCategory.POLLUTION);
-            public final Long deforestationReports = reportService.getReportCountByCategory(ReportCategory.DEFORESTATION);
-        });
+    public ResponseEntity<ReportStats> getStats(@RequestHeader HttpHeaders headers) {
+        return conditionalGet(headers, collectionVersions.all(), reportService::getStats);
     }
 
     @GetMapping("/health")
@@ -91,4 +111,46 @@ public class ReportController {
             public final String version = "1.0.0";
         });
     }
+
+    /**
+     * GET condicional: la versión se lee antes de consultar, así una escritura concurrente
+     * nunca queda etiquetada con una versión anterior. Si el cliente ya tiene esa versión
+     * se responde 304 sin tocar la base de datos ni serializar nada.
+     */
+    private static <T> ResponseEntity<T> conditionalGet(HttpHeaders request, ReportCollectionVersions.Stamp stamp,
+                                                        Supplier<T> body) {
+        if (isNotModified(request, stamp)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(stamp.etag())
+                    .lastModified(stamp.lastModified())
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(stamp.etag())
+                .lastModified(stamp.lastModified())
+                .cacheControl(CacheControl.noCache())
+                .body(body.get());
+    }
+
+    private static boolean isNotModified(HttpHeaders request, ReportCollectionVersions.Stamp stamp) {
+        String ifNoneMatch = request.getFirst(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            // If-None-Match tiene prioridad sobre If-Modified-Since; la comparación es débil
+            String etag = stamp.etag().substring(2);
+            for (String candidate : ifNoneMatch.split(",")) {
+                String value = candidate.trim();
+                if (value.startsWith("W/")) {
+                    value = value.substring(2);
+                }
+                if (value.equals("*") || value.equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        long ifModifiedSince = request.getIfModifiedSince();
+        // Las fechas HTTP tienen resolución de segundos
+        return ifModifiedSince >= 0 && stamp.lastModifiedMillis() / 1000 <= ifModifiedSince / 1000;
+    }
 }
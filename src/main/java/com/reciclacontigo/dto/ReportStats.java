@@ -0,0 +1,31 @@
+package com.reciclacontigo.dto;
+
+import com.reciclacontigo.model.ReportCategory;
+import com.reciclacontigo.model.ReportStatus;
+
+import java.util.Map;
+
+/**
+ * Instantánea de los contadores de reportes servida por /stats.
+ */
+public class ReportStats {
+
+    private final long totalReports;
+    private final Map<ReportCategory, Long> byCategory;
+    private final Map<ReportStatus, Long> byStatus;
+
+    public ReportStats(long totalReports, Map<ReportCategory, Long> byCategory, Map<ReportStatus, Long> byStatus) {
+        this.totalReports = totalReports;
+        this.byCategory = byCategory;
+        this.byStatus = byStatus;
+    }
+
+    public long getTotalReports() { return totalReports; }
+    public Map<ReportCategory, Long> getByCategory() { return byCategory; }
+    public Map<ReportStatus, Long> getByStatus() { return byStatus; }
+
+    // Campos históricos que ya consumen los clientes
+    public long getTrashReports() { return byCategory.get(ReportCategory.TRASH); }
+    public long getPollutionReports() { return byCategory.get(ReportCategory.POLLUTION); }
+    public long getDeforestationReports() { return byCategory.get(ReportCategory.DEFORESTATION); }
+}
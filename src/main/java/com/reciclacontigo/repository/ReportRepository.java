@@ -2,11 +2,13 @@ package com.reciclacontigo.repository;
 
 import com.reciclacontigo.model.Report;
 import com.reciclacontigo.model.ReportCategory;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -18,10 +20,55 @@ public interface ReportRepository extends JpaRepository<Report, Long> {
     
     @Query("SELECT r FROM Report r ORDER BY r.createdAt DESC")
     List<Report> findAllOrderByCreatedAtDesc();
+
+    // Paginación por cursor (keyset) sobre (created_at, id); el límite lo fija el Pageable
+    @Query("SELECT r FROM Report r ORDER BY r.createdAt DESC, r.id DESC")
+    List<Report> findPage(Pageable pageable);
+
+    @Query("SELECT r FROM Report r WHERE r.createdAt < :createdAt " +
+           "OR (r.createdAt = :createdAt AND r.id < :id) " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<Report> findPageAfter(@Param("createdAt") LocalDateTime createdAt,
+                               @Param("id") Long id,
+                               Pageable pageable);
+
+    @Query("SELECT r FROM Report r WHERE r.category = :category ORDER BY r.createdAt DESC, r.id DESC")
+    List<Report> findPageByCategory(@Param("category") ReportCategory category, Pageable pageable);
+
+    @Query("SELECT r FROM Report r WHERE r.category = :category " +
+           "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<Report> findPageByCategoryAfter(@Param("category") ReportCategory category,
+                                         @Param("createdAt") LocalDateTime createdAt,
+                                         @Param("id") Long id,
+                                         Pageable pageable);
+
+    @Query("SELECT r FROM Report r WHERE r.userId = :userId ORDER BY r.createdAt DESC, r.id DESC")
+    List<Report> findPageByUserId(@Param("userId") String userId, Pageable pageable);
+
+    @Query("SELECT r FROM Report r WHERE r.userId = :userId " +
+           "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<Report> findPageByUserIdAfter(@Param("userId") String userId,
+                                       @Param("createdAt") LocalDateTime createdAt,
+                                       @Param("id") Long id,
+                                       Pageable pageable);
     
     @Query("SELECT COUNT(r) FROM Report r WHERE r.category = :category")
     Long countByCategory(@Param("category") ReportCategory category);
     
+    @Query("SELECT r.category, COUNT(r) FROM Report r GROUP BY r.category")
+    List<Object[]> countGroupedByCategory();
+
+    @Query("SELECT r.status, COUNT(r) FROM Report r GROUP BY r.status")
+    List<Object[]> countGroupedByStatus();
+    
+    @Query("SELECT MAX(r.updatedAt) FROM Report r")
+    LocalDateTime findLatestUpdatedAt();
+
+    @Query("SELECT r.category, MAX(r.updatedAt) FROM Report r GROUP BY r.category")
+    List<Object[]> findLatestUpdatedAtGroupedByCategory();
+
     @Query("SELECT COUNT(r) FROM Report r WHERE r.userId = :userId")
     Long countByUserId(@Param("userId") String userId);
     
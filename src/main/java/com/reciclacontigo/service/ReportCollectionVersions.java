@@ -0,0 +1,140 @@
+package com.reciclacontigo.service;
+
+import com.reciclacontigo.model.Report;
+import com.reciclacontigo.model.ReportCategory;
+import com.reciclacontigo.repository.ReportRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sellos de versión en memoria por colección de reportes: todos, por categoría y por usuario.
+ * Cada escritura avanza la versión de las colecciones afectadas, de modo que los GET
+ * condicionales se resuelven con un 304 sin consultar la base de datos.
+ *
+ * Las versiones solo ven las escrituras hechas por esta instancia; el prefijo de arranque
+ * invalida los ETag emitidos antes de un reinicio.
+ */
+@Component
+public class ReportCollectionVersions {
+
+    private static final String ALL = "all";
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<String, Stamp> stamps = new ConcurrentHashMap<>();
+
+    /**
+     * Versión de una colección lista para usarse como ETag débil y Last-Modified
+     */
+    public record Stamp(String etag, long version, Instant lastModified) {
+
+        public long lastModifiedMillis() {
+            return lastModified.toEpochMilli();
+        }
+    }
+
+    public Stamp all() {
+        return stamp(ALL);
+    }
+
+    public Stamp category(ReportCategory category) {
+        return stamp(categoryKey(category));
+    }
+
+    public Stamp user(String userId) {
+        return stamp(userKey(userId));
+    }
+
+    public void recordCreated(Report report) {
+        advance(toInstant(report.getUpdatedAt()), ALL, categoryKey(report.getCategory()), userKey(report.getUserId()));
+    }
+
+    public void recordUpdated(ReportCategory previousCategory, String previousUserId, Report report) {
+        advance(toInstant(report.getUpdatedAt()), ALL,
+                categoryKey(previousCategory), categoryKey(report.getCategory()),
+                userKey(previousUserId), userKey(report.getUserId()));
+    }
+
+    public void recordDeleted(Report report) {
+        // Un borrado no deja updated_at; la colección cambia en este instante
+        advance(Instant.now(), ALL, categoryKey(report.getCategory()), userKey(report.getUserId()));
+    }
+
+    /**
+     * Avanza la colección completa cuando los datos cambian fuera de las escrituras conocidas
+     * (por ejemplo, al reconciliar contadores con la base de datos)
+     */
+    public void touchAll() {
+        advance(Instant.now(), ALL);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        // Last-Modified inicial desde updated_at; los usuarios heredan el de la colección completa
+        LocalDateTime latest = reportRepository.findLatestUpdatedAt();
+        if (latest != null) {
+            advance(toInstant(latest), ALL);
+        }
+        List<Object[]> rows = reportRepository.findLatestUpdatedAtGroupedByCategory();
+        for (Object[] row : rows) {
+            if (row[0] != null && row[1] != null) {
+                advance(toInstant((LocalDateTime) row[1]), categoryKey((ReportCategory) row[0]));
+            }
+        }
+    }
+
+    private Stamp stamp(String key) {
+        Stamp stamp = stamps.get(key);
+        if (stamp != null) {
+            return stamp;
+        }
+        // Colección sin escrituras desde el arranque: versión 0 y la fecha de la colección completa
+        Stamp all = stamps.get(ALL);
+        return new Stamp(etag(0), 0, all != null ? all.lastModified() : Instant.EPOCH);
+    }
+
+    private void advance(Instant modified, String... keys) {
+        long version = sequence.incrementAndGet();
+        for (String key : keys) {
+            if (key == null) {
+                continue;
+            }
+            // Dos escrituras concurrentes pueden llegar en desorden: se conserva siempre el máximo
+            stamps.merge(key, new Stamp(etag(version), version, modified), (current, next) -> {
+                Stamp newer = next.version() > current.version() ? next : current;
+                Instant lastModified = current.lastModified().isAfter(next.lastModified())
+                        ? current.lastModified() : next.lastModified();
+                return new Stamp(newer.etag(), newer.version(), lastModified);
+            });
+        }
+    }
+
+    private String etag(long version) {
+        return "W/\"" + epoch + "-" + version + "\"";
+    }
+
+    private static String categoryKey(ReportCategory category) {
+        return category != null ? "category:" + category.name() : null;
+    }
+
+    private static String userKey(String userId) {
+        return userId != null ? "user:" + userId : null;
+    }
+
+    private static Instant toInstant(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.atZone(ZoneId.systemDefault()).toInstant() : Instant.now();
+    }
+}
@@ -1,9 +1,16 @@
 package com.reciclacontigo.service;
 
+import com.ecovive.dto.PageCursor;
+import com.reciclacontigo.dto.CursorPage;
+import com.reciclacontigo.dto.ReportStats;
 import com.reciclacontigo.model.Report;
 import com.reciclacontigo.model.ReportCategory;
+import com.reciclacontigo.model.ReportStatus;
 import com.reciclacontigo.repository.ReportRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -15,16 +22,55 @@ public class ReportService {
     @Autowired
     private ReportRepository reportRepository;
 
-    public List<Report> getAllReports() {
-        return reportRepository.findAllOrderByCreatedAtDesc();
+    @Autowired
+    private ReportStatsCounter statsCounter;
+
+    @Autowired
+    private ReportCollectionVersions collectionVersions;
+
+    @Value("${app.pagination.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${app.pagination.max-size:100}")
+    private int maxPageSize;
+
+    public CursorPage<Report> getAllReports(String cursor, Integer size) {
+        int limit = resolvePageSize(size);
+        Pageable window = PageRequest.of(0, limit + 1);
+        List<Report> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = reportRepository.findPage(window);
+        } else {
+            PageCursor after = PageCursor.decode(cursor);
+            rows = reportRepository.findPageAfter(after.createdAt(), after.id(), window);
+        }
+        return toPage(rows, limit);
     }
 
-    public List<Report> getReportsByCategory(ReportCategory category) {
-        return reportRepository.findByCategoryOrderByCreatedAtDesc(category);
+    public CursorPage<Report> getReportsByCategory(ReportCategory category, String cursor, Integer size) {
+        int limit = resolvePageSize(size);
+        Pageable window = PageRequest.of(0, limit + 1);
+        List<Report> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = reportRepository.findPageByCategory(category, window);
+        } else {
+            PageCursor after = PageCursor.decode(cursor);
+            rows = reportRepository.findPageByCategoryAfter(category, after.createdAt(), after.id(), window);
+        }
+        return toPage(rows, limit);
     }
 
-    public List<Report> getReportsByUser(String userId) {
-        return reportRepository.findByUserIdOrderByCreatedAtDesc(userId);
+    public CursorPage<Report> getReportsByUser(String userId, String cursor, Integer size) {
+        int limit = resolvePageSize(size);
+        Pageable window = PageRequest.of(0, limit + 1);
+        List<Report> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = reportRepository.findPageByUserId(userId, window);
+        } else {
+            PageCursor after = PageCursor.decode(cursor);
+            rows = reportRepository.findPageByUserIdAfter(userId, after.createdAt(), after.id(), window);
+        }
+        return toPage(rows, limit);
     }
 
     public Report createReport(Report report) {
@@ -32,7 +78,10 @@ public class ReportService {
         int points = calculateEcoPoints(report.getCategory(), report.getPhotoPath() != null);
         report.setEcoPoints(points);
         
-        return reportRepository.save(report);
+        Report saved = reportRepository.save(report);
+        statsCounter.recordCreated(saved);
+        collectionVersions.recordCreated(saved);
+        return saved;
     }
 
     public Optional<Report> getReportById(Long id) {
@@ -40,19 +89,31 @@ public class ReportService {
     }
 
     public Report updateReport(Report report) {
-        return reportRepository.save(report);
+        Optional<Report> previous = reportRepository.findById(report.getId());
+        // Copiamos el estado anterior antes de que save() lo sobrescriba en el contexto de persistencia
+        ReportCategory previousCategory = previous.map(Report::getCategory).orElse(null);
+        ReportStatus previousStatus = previous.map(Report::getStatus).orElse(null);
+        String previousUserId = previous.map(Report::getUserId).orElse(null);
+        Report saved = reportRepository.save(report);
+        if (previous.isPresent()) {
+            statsCounter.recordUpdated(previousCategory, previousStatus, saved);
+        } else {
+            statsCounter.recordCreated(saved);
+        }
+        collectionVersions.recordUpdated(previousCategory, previousUserId, saved);
+        return saved;
     }
 
     public void deleteReport(Long id) {
-        reportRepository.deleteById(id);
-    }
-
-    public Long getReportCount() {
-        return reportRepository.count();
+        reportRepository.findById(id).ifPresent(report -> {
+            reportRepository.delete(report);
+            statsCounter.recordDeleted(report);
+            collectionVersions.recordDeleted(report);
+        });
     }
 
-    public Long getReportCountByCategory(ReportCategory category) {
-        return reportRepository.countByCategory(category);
+    public ReportStats getStats() {
+        return statsCounter.snapshot();
     }
 
     public Long getReportCountByUser(String userId) {
@@ -64,6 +125,26 @@ public class ReportService {
         return total != null ? total : 0;
     }
 
+    private int resolvePageSize(Integer size) {
+        if (size == null) {
+            return defaultPageSize;
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("El tamaño de página debe ser mayor que cero");
+        }
+        return Math.min(size, maxPageSize);
+    }
+
+    private CursorPage<Report> toPage(List<Report> rows, int limit) {
+        // Se pide una fila extra para saber si hay más sin ejecutar un COUNT
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<Report> items = rows.subList(0, limit);
+        Report last = items.get(limit - 1);
+        return new CursorPage<>(items, new PageCursor(last.getCreatedAt(), last.getId()).encode());
+    }
+
     private int calculateEcoPoints(ReportCategory category, boolean hasPhoto) {
         int basePoints = category.getEcoPoints();
         int photoBonus = hasPhoto ? 5 : 0;
@@ -0,0 +1,162 @@
+package com.reciclacontigo.service;
+
+import com.reciclacontigo.dto.ReportStats;
+import com.reciclacontigo.model.Report;
+import com.reciclacontigo.model.ReportCategory;
+import com.reciclacontigo.model.ReportStatus;
+import com.reciclacontigo.repository.ReportRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Contadores en memoria de reportes por categoría y estado.
+ * Se actualizan en cada escritura y se reconcilian periódicamente con la base de datos,
+ * así /stats no ejecuta ninguna consulta.
+ */
+@Component
+public class ReportStatsCounter {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportStatsCounter.class);
+
+    private static final ReportCategory[] CATEGORIES = ReportCategory.values();
+    private static final ReportStatus[] STATUSES = ReportStatus.values();
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Autowired
+    private ReportCollectionVersions collectionVersions;
+
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLongArray byCategory = new AtomicLongArray(CATEGORIES.length);
+    private final AtomicLongArray byStatus = new AtomicLongArray(STATUSES.length);
+
+    // Cambia con cada escritura; la reconciliación solo aplica si no hubo escrituras mientras consultaba
+    private final AtomicLong modifications = new AtomicLong();
+
+    // Las escrituras comparten el lock de lectura; solo el reemplazo de la reconciliación es exclusivo
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+
+    public void recordCreated(Report report) {
+        swapLock.readLock().lock();
+        try {
+            total.incrementAndGet();
+            adjust(report.getCategory(), report.getStatus(), 1);
+            modifications.incrementAndGet();
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    public void recordDeleted(Report report) {
+        swapLock.readLock().lock();
+        try {
+            total.decrementAndGet();
+            adjust(report.getCategory(), report.getStatus(), -1);
+            modifications.incrementAndGet();
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    public void recordUpdated(ReportCategory previousCategory, ReportStatus previousStatus, Report report) {
+        if (previousCategory == report.getCategory() && previousStatus == report.getStatus()) {
+            return;
+        }
+        swapLock.readLock().lock();
+        try {
+            adjust(previousCategory, previousStatus, -1);
+            adjust(report.getCategory(), report.getStatus(), 1);
+            modifications.incrementAndGet();
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    public ReportStats snapshot() {
+        Map<ReportCategory, Long> categories = new EnumMap<>(ReportCategory.class);
+        for (ReportCategory category : CATEGORIES) {
+            categories.put(category, byCategory.get(category.ordinal()));
+        }
+        Map<ReportStatus, Long> statuses = new EnumMap<>(ReportStatus.class);
+        for (ReportStatus status : STATUSES) {
+            statuses.put(status, byStatus.get(status.ordinal()));
+        }
+        return new ReportStats(total.get(), categories, statuses);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        reconcile();
+    }
+
+    @Scheduled(fixedDelayString = "${app.stats.reconcile-interval-ms:300000}",
+               initialDelayString = "${app.stats.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        long before = modifications.get();
+        List<Object[]> categoryRows = reportRepository.countGroupedByCategory();
+        List<Object[]> statusRows = reportRepository.countGroupedByStatus();
+
+        long[] categories = new long[CATEGORIES.length];
+        long counted = 0;
+        for (Object[] row : categoryRows) {
+            long count = ((Number) row[1]).longValue();
+            if (row[0] != null) {
+                categories[((ReportCategory) row[0]).ordinal()] = count;
+            }
+            counted += count;
+        }
+        long[] statuses = new long[STATUSES.length];
+        for (Object[] row : statusRows) {
+            if (row[0] != null) {
+                statuses[((ReportStatus) row[0]).ordinal()] = ((Number) row[1]).longValue();
+            }
+        }
+
+        swapLock.writeLock().lock();
+        try {
+            if (modifications.get() != before) {
+                log.debug("Reconciliación de estadísticas omitida: hubo escrituras concurrentes");
+                return;
+            }
+            if (total.get() != counted) {
+                log.info("Estadísticas reconciliadas: {} en memoria, {} en base de datos", total.get(), counted);
+            }
+            boolean changed = total.getAndSet(counted) != counted;
+            for (int i = 0; i < categories.length; i++) {
+                changed |= byCategory.getAndSet(i, categories[i]) != categories[i];
+            }
+            for (int i = 0; i < statuses.length; i++) {
+                changed |= byStatus.getAndSet(i, statuses[i]) != statuses[i];
+            }
+            if (changed) {
+                // Escrituras hechas fuera de esta instancia: los ETag de /stats dejan de valer
+                collectionVersions.touchAll();
+            }
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    private void adjust(ReportCategory category, ReportStatus status, int delta) {
+        if (category != null) {
+            byCategory.addAndGet(category.ordinal(), delta);
+        }
+        if (status != null) {
+            byStatus.addAndGet(status.ordinal(), delta);
+        }
+    }
+}
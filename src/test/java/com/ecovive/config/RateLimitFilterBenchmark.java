@@ -0,0 +1,85 @@
+package com.ecovive.config;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Costo por petición de {@link RateLimitFilter}
+ *
+ * Las peticiones y respuestas se crean una vez y se reutilizan, así que lo
+ * medido es el filtro: buscar la regla, obtener el bucket del cliente y el
+ * compare-and-set. Se prueba con la regla por defecto y con una lista de reglas
+ * que hay que recorrer, y con muchos clientes distintos para que los buckets
+ * no quepan todos en caché.
+ */
+@Tag("benchmark")
+class RateLimitFilterBenchmark {
+
+    private static final int CLIENTS = 10_000;
+    private static final int CALLS = 5_000_000;
+    private static final FilterChain NO_OP = (request, response) -> {
+    };
+
+    @Test
+    void filterOverheadStaysUnderOneMicrosecond() throws Exception {
+        for (boolean withRules : new boolean[]{false, true}) {
+            RateLimitFilter filter = newFilter(withRules);
+            MockHttpServletRequest[] requests = new MockHttpServletRequest[CLIENTS];
+            for (int i = 0; i < CLIENTS; i++) {
+                requests[i] = new MockHttpServletRequest(i % 4 == 0 ? "POST" : "GET", "/api/reports/" + i);
+                requests[i].setRemoteAddr("10." + (i >> 16) + "." + (i >> 8 & 0xFF) + "." + (i & 0xFF));
+            }
+            MockHttpServletResponse response = new MockHttpServletResponse();
+
+            run(filter, requests, response, CALLS / 5);
+            long start = System.nanoTime();
+            run(filter, requests, response, CALLS);
+            double nanosPerCall = (System.nanoTime() - start) / (double) CALLS;
+
+            System.out.printf("%-12s %d clientes: %.0f ns por peticion%n",
+                    withRules ? "con reglas" : "por defecto", CLIENTS, nanosPerCall);
+            assertThat(nanosPerCall).isLessThan(1_000);
+        }
+    }
+
+    private static void run(RateLimitFilter filter, MockHttpServletRequest[] requests,
+                            MockHttpServletResponse response, int calls) throws Exception {
+        for (int i = 0; i < calls; i++) {
+            filter.doFilter(requests[i % requests.length], response, NO_OP);
+        }
+    }
+
+    private static RateLimitFilter newFilter(boolean withRules) {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setRequestsPerMinute(1_000_000);
+        properties.setBurstCapacity(1_000_000);
+        if (withRules) {
+            properties.setRules(List.of(
+                    rule("/api/auth/**", List.of()),
+                    rule("/api/reports/{id}/photos", List.of("POST")),
+                    rule("/api/reports/**", List.of("POST")),
+                    rule("/api/**", List.of())));
+        }
+        RateLimitFilter filter = new RateLimitFilter();
+        ReflectionTestUtils.setField(filter, "properties", properties);
+        filter.init();
+        return filter;
+    }
+
+    private static RateLimitProperties.Rule rule(String path, List<String> methods) {
+        RateLimitProperties.Rule rule = new RateLimitProperties.Rule();
+        rule.setPath(path);
+        rule.setMethods(methods);
+        rule.setRequestsPerMinute(1_000_000);
+        rule.setBurstCapacity(1_000_000);
+        return rule;
+    }
+}
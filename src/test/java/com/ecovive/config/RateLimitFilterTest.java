@@ -0,0 +1,137 @@
+package com.ecovive.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long START = 1_000 * SECOND;
+
+    @Test
+    void burstIsAcceptedAndTheNextRequestWaitsOneInterval() {
+        // 60 por minuto: un token por segundo, ráfaga de 5
+        RateLimitFilter.Limit limit = limit(60, 5);
+        AtomicLong bucket = new AtomicLong();
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(RateLimitFilter.acquire(bucket, limit, START)).isZero();
+        }
+        assertThat(RateLimitFilter.acquire(bucket, limit, START)).isEqualTo(SECOND);
+        assertThat(RateLimitFilter.acquire(bucket, limit, START + SECOND / 2)).isEqualTo(SECOND / 2);
+        assertThat(RateLimitFilter.acquire(bucket, limit, START + SECOND)).isZero();
+        assertThat(RateLimitFilter.acquire(bucket, limit, START + SECOND)).isEqualTo(SECOND);
+    }
+
+    @Test
+    void rejectedRequestsDoNotConsumeTokens() {
+        RateLimitFilter.Limit limit = limit(60, 1);
+        AtomicLong bucket = new AtomicLong();
+
+        assertThat(RateLimitFilter.acquire(bucket, limit, START)).isZero();
+        long stored = bucket.get();
+        for (int i = 0; i < 10; i++) {
+            assertThat(RateLimitFilter.acquire(bucket, limit, START + i)).isPositive();
+        }
+        assertThat(bucket.get()).isEqualTo(stored);
+    }
+
+    @Test
+    void idleBucketRefillsOnlyUpToTheBurst() {
+        RateLimitFilter.Limit limit = limit(60, 3);
+        AtomicLong bucket = new AtomicLong();
+        RateLimitFilter.acquire(bucket, limit, START);
+
+        long later = START + 3_600 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            assertThat(RateLimitFilter.acquire(bucket, limit, later)).isZero();
+        }
+        assertThat(RateLimitFilter.acquire(bucket, limit, later)).isPositive();
+    }
+
+    @Test
+    void concurrentCallersNeverExceedTheBurst() throws Exception {
+        RateLimitFilter.Limit limit = limit(1, 100);
+        AtomicLong bucket = new AtomicLong();
+        AtomicInteger accepted = new AtomicInteger();
+        int threads = 8;
+        CountDownLatch ready = new CountDownLatch(threads);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            pool.execute(() -> {
+                ready.countDown();
+                try {
+                    ready.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 1_000; i++) {
+                    if (RateLimitFilter.acquire(bucket, limit, START) == 0) {
+                        accepted.incrementAndGet();
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(accepted.get()).isEqualTo(100);
+    }
+
+    @Test
+    void filterAnswers429WithRetryAfterPerClientAndRule() throws Exception {
+        RateLimitProperties.Rule rule = new RateLimitProperties.Rule();
+        rule.setPath("/api/reports");
+        rule.setMethods(List.of("post"));
+        rule.setRequestsPerMinute(6);
+        rule.setBurstCapacity(1);
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setRules(List.of(rule));
+        RateLimitFilter filter = new RateLimitFilter();
+        ReflectionTestUtils.setField(filter, "properties", properties);
+        filter.init();
+
+        assertThat(status(filter, "POST", "/api/reports", "10.0.0.1")).isEqualTo(200);
+        MockHttpServletResponse limited = call(filter, "POST", "/api/reports", "10.0.0.1");
+        assertThat(limited.getStatus()).isEqualTo(429);
+        assertThat(limited.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("10");
+        // Otro cliente, otro método y rutas fuera de /api/ tienen su propio límite o ninguno
+        assertThat(status(filter, "POST", "/api/reports", "10.0.0.2")).isEqualTo(200);
+        assertThat(status(filter, "GET", "/api/reports", "10.0.0.1")).isEqualTo(200);
+        assertThat(status(filter, "POST", "/login", "10.0.0.1")).isEqualTo(200);
+    }
+
+    private static RateLimitFilter.Limit limit(int requestsPerMinute, int burst) {
+        return RateLimitFilter.Limit.of(0, PathPatternParser.defaultInstance.parse("/**"), Set.of(),
+                requestsPerMinute, burst);
+    }
+
+    private static int status(RateLimitFilter filter, String method, String uri, String client) throws Exception {
+        return call(filter, method, uri, client).getStatus();
+    }
+
+    private static MockHttpServletResponse call(RateLimitFilter filter, String method, String uri, String client)
+            throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setRemoteAddr(client);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
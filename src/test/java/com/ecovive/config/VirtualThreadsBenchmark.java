@@ -0,0 +1,109 @@
+package com.ecovive.config;
+
+import com.ecovive.support.Latencies;
+import com.ecovive.support.TestDatabase;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput y latencia de cola con hilos virtuales frente a un pool de hilos de plataforma
+ *
+ * Cada petición simulada espera una E/S externa (almacenamiento, geocodificación)
+ * y luego hace una consulta corta a PostgreSQL. Todas llegan a la vez, así que
+ * la latencia se mide desde la llegada: incluye la espera por un hilo libre. El
+ * modo de plataforma usa un pool del tamaño del de Tomcat por defecto; el
+ * virtual, un hilo por petición con {@link ConnectionPermitDataSource} delante
+ * del pool de Hikari. Solo corre en Java 21 o superior.
+ */
+@Tag("benchmark")
+@EnabledForJreRange(min = JRE.JAVA_21)
+class VirtualThreadsBenchmark {
+
+    private static final int REQUESTS = 20_000;
+    private static final int PLATFORM_THREADS = 200;
+    private static final int CONNECTIONS = 10;
+    private static final long EXTERNAL_IO_MILLIS = 50;
+
+    private record Run(String name, double perSecond, Latencies latencies) {
+    }
+
+    @Test
+    void virtualThreadsServeMoreBlockingRequestsWithLowerTailLatency() throws Exception {
+        HikariConfig config = TestDatabase.config("virtual_threads", CONNECTIONS);
+        config.setConnectionTimeout(60_000);
+        try (HikariDataSource pool = new HikariDataSource(config)) {
+            ConnectionPermitDataSource permits = new ConnectionPermitDataSource(pool, CONNECTIONS, 60_000);
+
+            List<Run> runs = new ArrayList<>();
+            for (int pass = 0; pass < 2; pass++) {
+                runs.clear();
+                runs.add(run("plataforma (" + PLATFORM_THREADS + ")",
+                        Executors.newFixedThreadPool(PLATFORM_THREADS), pool));
+                runs.add(run("virtuales", newVirtualThreadPerTaskExecutor(), permits));
+            }
+            for (Run run : runs) {
+                System.out.printf("%-17s %d peticiones: %7.0f req/s, %s%n",
+                        run.name(), REQUESTS, run.perSecond(), run.latencies().summary());
+            }
+
+            Run platform = runs.get(0);
+            Run virtual = runs.get(1);
+            assertThat(virtual.perSecond()).isGreaterThan(platform.perSecond() * 1.5);
+            assertThat(virtual.latencies().percentileMicros(99)).isLessThan(platform.latencies().percentileMicros(99));
+            assertThat(permits.getAvailablePermits()).isEqualTo(CONNECTIONS);
+        }
+    }
+
+    private static Run run(String name, ExecutorService executor, DataSource dataSource) throws Exception {
+        Latencies latencies = new Latencies(REQUESTS);
+        List<Future<?>> requests = new ArrayList<>(REQUESTS);
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < REQUESTS; i++) {
+                long arrival = System.nanoTime();
+                requests.add(executor.submit(() -> {
+                    Thread.sleep(EXTERNAL_IO_MILLIS);
+                    try (Connection connection = dataSource.getConnection();
+                         Statement statement = connection.createStatement();
+                         ResultSet result = statement.executeQuery("SELECT 1")) {
+                        result.next();
+                    }
+                    long elapsed = System.nanoTime() - arrival;
+                    synchronized (latencies) {
+                        latencies.record(elapsed);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> request : requests) {
+                request.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return new Run(name, REQUESTS / ((System.nanoTime() - start) / 1e9), latencies);
+    }
+
+    /**
+     * {@code Executors.newVirtualThreadPerTaskExecutor()} por reflexión: el proyecto compila para Java 17
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() throws ReflectiveOperationException {
+        return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    }
+}
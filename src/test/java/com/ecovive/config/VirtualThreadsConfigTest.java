@@ -0,0 +1,78 @@
+package com.ecovive.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class VirtualThreadsConfigTest {
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(PropertyPlaceholderAutoConfiguration.class))
+            .withUserConfiguration(VirtualThreadsConfig.class, DataSourceConfig.class);
+
+    @Configuration
+    static class DataSourceConfig {
+        @Bean
+        DataSource dataSource() {
+            return new DriverManagerDataSource("jdbc:unused");
+        }
+    }
+
+    @Test
+    void disabledByDefault() {
+        runner.run(context -> assertThat(context.getBean(DataSource.class))
+                .isNotInstanceOf(ConnectionPermitDataSource.class));
+    }
+
+    @Test
+    @EnabledForJreRange(max = JRE.JAVA_20)
+    void isANoOpBeforeJava21() {
+        runner.withPropertyValues("spring.threads.virtual.enabled=true")
+                .run(context -> assertThat(context.getBean(DataSource.class))
+                        .isNotInstanceOf(ConnectionPermitDataSource.class));
+    }
+
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    void wrapsTheDataSourceOnJava21() {
+        runner.withPropertyValues("spring.threads.virtual.enabled=true",
+                        "spring.datasource.hikari.maximum-pool-size=3")
+                .run(context -> assertThat(context.getBean(DataSource.class))
+                        .isInstanceOfSatisfying(ConnectionPermitDataSource.class,
+                                dataSource -> assertThat(dataSource.getAvailablePermits()).isEqualTo(3)));
+    }
+
+    @Test
+    void permitIsReturnedOnceAndExhaustionTimesOut() throws SQLException {
+        ConnectionPermitDataSource dataSource = new ConnectionPermitDataSource(new DriverManagerDataSource() {
+            @Override
+            public Connection getConnection() {
+                return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                        new Class<?>[]{Connection.class}, (proxy, method, args) -> null);
+            }
+        }, 1, 50);
+
+        Connection connection = dataSource.getConnection();
+        assertThat(dataSource.getAvailablePermits()).isZero();
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+
+        connection.close();
+        connection.close();
+        assertThat(dataSource.getAvailablePermits()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,202 @@
+package com.ecovive.controller;
+
+import com.ecovive.config.FileStorageProperties;
+import com.ecovive.service.PhotoStorageService;
+import com.ecovive.support.Latencies;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.catalina.Context;
+import org.apache.catalina.connector.Connector;
+import org.apache.catalina.startup.Tomcat;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput y asignación por petición de {@link FileController} sobre un Tomcat embebido
+ *
+ * Compara tres formas de servir el mismo archivo: sendfile (el conector envía el
+ * archivo fuera del hilo de la petición), {@code transferTo} sobre el stream de
+ * salida (conector sin sendfile) y, como referencia, una copia por el heap con
+ * {@code Files.readAllBytes}. La asignación se mide en el hilo que atiende la
+ * petición, que es donde una copia por el heap pagaría el tamaño del archivo.
+ */
+@Tag("benchmark")
+class FileControllerBenchmark {
+
+    private static final int SMALL_SIZE = 20 * 1024;
+    private static final int LARGE_SIZE = 5 * 1024 * 1024;
+    private static final int CLIENTS = 4;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @TempDir
+    Path root;
+
+    private enum Mode {
+        SENDFILE, TRANSFER_TO, HEAP_COPY
+    }
+
+    @Test
+    void zeroCopyServingAllocatesLittlePerRequest() throws Exception {
+        PhotoStorageService storage = newStorage();
+        FileController controller = new FileController();
+        ReflectionTestUtils.setField(controller, "storageService", storage);
+        String small = blob(SMALL_SIZE, 1);
+        String large = blob(LARGE_SIZE, 2);
+
+        // Una primera pasada completa solo calienta el JIT; se informa la segunda
+        for (int pass = 0; pass < 2; pass++) {
+            for (Mode mode : Mode.values()) {
+                measure(mode, pass == 1, controller, storage, small, large);
+            }
+        }
+    }
+
+    private void measure(Mode mode, boolean report, FileController controller, PhotoStorageService storage,
+                         String small, String large) throws Exception {
+        AtomicLong allocated = new AtomicLong();
+        Tomcat tomcat = start(mode, controller, storage, allocated);
+        try {
+            int port = tomcat.getConnector().getLocalPort();
+            for (String[] file : new String[][]{{"small 20 KB", small}, {"large 5 MB", large}}) {
+                int requests = file[1].equals(small) ? 4_000 : 200;
+                long size = file[1].equals(small) ? SMALL_SIZE : LARGE_SIZE;
+                // Calentamiento
+                load(port, file[1], requests / 4, size);
+                allocated.set(0);
+                long start = System.nanoTime();
+                Latencies latencies = load(port, file[1], requests, size);
+                double seconds = (System.nanoTime() - start) / 1e9;
+                long perRequest = allocated.get() / requests;
+                if (!report) {
+                    continue;
+                }
+                System.out.printf("%-11s %-13s %6.0f req/s %7.0f MB/s, asignado %7d B/req, %s%n",
+                        mode, file[0], requests / seconds,
+                        requests * (double) size / seconds / (1 << 20), perRequest, latencies.summary());
+                if (mode != Mode.HEAP_COPY) {
+                    assertThat(perRequest).isLessThan(64 * 1024);
+                }
+            }
+        } finally {
+            tomcat.stop();
+            tomcat.destroy();
+        }
+    }
+
+    private Tomcat start(Mode mode, FileController controller, PhotoStorageService storage, AtomicLong allocated)
+            throws Exception {
+        Tomcat tomcat = new Tomcat();
+        tomcat.setBaseDir(root.resolve("tomcat-" + mode).toString());
+        Connector connector = new Connector();
+        connector.setPort(0);
+        connector.setProperty("useSendfile", String.valueOf(mode == Mode.SENDFILE));
+        tomcat.setConnector(connector);
+        Context context = tomcat.addContext("", null);
+        Tomcat.addServlet(context, "files", new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                String relativePath = request.getPathInfo().substring(1);
+                long before = THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+                if (mode == Mode.HEAP_COPY) {
+                    byte[] body = Files.readAllBytes(storage.resolve(relativePath));
+                    response.setContentLength(body.length);
+                    response.getOutputStream().write(body);
+                } else {
+                    // Los mismos atributos que deja el RequestMappingHandlerMapping de Spring
+                    request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, request.getRequestURI());
+                    request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/files/**");
+                    controller.getFile(request, response);
+                }
+                allocated.addAndGet(THREADS.getThreadAllocatedBytes(Thread.currentThread().getId()) - before);
+            }
+        });
+        context.addServletMappingDecoded("/api/files/*", "files");
+        tomcat.start();
+        return tomcat;
+    }
+
+    private static Latencies load(int port, String relativePath, int requests, long expectedSize) throws Exception {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        HttpRequest request = HttpRequest.newBuilder(
+                URI.create("http://localhost:" + port + "/api/files/" + relativePath)).build();
+        Latencies latencies = new Latencies(requests);
+        ExecutorService pool = Executors.newFixedThreadPool(CLIENTS);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int c = 0; c < CLIENTS; c++) {
+                int share = requests / CLIENTS + (c < requests % CLIENTS ? 1 : 0);
+                tasks.add(pool.submit(() -> {
+                    for (int i = 0; i < share; i++) {
+                        long start = System.nanoTime();
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        long elapsed = System.nanoTime() - start;
+                        assertThat(response.statusCode()).isEqualTo(200);
+                        assertThat(response.headers().firstValueAsLong("Content-Length").orElse(-1))
+                                .isEqualTo(expectedSize);
+                        synchronized (latencies) {
+                            latencies.record(elapsed);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return latencies;
+    }
+
+    private PhotoStorageService newStorage() throws Exception {
+        FileStorageProperties properties = new FileStorageProperties();
+        properties.getLocal().setUploadDir(root.resolve("uploads").toString());
+        PhotoStorageService storage = new PhotoStorageService();
+        ReflectionTestUtils.setField(storage, "properties", properties);
+        ReflectionTestUtils.setField(storage, "jdbcTemplate", Mockito.mock(JdbcTemplate.class));
+        ReflectionTestUtils.invokeMethod(storage, "init");
+        return storage;
+    }
+
+    /**
+     * Archivo de contenido aleatorio con la ruta de un original (el ETag sale del nombre)
+     */
+    private String blob(int size, long seed) throws IOException {
+        byte[] content = new byte[size];
+        new Random(seed).nextBytes(content);
+        String hash = String.format("%064x", seed);
+        String relativePath = PhotoStorageService.BLOB_DIRECTORY + "/" + hash.substring(0, 2) + "/"
+                + hash.substring(2, 4) + "/" + hash + ".jpg";
+        Path path = root.resolve("uploads").resolve(relativePath);
+        Files.createDirectories(path.getParent());
+        Files.write(path, content);
+        return relativePath;
+    }
+}
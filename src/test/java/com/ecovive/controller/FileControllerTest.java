@@ -0,0 +1,109 @@
+package com.ecovive.controller;
+
+import com.ecovive.config.FileStorageProperties;
+import com.ecovive.service.PhotoStorageService;
+import com.ecovive.service.PhotoUploadService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class FileControllerTest {
+
+    private static final String HASH = "ab".repeat(32);
+    private static final String BASE = PhotoStorageService.BLOB_DIRECTORY + "/ab/ab/" + HASH;
+    private static final byte[] CONTENT = "0123456789abcdef".getBytes();
+
+    @TempDir
+    Path root;
+
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        FileStorageProperties properties = new FileStorageProperties();
+        properties.getLocal().setUploadDir(root.toString());
+        PhotoStorageService storage = new PhotoStorageService();
+        ReflectionTestUtils.setField(storage, "properties", properties);
+        ReflectionTestUtils.setField(storage, "jdbcTemplate", Mockito.mock(JdbcTemplate.class));
+        ReflectionTestUtils.invokeMethod(storage, "init");
+
+        FileController controller = new FileController();
+        ReflectionTestUtils.setField(controller, "storageService", storage);
+        mvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+        write(BASE + ".jpg", CONTENT);
+        write(BASE + PhotoUploadService.THUMBNAIL_SUFFIX, CONTENT);
+        write(PhotoStorageService.BLOB_DIRECTORY + "/ab/ab/derivative-1.part", CONTENT);
+        write(".incoming/upload-1.part", CONTENT);
+        write(".incoming/" + HASH + ".jpg", CONTENT);
+    }
+
+    @Test
+    void aSingleRangeIsServedAsPartialContent() throws Exception {
+        mvc.perform(get("/api/files/" + BASE + ".jpg").header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/" + CONTENT.length))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 4))
+                .andExpect(content().bytes(Arrays.copyOfRange(CONTENT, 2, 6)));
+
+        mvc.perform(get("/api/files/" + BASE + ".jpg").header(HttpHeaders.RANGE, "bytes=100-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + CONTENT.length));
+
+        // Un If-Range que ya no coincide devuelve el archivo completo
+        mvc.perform(get("/api/files/" + BASE + ".jpg").header(HttpHeaders.RANGE, "bytes=2-5")
+                        .header(HttpHeaders.IF_RANGE, "\"otro\""))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(CONTENT));
+    }
+
+    @Test
+    void aMatchingEtagIsNotModified() throws Exception {
+        String etag = "\"" + HASH + "\"";
+        mvc.perform(get("/api/files/" + BASE + ".jpg"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/jpeg"))
+                .andExpect(content().bytes(CONTENT));
+
+        mvc.perform(get("/api/files/" + BASE + ".jpg").header(HttpHeaders.IF_NONE_MATCH, "\"otro\", W/" + etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void onlyBlobsAndTheirDerivativesArePublished() throws Exception {
+        mvc.perform(get("/api/files/" + BASE + PhotoUploadService.THUMBNAIL_SUFFIX))
+                .andExpect(status().isOk());
+
+        mvc.perform(get("/api/files/.incoming/upload-1.part")).andExpect(status().isNotFound());
+        mvc.perform(get("/api/files/" + PhotoStorageService.BLOB_DIRECTORY + "/ab/ab/derivative-1.part"))
+                .andExpect(status().isNotFound());
+        mvc.perform(get("/api/files/" + PhotoStorageService.BLOB_DIRECTORY + "/../.incoming/" + HASH + ".jpg"))
+                .andExpect(status().isNotFound());
+        mvc.perform(get("/api/files/" + BASE + ".exe")).andExpect(status().isNotFound());
+    }
+
+    private void write(String relativePath, byte[] content) throws IOException {
+        Path path = root.resolve(relativePath);
+        Files.createDirectories(path.getParent());
+        Files.write(path, content);
+    }
+}
@@ -0,0 +1,106 @@
+package com.ecovive.controller;
+
+import com.ecovive.dto.CursorPage;
+import com.ecovive.event.ReportChangedEvent;
+import com.ecovive.event.ReportMediaChangedEvent;
+import com.ecovive.event.ReportSnapshot;
+import com.ecovive.model.ReportCategory;
+import com.ecovive.model.ReportStatus;
+import com.ecovive.service.ReportCollectionVersions;
+import com.ecovive.service.ReportQueryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ReportControllerTest {
+
+    private ReportQueryService queryService;
+    private ReportCollectionVersions versions;
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        queryService = Mockito.mock(ReportQueryService.class);
+        Mockito.when(queryService.getReports(any(), any(), any(), any(), any()))
+                .thenReturn(CursorPage.of(List.of(), null));
+        versions = new ReportCollectionVersions();
+        ReportController controller = new ReportController();
+        ReflectionTestUtils.setField(controller, "queryService", queryService);
+        ReflectionTestUtils.setField(controller, "collectionVersions", versions);
+        mvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    void aCurrentEtagIsAnsweredWithoutQuerying() throws Exception {
+        String etag = etag("/api/v1/reports");
+
+        List<String> vary = mvc.perform(get("/api/v1/reports").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andReturn().getResponse().getHeaders(HttpHeaders.VARY);
+        assertThat(vary).contains(HttpHeaders.ACCEPT);
+        verify(queryService, times(1)).getReports(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void aReportWriteInvalidatesItsCategoryAndTheFullList() throws Exception {
+        String all = etag("/api/v1/reports");
+        String trash = etag("/api/v1/reports?category=trash");
+        String noise = etag("/api/v1/reports?category=NOISE");
+
+        versions.onReportChanged(ReportChangedEvent.created(snapshot(ReportCategory.TRASH)));
+
+        mvc.perform(get("/api/v1/reports").header(HttpHeaders.IF_NONE_MATCH, all))
+                .andExpect(status().isOk());
+        mvc.perform(get("/api/v1/reports?category=trash").header(HttpHeaders.IF_NONE_MATCH, trash))
+                .andExpect(status().isOk());
+        mvc.perform(get("/api/v1/reports?category=NOISE").header(HttpHeaders.IF_NONE_MATCH, noise))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void photoChangesInvalidateEveryList() throws Exception {
+        String noise = etag("/api/v1/reports?category=NOISE");
+
+        versions.onReportMediaChanged(new ReportMediaChangedEvent(1L));
+
+        mvc.perform(get("/api/v1/reports?category=NOISE").header(HttpHeaders.IF_NONE_MATCH, noise))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void eachRepresentationHasItsOwnEtag() {
+        ReportCollectionVersions.Stamp stamp = versions.all();
+        assertThat(stamp.etag("json")).startsWith("W/\"").isNotEqualTo(stamp.etag("cbor"));
+    }
+
+    private String etag(String url) throws Exception {
+        String etag = mvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotNull();
+        return etag;
+    }
+
+    private static ReportSnapshot snapshot(ReportCategory category) {
+        LocalDateTime now = LocalDateTime.now();
+        return new ReportSnapshot(1L, category, ReportStatus.PENDING, "Reporte 1", "Descripción",
+                -12.0, -77.0, null, true, 10, null, now, now);
+    }
+}
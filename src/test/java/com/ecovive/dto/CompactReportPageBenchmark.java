@@ -0,0 +1,89 @@
+package com.ecovive.dto;
+
+import com.ecovive.model.ReportCategory;
+import com.ecovive.model.ReportStatus;
+import com.ecovive.support.Latencies;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tamaño y tiempo de serialización de una página de reportes en JSON, CBOR y CBOR columnar
+ *
+ * Los mappers se construyen como los de los conversores de Spring MVC. El tiempo
+ * del formato columnar incluye armar {@link CompactReportPage} desde la página.
+ */
+@Tag("benchmark")
+class CompactReportPageBenchmark {
+
+    private static final int WARMUP = 3_000;
+    private static final int ITERATIONS = 10_000;
+
+    private final ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectMapper cbor = Jackson2ObjectMapperBuilder.cbor().build();
+
+    private interface Encoder {
+        byte[] encode(CursorPage<ReportView> page) throws Exception;
+    }
+
+    @Test
+    void compactCborIsSmallerAndNotSlowerThanJson() throws Exception {
+        for (int size : new int[]{50, 500}) {
+            CursorPage<ReportView> page = page(size);
+            int jsonBytes = measure("JSON", size, page, json::writeValueAsBytes);
+            int cborBytes = measure("CBOR", size, page, cbor::writeValueAsBytes);
+            int compactBytes = measure("CBOR columnar", size, page,
+                    p -> cbor.writeValueAsBytes(CompactReportPage.of(p)));
+
+            assertThat(cborBytes).isLessThan(jsonBytes);
+            assertThat(compactBytes).isLessThan(jsonBytes / 2);
+        }
+    }
+
+    private static int measure(String name, int size, CursorPage<ReportView> page, Encoder encoder) throws Exception {
+        int bytes = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            bytes = encoder.encode(page).length;
+        }
+        Latencies latencies = new Latencies(ITERATIONS);
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            bytes = encoder.encode(page).length;
+            latencies.record(System.nanoTime() - start);
+        }
+        System.out.printf("%-14s %3d filas: %7d bytes, %s%n", name, size, bytes, latencies.summary());
+        return bytes;
+    }
+
+    /**
+     * Página con datos parecidos a los reales: reportes recientes alrededor de Lima
+     */
+    private static CursorPage<ReportView> page(int size) {
+        Random random = new Random(42);
+        ReportCategory[] categories = ReportCategory.values();
+        ReportStatus[] statuses = ReportStatus.values();
+        LocalDateTime createdAt = LocalDateTime.of(2024, 6, 1, 12, 0);
+        List<ReportView> items = new ArrayList<>(size);
+        long id = 1_000_000;
+        for (int i = 0; i < size; i++) {
+            id -= 1 + random.nextInt(20);
+            createdAt = createdAt.minusSeconds(random.nextInt(3_600));
+            boolean anonymous = random.nextInt(5) == 0;
+            items.add(new ReportView(id, categories[random.nextInt(categories.length)],
+                    statuses[random.nextInt(statuses.length)], "Acumulación de residuos " + i,
+                    "Descripción del reporte " + i, -12.05 + random.nextGaussian() * 0.05,
+                    -77.04 + random.nextGaussian() * 0.05, "Av. Principal " + random.nextInt(2_000),
+                    10 + random.nextInt(40), 1 + random.nextInt(4), random.nextBoolean(), anonymous,
+                    1L + random.nextInt(5_000), "Usuario " + random.nextInt(5_000), createdAt, createdAt, null));
+        }
+        return new CursorPage<>(items, "eyJpZCI6OTk5fQ", true);
+    }
+}
@@ -0,0 +1,61 @@
+package com.ecovive.dto;
+
+import com.ecovive.model.ReportCategory;
+import com.ecovive.model.ReportStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactReportPageTest {
+
+    @Test
+    void deltaColumnsAddUpToTheOriginalValues() {
+        LocalDateTime first = LocalDateTime.of(2024, 6, 1, 12, 0);
+        List<ReportView> items = List.of(
+                view(900, ReportCategory.values()[1], -12.046374, -77.042793, first, false),
+                view(870, ReportCategory.values()[0], -12.050001, -77.031234, first.minusMinutes(5), true),
+                view(869, ReportCategory.values()[1], -11.999999, -77.100000, first.minusHours(2), false));
+
+        CompactReportPage page = CompactReportPage.of(new CursorPage<>(items, "c", true));
+
+        assertThat(page.count()).isEqualTo(3);
+        assertThat(cumulative(page.ids())).containsExactly(900, 870, 869);
+        assertThat(cumulative(page.createdAt())).containsExactly(
+                first.toEpochSecond(ZoneOffset.UTC),
+                first.minusMinutes(5).toEpochSecond(ZoneOffset.UTC),
+                first.minusHours(2).toEpochSecond(ZoneOffset.UTC));
+        assertThat(cumulative(page.latitudeE6())).containsExactly(-12_046_374, -12_050_001, -11_999_999);
+        assertThat(cumulative(page.longitudeE6())).containsExactly(-77_042_793, -77_031_234, -77_100_000);
+        assertThat(page.categories().get(page.category()[0])).isEqualTo(ReportCategory.values()[1].name());
+        assertThat(page.userIds()[1]).isZero();
+        assertThat(page.userName()[1]).isNull();
+    }
+
+    private static ReportView view(long id, ReportCategory category, double latitude, double longitude,
+                                   LocalDateTime createdAt, boolean anonymous) {
+        return new ReportView(id, category, ReportStatus.values()[0], "Reporte " + id, "Descripción",
+                latitude, longitude, null, 10, 1, false, anonymous, 7L, "Ana", createdAt, createdAt, null);
+    }
+
+    private static long[] cumulative(long[] deltas) {
+        long[] values = new long[deltas.length];
+        long previous = 0;
+        for (int i = 0; i < deltas.length; i++) {
+            previous += deltas[i];
+            values[i] = previous;
+        }
+        return values;
+    }
+
+    private static long[] cumulative(int[] deltas) {
+        long[] widened = new long[deltas.length];
+        for (int i = 0; i < deltas.length; i++) {
+            widened[i] = deltas[i];
+        }
+        return cumulative(widened);
+    }
+}
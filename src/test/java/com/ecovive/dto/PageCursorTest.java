@@ -0,0 +1,51 @@
+package com.ecovive.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PageCursorTest {
+
+    @Test
+    void roundTripKeepsMicrosecondPrecision() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 6, 1, 12, 30, 15, 123_456_789);
+
+        PageCursor decoded = PageCursor.decode(new PageCursor(createdAt, 42L).encode());
+
+        assertThat(decoded.createdAt()).isEqualTo(LocalDateTime.of(2024, 6, 1, 12, 30, 15, 123_456_000));
+        assertThat(decoded.id()).isEqualTo(42L);
+    }
+
+    @Test
+    void roundTripBeforeTheEpoch() {
+        LocalDateTime createdAt = LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_999_000);
+
+        assertThat(PageCursor.decode(new PageCursor(createdAt, 1L).encode()).createdAt()).isEqualTo(createdAt);
+    }
+
+    @Test
+    void tokenIsUrlSafe() {
+        String token = new PageCursor(LocalDateTime.of(2024, 1, 1, 0, 0), Long.MAX_VALUE).encode();
+
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void malformedTokensAreRejected() {
+        for (String token : new String[]{"%%%", "", raw("v2:1:1"), raw("v1:1"), raw("v1:x:1"), raw("v1:1:1:1")}) {
+            assertThatThrownBy(() -> PageCursor.decode(token))
+                    .as(token)
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Cursor inválido");
+        }
+    }
+
+    private static String raw(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,70 @@
+package com.ecovive.model;
+
+import com.ecovive.support.TestJpa;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+
+import java.sql.Connection;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Arranque sobre una base creada antes de que las secuencias avanzaran de 50 en 50
+ */
+class SequenceMigrationTest {
+
+    private static final String[] SEQUENCES = {"reports_id_seq", "report_photos_id_seq", "report_comments_id_seq"};
+
+    private TestJpa jpa;
+
+    @BeforeEach
+    void setUp() {
+        jpa = TestJpa.create("sequence_migration_test");
+        for (String sequence : SEQUENCES) {
+            jpa.jdbcTemplate().execute("ALTER SEQUENCE " + sequence + " INCREMENT BY 1");
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (jpa != null) {
+            jpa.close();
+        }
+    }
+
+    @Test
+    void unmigratedSequencesNoLongerBlockStartup() {
+        assertThatThrownBy(() -> boot(Map.of()))
+                .hasStackTraceContaining("increment size");
+
+        LocalContainerEntityManagerFactoryBean factory =
+                boot(Map.of("hibernate.id.sequence.increment_size_mismatch_strategy", "fix"));
+        factory.destroy();
+    }
+
+    @Test
+    void migrationRestoresBlocksOfFifty() throws Exception {
+        jpa.jdbcTemplate().execute("SELECT nextval('reports_id_seq')");
+        try (Connection connection = jpa.dataSource().getConnection()) {
+            ScriptUtils.executeSqlScript(connection,
+                    new FileSystemResource("database/migrations/001_sequences_increment_50.sql"));
+        }
+
+        for (String sequence : SEQUENCES) {
+            assertThat(jpa.jdbcTemplate().queryForObject(
+                    "SELECT increment_by FROM pg_sequences WHERE schemaname = current_schema() AND sequencename = ?",
+                    Long.class, sequence)).isEqualTo(50);
+        }
+        boot(Map.of()).destroy();
+    }
+
+    private LocalContainerEntityManagerFactoryBean boot(Map<String, ?> properties) {
+        return TestJpa.entityManagerFactory(jpa.dataSource(), properties);
+    }
+}
@@ -0,0 +1,122 @@
+package com.ecovive.service;
+
+import com.ecovive.config.CacheConfig;
+import com.ecovive.event.ReportChangedEvent;
+import com.ecovive.event.ReportSnapshot;
+import com.ecovive.event.UserPointsChangedEvent;
+import com.ecovive.model.ReportCategory;
+import com.ecovive.model.ReportStatus;
+import com.ecovive.repository.ReportRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Invalidación por eventos sobre un contexto mínimo con caché real y el
+ * rastreador de focos detrás de {@link CacheConfig#STATS}
+ */
+class CacheInvalidationListenerTest {
+
+    private AnnotationConfigApplicationContext context;
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        context = new AnnotationConfigApplicationContext(Caches.class);
+        cacheManager = context.getBean(CacheManager.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void aReportChangeEvictsItsDetailThePagesAndTheStats() {
+        Cache detail = cacheManager.getCache(CacheConfig.REPORT_DETAIL);
+        for (Set<ReportQueryService.Include> includes : List.of(EnumSet.noneOf(ReportQueryService.Include.class),
+                EnumSet.allOf(ReportQueryService.Include.class))) {
+            detail.put(ReportQueryService.detailKey(1L, includes), "reporte 1");
+            detail.put(ReportQueryService.detailKey(2L, includes), "reporte 2");
+        }
+        cacheManager.getCache(CacheConfig.REPORT_PAGES).put("primera", "página");
+        cacheManager.getCache(CacheConfig.STATS).put("timeseries", "serie");
+        cacheManager.getCache(CacheConfig.USER_PROFILES).put(7L, "perfil");
+
+        context.publishEvent(ReportChangedEvent.statusChanged(snapshot(1), snapshot(1)));
+
+        for (Set<ReportQueryService.Include> includes : List.of(EnumSet.noneOf(ReportQueryService.Include.class),
+                EnumSet.allOf(ReportQueryService.Include.class))) {
+            assertThat(detail.get(ReportQueryService.detailKey(1L, includes))).isNull();
+            assertThat(detail.get(ReportQueryService.detailKey(2L, includes))).isNotNull();
+        }
+        assertThat(cacheManager.getCache(CacheConfig.REPORT_PAGES).get("primera")).isNull();
+        assertThat(cacheManager.getCache(CacheConfig.STATS).get("timeseries")).isNull();
+        assertThat(cacheManager.getCache(CacheConfig.USER_PROFILES).get(7L)).isNotNull();
+    }
+
+    @Test
+    void cachedHotspotsReflectAReportCreatedAfterThem() {
+        ReportHotspotTracker tracker = context.getBean(ReportHotspotTracker.class);
+        assertThat(tracker.top(ReportHotspotTracker.Window.LAST_24H, 5)).isEmpty();
+
+        context.publishEvent(ReportChangedEvent.created(snapshot(1)));
+
+        // La lista vacía que quedó en caché no se vuelve a servir
+        assertThat(tracker.top(ReportHotspotTracker.Window.LAST_24H, 5)).singleElement()
+                .satisfies(hotspot -> assertThat(hotspot.count()).isEqualTo(1));
+    }
+
+    @Test
+    void pointsFlushesEvictOnlyTheProfilesOfTheirUsers() {
+        Cache profiles = cacheManager.getCache(CacheConfig.USER_PROFILES);
+        profiles.put(1L, "perfil 1");
+        profiles.put(2L, "perfil 2");
+        profiles.put(3L, "perfil 3");
+
+        context.publishEvent(new UserPointsChangedEvent(List.of(1L, 3L)));
+
+        assertThat(profiles.get(1L)).isNull();
+        assertThat(profiles.get(2L)).isNotNull();
+        assertThat(profiles.get(3L)).isNull();
+    }
+
+    private static ReportSnapshot snapshot(long id) {
+        LocalDateTime now = LocalDateTime.now();
+        return new ReportSnapshot(id, ReportCategory.TRASH, ReportStatus.PENDING, "Reporte " + id, "Descripción",
+                -11.8755, -77.1287, "Av. Néstor Gambetta 120, Ventanilla, Callao", true, 10, null, now, now);
+    }
+
+    @Configuration
+    @EnableCaching
+    @Import({CacheInvalidationListener.class, ReportHotspotTracker.class})
+    static class Caches {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager(CacheConfig.USER_PROFILES, CacheConfig.REPORT_DETAIL,
+                    CacheConfig.REPORT_PAGES, CacheConfig.STATS);
+        }
+
+        @Bean
+        ReportRepository reportRepository() {
+            return Mockito.mock(ReportRepository.class);
+        }
+    }
+}
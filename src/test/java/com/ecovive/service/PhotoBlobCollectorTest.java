@@ -0,0 +1,186 @@
+package com.ecovive.service;
+
+import com.ecovive.config.FileStorageProperties;
+import com.ecovive.support.TestJpa;
+import com.ecovive.util.ImageHeaders;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Recolección de contenido sin referencias sobre PostgreSQL y un almacenamiento temporal
+ */
+class PhotoBlobCollectorTest {
+
+    private static final Set<ImageHeaders.Format> PNG = EnumSet.of(ImageHeaders.Format.PNG);
+
+    private static TestJpa jpa;
+
+    @TempDir
+    Path uploadDir;
+
+    private PhotoStorageService storage;
+    private PhotoBlobCollector collector;
+
+    @BeforeAll
+    static void setUpDatabase() {
+        jpa = TestJpa.create("photo_blob_collector_test");
+        jpa.insertUser(1);
+        jpa.insertReport(1, 1, -12.05, -77.04);
+    }
+
+    @AfterAll
+    static void tearDownDatabase() {
+        if (jpa != null) {
+            jpa.close();
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        jpa.jdbcTemplate().update("DELETE FROM report_photos");
+        jpa.jdbcTemplate().update("DELETE FROM photo_blobs");
+
+        FileStorageProperties properties = new FileStorageProperties();
+        properties.getLocal().setUploadDir(uploadDir.toString());
+        storage = new PhotoStorageService();
+        ReflectionTestUtils.setField(storage, "properties", properties);
+        ReflectionTestUtils.setField(storage, "jdbcTemplate", jpa.jdbcTemplate());
+        storage.init();
+
+        collector = new PhotoBlobCollector();
+        ReflectionTestUtils.setField(collector, "jdbcTemplate", jpa.jdbcTemplate());
+        ReflectionTestUtils.setField(collector, "transactionTemplate",
+                new TransactionTemplate(new DataSourceTransactionManager(jpa.dataSource())));
+        ReflectionTestUtils.setField(collector, "storageService", storage);
+        ReflectionTestUtils.setField(collector, "graceMinutes", 60L);
+        ReflectionTestUtils.setField(collector, "batchSize", 500);
+    }
+
+    @Test
+    void referencedAndRecentContentSurvives() throws Exception {
+        PhotoStorageService.StoredPhoto referenced = store(png(1));
+        jpa.jdbcTemplate().update("INSERT INTO report_photos (id, filename, original_filename, file_url, "
+                        + "content_hash, report_id) VALUES (1, 'foto.png', 'foto.png', ?, ?, 1)",
+                referenced.url(), referenced.hash());
+        // Sin el trigger de setup.sql el contador quedó en cero: la fila de report_photos basta
+        orphanSince(referenced.hash(), 120);
+        PhotoStorageService.StoredPhoto recent = store(png(2));
+        orphanSince(recent.hash(), 10);
+
+        collector.collect();
+
+        assertThat(storage.resolve(referenced.relativePath())).exists();
+        assertThat(storage.resolve(recent.relativePath())).exists();
+        assertThat(hashes()).containsExactlyInAnyOrder(referenced.hash(), recent.hash());
+    }
+
+    @Test
+    void orphansPastTheGracePeriodAreDeletedWithTheirDerivatives() throws Exception {
+        PhotoStorageService.StoredPhoto orphan = store(png(3));
+        Path blob = storage.resolve(orphan.relativePath());
+        Path thumbnail = derivative(blob, PhotoUploadService.THUMBNAIL_SUFFIX);
+        Path medium = derivative(blob, PhotoUploadService.MEDIUM_SUFFIX);
+        orphanSince(orphan.hash(), 120);
+
+        collector.collect();
+
+        assertThat(blob).doesNotExist();
+        assertThat(thumbnail).doesNotExist();
+        assertThat(medium).doesNotExist();
+        assertThat(hashes()).isEmpty();
+    }
+
+    @Test
+    void aReuploadDuringCollectionPutsTheFileBack() throws Exception {
+        byte[] content = png(4);
+        PhotoStorageService.StoredPhoto orphan = store(content);
+        orphanSince(orphan.hash(), 120);
+
+        // El recolector se detiene con la fila bloqueada, justo antes de borrar el archivo
+        PhotoStorageService paused = Mockito.spy(storage);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch resume = new CountDownLatch(1);
+        Mockito.doAnswer(invocation -> {
+            locked.countDown();
+            assertThat(resume.await(10, TimeUnit.SECONDS)).isTrue();
+            return invocation.callRealMethod();
+        }).when(paused).deleteBlob(Mockito.anyString());
+        ReflectionTestUtils.setField(collector, "storageService", paused);
+
+        CompletableFuture<Void> collection = CompletableFuture.runAsync(collector::collect);
+        assertThat(locked.await(10, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<PhotoStorageService.StoredPhoto> upload = CompletableFuture.supplyAsync(() -> {
+            try {
+                return store(content);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        // La subida espera el bloqueo de la fila que el recolector va a borrar
+        await().atMost(Duration.ofSeconds(10)).until(() -> jpa.jdbcTemplate().queryForObject(
+                "SELECT count(*) FROM pg_stat_activity WHERE wait_event_type = 'Lock' "
+                        + "AND query LIKE 'INSERT INTO photo_blobs%'", Integer.class) > 0);
+        resume.countDown();
+        collection.get(10, TimeUnit.SECONDS);
+        PhotoStorageService.StoredPhoto reuploaded = upload.get(10, TimeUnit.SECONDS);
+
+        assertThat(reuploaded.deduplicated()).isFalse();
+        assertThat(Files.readAllBytes(storage.resolve(reuploaded.relativePath()))).isEqualTo(content);
+        assertThat(hashes()).containsExactly(orphan.hash());
+        // La fila nueva empieza su periodo de gracia, así que la próxima pasada la respeta
+        collector.collect();
+        assertThat(storage.resolve(reuploaded.relativePath())).exists();
+    }
+
+    private PhotoStorageService.StoredPhoto store(byte[] content) throws IOException {
+        return storage.store(new ByteArrayInputStream(content), content.length, PNG);
+    }
+
+    private static void orphanSince(String hash, int minutesAgo) {
+        jpa.jdbcTemplate().update("UPDATE photo_blobs SET ref_count = 0, "
+                + "orphaned_at = now() - make_interval(mins => ?) WHERE hash = ?", minutesAgo, hash);
+    }
+
+    private static List<String> hashes() {
+        return jpa.jdbcTemplate().queryForList("SELECT hash FROM photo_blobs", String.class);
+    }
+
+    private static Path derivative(Path blob, String suffix) throws IOException {
+        String filename = blob.getFileName().toString();
+        return Files.writeString(blob.resolveSibling(filename.substring(0, filename.lastIndexOf('.')) + suffix), "x");
+    }
+
+    // Imágenes distintas por semilla, para que cada una tenga su propio hash
+    private static byte[] png(int seed) throws IOException {
+        BufferedImage image = new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(0, 0, seed);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,180 @@
+package com.ecovive.service;
+
+import com.ecovive.config.FileStorageProperties;
+import com.ecovive.util.ImageHeaders;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Carga de subidas concurrentes de 10 MB sobre el almacenamiento local
+ *
+ * Cada subida llega como un stream que genera sus bytes al vuelo (una cabecera
+ * PNG real seguida de relleno), así que lo único que ocupa heap es lo que el
+ * propio almacenamiento reserva. Se mide lo asignado por subida en el hilo que
+ * la atiende y el pico de heap usado mientras corren todas.
+ */
+@Tag("benchmark")
+class PhotoStorageServiceBenchmark {
+
+    private static final long FILE_SIZE = 10L * 1024 * 1024;
+    private static final int CONCURRENT = 16;
+    private static final int ROUNDS = 4;
+
+    @TempDir
+    Path uploadDir;
+
+    @Test
+    void concurrentLargeUploadsDoNotGrowTheHeap() throws Exception {
+        PhotoStorageService storage = newStorage();
+        byte[] header = pngHeader();
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+        System.gc();
+        long baseline = memory.getHeapMemoryUsage().getUsed();
+        AtomicLong peak = new AtomicLong(baseline);
+        AtomicBoolean sampling = new AtomicBoolean(true);
+        Thread sampler = new Thread(() -> {
+            while (sampling.get()) {
+                peak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        sampler.start();
+
+        ExecutorService pool = Executors.newFixedThreadPool(CONCURRENT);
+        List<Future<Long>> uploads = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            CountDownLatch ready = new CountDownLatch(CONCURRENT);
+            for (int i = 0; i < CONCURRENT; i++) {
+                long seed = round * CONCURRENT + i;
+                uploads.add(pool.submit(() -> {
+                    ready.countDown();
+                    ready.await();
+                    long threadId = Thread.currentThread().getId();
+                    long before = threads.getThreadAllocatedBytes(threadId);
+                    PhotoStorageService.StoredPhoto stored = storage.store(
+                            new GeneratedImage(header, FILE_SIZE, seed), FILE_SIZE,
+                            EnumSet.of(ImageHeaders.Format.PNG));
+                    long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+                    assertThat(stored.size()).isEqualTo(FILE_SIZE);
+                    assertThat(stored.info().width()).isEqualTo(64);
+                    return allocated;
+                }));
+            }
+        }
+        long maxAllocated = 0;
+        long totalAllocated = 0;
+        for (Future<Long> upload : uploads) {
+            long allocated = upload.get();
+            maxAllocated = Math.max(maxAllocated, allocated);
+            totalAllocated += allocated;
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        sampling.set(false);
+        sampler.join();
+        pool.shutdown();
+
+        int count = uploads.size();
+        long peakGrowth = peak.get() - baseline;
+        System.out.printf("%d subidas de %d MB (%d concurrentes) en %d ms, %.0f MB/s%n",
+                count, FILE_SIZE >> 20, CONCURRENT, elapsedMillis,
+                count * (FILE_SIZE >> 20) * 1000.0 / elapsedMillis);
+        System.out.printf("asignado por subida: media %d KB, max %d KB; pico de heap sobre la base: %d MB%n",
+                totalAllocated / count >> 10, maxAllocated >> 10, peakGrowth >> 20);
+
+        // Con buffers en memoria cada subida asignaría al menos sus 10 MB, y las
+        // concurrentes retendrían juntas 160 MB; el pico incluye además basura aún no recogida
+        assertThat(maxAllocated).isLessThan(FILE_SIZE / 4);
+        assertThat(peakGrowth).isLessThan(CONCURRENT * FILE_SIZE);
+    }
+
+    private PhotoStorageService newStorage() throws Exception {
+        FileStorageProperties properties = new FileStorageProperties();
+        properties.getLocal().setUploadDir(uploadDir.toString());
+        PhotoStorageService storage = new PhotoStorageService();
+        ReflectionTestUtils.setField(storage, "properties", properties);
+        ReflectionTestUtils.setField(storage, "jdbcTemplate", Mockito.mock(JdbcTemplate.class));
+        storage.init();
+        return storage;
+    }
+
+    private static byte[] pngHeader() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(64, 48, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Stream de {@code size} bytes: la cabecera y luego relleno pseudoaleatorio, sin buffer propio
+     */
+    private static final class GeneratedImage extends InputStream {
+
+        private final byte[] header;
+        private final long size;
+        private long position;
+        private long state;
+
+        GeneratedImage(byte[] header, long size, long seed) {
+            this.header = header;
+            this.size = size;
+            this.state = seed * 0x9E3779B97F4A7C15L + 1;
+        }
+
+        @Override
+        public int read() {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (position >= size) {
+                return -1;
+            }
+            int count = (int) Math.min(length, size - position);
+            for (int i = 0; i < count; i++) {
+                long at = position + i;
+                if (at < header.length) {
+                    buffer[offset + i] = header[(int) at];
+                } else {
+                    state ^= state << 13;
+                    state ^= state >>> 7;
+                    state ^= state << 17;
+                    buffer[offset + i] = (byte) state;
+                }
+            }
+            position += count;
+            return count;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.ecovive.service;
+
+import com.ecovive.config.FileStorageProperties;
+import com.ecovive.util.ImageHeaders;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.EnumSet;
+import java.util.HexFormat;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PhotoStorageServiceTest {
+
+    private static final Set<ImageHeaders.Format> PNG = EnumSet.of(ImageHeaders.Format.PNG);
+
+    @TempDir
+    Path uploadDir;
+
+    @TempDir
+    Path spoolDir;
+
+    private PhotoStorageService storage;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        FileStorageProperties properties = new FileStorageProperties();
+        properties.getLocal().setUploadDir(uploadDir.toString());
+        storage = new PhotoStorageService();
+        ReflectionTestUtils.setField(storage, "properties", properties);
+        ReflectionTestUtils.setField(storage, "jdbcTemplate", Mockito.mock(JdbcTemplate.class));
+        storage.init();
+    }
+
+    @Test
+    void theSpooledPartIsMovedIntoBlobsWithoutACopy() throws Exception {
+        byte[] png = png(64, 48);
+        SpooledPart part = new SpooledPart(spool(png));
+
+        PhotoStorageService.StoredPhoto stored = storage.store(part, png.length, PNG);
+
+        assertThat(stored.hash()).isEqualTo(sha256(png));
+        assertThat(stored.size()).isEqualTo(png.length);
+        assertThat(stored.deduplicated()).isFalse();
+        assertThat(Files.readAllBytes(storage.resolve(stored.relativePath()))).isEqualTo(png);
+        // El contenedor renombró su temporal y no quedó nada en .incoming
+        assertThat(part.file).doesNotExist();
+        try (var incoming = Files.list(uploadDir.resolve(".incoming"))) {
+            assertThat(incoming).isEmpty();
+        }
+
+        PhotoStorageService.StoredPhoto again = storage.store(new ByteArrayInputStream(png), png.length, PNG);
+        assertThat(again.relativePath()).isEqualTo(stored.relativePath());
+        assertThat(again.deduplicated()).isTrue();
+    }
+
+    @Test
+    void oversizedAndDisallowedPartsAreRejected() throws Exception {
+        byte[] png = png(8, 8);
+        SpooledPart oversized = new SpooledPart(spool(png));
+        assertThatThrownBy(() -> storage.store(oversized, png.length - 1, PNG))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(oversized.file).exists();
+
+        SpooledPart disallowed = new SpooledPart(spool(png));
+        assertThatThrownBy(() -> storage.store(disallowed, png.length, EnumSet.of(ImageHeaders.Format.JPEG)))
+                .isInstanceOf(IllegalArgumentException.class);
+        try (var incoming = Files.list(uploadDir.resolve(".incoming"))) {
+            assertThat(incoming).isEmpty();
+        }
+        assertThat(uploadDir.resolve(PhotoStorageService.BLOB_DIRECTORY)).doesNotExist();
+    }
+
+    private Path spool(byte[] content) throws IOException {
+        return Files.write(Files.createTempFile(spoolDir, "part-", ".tmp"), content);
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+
+    private static String sha256(byte[] content) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+
+    /**
+     * Parte ya volcada a disco que se mueve al destino, como hace el contenedor
+     */
+    private static final class SpooledPart implements MultipartFile {
+
+        private final Path file;
+
+        SpooledPart(Path file) {
+            this.file = file;
+        }
+
+        @Override
+        public String getName() {
+            return "file";
+        }
+
+        @Override
+        public String getOriginalFilename() {
+            return "foto.png";
+        }
+
+        @Override
+        public String getContentType() {
+            return "image/png";
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return getSize() == 0;
+        }
+
+        @Override
+        public long getSize() {
+            try {
+                return Files.size(file);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public byte[] getBytes() {
+            throw new UnsupportedOperationException("La parte no debe cargarse en memoria");
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return Files.newInputStream(file);
+        }
+
+        @Override
+        public void transferTo(File dest) throws IOException {
+            Files.move(file, dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
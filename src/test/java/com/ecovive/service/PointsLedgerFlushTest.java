@@ -0,0 +1,263 @@
+package com.ecovive.service;
+
+import com.ecovive.event.UserPointsChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Vuelco del libro de puntos sobre un libro en memoria, sin base de datos
+ *
+ * {@link Ledger} interpreta las sentencias del servicio y {@link Transactions}
+ * deshace sus cambios cuando la transacción falla, así que se puede comprobar
+ * el aislamiento por usuario y el registro de fallos de forma determinista.
+ */
+class PointsLedgerFlushTest {
+
+    private static final int MAX_ATTEMPTS = 2;
+
+    private Ledger ledger;
+    private Transactions transactions;
+    private LeaderboardService leaderboard;
+    private List<Object> events;
+    private PointsLedgerService service;
+
+    @BeforeEach
+    void setUp() {
+        ledger = new Ledger();
+        transactions = new Transactions(ledger);
+        leaderboard = Mockito.mock(LeaderboardService.class);
+        events = new ArrayList<>();
+        service = new PointsLedgerService();
+        ReflectionTestUtils.setField(service, "jdbcTemplate", ledger);
+        ReflectionTestUtils.setField(service, "transactionTemplate", transactions);
+        ReflectionTestUtils.setField(service, "leaderboardService", leaderboard);
+        ReflectionTestUtils.setField(service, "eventPublisher", (ApplicationEventPublisher) events::add);
+        ReflectionTestUtils.setField(service, "flushBatchSize", 100);
+        ReflectionTestUtils.setField(service, "maxAttempts", MAX_ATTEMPTS);
+    }
+
+    @Test
+    void aHealthyBatchIsAppliedInOneTransaction() {
+        ledger.pending(1, 10, 1);
+        ledger.pending(2, 5, 1);
+        ledger.pending(1, 7, 0);
+
+        PointsLedgerService.FlushResult result = service.flush();
+
+        assertThat(result).isEqualTo(new PointsLedgerService.FlushResult(3, 0));
+        assertThat(transactions.started).isEqualTo(1);
+        assertThat(ledger.points).containsEntry(1L, 17).containsEntry(2L, 5);
+        assertThat(ledger.pendingIds()).isEmpty();
+        verify(leaderboard).updateScores(eq(1L), eq(17L), eq(1L), anyString());
+        assertThat(events).singleElement().isInstanceOf(UserPointsChangedEvent.class);
+    }
+
+    @Test
+    void aFailingUserDoesNotHoldBackTheOthers() {
+        long first = ledger.pending(1, 10, 1);
+        long broken = ledger.pending(2, 5, 1);
+        long third = ledger.pending(3, 8, 1);
+        ledger.failingUsers.add(2L);
+
+        PointsLedgerService.FlushResult result = service.flush();
+
+        assertThat(result).isEqualTo(new PointsLedgerService.FlushResult(2, 1));
+        // El lote completo se deshizo y se repitió usuario por usuario
+        assertThat(ledger.points).containsOnly(Map.entry(1L, 10), Map.entry(3L, 8));
+        assertThat(ledger.pendingIds()).containsExactly(broken);
+        assertThat(ledger.attempts).containsOnly(Map.entry(broken, 1));
+        assertThat(ledger.pendingIds()).doesNotContain(first, third);
+        verify(leaderboard, never()).updateScores(eq(2L), anyLong(), anyLong(), anyString());
+        assertThat(((UserPointsChangedEvent) events.get(0)).userIds()).containsExactly(1L, 3L);
+    }
+
+    @Test
+    void movementsAreSetAsideAfterTheLastAttempt() {
+        long broken = ledger.pending(2, 5, 1);
+        ledger.failingUsers.add(2L);
+
+        assertThat(service.flush()).isEqualTo(new PointsLedgerService.FlushResult(0, 1));
+        assertThat(service.flush()).isEqualTo(new PointsLedgerService.FlushResult(0, 1));
+
+        assertThat(ledger.failed).containsExactly(broken);
+        assertThat(ledger.pendingIds()).isEmpty();
+        assertThat(service.flush()).isEqualTo(new PointsLedgerService.FlushResult(0, 0));
+        verify(leaderboard, never()).updateScores(anyLong(), anyLong(), anyLong(), anyString());
+        assertThat(events).isEmpty();
+    }
+
+    /**
+     * Libro y totales en memoria que entienden las sentencias de PointsLedgerService
+     */
+    static final class Ledger extends JdbcTemplate {
+
+        record Row(long userId, int points, int reports) {
+        }
+
+        final TreeMap<Long, Row> rows = new TreeMap<>();
+        Set<Long> pending = new HashSet<>();
+        Map<Long, Integer> attempts = new HashMap<>();
+        Set<Long> failed = new HashSet<>();
+        Map<Long, Integer> points = new HashMap<>();
+        Map<Long, Integer> reports = new HashMap<>();
+        final Set<Long> failingUsers = new HashSet<>();
+        private long nextId = 1;
+
+        long pending(long userId, int points, int reports) {
+            long id = nextId++;
+            rows.put(id, new Row(userId, points, reports));
+            pending.add(id);
+            return id;
+        }
+
+        List<Long> pendingIds() {
+            return rows.keySet().stream().filter(pending::contains).toList();
+        }
+
+        Object[] snapshot() {
+            return new Object[]{new HashSet<>(pending), new HashMap<>(attempts), new HashSet<>(failed),
+                    new HashMap<>(points), new HashMap<>(reports)};
+        }
+
+        @SuppressWarnings("unchecked")
+        void restore(Object[] state) {
+            pending = (Set<Long>) state[0];
+            attempts = (Map<Long, Integer>) state[1];
+            failed = (Set<Long>) state[2];
+            points = (Map<Long, Integer>) state[3];
+            reports = (Map<Long, Integer>) state[4];
+        }
+
+        @Override
+        public void query(String sql, RowCallbackHandler handler, Object... args) {
+            try {
+                if (sql.startsWith("SELECT id, user_id")) {
+                    for (Long id : pendingIds()) {
+                        handler.processRow(resultSet(id, rows.get(id).userId()));
+                    }
+                } else if (sql.contains("FOR UPDATE")) {
+                    for (Long id : (Long[]) args[0]) {
+                        if (pending.contains(id)) {
+                            handler.processRow(resultSet(id, rows.get(id).points(), rows.get(id).reports()));
+                        }
+                    }
+                } else {
+                    throw new IllegalArgumentException(sql);
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public <T> List<T> query(String sql, RowMapper<T> mapper, Object... args) {
+            if (!sql.startsWith("UPDATE users")) {
+                throw new IllegalArgumentException(sql);
+            }
+            long userId = (Long) args[args.length - 1];
+            if (failingUsers.contains(userId)) {
+                throw new DataIntegrityViolationException("usuario " + userId);
+            }
+            int total = points.merge(userId, (Integer) args[0], Integer::sum);
+            int count = reports.merge(userId, (Integer) args[1], Integer::sum);
+            try {
+                return List.of(mapper.mapRow(resultSet(userId, total, count, "nivel"), 0));
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public int update(String sql, Object... args) {
+            if (sql.contains("pending = FALSE")) {
+                List<Long> ids = Arrays.asList((Long[]) args[0]);
+                pending.removeAll(ids);
+                return ids.size();
+            }
+            if (sql.contains("attempts = attempts + 1")) {
+                int max = (Integer) args[0];
+                int updated = 0;
+                for (Long id : (Long[]) args[2]) {
+                    if (pending.contains(id)) {
+                        int count = attempts.merge(id, 1, Integer::sum);
+                        if (count >= max) {
+                            pending.remove(id);
+                            failed.add(id);
+                        }
+                        updated++;
+                    }
+                }
+                return updated;
+            }
+            throw new IllegalArgumentException(sql);
+        }
+
+        private static ResultSet resultSet(Object... values) throws SQLException {
+            ResultSet rs = Mockito.mock(ResultSet.class);
+            for (int i = 0; i < values.length; i++) {
+                Object value = values[i];
+                if (value instanceof Number number) {
+                    Mockito.when(rs.getLong(i + 1)).thenReturn(number.longValue());
+                    Mockito.when(rs.getInt(i + 1)).thenReturn(number.intValue());
+                } else {
+                    Mockito.when(rs.getString(i + 1)).thenReturn((String) value);
+                }
+            }
+            return rs;
+        }
+    }
+
+    /**
+     * Transacciones que deshacen los cambios del libro si el callback falla
+     */
+    static final class Transactions extends TransactionTemplate {
+
+        private final Ledger ledger;
+        int started;
+
+        Transactions(Ledger ledger) {
+            this.ledger = ledger;
+        }
+
+        @Override
+        public <T> T execute(TransactionCallback<T> action) throws TransactionException {
+            started++;
+            Object[] before = ledger.snapshot();
+            try {
+                return action.doInTransaction(new SimpleTransactionStatus());
+            } catch (RuntimeException e) {
+                ledger.restore(before);
+                throw e;
+            }
+        }
+    }
+}
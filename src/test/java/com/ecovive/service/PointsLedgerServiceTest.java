@@ -0,0 +1,198 @@
+package com.ecovive.service;
+
+import com.ecovive.model.User;
+import com.ecovive.support.TestDatabase;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PointsLedgerServiceTest {
+
+    private static final int USERS = 50;
+
+    private static HikariDataSource dataSource;
+    private static JdbcTemplate jdbcTemplate;
+    private static TransactionTemplate transactionTemplate;
+
+    private PointsLedgerService service;
+
+    @BeforeAll
+    static void connect() {
+        dataSource = TestDatabase.dataSource("points_ledger_test", 8);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @AfterAll
+    static void disconnect() {
+        TestDatabase.close(dataSource);
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS points_ledger, users");
+        jdbcTemplate.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, eco_points INTEGER DEFAULT 0, " +
+                "reports_count INTEGER DEFAULT 0, level VARCHAR(50))");
+        jdbcTemplate.execute("CREATE TABLE points_ledger (id BIGSERIAL PRIMARY KEY, user_id BIGINT NOT NULL " +
+                "REFERENCES users(id), points INTEGER NOT NULL, reports_delta INTEGER NOT NULL DEFAULT 0, " +
+                "reason VARCHAR(50) NOT NULL, report_id BIGINT, created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                "pending BOOLEAN NOT NULL DEFAULT FALSE, attempts INTEGER NOT NULL DEFAULT 0, " +
+                "retry_at TIMESTAMP, failed_at TIMESTAMP)");
+        for (long id = 1; id <= USERS; id++) {
+            jdbcTemplate.update("INSERT INTO users (id) VALUES (?)", id);
+        }
+
+        service = new PointsLedgerService();
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(service, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(service, "leaderboardService", Mockito.mock(LeaderboardService.class));
+        ReflectionTestUtils.setField(service, "eventPublisher", (ApplicationEventPublisher) event -> { });
+        ReflectionTestUtils.setField(service, "flushBatchSize", 500);
+        ReflectionTestUtils.setField(service, "maxAttempts", 3);
+    }
+
+    @Test
+    void concurrentAccrualsAndFlushesLoseNoUpdates() throws Exception {
+        int writers = 4;
+        int transactionsPerWriter = 300;
+        AtomicIntegerArray expectedPoints = new AtomicIntegerArray(USERS + 1);
+        AtomicIntegerArray expectedReports = new AtomicIntegerArray(USERS + 1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+
+        ExecutorService pool = Executors.newFixedThreadPool(writers + 2);
+        List<Future<?>> writerTasks = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            writerTasks.add(pool.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < transactionsPerWriter; i++) {
+                    int accruals = 1 + random.nextInt(3);
+                    long[] users = new long[accruals];
+                    int[] points = new int[accruals];
+                    boolean rollback = random.nextInt(10) == 0;
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> {
+                            for (int a = 0; a < accruals; a++) {
+                                users[a] = 1 + random.nextInt(USERS);
+                                points[a] = 1 + random.nextInt(50);
+                                service.accrue(users[a], points[a], 1, PointsLedgerService.REASON_REPORT_CREATED, null);
+                            }
+                            if (rollback) {
+                                throw new IllegalStateException("rollback");
+                            }
+                        });
+                    } catch (IllegalStateException e) {
+                        continue;
+                    }
+                    for (int a = 0; a < accruals; a++) {
+                        expectedPoints.addAndGet((int) users[a], points[a]);
+                        expectedReports.incrementAndGet((int) users[a]);
+                    }
+                }
+                return null;
+            }));
+        }
+        List<Future<?>> flusherTasks = new ArrayList<>();
+        for (int f = 0; f < 2; f++) {
+            flusherTasks.add(pool.submit(() -> {
+                while (writing.get()) {
+                    service.flush();
+                }
+                return null;
+            }));
+        }
+        for (Future<?> task : writerTasks) {
+            task.get(2, TimeUnit.MINUTES);
+        }
+        writing.set(false);
+        for (Future<?> task : flusherTasks) {
+            task.get(1, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+        while (service.pendingCount() > 0) {
+            service.flush();
+        }
+
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT id, eco_points, reports_count, level FROM users ORDER BY id");
+        for (Map<String, Object> row : rows) {
+            int id = ((Number) row.get("id")).intValue();
+            int ecoPoints = ((Number) row.get("eco_points")).intValue();
+            assertThat(ecoPoints).as("puntos del usuario %d", id).isEqualTo(expectedPoints.get(id));
+            assertThat(((Number) row.get("reports_count")).intValue()).isEqualTo(expectedReports.get(id));
+            if (expectedReports.get(id) > 0) {
+                assertThat(row.get("level")).isEqualTo(User.levelFor(ecoPoints));
+            }
+        }
+        Integer unmatched = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users u WHERE eco_points <> " +
+                "(SELECT COALESCE(SUM(points), 0) FROM points_ledger l WHERE l.user_id = u.id)", Integer.class);
+        assertThat(unmatched).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM points_ledger WHERE failed_at IS NOT NULL",
+                Integer.class)).isZero();
+    }
+
+    @Test
+    void failingUserDoesNotBlockOthersAndIsSetAsideAfterMaxAttempts() {
+        jdbcTemplate.execute("ALTER TABLE users ADD CONSTRAINT eco_points_cap CHECK (eco_points < 1000)");
+        service.accrue(1, 5000, 1, PointsLedgerService.REASON_REPORT_CREATED, 10L);
+        service.accrue(2, 20, 1, PointsLedgerService.REASON_REPORT_CREATED, 11L);
+
+        PointsLedgerService.FlushResult first = service.flush();
+
+        assertThat(first.applied()).isEqualTo(1);
+        assertThat(first.failed()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT eco_points FROM users WHERE id = 2", Integer.class))
+                .isEqualTo(20);
+        // La fila fallida espera a su retry_at antes de volver a intentarse
+        assertThat(service.flush().applied()).isZero();
+        assertThat(service.pendingCount()).isEqualTo(1);
+
+        for (int attempt = 2; attempt <= 3; attempt++) {
+            jdbcTemplate.update("UPDATE points_ledger SET retry_at = NULL");
+            service.flush();
+        }
+
+        assertThat(service.pendingCount()).isZero();
+        Map<String, Object> poisoned = jdbcTemplate.queryForMap(
+                "SELECT attempts, failed_at FROM points_ledger WHERE user_id = 1");
+        assertThat(poisoned.get("attempts")).isEqualTo(3);
+        assertThat(poisoned.get("failed_at")).isNotNull();
+        assertThat(jdbcTemplate.queryForObject("SELECT eco_points FROM users WHERE id = 1", Integer.class))
+                .isZero();
+    }
+
+    @Test
+    void rolledBackTransactionLeavesNoLedgerRow() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                service.accrue(3, 40, 1, PointsLedgerService.REASON_REPORT_CREATED, 12L);
+                throw new IllegalStateException("rollback");
+            });
+        } catch (IllegalStateException expected) {
+            // el reporte no se guardó
+        }
+
+        assertThat(service.pendingCount()).isZero();
+        assertThat(service.flush().applied()).isZero();
+    }
+}
@@ -0,0 +1,176 @@
+package com.ecovive.service;
+
+import com.ecovive.config.DuplicateDetectionProperties;
+import com.ecovive.dto.BulkIngestResult;
+import com.ecovive.model.User;
+import com.ecovive.repository.DuplicateCandidateRepository;
+import com.ecovive.repository.UserRepository;
+import com.ecovive.support.TestDatabase;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.Validation;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+
+/**
+ * Ingesta masiva del mismo lote con y sin batching JDBC
+ *
+ * "Sin batching" reproduce la configuración anterior: ids IDENTITY (que obligan
+ * a un INSERT por persist), sin hibernate.jdbc.batch_size y sin
+ * reWriteBatchedInserts. "Con batching" usa los mapeos actuales: secuencias con
+ * allocationSize 50, batch_size 50 y reescritura a INSERT multi-fila.
+ */
+@Tag("benchmark")
+class ReportBulkIngestionBenchmark {
+
+    private static final int ROWS = 5_000;
+    private static final int USERS = 20;
+
+    private record Run(String name, long millis, BulkIngestResult result, long statements) {
+    }
+
+    @Test
+    void batchedIngestionIssuesFewerStatementsAndIsFaster() throws Exception {
+        byte[] body = body(ROWS);
+
+        Run identity = run("bulk_identity", false, body);
+        Run batched = run("bulk_batched", true, body);
+
+        for (Run run : List.of(identity, batched)) {
+            System.out.printf("%-14s %5d filas en %5d ms (%6.0f filas/s), %6d sentencias preparadas%n",
+                    run.name(), run.result().created(), run.millis(),
+                    run.result().created() * 1000.0 / run.millis(), run.statements());
+        }
+
+        assertThat(identity.result().created()).isEqualTo(ROWS);
+        assertThat(batched.result().created()).isEqualTo(ROWS);
+        assertThat(batched.statements()).isLessThan(identity.statements() / 10);
+    }
+
+    private Run run(String schema, boolean batched, byte[] body) throws Exception {
+        HikariConfig config = TestDatabase.config(schema, 4);
+        if (batched) {
+            config.addDataSourceProperty("reWriteBatchedInserts", "true");
+        }
+        try (HikariDataSource dataSource = new HikariDataSource(config)) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + schema + " CASCADE");
+            jdbcTemplate.execute("CREATE SCHEMA " + schema);
+
+            LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+            factoryBean.setDataSource(dataSource);
+            factoryBean.setPackagesToScan("com.ecovive.model");
+            factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+            if (!batched) {
+                factoryBean.setMappingResources("bulk/identity-ids-orm.xml");
+            }
+            Map<String, Object> properties = new HashMap<>();
+            properties.put("hibernate.hbm2ddl.auto", "create");
+            properties.put("hibernate.generate_statistics", "true");
+            properties.put("hibernate.order_inserts", "true");
+            if (batched) {
+                properties.put("hibernate.jdbc.batch_size", "50");
+            }
+            factoryBean.setJpaPropertyMap(properties);
+            factoryBean.afterPropertiesSet();
+            EntityManagerFactory factory = factoryBean.getObject();
+            try {
+                List<User> users = new ArrayList<>();
+                for (long id = 1; id <= USERS; id++) {
+                    jdbcTemplate.update("INSERT INTO users (id, name, email, password) VALUES (?, ?, ?, ?)",
+                            id, "Usuario " + id, "usuario" + id + "@example.com", "x");
+                    User user = new User("Usuario " + id, "usuario" + id + "@example.com", "x");
+                    user.setId(id);
+                    users.add(user);
+                }
+                ReportBulkIngestionService service = newService(factory, users);
+
+                // Calentamiento con un lote pequeño antes de medir
+                service.ingest(new ByteArrayInputStream(body(200)));
+                Statistics statistics = factory.unwrap(SessionFactory.class).getStatistics();
+                statistics.clear();
+
+                long start = System.nanoTime();
+                BulkIngestResult result = service.ingest(new ByteArrayInputStream(body));
+                long millis = (System.nanoTime() - start) / 1_000_000;
+                return new Run(batched ? "con batching" : "sin batching", millis, result,
+                        statistics.getPrepareStatementCount());
+            } finally {
+                factoryBean.destroy();
+            }
+        }
+    }
+
+    private static ReportBulkIngestionService newService(EntityManagerFactory factory, List<User> users) {
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        Mockito.when(userRepository.findAllById(any())).thenReturn(users);
+
+        ReportBulkIngestionService service = new ReportBulkIngestionService();
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(service, "validator",
+                Validation.buildDefaultValidatorFactory().getValidator());
+        ReflectionTestUtils.setField(service, "transactionTemplate",
+                new TransactionTemplate(new JpaTransactionManager(factory)));
+        ReflectionTestUtils.setField(service, "entityManager",
+                SharedEntityManagerCreator.createSharedEntityManager(factory));
+        ReflectionTestUtils.setField(service, "userRepository", userRepository);
+        ReflectionTestUtils.setField(service, "duplicateDetector", ReportDuplicateDetectorTest.newDetector());
+        ReflectionTestUtils.setField(service, "duplicateProperties", new DuplicateDetectionProperties());
+        ReflectionTestUtils.setField(service, "duplicateCandidateRepository",
+                Mockito.mock(DuplicateCandidateRepository.class));
+        ReflectionTestUtils.setField(service, "eventPublisher", (ApplicationEventPublisher) event -> { });
+        ReflectionTestUtils.setField(service, "maxRows", ROWS);
+        ReflectionTestUtils.setField(service, "chunkSize", 500);
+        return service;
+    }
+
+    /**
+     * Lote fijo: cada reporte con una foto y un comentario
+     */
+    private static byte[] body(int rows) throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        ArrayNode array = mapper.createArrayNode();
+        for (int i = 0; i < rows; i++) {
+            ObjectNode row = array.addObject();
+            row.put("category", "TRASH");
+            row.put("title", "Basura acumulada " + i);
+            row.put("description", "Residuos en la vía pública, punto " + i);
+            row.put("latitude", -12.0 - (i % 100) * 0.01);
+            row.put("longitude", -77.0 - (i / 100) * 0.01);
+            row.put("userId", 1 + i % USERS);
+            ObjectNode photo = row.putArray("photos").addObject();
+            photo.put("filename", "foto-" + i + ".jpg");
+            photo.put("originalFilename", "IMG_" + i + ".jpg");
+            photo.put("fileUrl", "https://example.com/fotos/foto-" + i + ".jpg");
+            photo.put("contentType", "image/jpeg");
+            ObjectNode comment = row.putArray("comments").addObject();
+            comment.put("content", "Visto durante la campaña");
+            comment.put("userId", 1 + (i + 1) % USERS);
+        }
+        return mapper.writeValueAsBytes(array);
+    }
+}
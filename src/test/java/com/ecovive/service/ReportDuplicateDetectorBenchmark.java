@@ -0,0 +1,93 @@
+package com.ecovive.service;
+
+import com.ecovive.event.ReportChangedEvent;
+import com.ecovive.model.ReportCategory;
+import com.ecovive.model.ReportStatus;
+import com.ecovive.support.Latencies;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Coste del detector en la ruta de creación con 1M de reportes residentes
+ *
+ * Los reportes se reparten en Lima Metropolitana (unos 45 x 45 km) dentro de la
+ * ventana de 72 h, con una categoría dominante como en una campaña de limpieza.
+ * Se mide la consulta sola y la consulta seguida del alta, que es lo que paga
+ * cada creación. Se ejecuta con {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class ReportDuplicateDetectorBenchmark {
+
+    private static final int RESIDENT = 1_000_000;
+    private static final int WARMUP = 50_000;
+    private static final int MEASURED = 200_000;
+
+    @Test
+    void p99StaysWithinBudgetWithOneMillionResidentReports() {
+        ReportDuplicateDetector detector = ReportDuplicateDetectorTest.newDetector();
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDateTime now = LocalDateTime.now();
+
+        long loadStart = System.nanoTime();
+        for (int id = 1; id <= RESIDENT; id++) {
+            detector.onReportChanged(ReportChangedEvent.created(ReportDuplicateDetectorTest.snapshot(id,
+                    category(random), lat(random), lon(random), now.minusMinutes(random.nextInt(72 * 60)),
+                    ReportStatus.PENDING)));
+        }
+        System.out.printf("Carga de %d reportes: %d ms, %d residentes%n",
+                RESIDENT, (System.nanoTime() - loadStart) / 1_000_000, detector.size());
+
+        for (int i = 0; i < WARMUP; i++) {
+            detector.findDuplicates(category(random), lat(random), lon(random), now);
+        }
+
+        Latencies queries = new Latencies(MEASURED);
+        long matches = 0;
+        for (int i = 0; i < MEASURED; i++) {
+            ReportCategory category = category(random);
+            double lat = lat(random);
+            double lon = lon(random);
+            long start = System.nanoTime();
+            matches += detector.findDuplicates(category, lat, lon, now).size();
+            queries.record(System.nanoTime() - start);
+        }
+
+        Latencies creates = new Latencies(MEASURED);
+        long nextId = RESIDENT + 1;
+        for (int i = 0; i < MEASURED; i++) {
+            ReportCategory category = category(random);
+            double lat = lat(random);
+            double lon = lon(random);
+            long start = System.nanoTime();
+            detector.findDuplicates(category, lat, lon, now);
+            detector.onReportChanged(ReportChangedEvent.created(ReportDuplicateDetectorTest.snapshot(nextId++,
+                    category, lat, lon, now, ReportStatus.PENDING)));
+            creates.record(System.nanoTime() - start);
+        }
+
+        System.out.println("findDuplicates:        " + queries.summary() + ", coincidencias medias "
+                + String.format("%.2f", (double) matches / MEASURED));
+        System.out.println("findDuplicates + alta: " + creates.summary());
+        assertThat(queries.percentileMicros(99)).isLessThan(2_000);
+        assertThat(creates.percentileMicros(99)).isLessThan(3_000);
+    }
+
+    private static ReportCategory category(SplittableRandom random) {
+        // La mitad de los reportes son de basura, como en una campaña de limpieza
+        ReportCategory[] values = ReportCategory.values();
+        return random.nextBoolean() ? ReportCategory.TRASH : values[random.nextInt(values.length)];
+    }
+
+    private static double lat(SplittableRandom random) {
+        return -12.25 + random.nextDouble() * 0.4;
+    }
+
+    private static double lon(SplittableRandom random) {
+        return -77.15 + random.nextDouble() * 0.4;
+    }
+}
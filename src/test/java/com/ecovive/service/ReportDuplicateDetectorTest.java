@@ -0,0 +1,189 @@
+package com.ecovive.service;
+
+import com.ecovive.config.DuplicateDetectionProperties;
+import com.ecovive.event.ReportChangedEvent;
+import com.ecovive.event.ReportSnapshot;
+import com.ecovive.model.Report;
+import com.ecovive.model.ReportCategory;
+import com.ecovive.model.ReportStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class ReportDuplicateDetectorTest {
+
+    private ReportDuplicateDetector detector;
+    private final LocalDateTime now = LocalDateTime.now();
+
+    @BeforeEach
+    void setUp() {
+        detector = newDetector();
+    }
+
+    static ReportDuplicateDetector newDetector() {
+        ReportDuplicateDetector detector = new ReportDuplicateDetector();
+        ReflectionTestUtils.setField(detector, "properties", new DuplicateDetectionProperties());
+        detector.initPartitions();
+        return detector;
+    }
+
+    @Test
+    void findsNearbyReportsOfTheSameCategoryOrderedByDistance() {
+        add(1, ReportCategory.TRASH, -12.0460, -77.0428, now.minusHours(1));
+        add(2, ReportCategory.TRASH, -12.0462, -77.0428, now.minusHours(1));
+        add(3, ReportCategory.NOISE, -12.0460, -77.0428, now.minusHours(1));
+        add(4, ReportCategory.TRASH, -12.0600, -77.0428, now.minusHours(1));
+
+        assertThat(detector.findDuplicates(ReportCategory.TRASH, -12.0461, -77.0428, now))
+                .extracting(ReportDuplicateDetector.Match::reportId)
+                .containsExactly(1L, 2L);
+    }
+
+    @Test
+    void ignoresReportsOutsideTheTimeWindow() {
+        add(1, ReportCategory.TRASH, -12.0460, -77.0428, now.minusHours(100));
+
+        assertThat(detector.findDuplicates(ReportCategory.TRASH, -12.0460, -77.0428, now)).isEmpty();
+    }
+
+    @Test
+    void rejectedReportsAreNotOriginals() {
+        ReportSnapshot original = snapshot(1, ReportCategory.TRASH, -12.0460, -77.0428, now, ReportStatus.PENDING);
+        detector.onReportChanged(ReportChangedEvent.created(original));
+        detector.onReportChanged(ReportChangedEvent.statusChanged(original,
+                snapshot(1, ReportCategory.TRASH, -12.0460, -77.0428, now, ReportStatus.REJECTED)));
+
+        assertThat(detector.findDuplicates(ReportCategory.TRASH, -12.0460, -77.0428, now)).isEmpty();
+    }
+
+    @Test
+    void polarProbeDoesNotWalkTheWholeRing() {
+        add(1, ReportCategory.TRASH, 89.9996, 10.0, now);
+
+        assertThat(assertTimeoutPreemptively(Duration.ofSeconds(1),
+                () -> detector.findDuplicates(ReportCategory.TRASH, 89.9996, -170.0, now)))
+                .extracting(ReportDuplicateDetector.Match::reportId)
+                .containsExactly(1L);
+    }
+
+    @Test
+    void reportsCreatedInTheSameTransactionSeeEachOther() {
+        Report first = detector.findAndRegister(ReportCategory.TRASH, -12.0460, -77.0428, now,
+                matches -> {
+                    assertThat(matches).isEmpty();
+                    return report(1);
+                });
+
+        // Sin commit de por medio, como dos filas del mismo bloque de una ingesta masiva
+        detector.findAndRegister(ReportCategory.TRASH, -12.0461, -77.0428, now, matches -> {
+            assertThat(matches).extracting(ReportDuplicateDetector.Match::reportId).containsExactly(first.getId());
+            return report(2);
+        });
+    }
+
+    @Test
+    void concurrentCreatesOfTheSameSiteAreSerialized() throws Exception {
+        CountDownLatch persisting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> first = pool.submit(() -> detector.findAndRegister(ReportCategory.TRASH, -12.0460, -77.0428,
+                    now, matches -> {
+                        persisting.countDown();
+                        await(release);
+                        return report(1);
+                    }));
+            persisting.await();
+            List<Long> seen = new CopyOnWriteArrayList<>();
+            Future<?> second = pool.submit(() -> detector.findAndRegister(ReportCategory.TRASH, -12.0461, -77.0428,
+                    now, matches -> {
+                        matches.forEach(match -> seen.add(match.reportId()));
+                        return report(2);
+                    }));
+            // El segundo espera a que el primero termine de guardarse
+            Thread.sleep(100);
+            assertThat(second.isDone()).isFalse();
+            release.countDown();
+            first.get(5, TimeUnit.SECONDS);
+            second.get(5, TimeUnit.SECONDS);
+
+            assertThat(seen).containsExactly(1L);
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void registrationIsUndoneWhenTheTransactionRollsBack() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            detector.findAndRegister(ReportCategory.TRASH, -12.0460, -77.0428, now, matches -> report(1));
+            assertThat(detector.size()).isEqualTo(1);
+
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(detector.size()).isZero();
+        assertThat(detector.findDuplicates(ReportCategory.TRASH, -12.0460, -77.0428, now)).isEmpty();
+    }
+
+    @Test
+    void autoMarkedDuplicatesAreNotRegisteredAsOriginals() {
+        add(1, ReportCategory.TRASH, -12.0460, -77.0428, now);
+
+        detector.findAndRegister(ReportCategory.TRASH, -12.0460, -77.0428, now, matches -> {
+            Report duplicate = report(2);
+            duplicate.setStatus(ReportStatus.DUPLICATE);
+            return duplicate;
+        });
+
+        assertThat(detector.findDuplicates(ReportCategory.TRASH, -12.0460, -77.0428, now))
+                .extracting(ReportDuplicateDetector.Match::reportId)
+                .containsExactly(1L);
+    }
+
+    private static Report report(long id) {
+        Report report = new Report();
+        report.setId(id);
+        return report;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void add(long id, ReportCategory category, double latitude, double longitude, LocalDateTime createdAt) {
+        detector.onReportChanged(ReportChangedEvent.created(
+                snapshot(id, category, latitude, longitude, createdAt, ReportStatus.PENDING)));
+    }
+
+    static ReportSnapshot snapshot(long id, ReportCategory category, double latitude, double longitude,
+                                   LocalDateTime createdAt, ReportStatus status) {
+        return new ReportSnapshot(id, category, status, "Reporte " + id, "Descripción", latitude, longitude,
+                null, true, 10, null, createdAt, createdAt);
+    }
+}
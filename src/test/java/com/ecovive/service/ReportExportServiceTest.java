@@ -0,0 +1,88 @@
+package com.ecovive.service;
+
+import com.ecovive.model.ReportCategory;
+import com.ecovive.support.TestJpa;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReportExportServiceTest {
+
+    private static TestJpa jpa;
+    private static ReportExportService service;
+
+    @BeforeAll
+    static void setUp() {
+        jpa = TestJpa.create("report_export_test");
+        jpa.insertUser(1);
+        jpa.insertReport(1, 1, -12.05, -77.04);
+        jpa.insertReport(2, 1, -12.06, -77.05);
+        jpa.insertReport(3, 1, -12.07, -77.06);
+        jpa.insertReport(4, 1, -12.08, -77.07);
+        jpa.jdbcTemplate().update("UPDATE reports SET public = false WHERE id = 2");
+        jpa.jdbcTemplate().update("UPDATE reports SET category = 'WATER_POLLUTION' WHERE id = 4");
+        jpa.jdbcTemplate().update("UPDATE reports SET address = ? WHERE id = 3",
+                "Av. Grau 123, \"Mercado\"\nPuesto 4");
+
+        service = new ReportExportService(jpa.transactionManager());
+        ReflectionTestUtils.setField(service, "entityManager", jpa.entityManager());
+        ReflectionTestUtils.setField(service, "objectMapper", Jackson2ObjectMapperBuilder.json().build());
+        ReflectionTestUtils.setField(service, "fetchSize", 2);
+        ReflectionTestUtils.setField(service, "flushEvery", 1);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        if (jpa != null) {
+            jpa.close();
+        }
+    }
+
+    @Test
+    void privateReportsAreNeverExported() {
+        assertThat(ndjsonIds(filter(null, null))).containsExactly(1L, 3L, 4L);
+    }
+
+    @Test
+    void resumingAfterAnIdContinuesWithTheNextRows() {
+        assertThat(ndjsonIds(filter(null, 1L))).containsExactly(3L, 4L);
+        assertThat(ndjsonIds(filter(null, 4L))).isEmpty();
+        assertThat(ndjsonIds(filter(ReportCategory.TRASH, 1L))).containsExactly(3L);
+    }
+
+    @Test
+    void csvQuotesValuesWithSeparatorsQuotesAndLineBreaks() {
+        String csv = export(filter(null, 1L), ReportExportService.Format.CSV);
+
+        String[] lines = csv.split("\r\n");
+        assertThat(lines[0]).startsWith("id,category,status,latitude,longitude,address,");
+        assertThat(lines[1]).startsWith("3,TRASH,PENDING,-12.07,-77.06,\"Av. Grau 123, \"\"Mercado\"\"\nPuesto 4\",");
+        assertThat(lines[2]).startsWith("4,WATER_POLLUTION,PENDING,-12.08,-77.07,,");
+        assertThat(lines).hasSize(3);
+    }
+
+    private static ReportExportService.ExportFilter filter(ReportCategory category, Long after) {
+        return new ReportExportService.ExportFilter(null, null, category, null, null, null, null, null, after);
+    }
+
+    private static List<Long> ndjsonIds(ReportExportService.ExportFilter filter) {
+        String ndjson = export(filter, ReportExportService.Format.NDJSON);
+        return ndjson.lines()
+                .map(line -> Long.parseLong(line.substring("{\"id\":".length(), line.indexOf(','))))
+                .toList();
+    }
+
+    private static String export(ReportExportService.ExportFilter filter, ReportExportService.Format format) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.export(filter, format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,79 @@
+package com.ecovive.service;
+
+import com.ecovive.dto.Hotspot;
+import com.ecovive.event.ReportChangedEvent;
+import com.ecovive.event.ReportSnapshot;
+import com.ecovive.model.ReportCategory;
+import com.ecovive.model.ReportStatus;
+import com.ecovive.repository.ReportRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+
+class ReportHotspotTrackerTest {
+
+    private ReportRepository repository;
+    private ReportHotspotTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        repository = Mockito.mock(ReportRepository.class);
+        tracker = new ReportHotspotTracker();
+        ReflectionTestUtils.setField(tracker, "reportRepository", repository);
+        ReflectionTestUtils.setField(tracker, "capacity", 50);
+        ReflectionTestUtils.setField(tracker, "cellMeters", 200.0);
+    }
+
+    @Test
+    void createsCommittedOutOfIdOrderDuringRebuildAreCounted() {
+        ReportSnapshot read = snapshot(100);
+        // Id reservado antes que 100 pero confirmado después de que la lectura pasó por él
+        ReportSnapshot late = snapshot(60);
+        Mockito.when(repository.findHotspotDocumentsSince(any(), anyLong(), any())).thenAnswer(invocation -> {
+            tracker.onReportChanged(ReportChangedEvent.created(late));
+            return List.<Object[]>of(row(read));
+        });
+
+        tracker.rebuild();
+
+        assertThat(top().count()).isEqualTo(2);
+    }
+
+    @Test
+    void createsTheRebuildAlreadyReadAreNotCountedTwice() {
+        ReportSnapshot created = snapshot(100);
+        Mockito.when(repository.findHotspotDocumentsSince(any(), anyLong(), any())).thenAnswer(invocation -> {
+            // Confirmado antes de la lectura, pero el evento llega mientras se reconstruye
+            tracker.onReportChanged(ReportChangedEvent.created(created));
+            return List.<Object[]>of(row(created));
+        });
+
+        tracker.rebuild();
+        tracker.onReportChanged(ReportChangedEvent.created(snapshot(101)));
+
+        assertThat(top().count()).isEqualTo(2);
+    }
+
+    private Hotspot top() {
+        return tracker.top(ReportHotspotTracker.Window.LAST_24H, 1).get(0);
+    }
+
+    private static Object[] row(ReportSnapshot snapshot) {
+        return new Object[]{snapshot.id(), snapshot.createdAt(), snapshot.latitude(), snapshot.longitude(),
+                snapshot.address()};
+    }
+
+    private static ReportSnapshot snapshot(long id) {
+        LocalDateTime now = LocalDateTime.now();
+        return new ReportSnapshot(id, ReportCategory.TRASH, ReportStatus.PENDING, "Reporte " + id, "Descripción",
+                -11.8755, -77.1287, "Av. Néstor Gambetta 120, Ventanilla, Callao", true, 10, null, now, now);
+    }
+}
@@ -0,0 +1,90 @@
+package com.ecovive.service;
+
+import com.ecovive.model.DuplicateCandidate;
+import com.ecovive.model.ReportStatus;
+import com.ecovive.support.Latencies;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latencia de {@link ReportPhotoSimilarityIndex#onPhotoHashed(Long)} con 500k fotos indexadas
+ *
+ * 450k fotos repartidas sobre una ciudad y 50k en una sola celda (un punto de
+ * acopio muy fotografiado), que es el caso que pasa a las tablas por fragmento
+ * del hash. Se miden por separado las consultas en la zona normal y en la celda
+ * caliente, y se comprueba que los casi duplicados sembrados se siguen encontrando.
+ */
+@Tag("benchmark")
+class ReportPhotoSimilarityIndexBenchmark {
+
+    private static final int SPREAD_PHOTOS = 450_000;
+    private static final int HOT_PHOTOS = 50_000;
+    private static final int PROBES = 5_000;
+    private static final double HOT_LATITUDE = -12.0460;
+    private static final double HOT_LONGITUDE = -77.0428;
+
+    @Test
+    void similarityQueriesStayFastWithAHotCell() {
+        Map<Long, Object[]> photos = new HashMap<>();
+        List<DuplicateCandidate> recorded = new ArrayList<>();
+        ReportPhotoSimilarityIndex index = ReportPhotoSimilarityIndexTest.newIndex(photos, recorded);
+        LocalDateTime now = LocalDateTime.now();
+        Random random = new Random(42);
+
+        long nextId = 1;
+        long[] hotHashes = new long[HOT_PHOTOS];
+        for (int i = 0; i < SPREAD_PHOTOS + HOT_PHOTOS; i++, nextId++) {
+            boolean hot = i >= SPREAD_PHOTOS;
+            double latitude = hot ? HOT_LATITUDE : HOT_LATITUDE + (random.nextDouble() - 0.5) * 0.4;
+            double longitude = hot ? HOT_LONGITUDE : HOT_LONGITUDE + (random.nextDouble() - 0.5) * 0.4;
+            long hash = random.nextLong();
+            if (hot) {
+                hotHashes[i - SPREAD_PHOTOS] = hash;
+            }
+            photos.put(nextId, ReportPhotoSimilarityIndexTest.row(nextId, nextId, latitude, longitude,
+                    now.minusMinutes(60 + random.nextInt(24 * 60)), hash));
+            index.onPhotoHashed(nextId);
+        }
+        assertThat(index.size()).isEqualTo(SPREAD_PHOTOS + HOT_PHOTOS);
+
+        for (int pass = 0; pass < 2; pass++) {
+            Latencies spread = new Latencies(PROBES);
+            Latencies hot = new Latencies(PROBES);
+            recorded.clear();
+            for (int i = 0; i < PROBES; i++, nextId++) {
+                boolean inHotCell = (i & 1) == 1;
+                double latitude = inHotCell ? HOT_LATITUDE : HOT_LATITUDE + (random.nextDouble() - 0.5) * 0.4;
+                double longitude = inHotCell ? HOT_LONGITUDE : HOT_LONGITUDE + (random.nextDouble() - 0.5) * 0.4;
+                // Las sondas de la celda caliente son casi duplicados (3 bits) de una foto existente
+                long hash = inHotCell ? hotHashes[random.nextInt(HOT_PHOTOS)] ^ (1L << random.nextInt(64))
+                        ^ (1L << random.nextInt(64)) ^ (1L << random.nextInt(64)) : random.nextLong();
+                // REJECTED para que las sondas no entren al índice y todas las pasadas vean el mismo tamaño
+                Object[] row = ReportPhotoSimilarityIndexTest.row(nextId, nextId, latitude, longitude, now, hash);
+                row[6] = ReportStatus.REJECTED;
+                photos.put(nextId, row);
+                long start = System.nanoTime();
+                index.onPhotoHashed(nextId);
+                (inHotCell ? hot : spread).record(System.nanoTime() - start);
+            }
+            if (pass == 0) {
+                continue;
+            }
+            System.out.printf("%d fotos indexadas; zona normal: %s%n", index.size(), spread.summary());
+            System.out.printf("%d fotos indexadas; celda caliente (%d): %s%n",
+                    index.size(), HOT_PHOTOS, hot.summary());
+
+            assertThat(recorded).hasSizeGreaterThanOrEqualTo(PROBES / 2);
+            assertThat(spread.percentileMicros(99)).isLessThan(500);
+            assertThat(hot.percentileMicros(99)).isLessThan(2_000);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.ecovive.service;
+
+import com.ecovive.config.DuplicateDetectionProperties;
+import com.ecovive.model.DuplicateCandidate;
+import com.ecovive.model.ReportCategory;
+import com.ecovive.model.ReportStatus;
+import com.ecovive.repository.DuplicateCandidateRepository;
+import com.ecovive.repository.ReportPhotoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class ReportPhotoSimilarityIndexTest {
+
+    private final Map<Long, Object[]> photos = new HashMap<>();
+    private final List<DuplicateCandidate> recorded = new ArrayList<>();
+    private final LocalDateTime now = LocalDateTime.now();
+    private ReportPhotoSimilarityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = newIndex(photos, recorded);
+    }
+
+    /**
+     * Índice con repositorios en memoria: las fotos se buscan en {@code photos} y
+     * los candidatos guardados se agregan a {@code recorded}
+     */
+    static ReportPhotoSimilarityIndex newIndex(Map<Long, Object[]> photos, List<DuplicateCandidate> recorded) {
+        ReportPhotoRepository photoRepository = (ReportPhotoRepository) Proxy.newProxyInstance(
+                ReportPhotoRepository.class.getClassLoader(), new Class<?>[]{ReportPhotoRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findHashedPhoto" -> photos.containsKey((Long) args[0])
+                            ? List.<Object[]>of(photos.get((Long) args[0])) : List.of();
+                    case "findHashedPhotosSince", "findHashedPhotosByReportId" -> List.of();
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        DuplicateCandidateRepository candidateRepository = (DuplicateCandidateRepository) Proxy.newProxyInstance(
+                DuplicateCandidateRepository.class.getClassLoader(), new Class<?>[]{DuplicateCandidateRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "existsByReportIdAndOriginalReportIdAndReason" -> false;
+                    case "save" -> {
+                        recorded.add((DuplicateCandidate) args[0]);
+                        yield args[0];
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+
+        ReportPhotoSimilarityIndex index = new ReportPhotoSimilarityIndex();
+        ReflectionTestUtils.setField(index, "properties", new DuplicateDetectionProperties());
+        ReflectionTestUtils.setField(index, "reportPhotoRepository", photoRepository);
+        ReflectionTestUtils.setField(index, "duplicateCandidateRepository", candidateRepository);
+        index.init();
+        return index;
+    }
+
+    /**
+     * Fila con las columnas de {@link ReportPhotoRepository#findHashedPhoto(Long)}
+     */
+    static Object[] row(long photoId, long reportId, double latitude, double longitude, LocalDateTime createdAt,
+                        long hash) {
+        return new Object[]{photoId, reportId, ReportCategory.values()[0], latitude, longitude, createdAt,
+                ReportStatus.PENDING, hash};
+    }
+
+    @Test
+    void nearDuplicatePhotoFlagsTheNewerReport() {
+        long hash = 0x0F0F_3C3C_A5A5_5A5AL;
+        hashed(1, 10, -12.0460, -77.0428, now.minusHours(1), hash);
+        hashed(2, 11, -12.0461, -77.0428, now, hash ^ 0b1011);
+        hashed(3, 12, -12.0460, -77.0429, now, ~hash);
+
+        assertThat(recorded).hasSize(1);
+        assertThat(recorded.get(0).getReportId()).isEqualTo(11L);
+        assertThat(recorded.get(0).getOriginalReportId()).isEqualTo(10L);
+        assertThat(recorded.get(0).getHashDistance()).isEqualTo(3);
+    }
+
+    @Test
+    void matchesAcrossTheAntimeridian() {
+        hashed(1, 10, -16.0, 179.9999, now.minusHours(1), 42L);
+        hashed(2, 11, -16.0, -179.9999, now, 43L);
+
+        assertThat(recorded).extracting(DuplicateCandidate::getOriginalReportId).containsExactly(10L);
+    }
+
+    @Test
+    void polarProbeScansOccupiedCellsInsteadOfTheWholeRing() {
+        hashed(1, 10, 89.9997, 0.0, now.minusHours(1), 42L);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(1),
+                () -> hashed(2, 11, 89.9997, 180.0, now, 42L));
+
+        assertThat(recorded).extracting(DuplicateCandidate::getOriginalReportId).containsExactly(10L);
+    }
+
+    @Test
+    void crowdedCellStillFindsTheNearDuplicate() {
+        Random random = new Random(7);
+        // Suficientes fotos en la misma celda para que use las tablas por fragmento
+        for (long i = 0; i < 2_000; i++) {
+            hashed(100 + i, 1_000 + i, -12.0460, -77.0428, now.minusHours(2), random.nextLong());
+        }
+        recorded.clear();
+        long hash = 0x1234_5678_9ABC_DEF0L;
+        hashed(1, 10, -12.0460, -77.0428, now.minusHours(1), hash);
+        hashed(2, 11, -12.0460, -77.0428, now, hash ^ 0x8000_0001_0100_0010L);
+
+        assertThat(recorded).extracting(DuplicateCandidate::getOriginalReportId).contains(10L);
+    }
+
+    private void hashed(long photoId, long reportId, double latitude, double longitude, LocalDateTime createdAt,
+                        long hash) {
+        photos.put(photoId, row(photoId, reportId, latitude, longitude, createdAt, hash));
+        index.onPhotoHashed(photoId);
+    }
+}
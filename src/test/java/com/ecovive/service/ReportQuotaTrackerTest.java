@@ -0,0 +1,115 @@
+package com.ecovive.service;
+
+import com.ecovive.repository.ReportRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReportQuotaTrackerTest {
+
+    private final ReportRepository reportRepository = mock(ReportRepository.class);
+
+    @Test
+    void acquireCountsDownAndRejectsOverTheLimit() {
+        ReportQuotaTracker tracker = newTracker(3);
+
+        assertThat(tracker.acquire(1L).remaining()).isEqualTo(2);
+        assertThat(tracker.acquire(1L).remaining()).isEqualTo(1);
+        ReportQuotaTracker.Quota last = tracker.acquire(1L);
+        assertThat(last.remaining()).isZero();
+        assertThat(last.resetSeconds()).isPositive();
+
+        assertThatThrownBy(() -> tracker.acquire(1L))
+                .isInstanceOfSatisfying(ReportQuotaTracker.QuotaExceededException.class, e -> {
+                    assertThat(e.getQuota().allowed()).isFalse();
+                    assertThat(e.getQuota().limit()).isEqualTo(3);
+                });
+        // Otro usuario tiene su propia ventana
+        assertThat(tracker.acquire(2L).remaining()).isEqualTo(2);
+    }
+
+    @Test
+    void windowIsSeededOnceFromTheLastDayOfReports() {
+        LocalDateTime now = LocalDateTime.now();
+        when(reportRepository.findCreatedAtByUserSince(any(), any()))
+                .thenReturn(List.of(now.minusHours(2), now.minusHours(20), now.minusHours(30)));
+        ReportQuotaTracker tracker = newTracker(5);
+
+        assertThat(tracker.status(1L).remaining()).isEqualTo(3);
+        assertThat(tracker.acquire(1L).remaining()).isEqualTo(2);
+        verify(reportRepository, times(1)).findCreatedAtByUserSince(anyLong(), any());
+    }
+
+    @Test
+    void statusDoesNotReserveAndReleaseReturnsTheSlot() {
+        ReportQuotaTracker tracker = newTracker(1);
+
+        assertThat(tracker.status(1L).allowed()).isTrue();
+        tracker.acquire(1L);
+        assertThat(tracker.status(1L).allowed()).isFalse();
+
+        tracker.release(1L);
+        assertThat(tracker.status(1L).remaining()).isEqualTo(1);
+        tracker.release(1L);
+        assertThat(tracker.status(1L).remaining()).isEqualTo(1);
+    }
+
+    @Test
+    void evictIdleDropsOnlyEmptyWindows() {
+        ReportQuotaTracker tracker = newTracker(5);
+        tracker.acquire(1L);
+        tracker.status(2L);
+
+        tracker.evictIdle();
+
+        assertThat(tracker.status(1L).remaining()).isEqualTo(4);
+        assertThat(tracker.status(2L).remaining()).isEqualTo(5);
+        // El usuario 1 conservó su ventana y el 2 se vuelve a sembrar
+        verify(reportRepository, times(1)).findCreatedAtByUserSince(eq(1L), any());
+        verify(reportRepository, times(2)).findCreatedAtByUserSince(eq(2L), any());
+    }
+
+    @Test
+    void reservationBlockedWhileItsWindowIsEvictedIsNotLost() throws Exception {
+        ReportQuotaTracker tracker = newTracker(5);
+        tracker.status(1L);
+        Map<?, ?> windows = (Map<?, ?>) ReflectionTestUtils.getField(tracker, "windows");
+        Object window = windows.get(1L);
+
+        // La reserva ya obtuvo la ventana vacía y espera su lock mientras se descarta
+        Thread reserving = new Thread(() -> tracker.acquire(1L));
+        synchronized (window) {
+            reserving.start();
+            while (reserving.getState() != Thread.State.BLOCKED) {
+                Thread.onSpinWait();
+            }
+            tracker.evictIdle();
+        }
+        reserving.join();
+
+        assertThat(windows.get(1L)).isNotSameAs(window);
+        assertThat(tracker.status(1L).remaining()).isEqualTo(4);
+    }
+
+    private ReportQuotaTracker newTracker(int maxReportsPerDay) {
+        ReportQuotaTracker tracker = new ReportQuotaTracker();
+        ReflectionTestUtils.setField(tracker, "reportRepository", reportRepository);
+        ReflectionTestUtils.setField(tracker, "maxReportsPerDay", maxReportsPerDay);
+        ReflectionTestUtils.setField(tracker, "bucketMinutes", 30);
+        tracker.init();
+        return tracker;
+    }
+}
@@ -0,0 +1,146 @@
+package com.ecovive.service;
+
+import com.ecovive.dto.TimeSeries;
+import com.ecovive.dto.TimeSeriesPoint;
+import com.ecovive.event.ReportChangedEvent;
+import com.ecovive.event.ReportSnapshot;
+import com.ecovive.model.ReportCategory;
+import com.ecovive.model.ReportStatus;
+import com.ecovive.repository.ReportRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+
+class ReportRollupServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+    private static final LocalDateTime TODAY_9AM = TODAY.atTime(9, 15);
+    private static final LocalDateTime TODAY_11AM = TODAY.atTime(11, 40);
+    private static final LocalDateTime LAST_MONTH = TODAY.minusMonths(1).withDayOfMonth(3).atTime(8, 0);
+
+    private ReportRepository repository;
+    private ReportRollupService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = Mockito.mock(ReportRepository.class);
+        service = new ReportRollupService();
+        ReflectionTestUtils.setField(service, "reportRepository", repository);
+        ReflectionTestUtils.setField(service, "hourlyRetentionDays", 14);
+        ReflectionTestUtils.setField(service, "maxPoints", 2000);
+    }
+
+    @Test
+    void rangesAddUpTheBucketsOfEachGranularity() {
+        create(snapshot(1, TODAY_9AM, ReportCategory.TRASH, ReportStatus.PENDING, "Av. Néstor Gambetta 120, Ventanilla, Callao"));
+        create(snapshot(2, TODAY_11AM, ReportCategory.NOISE, ReportStatus.PENDING, "Jr. Lampa 300, Cercado de Lima, Lima"));
+        create(snapshot(3, TODAY_11AM, ReportCategory.TRASH, ReportStatus.RESOLVED, "Calle 5, ventanilla"));
+        create(snapshot(4, LAST_MONTH, ReportCategory.TRASH, ReportStatus.PENDING, null));
+
+        TimeSeries hours = service.series(TODAY, TODAY, ReportRollupService.Granularity.HOUR);
+        assertThat(hours.points()).hasSize(24);
+        assertThat(hours.points().get(9).total()).isEqualTo(1);
+        assertThat(hours.points().get(11).total()).isEqualTo(2);
+        assertThat(hours.total().byCategory().get(ReportCategory.TRASH)).isEqualTo(2);
+        assertThat(hours.total().byDistrict()).containsEntry("ventanilla", 2L).containsEntry("cercado de lima", 1L);
+
+        TimeSeries months = service.series(LAST_MONTH.toLocalDate(), TODAY, ReportRollupService.Granularity.MONTH);
+        assertThat(months.points()).extracting(TimeSeriesPoint::total).containsExactly(1L, 3L);
+        assertThat(months.total().total()).isEqualTo(4);
+        assertThat(months.total().byDistrict()).containsEntry("desconocido", 1L);
+        assertThat(months.total().byStatus().get(ReportStatus.RESOLVED)).isEqualTo(1);
+
+        TimeSeries days = service.series(TODAY.minusDays(1), TODAY, ReportRollupService.Granularity.DAY);
+        assertThat(days.points()).extracting(TimeSeriesPoint::total).containsExactly(0L, 3L);
+    }
+
+    @Test
+    void statusChangesAndDeletionsMoveTheCounts() {
+        ReportSnapshot pending = snapshot(1, TODAY_9AM, ReportCategory.TRASH, ReportStatus.PENDING, null);
+        create(pending);
+        ReportSnapshot resolved = snapshot(1, TODAY_9AM, ReportCategory.TRASH, ReportStatus.RESOLVED, null);
+        service.onReportChanged(ReportChangedEvent.statusChanged(pending, resolved));
+
+        TimeSeries series = service.series(TODAY, TODAY, ReportRollupService.Granularity.DAY);
+        assertThat(series.total().byStatus().get(ReportStatus.PENDING)).isZero();
+        assertThat(series.total().byStatus().get(ReportStatus.RESOLVED)).isEqualTo(1);
+
+        service.onReportChanged(ReportChangedEvent.deleted(resolved));
+        series = service.series(TODAY, TODAY, ReportRollupService.Granularity.DAY);
+        assertThat(series.total().total()).isZero();
+        assertThat(series.total().byDistrict()).isEmpty();
+    }
+
+    @Test
+    void writesDuringRebuildAreReplayedOnTheFreshBuckets() {
+        ReportSnapshot read = snapshot(1, TODAY_9AM, ReportCategory.TRASH, ReportStatus.PENDING, null);
+        ReportSnapshot deleted = snapshot(2, TODAY_9AM, ReportCategory.NOISE, ReportStatus.PENDING, null);
+        create(read);
+        create(deleted);
+
+        Mockito.when(repository.findRollupDocumentsAfter(anyLong(), any())).thenAnswer(invocation -> {
+            // La lectura ve el estado anterior de 1 y 2; 3 se crea después de leer su posición
+            ReportSnapshot resolved = snapshot(1, TODAY_9AM, ReportCategory.TRASH, ReportStatus.RESOLVED, null);
+            service.onReportChanged(ReportChangedEvent.statusChanged(read, resolved));
+            service.onReportChanged(ReportChangedEvent.deleted(deleted));
+            create(snapshot(3, TODAY_11AM, ReportCategory.WILDLIFE, ReportStatus.PENDING, null));
+            return List.<Object[]>of(row(read), row(deleted));
+        });
+        service.rebuild();
+
+        TimeSeries series = service.series(TODAY, TODAY, ReportRollupService.Granularity.DAY);
+        assertThat(series.total().total()).isEqualTo(2);
+        assertThat(series.total().byStatus().get(ReportStatus.RESOLVED)).isEqualTo(1);
+        assertThat(series.total().byStatus().get(ReportStatus.PENDING)).isEqualTo(1);
+        assertThat(series.total().byCategory().get(ReportCategory.NOISE)).isZero();
+        assertThat(series.total().byCategory().get(ReportCategory.WILDLIFE)).isEqualTo(1);
+    }
+
+    @Test
+    void rebuildCountsEventsTheReadAlreadySawOnlyOnce() {
+        ReportSnapshot created = snapshot(1, TODAY_9AM, ReportCategory.TRASH, ReportStatus.PENDING, null);
+        Mockito.when(repository.findRollupDocumentsAfter(anyLong(), any())).thenAnswer(invocation -> {
+            // Confirmado antes de la lectura, pero el evento llega mientras se reconstruye
+            create(created);
+            return List.<Object[]>of(row(created));
+        });
+        service.rebuild();
+
+        assertThat(service.series(TODAY, TODAY, ReportRollupService.Granularity.DAY).total().total()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidRangesAreRejected() {
+        assertThatThrownBy(() -> service.series(TODAY, TODAY.minusDays(1), ReportRollupService.Granularity.DAY))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.series(TODAY.minusDays(30), TODAY, ReportRollupService.Granularity.HOUR))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.series(TODAY.minusYears(10), TODAY, ReportRollupService.Granularity.DAY))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void create(ReportSnapshot snapshot) {
+        service.onReportChanged(ReportChangedEvent.created(snapshot));
+    }
+
+    private static Object[] row(ReportSnapshot snapshot) {
+        return new Object[]{snapshot.id(), snapshot.createdAt(), snapshot.category(), snapshot.status(),
+                snapshot.address()};
+    }
+
+    private static ReportSnapshot snapshot(long id, LocalDateTime createdAt, ReportCategory category,
+                                           ReportStatus status, String address) {
+        return new ReportSnapshot(id, category, status, "Reporte " + id, "Descripción", -12.0, -77.0,
+                address, true, 10, null, createdAt, createdAt);
+    }
+}
@@ -0,0 +1,140 @@
+package com.ecovive.service;
+
+import com.ecovive.dto.ReportSearchHit;
+import com.ecovive.dto.SearchResultPage;
+import com.ecovive.event.ReportChangedEvent;
+import com.ecovive.event.ReportSnapshot;
+import com.ecovive.model.ReportCategory;
+import com.ecovive.model.ReportStatus;
+import com.ecovive.repository.ReportRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+
+class ReportSearchIndexTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 3, 1, 10, 0);
+
+    private ReportRepository repository;
+    private ReportSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        repository = Mockito.mock(ReportRepository.class);
+        index = new ReportSearchIndex();
+        ReflectionTestUtils.setField(index, "reportRepository", repository);
+    }
+
+    @Test
+    void titleMatchesRankAboveDescriptionMatches() {
+        index.onReportChanged(ReportChangedEvent.created(snapshot(1, "Parque limpio", "Hay basura junto al lago")));
+        index.onReportChanged(ReportChangedEvent.created(snapshot(2, "Basura acumulada", "Bolsas en la vereda")));
+        index.onReportChanged(ReportChangedEvent.created(snapshot(3, "Ruido nocturno", "Música alta")));
+
+        SearchResultPage<ReportSearchHit> result = index.search("basura", 0, 10);
+
+        assertThat(result.totalMatches()).isEqualTo(2);
+        assertThat(result.items()).extracting(ReportSearchHit::id).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void queriesMatchOtherInflectionsPhrasesAndPrefixes() {
+        index.onReportChanged(ReportChangedEvent.created(snapshot(1, "Luces apagadas en la avenida", "Sin alumbrado")));
+        index.onReportChanged(ReportChangedEvent.created(snapshot(2, "Avenida sin luz", "Poste caído")));
+
+        assertThat(ids(index.search("luz", 0, 10))).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(ids(index.search("\"luces apagadas\"", 0, 10))).containsExactly(1L);
+        assertThat(ids(index.search("alumbr*", 0, 10))).containsExactly(1L);
+        // Todas las cláusulas deben coincidir
+        assertThat(ids(index.search("luz poste", 0, 10))).containsExactly(2L);
+        assertThat(index.search("inexistente", 0, 10).totalMatches()).isZero();
+    }
+
+    @Test
+    void updatesReplaceTheDocumentAndPrivateOrDeletedReportsDisappear() {
+        ReportSnapshot original = snapshot(1, "Basura en la playa", "Plásticos");
+        index.onReportChanged(ReportChangedEvent.created(original));
+        ReportSnapshot renamed = snapshot(1, "Derrame de aceite", "Mancha en la playa");
+        index.onReportChanged(ReportChangedEvent.updated(original, renamed));
+
+        assertThat(index.search("basura", 0, 10).totalMatches()).isZero();
+        assertThat(ids(index.search("aceite", 0, 10))).containsExactly(1L);
+
+        index.onReportChanged(ReportChangedEvent.updated(renamed, withPublic(renamed, false)));
+        assertThat(index.search("aceite", 0, 10).totalMatches()).isZero();
+
+        index.onReportChanged(ReportChangedEvent.created(snapshot(2, "Aceite en el río", "Peces muertos")));
+        index.onReportChanged(ReportChangedEvent.deleted(snapshot(2, "Aceite en el río", "Peces muertos")));
+        assertThat(index.size()).isZero();
+        assertThat(index.search("aceite", 0, 10).totalMatches()).isZero();
+    }
+
+    @Test
+    void writesDuringRebuildSurviveTheSwap() {
+        ReportSnapshot stale = snapshot(1, "Basura en la esquina", "Bolsas");
+        index.onReportChanged(ReportChangedEvent.created(stale));
+        index.onReportChanged(ReportChangedEvent.created(snapshot(3, "Quema de llantas", "Humo negro")));
+
+        Mockito.when(repository.findSearchDocumentsAfter(anyLong(), any())).thenAnswer(invocation -> {
+            // Mientras se lee: se crea uno nuevo, se edita uno ya leído y se borra otro
+            index.onReportChanged(ReportChangedEvent.created(snapshot(4, "Árbol caído", "Bloquea la calle")));
+            index.onReportChanged(ReportChangedEvent.updated(stale, snapshot(1, "Escombros en la esquina", "Bolsas")));
+            index.onReportChanged(ReportChangedEvent.deleted(snapshot(3, "Quema de llantas", "Humo negro")));
+            return List.<Object[]>of(row(stale), row(snapshot(3, "Quema de llantas", "Humo negro")));
+        });
+
+        index.rebuild();
+
+        assertThat(ids(index.search("arbol", 0, 10))).containsExactly(4L);
+        assertThat(ids(index.search("escombros", 0, 10))).containsExactly(1L);
+        assertThat(index.search("basura", 0, 10).totalMatches()).isZero();
+        assertThat(index.search("llantas", 0, 10).totalMatches()).isZero();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void rebuildDropsReportsThatAreNoLongerPublic() {
+        index.onReportChanged(ReportChangedEvent.created(snapshot(1, "Basura", "Bolsas")));
+        index.onReportChanged(ReportChangedEvent.created(snapshot(2, "Basura reciclable", "Cartones")));
+        Mockito.when(repository.findSearchDocumentsAfter(anyLong(), any()))
+                .thenReturn(List.<Object[]>of(row(snapshot(2, "Basura reciclable", "Cartones"))));
+
+        index.rebuild();
+
+        assertThat(ids(index.search("basura", 0, 10))).containsExactly(2L);
+    }
+
+    @Test
+    void pagesBeyondTheResultWindowAreRejected() {
+        assertThatThrownBy(() -> index.search("basura", 100, 10)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> index.search("basura", 0, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<Long> ids(SearchResultPage<ReportSearchHit> page) {
+        return page.items().stream().map(ReportSearchHit::id).toList();
+    }
+
+    private static Object[] row(ReportSnapshot snapshot) {
+        return new Object[]{snapshot.id(), snapshot.title(), snapshot.description(), snapshot.address(),
+                snapshot.category(), snapshot.status(), snapshot.createdAt()};
+    }
+
+    private static ReportSnapshot withPublic(ReportSnapshot s, boolean isPublic) {
+        return new ReportSnapshot(s.id(), s.category(), s.status(), s.title(), s.description(), s.latitude(),
+                s.longitude(), s.address(), isPublic, 10, null, s.createdAt(), s.updatedAt());
+    }
+
+    private static ReportSnapshot snapshot(long id, String title, String description) {
+        return new ReportSnapshot(id, ReportCategory.values()[0], ReportStatus.values()[0], title, description,
+                -12.0, -77.0, null, true, 10, null, CREATED_AT, CREATED_AT);
+    }
+}
@@ -0,0 +1,95 @@
+package com.ecovive.service;
+
+import com.ecovive.dto.NearbyReport;
+import com.ecovive.event.ReportChangedEvent;
+import com.ecovive.event.ReportSnapshot;
+import com.ecovive.model.ReportCategory;
+import com.ecovive.model.ReportStatus;
+import com.ecovive.repository.ReportRepository;
+import com.ecovive.support.TestJpa;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class ReportSpatialIndexTest {
+
+    private ReportSpatialIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ReportSpatialIndex();
+        ReflectionTestUtils.setField(index, "cellSizeDegrees", 0.01);
+        ReflectionTestUtils.setField(index, "maxRadiusMeters", 50_000.0);
+    }
+
+    @Test
+    void findsReportsAcrossTheAntimeridian() {
+        add(1, -16.0, 179.999);
+        add(2, -16.0, -179.999);
+        add(3, -16.0, 170.0);
+
+        List<NearbyReport> hits = index.findWithinRadius(-16.0, -179.9995, 1_000, 10);
+
+        assertThat(hits).extracting(NearbyReport::id).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void polarQueryScansEntriesInsteadOfEmptyCells() {
+        add(1, 89.95, 0.0);
+        add(2, 89.95, 180.0);
+        add(3, -12.0, -77.0);
+
+        // Sin el recorte y la búsqueda lineal esto recorría decenas de millones de celdas
+        List<NearbyReport> hits = assertTimeoutPreemptively(Duration.ofSeconds(1),
+                () -> index.findWithinRadius(89.9, 90.0, 50_000, 10));
+
+        assertThat(hits).extracting(NearbyReport::id).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void removedReportsDisappearFromTheIndex() {
+        ReportSnapshot snapshot = snapshot(1, -12.0, -77.0);
+        index.onReportChanged(ReportChangedEvent.created(snapshot));
+        index.onReportChanged(ReportChangedEvent.deleted(snapshot));
+
+        assertThat(index.findWithinRadius(-12.0, -77.0, 1_000, 10)).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void rowsWithInvalidCoordinatesDoNotMakeTheIndexLookStale() {
+        try (TestJpa jpa = TestJpa.create("spatial_checksum")) {
+            jpa.insertUser(1);
+            jpa.insertReport(1, 1, -12.0, -77.0);
+            jpa.insertReport(2, 1, -12.1, -77.1);
+            // Filas antiguas fuera de rango que el índice nunca admite
+            jpa.insertReport(3, 1, 120.0, -77.0);
+            jpa.insertReport(4, 1, -12.0, 250.0);
+            ReflectionTestUtils.setField(index, "reportRepository", jpa.repository(ReportRepository.class));
+
+            index.rebuild();
+
+            assertThat(index.size()).isEqualTo(2);
+            ReportSpatialIndex.ConsistencyReport report = index.checkConsistency();
+            assertThat(report.databaseCount()).isEqualTo(2);
+            assertThat(report.consistent()).isTrue();
+        }
+    }
+
+    private void add(long id, double latitude, double longitude) {
+        index.onReportChanged(ReportChangedEvent.created(snapshot(id, latitude, longitude)));
+    }
+
+    private static ReportSnapshot snapshot(long id, double latitude, double longitude) {
+        LocalDateTime now = LocalDateTime.now();
+        return new ReportSnapshot(id, ReportCategory.values()[0], ReportStatus.values()[0], "Reporte " + id,
+                "Descripción", latitude, longitude, null, true, 10, null, now, now);
+    }
+}
@@ -0,0 +1,129 @@
+package com.ecovive.service;
+
+import com.ecovive.support.Latencies;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Decenas de miles de suscriptores SSE inactivos: memoria por suscriptor y tiempo de difusión
+ *
+ * Los emitters solo cuentan los envíos, como un socket que acepta todo al
+ * instante, así que lo medido es el difusor: lo que retiene cada suscriptor
+ * inactivo (sin contar el emitter, que es igual con cualquier implementación)
+ * y cuánto tarda un evento en llegar a todos por el pool de envío. Algunos
+ * suscriptores se bloquean en su escritura para comprobar que, con el vigilante,
+ * no retrasan al resto.
+ */
+@Tag("benchmark")
+class ReportStreamBroadcasterBenchmark {
+
+    private static final int SUBSCRIBERS = 30_000;
+    private static final int STALLED = 8;
+    private static final int EVENTS = 20;
+
+    @Test
+    void idleSubscribersAreCheapAndFanOutIsNotHeldBackByStalledOnes() throws Exception {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        // Calentamiento: carga de clases, JIT y estructuras internas que no dependen del número de suscriptores
+        ReportStreamBroadcaster warmup = ReportStreamBroadcasterTest.newBroadcaster(4, 200, SUBSCRIBERS);
+        List<ReportStreamBroadcasterTest.CountingEmitter> warmupEmitters = new ArrayList<>();
+        for (int i = 0; i < SUBSCRIBERS / 10; i++) {
+            ReportStreamBroadcasterTest.CountingEmitter emitter = new ReportStreamBroadcasterTest.CountingEmitter(null);
+            warmupEmitters.add(emitter);
+            warmup.subscribe(new ReportStreamBroadcaster.Filter(null, -13.0, -78.0, -12.0, -77.0), null, emitter);
+        }
+        warmup.onReportChanged(ReportStreamBroadcasterTest.created(0));
+        awaitSent(warmupEmitters, 2);
+        warmup.shutdown();
+        warmupEmitters.clear();
+
+        ReportStreamBroadcaster broadcaster = ReportStreamBroadcasterTest.newBroadcaster(4, 200, SUBSCRIBERS + STALLED);
+        CountDownLatch unblock = new CountDownLatch(1);
+        try {
+            List<ReportStreamBroadcasterTest.CountingEmitter> emitters = new ArrayList<>(SUBSCRIBERS);
+            for (int i = 0; i < SUBSCRIBERS; i++) {
+                emitters.add(new ReportStreamBroadcasterTest.CountingEmitter(null));
+            }
+            long before = settledHeap(memory);
+            for (ReportStreamBroadcasterTest.CountingEmitter emitter : emitters) {
+                broadcaster.subscribe(new ReportStreamBroadcaster.Filter(null, -13.0, -78.0, -12.0, -77.0),
+                        null, emitter);
+            }
+            awaitSent(emitters, 1);
+            long perSubscriber = (settledHeap(memory) - before) / SUBSCRIBERS;
+
+            for (int i = 0; i < STALLED; i++) {
+                broadcaster.subscribe(new ReportStreamBroadcaster.Filter(null, null, null, null, null), null,
+                        new ReportStreamBroadcasterTest.CountingEmitter(unblock));
+            }
+            Thread watchdog = new Thread(() -> {
+                while (!Thread.currentThread().isInterrupted()) {
+                    broadcaster.disconnectStalled();
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            });
+            watchdog.start();
+
+            Latencies fanOut = new Latencies(EVENTS);
+            for (int event = 1; event <= EVENTS; event++) {
+                long start = System.nanoTime();
+                broadcaster.onReportChanged(ReportStreamBroadcasterTest.created(event));
+                awaitSent(emitters, 1 + event);
+                fanOut.record(System.nanoTime() - start);
+            }
+            watchdog.interrupt();
+            watchdog.join();
+
+            System.out.printf("%d suscriptores inactivos: %d B retenidos por suscriptor (sin el emitter)%n",
+                    SUBSCRIBERS, perSubscriber);
+            System.out.printf("difusion a %d suscriptores con %d escrituras bloqueadas: %s%n",
+                    SUBSCRIBERS, STALLED, fanOut.summary());
+
+            // Suscriptor, filtro y caja: sin buffer mientras no haya eventos pendientes
+            assertThat(perSubscriber).isLessThan(512);
+            // Solo el primer evento espera al vigilante (200 ms) por los bloqueados
+            assertThat(fanOut.percentileMicros(50)).isLessThan(200_000);
+        } finally {
+            unblock.countDown();
+            broadcaster.shutdown();
+        }
+    }
+
+    private static void awaitSent(List<ReportStreamBroadcasterTest.CountingEmitter> emitters, int expected)
+            throws InterruptedException {
+        for (ReportStreamBroadcasterTest.CountingEmitter emitter : emitters) {
+            while (emitter.sent.get() < expected) {
+                Thread.sleep(0, 100_000);
+            }
+        }
+    }
+
+    /**
+     * Recolecta hasta que el heap usado deja de bajar y lo devuelve
+     */
+    private static long settledHeap(MemoryMXBean memory) throws InterruptedException {
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 10; i++) {
+            System.gc();
+            Thread.sleep(100);
+            long now = memory.getHeapMemoryUsage().getUsed();
+            if (now >= used) {
+                return now;
+            }
+            used = now;
+        }
+        return used;
+    }
+}
@@ -0,0 +1,182 @@
+package com.ecovive.service;
+
+import com.ecovive.event.ReportChangedEvent;
+import com.ecovive.event.ReportSnapshot;
+import com.ecovive.model.ReportCategory;
+import com.ecovive.model.ReportStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class ReportStreamBroadcasterTest {
+
+    private static final ReportStreamBroadcaster.Filter ALL =
+            new ReportStreamBroadcaster.Filter(null, null, null, null, null);
+
+    private final CountDownLatch unblock = new CountDownLatch(1);
+    private ReportStreamBroadcaster broadcaster;
+
+    @AfterEach
+    void tearDown() {
+        unblock.countDown();
+        broadcaster.shutdown();
+    }
+
+    /**
+     * Difusor con un pool de plataforma de {@code senderThreads} hilos
+     */
+    static ReportStreamBroadcaster newBroadcaster(int senderThreads, long writeTimeoutMs, int maxSubscribers) {
+        ReportStreamBroadcaster broadcaster = new ReportStreamBroadcaster();
+        ReflectionTestUtils.setField(broadcaster, "bufferSize", 32);
+        ReflectionTestUtils.setField(broadcaster, "overflowPolicy", "drop-oldest");
+        ReflectionTestUtils.setField(broadcaster, "historySize", 100);
+        ReflectionTestUtils.setField(broadcaster, "maxSubscribers", maxSubscribers);
+        ReflectionTestUtils.setField(broadcaster, "timeoutMs", 60_000L);
+        ReflectionTestUtils.setField(broadcaster, "retryMs", 5_000L);
+        ReflectionTestUtils.setField(broadcaster, "senderThreads", senderThreads);
+        ReflectionTestUtils.setField(broadcaster, "writeTimeoutMs", writeTimeoutMs);
+        ReflectionTestUtils.setField(broadcaster, "objectMapper", new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(broadcaster, "meterRegistry", new SimpleMeterRegistry());
+        broadcaster.init();
+        return broadcaster;
+    }
+
+    static ReportChangedEvent created(long id) {
+        LocalDateTime now = LocalDateTime.now();
+        return ReportChangedEvent.created(new ReportSnapshot(id, ReportCategory.values()[0], ReportStatus.PENDING,
+                "Reporte " + id, "Descripcion", -12.05, -77.04, null, true, 10, 1L, now, now));
+    }
+
+    /**
+     * Emitter que cuenta los envíos y, si se indica, se bloquea en ellos como un socket lleno
+     */
+    static class CountingEmitter extends SseEmitter {
+        final AtomicInteger sent = new AtomicInteger();
+        final AtomicInteger completed = new AtomicInteger();
+        private final CountDownLatch blockUntil;
+
+        CountingEmitter(CountDownLatch blockUntil) {
+            super(60_000L);
+            this.blockUntil = blockUntil;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (blockUntil != null) {
+                try {
+                    blockUntil.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+            sent.incrementAndGet();
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed.incrementAndGet();
+        }
+    }
+
+    @Test
+    void stalledWritesAreDisconnectedAndDoNotStarveOtherSubscribers() {
+        broadcaster = newBroadcaster(2, 100, 100);
+        // Más suscriptores bloqueados que hilos en el pool
+        List<CountingEmitter> slow = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            CountingEmitter emitter = new CountingEmitter(unblock);
+            slow.add(emitter);
+            broadcaster.subscribe(ALL, null, emitter);
+        }
+        List<CountingEmitter> fast = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            CountingEmitter emitter = new CountingEmitter(null);
+            fast.add(emitter);
+            broadcaster.subscribe(ALL, null, emitter);
+        }
+        broadcaster.onReportChanged(created(1));
+
+        // Sin el vigilante los suscriptores rápidos seguirían esperando detrás de los bloqueados
+        await().atMost(Duration.ofSeconds(5)).pollInterval(Duration.ofMillis(50)).untilAsserted(() -> {
+            broadcaster.disconnectStalled();
+            // "ready" y el evento; el tercer bloqueado recién escribe cuando el pool crece
+            assertThat(fast).allSatisfy(emitter -> assertThat(emitter.sent.get()).isEqualTo(2));
+            assertThat(subscribers()).hasSize(fast.size());
+        });
+        assertThat(pool().getCorePoolSize()).isGreaterThan(2);
+
+        // Al liberarse las escrituras los bloqueados se completan y el pool vuelve a su tamaño
+        unblock.countDown();
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            assertThat(slow).allSatisfy(emitter -> assertThat(emitter.completed.get()).isEqualTo(1));
+            assertThat(pool().getCorePoolSize()).isEqualTo(2);
+        });
+        broadcaster.onReportChanged(created(2));
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+                assertThat(fast).allSatisfy(emitter -> assertThat(emitter.sent.get()).isEqualTo(3)));
+        assertThat(slow).allSatisfy(emitter -> assertThat(emitter.sent.get()).isEqualTo(1));
+    }
+
+    @Test
+    void fastWritesAreNeverMarkedAsStalled() throws Exception {
+        broadcaster = newBroadcaster(2, 100, 100);
+        CountingEmitter emitter = new CountingEmitter(null);
+        broadcaster.subscribe(ALL, null, emitter);
+        for (long id = 1; id <= 20; id++) {
+            broadcaster.onReportChanged(created(id));
+        }
+        TimeUnit.MILLISECONDS.sleep(200);
+
+        broadcaster.disconnectStalled();
+
+        assertThat(subscribers()).hasSize(1);
+        assertThat(emitter.sent.get()).isEqualTo(21);
+        assertThat(emitter.completed.get()).isZero();
+    }
+
+    @Test
+    void filterMatchesCategoryAndBoundingBox() {
+        broadcaster = newBroadcaster(1, 100, 100);
+        CountingEmitter inside = new CountingEmitter(null);
+        CountingEmitter otherCategory = new CountingEmitter(null);
+        CountingEmitter outside = new CountingEmitter(null);
+        broadcaster.subscribe(new ReportStreamBroadcaster.Filter(null, -13.0, -78.0, -12.0, -77.0), null, inside);
+        broadcaster.subscribe(new ReportStreamBroadcaster.Filter(Set.of(ReportCategory.values()[1]),
+                null, null, null, null), null, otherCategory);
+        broadcaster.subscribe(new ReportStreamBroadcaster.Filter(null, 0.0, 0.0, 1.0, 1.0), null, outside);
+
+        broadcaster.onReportChanged(created(1));
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            assertThat(inside.sent.get()).isEqualTo(2);
+            assertThat(otherCategory.sent.get()).isEqualTo(1);
+            assertThat(outside.sent.get()).isEqualTo(1);
+        });
+    }
+
+    private Set<?> subscribers() {
+        return (Set<?>) ReflectionTestUtils.getField(broadcaster, "subscribers");
+    }
+
+    private ThreadPoolTaskExecutor pool() {
+        return (ThreadPoolTaskExecutor) ReflectionTestUtils.getField(broadcaster, "executor");
+    }
+}
@@ -0,0 +1,107 @@
+package com.ecovive.service;
+
+import com.ecovive.dto.MapTile;
+import com.ecovive.event.ReportChangedEvent;
+import com.ecovive.event.ReportSnapshot;
+import com.ecovive.model.ReportCategory;
+import com.ecovive.model.ReportStatus;
+import com.ecovive.repository.ReportRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+
+class ReportTileServiceTest {
+
+    private static final int MAX_ZOOM = 17;
+    private static final int CLUSTER_BITS = 3;
+
+    private ReportRepository repository;
+    private ReportTileService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = Mockito.mock(ReportRepository.class);
+        service = new ReportTileService();
+        ReflectionTestUtils.setField(service, "reportRepository", repository);
+        ReflectionTestUtils.setField(service, "maxZoom", MAX_ZOOM);
+        ReflectionTestUtils.setField(service, "clusterBits", CLUSTER_BITS);
+        ReflectionTestUtils.setField(service, "cacheSize", 100);
+        service.init();
+    }
+
+    @Test
+    void tilesAboveMaxZoomFollowTheCentroidOfCellsLargerThanTheTile() {
+        // Una celda del nivel máximo abarca 4x4 tiles de zoom 22
+        int z = 22;
+        long cell = (long) (0.3 * (1L << (MAX_ZOOM + CLUSTER_BITS)));
+        long firstTile = cell * 4;
+        double y = (cell * 4 + 0.5) / (1L << z);
+        add(1, (firstTile + 0.9) / (1L << z), y);
+
+        assertThat(service.getTile(z, (int) firstTile, (int) (cell * 4)).total()).isEqualTo(1);
+
+        // El centroide pasa al tercer tile; el reporte nuevo cae en el cuarto
+        add(2, (firstTile + 3.5) / (1L << z), y);
+
+        List<Integer> totals = new ArrayList<>();
+        for (int k = 0; k < 4; k++) {
+            totals.add(service.getTile(z, (int) (firstTile + k), (int) (cell * 4)).total());
+        }
+        assertThat(totals).containsExactly(0, 0, 2, 0);
+    }
+
+    @Test
+    void writesDuringRebuildAreKeptAndNotReplayedLater() {
+        Mockito.when(repository.findPublicLocationsAfter(anyLong(), any())).thenAnswer(invocation -> {
+            service.onReportChanged(ReportChangedEvent.created(snapshot(2, 0.6, 0.6)));
+            return List.<Object[]>of(row(1, 0.4, 0.4));
+        });
+        service.rebuild();
+        assertThat(world().total()).isEqualTo(2);
+
+        service.onReportChanged(ReportChangedEvent.deleted(snapshot(2, 0.6, 0.6)));
+        Mockito.when(repository.findPublicLocationsAfter(anyLong(), any()))
+                .thenReturn(List.<Object[]>of(row(1, 0.4, 0.4)));
+        service.rebuild();
+
+        assertThat(world().total()).isEqualTo(1);
+    }
+
+    private MapTile world() {
+        return service.getTile(0, 0, 0);
+    }
+
+    private void add(long id, double x, double y) {
+        service.onReportChanged(ReportChangedEvent.created(snapshot(id, x, y)));
+    }
+
+    private static Object[] row(long id, double x, double y) {
+        return new Object[]{id, latitude(y), longitude(x), ReportCategory.values()[0]};
+    }
+
+    /**
+     * Reporte en las coordenadas Web Mercator normalizadas x, y
+     */
+    private static ReportSnapshot snapshot(long id, double x, double y) {
+        LocalDateTime now = LocalDateTime.now();
+        return new ReportSnapshot(id, ReportCategory.values()[0], ReportStatus.values()[0], "Reporte " + id,
+                "Descripción", latitude(y), longitude(x), null, true, 10, null, now, now);
+    }
+
+    private static double longitude(double x) {
+        return x * 360.0 - 180.0;
+    }
+
+    private static double latitude(double y) {
+        return Math.toDegrees(Math.atan(Math.sinh(Math.PI - 2 * Math.PI * y)));
+    }
+}
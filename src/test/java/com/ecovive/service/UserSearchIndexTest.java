@@ -0,0 +1,79 @@
+package com.ecovive.service;
+
+import com.ecovive.dto.SearchResultPage;
+import com.ecovive.dto.UserSearchHit;
+import com.ecovive.event.UserChangedEvent;
+import com.ecovive.event.UserSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserSearchIndexTest {
+
+    private UserSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new UserSearchIndex();
+        index.onUserChanged(changed(user(1, "María Fernández", "mfernandez@example.com", true)));
+        index.onUserChanged(changed(user(2, "Mario Benítez", "mbenitez@example.com", true)));
+        index.onUserChanged(changed(user(3, "Lucía Torres", "ltorres@example.com", true)));
+    }
+
+    @Test
+    void prefixesTyposAndAccentsFindTheUser() {
+        assertThat(ids(index.search("fernan", 0, 10))).containsExactly(1L);
+        assertThat(ids(index.search("Fernandes", 0, 10))).containsExactly(1L);
+        assertThat(ids(index.search("lucia", 0, 10))).containsExactly(3L);
+    }
+
+    @Test
+    void closerMatchesRankFirst() {
+        assertThat(ids(index.search("mario", 0, 10))).startsWith(2L);
+        assertThat(ids(index.search("maria", 0, 10))).startsWith(1L);
+    }
+
+    @Test
+    void emailIsSearchableButNotReturned() {
+        SearchResultPage<UserSearchHit> result = index.search("ltorres", 0, 10);
+
+        assertThat(ids(result)).containsExactly(3L);
+        assertThat(result.items().get(0).toString()).doesNotContain("@");
+    }
+
+    @Test
+    void renamedInactiveAndDeletedUsersLeaveTheIndex() {
+        index.onUserChanged(changed(user(1, "María Quispe", "mquispe@example.com", true)));
+        assertThat(index.search("fernandez", 0, 10).totalMatches()).isZero();
+        assertThat(ids(index.search("quispe", 0, 10))).containsExactly(1L);
+
+        index.onUserChanged(changed(user(2, "Mario Benítez", "mbenitez@example.com", false)));
+        index.onUserChanged(new UserChangedEvent(3L, null));
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.search("benitez", 0, 10).totalMatches()).isZero();
+        assertThat(index.search("torres", 0, 10).totalMatches()).isZero();
+    }
+
+    @Test
+    void pagesBeyondTheResultWindowAreRejected() {
+        assertThatThrownBy(() -> index.search("maria", 20, 10)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(index.search("  ", 0, 10).totalMatches()).isZero();
+    }
+
+    private static List<Long> ids(SearchResultPage<UserSearchHit> page) {
+        return page.items().stream().map(UserSearchHit::id).toList();
+    }
+
+    private static UserChangedEvent changed(UserSnapshot snapshot) {
+        return new UserChangedEvent(snapshot.id(), snapshot);
+    }
+
+    private static UserSnapshot user(long id, String name, String email, boolean active) {
+        return new UserSnapshot(id, name, email, "Lima", "Principiante", 0, 0, active);
+    }
+}
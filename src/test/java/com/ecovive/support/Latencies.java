@@ -0,0 +1,35 @@
+package com.ecovive.support;
+
+import java.util.Arrays;
+
+/**
+ * Registro de latencias en nanosegundos para los benchmarks
+ */
+public final class Latencies {
+
+    private final long[] samples;
+    private int count;
+
+    public Latencies(int capacity) {
+        this.samples = new long[capacity];
+    }
+
+    public void record(long nanos) {
+        samples[count++] = nanos;
+    }
+
+    /**
+     * Percentil en microsegundos, con {@code percentile} entre 0 y 100
+     */
+    public double percentileMicros(double percentile) {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, index))] / 1_000.0;
+    }
+
+    public String summary() {
+        return String.format("n=%d p50=%.1f us p99=%.1f us p99.9=%.1f us max=%.1f us",
+                count, percentileMicros(50), percentileMicros(99), percentileMicros(99.9), percentileMicros(100));
+    }
+}
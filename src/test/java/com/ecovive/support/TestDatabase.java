@@ -0,0 +1,79 @@
+package com.ecovive.support;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Assumptions;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import javax.sql.DataSource;
+
+/**
+ * PostgreSQL para las pruebas que dependen de SQL propio de Postgres
+ *
+ * Usa {@code TEST_DATABASE_URL} (variable de entorno o propiedad del sistema, con
+ * {@code TEST_DATABASE_USER} y {@code TEST_DATABASE_PASSWORD}) si está definida;
+ * si no, levanta un contenedor compartido con Testcontainers. Sin ninguno de los
+ * dos la prueba se omite en lugar de fallar.
+ */
+public final class TestDatabase {
+
+    private static PostgreSQLContainer<?> container;
+
+    private TestDatabase() {
+    }
+
+    /**
+     * Pool sobre un esquema propio de la prueba, que se crea si no existe
+     */
+    public static HikariDataSource dataSource(String schema, int poolSize) {
+        return new HikariDataSource(config(schema, poolSize));
+    }
+
+    /**
+     * Configuración del pool, para las pruebas que necesitan propiedades propias del driver
+     */
+    public static HikariConfig config(String schema, int poolSize) {
+        HikariConfig config = new HikariConfig();
+        String url = setting("TEST_DATABASE_URL");
+        if (url != null) {
+            config.setJdbcUrl(url);
+            config.setUsername(setting("TEST_DATABASE_USER") != null ? setting("TEST_DATABASE_USER") : "postgres");
+            config.setPassword(setting("TEST_DATABASE_PASSWORD"));
+        } else {
+            PostgreSQLContainer<?> postgres = container();
+            config.setJdbcUrl(postgres.getJdbcUrl());
+            config.setUsername(postgres.getUsername());
+            config.setPassword(postgres.getPassword());
+        }
+        config.setMaximumPoolSize(poolSize);
+        config.setConnectionInitSql("CREATE SCHEMA IF NOT EXISTS " + schema + "; SET search_path TO " + schema);
+        return config;
+    }
+
+    public static void close(DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource hikari) {
+            hikari.close();
+        }
+    }
+
+    private static synchronized PostgreSQLContainer<?> container() {
+        if (container == null) {
+            boolean docker;
+            try {
+                docker = DockerClientFactory.instance().isDockerAvailable();
+            } catch (RuntimeException e) {
+                docker = false;
+            }
+            Assumptions.assumeTrue(docker, "Sin TEST_DATABASE_URL ni Docker para PostgreSQL");
+            container = new PostgreSQLContainer<>("postgres:16-alpine");
+            container.start();
+        }
+        return container;
+    }
+
+    private static String setting(String name) {
+        String value = System.getProperty(name);
+        return value != null ? value : System.getenv(name);
+    }
+}
@@ -0,0 +1,121 @@
+package com.ecovive.support;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Entidades de EcoVive sobre un esquema propio y recién creado de {@link TestDatabase}
+ *
+ * Las tablas las crea Hibernate a partir de los mapeos; lo que solo existe en
+ * database/setup.sql (triggers, índices) lo agrega cada prueba.
+ */
+public final class TestJpa implements AutoCloseable {
+
+    private final HikariDataSource dataSource;
+    private final LocalContainerEntityManagerFactoryBean factoryBean;
+    private final JdbcTemplate jdbcTemplate;
+
+    private TestJpa(HikariDataSource dataSource, LocalContainerEntityManagerFactoryBean factoryBean) {
+        this.dataSource = dataSource;
+        this.factoryBean = factoryBean;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    public static TestJpa create(String schema) {
+        HikariDataSource dataSource = TestDatabase.dataSource(schema, 4);
+        try {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + schema + " CASCADE");
+            // Una conexión nueva del pool puede haberlo recreado ya al inicializarse
+            jdbcTemplate.execute("CREATE SCHEMA IF NOT EXISTS " + schema);
+
+            return new TestJpa(dataSource, entityManagerFactory(dataSource, Map.of("hibernate.hbm2ddl.auto", "create")));
+        } catch (RuntimeException e) {
+            dataSource.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Arranca Hibernate sobre las entidades de EcoVive con las propiedades indicadas
+     */
+    public static LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource,
+                                                                              Map<String, ?> properties) {
+        LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setPackagesToScan("com.ecovive.model");
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaPropertyMap(properties);
+        factoryBean.afterPropertiesSet();
+        return factoryBean;
+    }
+
+    public HikariDataSource dataSource() {
+        return dataSource;
+    }
+
+    public JdbcTemplate jdbcTemplate() {
+        return jdbcTemplate;
+    }
+
+    public EntityManagerFactory entityManagerFactory() {
+        return factoryBean.getObject();
+    }
+
+    /**
+     * EntityManager compartido, ligado a la transacción en curso como el que inyecta Spring
+     */
+    public EntityManager entityManager() {
+        return SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory());
+    }
+
+    public <R> R repository(Class<R> type) {
+        return new JpaRepositoryFactory(entityManager()).getRepository(type);
+    }
+
+    public JpaTransactionManager transactionManager() {
+        return new JpaTransactionManager(entityManagerFactory());
+    }
+
+    public TransactionTemplate transactionTemplate() {
+        return new TransactionTemplate(transactionManager());
+    }
+
+    /**
+     * Usuario mínimo con el id indicado
+     */
+    public void insertUser(long id) {
+        jdbcTemplate.update("INSERT INTO users (id, name, email, password, is_active) VALUES (?, ?, ?, ?, true)",
+                id, "Usuario " + id, "usuario" + id + "@example.com", "x");
+    }
+
+    /**
+     * Reporte público pendiente con las coordenadas indicadas, creado ahora
+     */
+    public void insertReport(long id, long userId, double latitude, double longitude) {
+        jdbcTemplate.update("INSERT INTO reports (id, category, title, description, latitude, longitude, status, "
+                        + "public, user_id, created_at, updated_at) VALUES (?, 'TRASH', ?, 'Descripcion', ?, ?, "
+                        + "'PENDING', true, ?, now(), now())",
+                id, "Reporte " + id, latitude, longitude, userId);
+    }
+
+    @Override
+    public void close() {
+        try {
+            factoryBean.destroy();
+        } finally {
+            dataSource.close();
+        }
+    }
+}
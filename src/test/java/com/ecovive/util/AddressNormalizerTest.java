@@ -0,0 +1,39 @@
+package com.ecovive.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AddressNormalizerTest {
+
+    @Test
+    void districtIsTheSegmentBeforeTheRegion() {
+        assertThat(AddressNormalizer.district("Av. Néstor Gambetta 120, Ventanilla, Callao")).isEqualTo("ventanilla");
+        assertThat(AddressNormalizer.district("Jr. Lampa 300, Cercado de Lima, Lima, Perú")).isEqualTo("cercado de lima");
+    }
+
+    @Test
+    void abbreviationsPostalCodesAndCountryAreIgnored() {
+        assertThat(AddressNormalizer.district("Mz. B Lt. 4, SJL, Lima 15401")).isEqualTo("san juan de lurigancho");
+        assertThat(AddressNormalizer.district("Calle Los Pinos 12; Miraflores; 15074; Perú")).isEqualTo("miraflores");
+    }
+
+    @Test
+    void aRegionWithoutDistrictIsTheDistrictItself() {
+        assertThat(AddressNormalizer.district("Av. Sáenz Peña 200, Callao")).isEqualTo("callao");
+    }
+
+    @Test
+    void addressesWithoutDistrictAreUnknown() {
+        assertThat(AddressNormalizer.district("Av. Grau 123")).isEqualTo(AddressNormalizer.UNKNOWN_DISTRICT);
+        assertThat(AddressNormalizer.district("  ")).isEqualTo(AddressNormalizer.UNKNOWN_DISTRICT);
+        assertThat(AddressNormalizer.district(null)).isEqualTo(AddressNormalizer.UNKNOWN_DISTRICT);
+    }
+
+    @Test
+    void variantsOfTheSameAddressNormalizeAlike() {
+        assertThat(AddressNormalizer.normalize("AA.HH. Santa Rosa, Mz. A, Lt. 5"))
+                .isEqualTo(AddressNormalizer.normalize("aahh  santa rosa , MZ A ,LT 5"))
+                .isEqualTo("asentamiento humano santa rosa, manzana a, lote 5");
+    }
+}
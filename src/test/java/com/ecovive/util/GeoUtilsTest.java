@@ -0,0 +1,40 @@
+package com.ecovive.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class GeoUtilsTest {
+
+    @Test
+    void longitudeDeltaMatchesLatitudeDeltaAtTheEquator() {
+        assertThat(GeoUtils.longitudeDelta(10_000, 0))
+                .isCloseTo(GeoUtils.latitudeDelta(10_000), within(1e-9));
+    }
+
+    @Test
+    void longitudeDeltaCoversEveryLongitudeWhenTheCircleReachesThePole() {
+        assertThat(GeoUtils.longitudeDelta(50_000, 89.9)).isEqualTo(180.0);
+        assertThat(GeoUtils.longitudeDelta(50_000, -89.9)).isEqualTo(180.0);
+    }
+
+    @Test
+    void longitudeDeltaEnclosesTheCircleAtHighLatitudes() {
+        double delta = GeoUtils.longitudeDelta(50_000, 89.5);
+        // El punto más al este del círculo debe quedar dentro del rectángulo
+        double east = GeoUtils.haversineMeters(89.5, 0, 89.5, delta);
+        assertThat(delta).isLessThan(180.0);
+        assertThat(east).isGreaterThanOrEqualTo(49_000);
+    }
+
+    @Test
+    void longitudeRangesSplitAtTheAntimeridian() {
+        assertThat(GeoUtils.longitudeRanges(179.5, 1.0))
+                .isDeepEqualTo(new double[][]{{178.5, 180.0}, {-180.0, -179.5}});
+        assertThat(GeoUtils.longitudeRanges(-179.5, 1.0))
+                .isDeepEqualTo(new double[][]{{179.5, 180.0}, {-180.0, -178.5}});
+        assertThat(GeoUtils.longitudeRanges(10.0, 1.0)).isDeepEqualTo(new double[][]{{9.0, 11.0}});
+        assertThat(GeoUtils.longitudeRanges(10.0, 180.0)).isDeepEqualTo(new double[][]{{-180.0, 180.0}});
+    }
+}
@@ -0,0 +1,80 @@
+package com.ecovive.util;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PerceptualHashTest {
+
+    @Test
+    void sameImageHasTheSameHash() {
+        BufferedImage image = scene(640, 480, 1);
+
+        assertThat(PerceptualHash.dHash(image)).isEqualTo(PerceptualHash.dHash(scene(640, 480, 1)));
+    }
+
+    @Test
+    void resizedAndRecompressedCopiesStayClose() throws IOException {
+        BufferedImage original = scene(1600, 1200, 1);
+        long hash = PerceptualHash.dHash(original);
+
+        // 8 es la distancia máxima por defecto de la detección de duplicados
+        assertThat(PerceptualHash.distance(hash, PerceptualHash.dHash(resize(original, 400, 300)))).isLessThanOrEqualTo(8);
+        assertThat(PerceptualHash.distance(hash, PerceptualHash.dHash(jpeg(original)))).isLessThanOrEqualTo(8);
+    }
+
+    @Test
+    void differentScenesAreFarApart() {
+        long a = PerceptualHash.dHash(scene(640, 480, 1));
+        long b = PerceptualHash.dHash(scene(640, 480, 2));
+
+        assertThat(PerceptualHash.distance(a, b)).isGreaterThan(12);
+    }
+
+    @Test
+    void distanceCountsDifferingBits() {
+        assertThat(PerceptualHash.distance(0L, 0L)).isZero();
+        assertThat(PerceptualHash.distance(0b1011L, 0L)).isEqualTo(3);
+        assertThat(PerceptualHash.distance(-1L, 0L)).isEqualTo(64);
+    }
+
+    /**
+     * Imagen sintética con bloques de colores y degradado, determinada por la semilla
+     */
+    private static BufferedImage scene(int width, int height, long seed) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        Random random = new Random(seed);
+        for (int i = 0; i < 12; i++) {
+            graphics.setColor(new Color(random.nextInt(256), random.nextInt(256), random.nextInt(256)));
+            graphics.fillRect(random.nextInt(width), random.nextInt(height), width / 3, height / 3);
+        }
+        graphics.dispose();
+        return image;
+    }
+
+    private static BufferedImage resize(BufferedImage image, int width, int height) {
+        BufferedImage resized = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = resized.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.drawImage(image, 0, 0, width, height, null);
+        graphics.dispose();
+        return resized;
+    }
+
+    private static BufferedImage jpeg(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", out);
+        return ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+    }
+}
@@ -0,0 +1,74 @@
+package com.ecovive.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RankedScoreTreeTest {
+
+    private static final Comparator<RankedScoreTree.Item> RANKING =
+            Comparator.comparingLong(RankedScoreTree.Item::score).reversed()
+                    .thenComparingLong(RankedScoreTree.Item::id);
+
+    @Test
+    void higherScoreFirstAndLowerIdWinsTies() {
+        RankedScoreTree tree = new RankedScoreTree();
+        tree.insert(10, 3);
+        tree.insert(30, 9);
+        tree.insert(10, 1);
+        tree.insert(20, 2);
+
+        assertThat(tree.range(0, 10)).containsExactly(
+                new RankedScoreTree.Item(30, 9), new RankedScoreTree.Item(20, 2),
+                new RankedScoreTree.Item(10, 1), new RankedScoreTree.Item(10, 3));
+        assertThat(tree.rank(10, 3)).isEqualTo(3);
+        assertThat(tree.rank(30, 9)).isZero();
+    }
+
+    @Test
+    void missingItemsAndOutOfRangePages() {
+        RankedScoreTree tree = new RankedScoreTree();
+        tree.insert(5, 1);
+
+        assertThat(tree.rank(5, 2)).isEqualTo(-1);
+        assertThat(tree.remove(5, 2)).isFalse();
+        assertThat(tree.range(1, 10)).isEmpty();
+        assertThat(tree.range(0, 0)).isEmpty();
+        assertThat(tree.remove(5, 1)).isTrue();
+        assertThat(tree.size()).isZero();
+        assertThat(tree.range(0, 10)).isEmpty();
+    }
+
+    @Test
+    void matchesASortedReferenceUnderRandomUpdates() {
+        Random random = new Random(11);
+        RankedScoreTree tree = new RankedScoreTree();
+        TreeSet<RankedScoreTree.Item> reference = new TreeSet<>(RANKING);
+        long[] scores = new long[2_000];
+
+        // Cada usuario cambia de puntaje como en el leaderboard: se quita el viejo y se inserta el nuevo
+        for (int step = 0; step < 50_000; step++) {
+            int id = random.nextInt(scores.length);
+            if (reference.remove(new RankedScoreTree.Item(scores[id], id))) {
+                assertThat(tree.remove(scores[id], id)).isTrue();
+            }
+            scores[id] = random.nextInt(500);
+            tree.insert(scores[id], id);
+            reference.add(new RankedScoreTree.Item(scores[id], id));
+        }
+
+        List<RankedScoreTree.Item> expected = new ArrayList<>(reference);
+        assertThat(tree.size()).isEqualTo(expected.size());
+        assertThat(tree.range(0, expected.size())).isEqualTo(expected);
+        assertThat(tree.range(100, 25)).isEqualTo(expected.subList(100, 125));
+        for (int i = 0; i < expected.size(); i += 37) {
+            assertThat(tree.rank(expected.get(i).score(), expected.get(i).id())).isEqualTo(i);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.ecovive.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SpaceSavingSketchTest {
+
+    @Test
+    void exactWhileUnderCapacity() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(4);
+        sketch.offer(1, "a");
+        sketch.offer(2, "b");
+        sketch.offer(1, null);
+        sketch.offer(1, "a2");
+
+        assertThat(sketch.items()).containsExactly(
+                new SpaceSavingSketch.Item(1, 3, 0, "a2"), new SpaceSavingSketch.Item(2, 1, 0, "b"));
+        assertThat(sketch.total()).isEqualTo(4);
+        assertThat(sketch.minCount()).isZero();
+    }
+
+    @Test
+    void newKeyReplacesTheMinimumAndInheritsItsCountAsError() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(2);
+        sketch.offer(1, null);
+        sketch.offer(1, null);
+        sketch.offer(2, null);
+        sketch.offer(3, "c");
+
+        assertThat(sketch.items()).containsExactlyInAnyOrder(
+                new SpaceSavingSketch.Item(1, 2, 0, null), new SpaceSavingSketch.Item(3, 2, 1, "c"));
+        assertThat(sketch.minCount()).isEqualTo(2);
+    }
+
+    @Test
+    void heavyHittersAreKeptWithBoundedCounts() {
+        Random random = new Random(5);
+        SpaceSavingSketch sketch = new SpaceSavingSketch(50);
+        Map<Long, Long> exact = new HashMap<>();
+        int n = 100_000;
+        for (int i = 0; i < n; i++) {
+            // Cinco claves calientes (~40% del flujo) y una cola larga de claves únicas
+            long key = random.nextInt(10) < 4 ? random.nextInt(5) : 1_000 + random.nextInt(1_000_000);
+            sketch.offer(key, null);
+            exact.merge(key, 1L, Long::sum);
+        }
+
+        List<SpaceSavingSketch.Item> items = sketch.items();
+        assertThat(items).hasSize(50);
+        assertThat(items.subList(0, 5)).extracting(SpaceSavingSketch.Item::key)
+                .containsExactlyInAnyOrder(0L, 1L, 2L, 3L, 4L);
+        for (SpaceSavingSketch.Item item : items) {
+            long real = exact.get(item.key());
+            assertThat(item.count()).isGreaterThanOrEqualTo(real);
+            assertThat(item.count() - item.error()).isLessThanOrEqualTo(real);
+            assertThat(item.error()).isLessThanOrEqualTo(n / 50);
+        }
+    }
+
+    @Test
+    void mergeTopAddsTheMinimumOfSketchesWhereTheKeyIsMissing() {
+        SpaceSavingSketch first = new SpaceSavingSketch(2);
+        for (long key : new long[]{1, 1, 1, 2, 2, 3}) {
+            first.offer(key, null);
+        }
+        SpaceSavingSketch second = new SpaceSavingSketch(2);
+        for (long key : new long[]{2, 2, 4}) {
+            second.offer(key, "cuatro");
+        }
+
+        List<SpaceSavingSketch.Item> merged = SpaceSavingSketch.mergeTop(List.of(first, second), 2);
+
+        // first = {1:3, 3:3 (error 2)}, mínimo 3; second = {2:2, 4:1}, lleno, mínimo 1
+        assertThat(merged).containsExactly(
+                new SpaceSavingSketch.Item(2, 5, 3, "cuatro"), new SpaceSavingSketch.Item(1, 4, 1, null));
+    }
+
+    @Test
+    void capacityMustBePositive() {
+        assertThatThrownBy(() -> new SpaceSavingSketch(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
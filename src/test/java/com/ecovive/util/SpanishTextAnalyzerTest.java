@@ -0,0 +1,39 @@
+package com.ecovive.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpanishTextAnalyzerTest {
+
+    @Test
+    void accentsAndCaseDoNotChangeTheTerm() {
+        assertThat(SpanishTextAnalyzer.analyze("Contaminación"))
+                .isEqualTo(SpanishTextAnalyzer.analyze("contaminacion"));
+        assertThat(SpanishTextAnalyzer.fold("Pingüino ÁRBOL")).isEqualTo("pinguino arbol");
+    }
+
+    @Test
+    void pluralsAndDerivedFormsShareTheirStem() {
+        assertThat(SpanishTextAnalyzer.stem("luces")).isEqualTo("luz");
+        assertThat(SpanishTextAnalyzer.stem("luz")).isEqualTo("luz");
+        assertThat(SpanishTextAnalyzer.stem("basuras")).isEqualTo(SpanishTextAnalyzer.stem("basura"));
+        assertThat(SpanishTextAnalyzer.stem("contaminaciones"))
+                .isEqualTo(SpanishTextAnalyzer.stem("contaminacion"));
+    }
+
+    @Test
+    void shortWordsAndNumbersAreKeptAsIs() {
+        assertThat(SpanishTextAnalyzer.stem("rio")).isEqualTo("rio");
+        assertThat(SpanishTextAnalyzer.stem("2024")).isEqualTo("2024");
+    }
+
+    @Test
+    void stopwordsAndPunctuationAreDropped() {
+        assertThat(SpanishTextAnalyzer.tokenize("¡Basura, en el parque!"))
+                .containsExactly("basura", "en", "el", "parque");
+        assertThat(SpanishTextAnalyzer.analyze("¡Basura, en el parque!"))
+                .containsExactly(SpanishTextAnalyzer.stem("basura"), SpanishTextAnalyzer.stem("parque"));
+        assertThat(SpanishTextAnalyzer.analyze(null)).isEmpty();
+    }
+}
@@ -0,0 +1,203 @@
+package com.reciclacontigo.controller;
+
+import com.ecovive.support.Latencies;
+import com.ecovive.support.TestDatabase;
+import com.reciclacontigo.model.ReportCategory;
+import com.reciclacontigo.model.ReportStatus;
+import com.reciclacontigo.repository.ReportRepository;
+import com.reciclacontigo.service.ReportCollectionVersions;
+import com.reciclacontigo.service.ReportService;
+import com.reciclacontigo.service.ReportStatsCounter;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Carga de sondeos a {@code /api/v1/reports} y {@code /stats} con y sin GET condicional
+ *
+ * Clientes que refrescan la lista y las estadísticas sin que haya escrituras
+ * entre sondeos: sin validador cada petición consulta y serializa la página; con
+ * {@code If-None-Match} debería responderse 304 sin sentencias SQL. Se ejecuta con
+ * el controlador y el servicio reales sobre PostgreSQL y MockMvc, así que lo
+ * medido no incluye la red.
+ */
+@Tag("benchmark")
+class ReportControllerBenchmark {
+
+    private static final String SCHEMA = "conditional_get";
+    private static final int REPORTS = 10_000;
+    private static final int CLIENTS = 4;
+    private static final int REQUESTS = 4_000;
+
+    private record Run(String name, Latencies latencies, double perSecond, long bytes, long statements) {
+    }
+
+    @Test
+    void notModifiedPollsSkipTheDatabaseAndTheBody() throws Exception {
+        try (HikariDataSource dataSource = TestDatabase.dataSource(SCHEMA, CLIENTS)) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            jdbcTemplate.execute("CREATE SCHEMA " + SCHEMA);
+
+            LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+            factoryBean.setDataSource(dataSource);
+            factoryBean.setPackagesToScan("com.reciclacontigo.model");
+            factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+            // Las sentencias se cuentan con un inspector: las estadísticas de Hibernate
+            // registran métricas por sesión y penalizarían solo al camino completo
+            AtomicLong statements = new AtomicLong();
+            factoryBean.setJpaPropertyMap(Map.of(
+                    "hibernate.hbm2ddl.auto", "create",
+                    "hibernate.session_factory.statement_inspector", (StatementInspector) sql -> {
+                        statements.incrementAndGet();
+                        return sql;
+                    }));
+            factoryBean.afterPropertiesSet();
+            try {
+                EntityManagerFactory factory = factoryBean.getObject();
+                seed(jdbcTemplate);
+                MockMvc mvc = newMvc(factory);
+
+                List<Run> runs = new ArrayList<>();
+                for (String path : new String[]{"/api/v1/reports?size=20", "/api/v1/stats"}) {
+                    MvcResult first = mvc.perform(get(path)).andReturn();
+                    String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+                    assertThat(etag).isNotNull();
+
+                    // Calentamiento de ambos caminos antes de medir
+                    load(mvc, path, null, REQUESTS / 4);
+                    load(mvc, path, etag, REQUESTS / 4);
+                    for (String validator : new String[]{null, etag}) {
+                        statements.set(0);
+                        long start = System.nanoTime();
+                        AtomicLong bytes = new AtomicLong();
+                        Latencies latencies = load(mvc, path, validator, REQUESTS, bytes);
+                        double seconds = (System.nanoTime() - start) / 1e9;
+                        runs.add(new Run((validator == null ? "completo " : "304      ") + path, latencies,
+                                REQUESTS / seconds, bytes.get() / REQUESTS, statements.get()));
+                    }
+                }
+
+                for (Run run : runs) {
+                    System.out.printf("%-34s %7.0f req/s, %6d B/resp, %5d sentencias, %s%n",
+                            run.name(), run.perSecond(), run.bytes(), run.statements(), run.latencies().summary());
+                }
+                for (int i = 0; i < runs.size(); i += 2) {
+                    Run full = runs.get(i);
+                    Run notModified = runs.get(i + 1);
+                    assertThat(notModified.statements()).isZero();
+                    assertThat(notModified.bytes()).isZero();
+                    assertThat(notModified.perSecond()).isGreaterThan(full.perSecond());
+                }
+                // La lista completa consulta una vez por petición
+                assertThat(runs.get(0).statements()).isGreaterThanOrEqualTo(REQUESTS);
+            } finally {
+                factoryBean.destroy();
+            }
+        }
+    }
+
+    private static void seed(JdbcTemplate jdbcTemplate) {
+        ReportCategory[] categories = ReportCategory.values();
+        LocalDateTime base = LocalDateTime.now().minusDays(30);
+        List<Object[]> rows = new ArrayList<>(REPORTS);
+        for (int i = 0; i < REPORTS; i++) {
+            Timestamp at = Timestamp.valueOf(base.plusMinutes(i * 4L));
+            rows.add(new Object[]{categories[i % categories.length].name(), "Reporte de prueba " + i,
+                    "Descripcion del reporte numero " + i + " con algo de texto para el cuerpo",
+                    -12.0 - (i % 1000) / 10_000.0, -77.0 - (i % 997) / 10_000.0, "Av. Siempre Viva " + i,
+                    ReportStatus.values()[i % ReportStatus.values().length].name(),
+                    categories[i % categories.length].getEcoPoints(), "user-" + (i % 500), at, at});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO reports (category, title, description, latitude, longitude, address, "
+                + "status, eco_points, user_id, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+        // El índice de paginación de database/setup.sql, que hbm2ddl no crea
+        jdbcTemplate.execute("CREATE INDEX idx_reports_created_at_id ON reports(created_at DESC, id DESC)");
+        jdbcTemplate.execute("ANALYZE reports");
+    }
+
+    private static MockMvc newMvc(EntityManagerFactory factory) {
+        ReportRepository repository = new JpaRepositoryFactory(SharedEntityManagerCreator.createSharedEntityManager(
+                factory)).getRepository(ReportRepository.class);
+
+        ReportCollectionVersions versions = new ReportCollectionVersions();
+        ReflectionTestUtils.setField(versions, "reportRepository", repository);
+        versions.initialize();
+        ReportStatsCounter counter = new ReportStatsCounter();
+        ReflectionTestUtils.setField(counter, "reportRepository", repository);
+        ReflectionTestUtils.setField(counter, "collectionVersions", versions);
+        counter.initialize();
+        ReportService service = new ReportService();
+        ReflectionTestUtils.setField(service, "reportRepository", repository);
+        ReflectionTestUtils.setField(service, "statsCounter", counter);
+        ReflectionTestUtils.setField(service, "collectionVersions", versions);
+        ReflectionTestUtils.setField(service, "defaultPageSize", 20);
+        ReflectionTestUtils.setField(service, "maxPageSize", 100);
+        ReportController controller = new ReportController();
+        ReflectionTestUtils.setField(controller, "reportService", service);
+        ReflectionTestUtils.setField(controller, "collectionVersions", versions);
+        return MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    private static Latencies load(MockMvc mvc, String path, String etag, int requests) throws Exception {
+        return load(mvc, path, etag, requests, new AtomicLong());
+    }
+
+    private static Latencies load(MockMvc mvc, String path, String etag, int requests, AtomicLong bytes)
+            throws Exception {
+        Latencies latencies = new Latencies(requests);
+        int expected = etag == null ? 200 : 304;
+        ExecutorService pool = Executors.newFixedThreadPool(CLIENTS);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int c = 0; c < CLIENTS; c++) {
+                int share = requests / CLIENTS + (c < requests % CLIENTS ? 1 : 0);
+                tasks.add(pool.submit(() -> {
+                    for (int i = 0; i < share; i++) {
+                        long start = System.nanoTime();
+                        MvcResult result = mvc.perform(etag == null ? get(path)
+                                : get(path).header(HttpHeaders.IF_NONE_MATCH, etag)).andReturn();
+                        long elapsed = System.nanoTime() - start;
+                        assertThat(result.getResponse().getStatus()).isEqualTo(expected);
+                        bytes.addAndGet(result.getResponse().getContentAsByteArray().length);
+                        synchronized (latencies) {
+                            latencies.record(elapsed);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return latencies;
+    }
+}
@@ -0,0 +1,120 @@
+package com.reciclacontigo.service;
+
+import com.reciclacontigo.model.Report;
+import com.reciclacontigo.model.ReportCategory;
+import com.reciclacontigo.repository.ReportRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+class ReportCollectionVersionsTest {
+
+    private ReportRepository repository;
+    private ReportCollectionVersions versions;
+
+    @BeforeEach
+    void setUp() {
+        repository = Mockito.mock(ReportRepository.class);
+        versions = new ReportCollectionVersions();
+        ReflectionTestUtils.setField(versions, "reportRepository", repository);
+    }
+
+    @Test
+    void aWriteAdvancesOnlyTheCollectionsItTouches() {
+        ReportCollectionVersions.Stamp all = versions.all();
+        ReportCollectionVersions.Stamp other = versions.category(ReportCategory.OTHER);
+
+        versions.recordCreated(report(ReportCategory.TRASH, "ana"));
+
+        assertThat(versions.all().etag()).isNotEqualTo(all.etag());
+        assertThat(versions.category(ReportCategory.TRASH).version()).isPositive();
+        assertThat(versions.user("ana").version()).isPositive();
+        assertThat(versions.category(ReportCategory.OTHER).etag()).isEqualTo(other.etag());
+        assertThat(versions.user("luis").version()).isZero();
+    }
+
+    @Test
+    void anUpdateAdvancesTheOldAndTheNewCollections() {
+        Report report = report(ReportCategory.POLLUTION, "luis");
+
+        versions.recordUpdated(ReportCategory.TRASH, "ana", report);
+
+        long version = versions.all().version();
+        assertThat(versions.category(ReportCategory.TRASH).version()).isEqualTo(version);
+        assertThat(versions.category(ReportCategory.POLLUTION).version()).isEqualTo(version);
+        assertThat(versions.user("ana").version()).isEqualTo(version);
+        assertThat(versions.user("luis").version()).isEqualTo(version);
+    }
+
+    @Test
+    void etagsAreWeakAndCarryTheStartupEpoch() {
+        versions.recordDeleted(report(ReportCategory.TRASH, "ana"));
+
+        String etag = versions.all().etag();
+        assertThat(etag).startsWith("W/\"").endsWith("-" + versions.all().version() + "\"");
+
+        // Otra instancia (o un reinicio) no reconoce los ETag de esta
+        ReportCollectionVersions restarted = new ReportCollectionVersions();
+        ReflectionTestUtils.setField(restarted, "epoch", "otra");
+        restarted.recordDeleted(report(ReportCategory.TRASH, "ana"));
+        assertThat(restarted.all().etag()).isNotEqualTo(etag);
+    }
+
+    @Test
+    void touchAllAdvancesTheFullCollectionOnly() {
+        long category = versions.category(ReportCategory.TRASH).version();
+
+        versions.touchAll();
+        versions.touchAll();
+
+        assertThat(versions.all().version()).isEqualTo(2);
+        assertThat(versions.category(ReportCategory.TRASH).version()).isEqualTo(category);
+    }
+
+    @Test
+    void lastModifiedNeverMovesBackwards() {
+        LocalDateTime later = LocalDateTime.of(2024, 6, 1, 12, 0);
+        Report newer = report(ReportCategory.TRASH, "ana");
+        newer.setUpdatedAt(later);
+        Report older = report(ReportCategory.TRASH, "ana");
+        older.setUpdatedAt(later.minusHours(1));
+
+        versions.recordCreated(newer);
+        versions.recordCreated(older);
+
+        assertThat(versions.all().lastModified()).isEqualTo(later.atZone(ZoneId.systemDefault()).toInstant());
+        assertThat(versions.all().version()).isEqualTo(2);
+    }
+
+    @Test
+    void initializeSeedsLastModifiedFromTheDatabase() {
+        LocalDateTime latest = LocalDateTime.of(2024, 5, 1, 8, 30);
+        when(repository.findLatestUpdatedAt()).thenReturn(latest);
+        when(repository.findLatestUpdatedAtGroupedByCategory()).thenReturn(
+                List.<Object[]>of(new Object[]{ReportCategory.TRASH, latest.minusDays(1)}));
+
+        versions.initialize();
+
+        Instant expected = latest.atZone(ZoneId.systemDefault()).toInstant();
+        assertThat(versions.all().lastModified()).isEqualTo(expected);
+        assertThat(versions.category(ReportCategory.TRASH).lastModified()).isEqualTo(expected.minusSeconds(86_400));
+        // Un usuario sin escrituras hereda la fecha de la colección completa
+        assertThat(versions.user("ana").lastModified()).isEqualTo(expected);
+    }
+
+    private static Report report(ReportCategory category, String userId) {
+        Report report = new Report();
+        report.setCategory(category);
+        report.setUserId(userId);
+        return report;
+    }
+}
@@ -0,0 +1,116 @@
+package com.reciclacontigo.service;
+
+import com.reciclacontigo.dto.ReportStats;
+import com.reciclacontigo.model.Report;
+import com.reciclacontigo.model.ReportCategory;
+import com.reciclacontigo.model.ReportStatus;
+import com.reciclacontigo.repository.ReportRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+class ReportStatsCounterTest {
+
+    private ReportRepository repository;
+    private ReportCollectionVersions versions;
+    private ReportStatsCounter counter;
+
+    @BeforeEach
+    void setUp() {
+        repository = Mockito.mock(ReportRepository.class);
+        versions = new ReportCollectionVersions();
+        ReflectionTestUtils.setField(versions, "reportRepository", repository);
+        counter = new ReportStatsCounter();
+        ReflectionTestUtils.setField(counter, "reportRepository", repository);
+        ReflectionTestUtils.setField(counter, "collectionVersions", versions);
+    }
+
+    @Test
+    void createUpdateAndDeleteAdjustTheCounters() {
+        Report trash = report(ReportCategory.TRASH, ReportStatus.PENDING);
+        Report water = report(ReportCategory.WATER_POLLUTION, ReportStatus.PENDING);
+        counter.recordCreated(trash);
+        counter.recordCreated(water);
+
+        trash.setCategory(ReportCategory.POLLUTION);
+        trash.setStatus(ReportStatus.RESOLVED);
+        counter.recordUpdated(ReportCategory.TRASH, ReportStatus.PENDING, trash);
+        counter.recordDeleted(water);
+
+        ReportStats stats = counter.snapshot();
+        assertThat(stats.getTotalReports()).isEqualTo(1);
+        assertThat(stats.getTrashReports()).isZero();
+        assertThat(stats.getPollutionReports()).isEqualTo(1);
+        assertThat(stats.getByCategory().get(ReportCategory.WATER_POLLUTION)).isZero();
+        assertThat(stats.getByStatus().get(ReportStatus.PENDING)).isZero();
+        assertThat(stats.getByStatus().get(ReportStatus.RESOLVED)).isEqualTo(1);
+    }
+
+    @Test
+    void reconcileReplacesTheCountersAndInvalidatesTheStatsEtag() {
+        counter.recordCreated(report(ReportCategory.TRASH, ReportStatus.PENDING));
+        stubCounts(List.of(row(ReportCategory.TRASH, 3), row(ReportCategory.OTHER, 2)),
+                List.of(row(ReportStatus.PENDING, 4), row(ReportStatus.VERIFIED, 1)));
+        long before = versions.all().version();
+
+        counter.reconcile();
+
+        ReportStats stats = counter.snapshot();
+        assertThat(stats.getTotalReports()).isEqualTo(5);
+        assertThat(stats.getTrashReports()).isEqualTo(3);
+        assertThat(stats.getByCategory().get(ReportCategory.OTHER)).isEqualTo(2);
+        assertThat(stats.getByStatus().get(ReportStatus.VERIFIED)).isEqualTo(1);
+        assertThat(versions.all().version()).isGreaterThan(before);
+    }
+
+    @Test
+    void reconcileWithoutDifferencesKeepsTheEtag() {
+        counter.recordCreated(report(ReportCategory.TRASH, ReportStatus.PENDING));
+        stubCounts(List.<Object[]>of(row(ReportCategory.TRASH, 1)), List.<Object[]>of(row(ReportStatus.PENDING, 1)));
+        String etag = versions.all().etag();
+
+        counter.reconcile();
+
+        assertThat(versions.all().etag()).isEqualTo(etag);
+    }
+
+    @Test
+    void reconcileIsSkippedWhenAWriteLandsDuringTheQuery() {
+        Report concurrent = report(ReportCategory.TRASH, ReportStatus.PENDING);
+        when(repository.countGroupedByCategory()).thenAnswer(invocation -> {
+            // Escritura confirmada mientras la consulta leía una versión anterior
+            counter.recordCreated(concurrent);
+            return new ArrayList<Object[]>();
+        });
+        when(repository.countGroupedByStatus()).thenReturn(new ArrayList<>());
+
+        counter.reconcile();
+
+        assertThat(counter.snapshot().getTotalReports()).isEqualTo(1);
+        assertThat(counter.snapshot().getTrashReports()).isEqualTo(1);
+    }
+
+    private void stubCounts(List<Object[]> categories, List<Object[]> statuses) {
+        when(repository.countGroupedByCategory()).thenReturn(categories);
+        when(repository.countGroupedByStatus()).thenReturn(statuses);
+    }
+
+    private static Object[] row(Object key, long count) {
+        return new Object[]{key, count};
+    }
+
+    private static Report report(ReportCategory category, ReportStatus status) {
+        Report report = new Report();
+        report.setCategory(category);
+        report.setStatus(status);
+        report.setUserId("user-1");
+        return report;
+    }
+}